@@ -35,6 +35,8 @@ public class Main {
                 PluginManager.shutdownAll();
                 MailService.getInstance().shutdown();
                 de.bund.zrb.archive.service.ArchiveService.getInstance().shutdown();
+                // Commits the vector store; vectors after its last commit are dropped on restart
+                de.bund.zrb.rag.service.RagService.shutdownIfStarted();
             } catch (Exception e) {
                 System.err.println("[Shutdown] Error during plugin shutdown: " + e.getMessage());
             }
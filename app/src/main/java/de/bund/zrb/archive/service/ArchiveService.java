@@ -2,12 +2,14 @@ package de.bund.zrb.archive.service;
 
 import de.bund.zrb.archive.model.*;
 import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 import de.bund.zrb.archive.tools.WebArchiveSnapshotTool;
 import de.bund.zrb.archive.tools.WebCacheAddUrlsTool;
 import de.bund.zrb.archive.tools.WebCacheStatusTool;
 import de.bund.zrb.runtime.ToolRegistryImpl;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,16 +22,25 @@ public class ArchiveService {
     private static final Logger LOG = Logger.getLogger(ArchiveService.class.getName());
     private static ArchiveService instance;
 
+    /** Blobs younger than this may belong to an ingestion whose rows are not saved yet. */
+    private static final long GC_MIN_AGE_MILLIS = 10 * 60 * 1000L;
+    private static final int ENTRY_BATCH_SIZE = 50;
+    private static final long ENTRY_BATCH_DELAY_MS = 500;
+
     private final CacheRepository repository;
     private final WebSnapshotPipeline snapshotPipeline;
     private final ResourceStorageService storageService;
     private final CatalogPipeline catalogPipeline;
+    /** Entries of both pipelines; flushed before anything reads or deletes a run's entries. */
+    private final CacheWriteBuffer entryBuffer;
+    private final Object gcLock = new Object();
 
     private ArchiveService() {
         this.repository = CacheRepository.getInstance();
         this.storageService = new ResourceStorageService();
-        this.snapshotPipeline = new WebSnapshotPipeline(repository);
-        this.catalogPipeline = new CatalogPipeline(repository, storageService);
+        this.entryBuffer = new CacheWriteBuffer(repository, ENTRY_BATCH_SIZE, ENTRY_BATCH_DELAY_MS);
+        this.snapshotPipeline = new WebSnapshotPipeline(repository, entryBuffer);
+        this.catalogPipeline = new CatalogPipeline(entryBuffer, storageService);
     }
 
     public static synchronized ArchiveService getInstance() {
@@ -79,6 +90,7 @@ public class ArchiveService {
      * End a research run.
      */
     public void endRun(String runId) {
+        entryBuffer.flush();
         repository.updateRunStatus(runId, "COMPLETED");
         repository.updateRunCounts(runId);
         LOG.info("[Archive] Run completed: " + runId);
@@ -112,7 +124,6 @@ public class ArchiveService {
             String canonicalUrl = UrlNormalizer.canonicalize(url);
             String urlHash = ContentHasher.hash(canonicalUrl);
             String contentHash = ContentHasher.hash(bodyText);
-            String host = UrlNormalizer.extractHost(url);
 
             // 2. Resource classification
             ResourceKind kind = ResourceKind.fromMimeAndUrl(mimeType, url);
@@ -138,7 +149,7 @@ public class ArchiveService {
             }
 
             // 4. Store blob on filesystem
-            String storagePath = storageService.store(runId, host, kind, contentHash, bodyText);
+            String storagePath = storageService.store(bodyText);
 
             // 5. Extract title
             String title = extractTitle(bodyText, url, kind);
@@ -225,6 +236,46 @@ public class ArchiveService {
         return title.length() <= 500 ? title : title.substring(0, 500) + "…";
     }
 
+    /**
+     * Delete a run with its resources and entries, then remove blobs no other run uses.
+     */
+    public void deleteRun(String runId) {
+        entryBuffer.flush();
+        repository.deleteRun(runId);
+        startGarbageCollection();
+    }
+
+    /**
+     * Delete all runs with their resources and entries, then remove unreferenced blobs.
+     */
+    public void deleteAllRuns() {
+        entryBuffer.flush();
+        repository.deleteAllDocuments();
+        startGarbageCollection();
+    }
+
+    private void startGarbageCollection() {
+        Thread t = new Thread(this::collectGarbage, "ArchiveBlobGC");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Remove stored blobs that no resource or entry refers to any more.
+     *
+     * @return number of deleted blobs
+     */
+    public int collectGarbage() {
+        synchronized (gcLock) {
+            Set<String> referenced = repository.findReferencedStoragePaths();
+            if (referenced == null) {
+                // Without the references every blob would look unused
+                return 0;
+            }
+            return storageService.collectGarbage(referenced, GC_MIN_AGE_MILLIS);
+        }
+    }
+
     // ═══════════════════════════════════════════════════════════
     //  Accessors
     // ═══════════════════════════════════════════════════════════
@@ -246,6 +297,7 @@ public class ArchiveService {
     }
 
     public void shutdown() {
+        entryBuffer.flush();
         repository.close();
     }
 }
@@ -5,7 +5,7 @@ import de.bund.zrb.archive.model.ArchiveEntry;
 import de.bund.zrb.archive.model.ArchiveEntryStatus;
 import de.bund.zrb.archive.model.ArchiveResource;
 import de.bund.zrb.archive.model.ResourceKind;
-import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -37,11 +37,14 @@ public class CatalogPipeline {
     private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]+>");
     private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
 
-    private final CacheRepository repository;
+    private final CacheWriteBuffer entryBuffer;
     private final ResourceStorageService storageService;
 
-    public CatalogPipeline(CacheRepository repository, ResourceStorageService storageService) {
-        this.repository = repository;
+    /**
+     * @param entryBuffer collects the created entries; they are saved in batches
+     */
+    public CatalogPipeline(CacheWriteBuffer entryBuffer, ResourceStorageService storageService) {
+        this.entryBuffer = entryBuffer;
         this.storageService = storageService;
     }
 
@@ -74,14 +77,7 @@ public class CatalogPipeline {
             ArchiveDocument.Kind docKind = determineDocKind(kind, textContent);
 
             // Store extracted text
-            String textHash = ContentHasher.hash(textContent);
-            String textPath = storageService.store(
-                    resource.getRunId(),
-                    UrlNormalizer.extractHost(resource.getUrl()),
-                    ResourceKind.PAGE_TEXT,
-                    "doc_" + textHash,
-                    textContent
-            );
+            String textPath = storageService.store(textContent);
 
             // Create unified ArchiveEntry (replaces old ArchiveDocument)
             ArchiveEntry entry = new ArchiveEntry();
@@ -100,7 +96,7 @@ public class CatalogPipeline {
             entry.setSourceResourceIds(resource.getResourceId());
             entry.setContentLength(textContent.length());
 
-            repository.save(entry);
+            entryBuffer.add(entry);
 
             LOG.fine("[CatalogPipeline] Entry created: " + entry.getEntryId() + " – " + title);
             return entry;
@@ -4,98 +4,197 @@ import de.bund.zrb.archive.model.ResourceKind;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Manages file storage for the Data Lake with hash-based, run-based layout:
+ * Manages file storage for the Data Lake as a global, content-addressed blob store:
  * <pre>
- *   ~/.mainframemate/archive/runs/{runId}/resources/{host}/{kind}/{contentHash}.{ext}
+ *   ~/.mainframemate/archive/blobs/{aa}/{bb}/{sha256}.gz
  * </pre>
  * <p>
- * Provides content-hash-based deduplication: if a blob with the same contentHash
- * already exists, no new file is written.
+ * Blobs are gzip-compressed and named by the SHA-256 of their content, so identical
+ * content is stored once across all runs. A blob is referenced by the storage paths in
+ * {@code archive_resources} and {@code archive_entries}; {@link #collectGarbage} removes
+ * blobs that are no longer referenced.
+ * <p>
+ * Paths of the former run-based layout ({@code runs/{runId}/resources/…}) remain readable.
  */
 public class ResourceStorageService {
 
     private static final Logger LOG = Logger.getLogger(ResourceStorageService.class.getName());
 
+    static final String BLOB_DIR = "blobs";
+    static final String LEGACY_RUN_DIR = "runs";
+    private static final String BLOB_EXTENSION = ".gz";
+    private static final int BUFFER = 8192;
+
+    /**
+     * Stores hold the read lock, garbage collection takes the write lock for each deletion, so a
+     * blob or shard directory is never deleted between a store finding or creating it and
+     * returning its path. Static, since several instances may share the archive directory.
+     */
+    private static final ReadWriteLock STORE_LOCK = new ReentrantReadWriteLock();
+
     private final File archiveBaseDir;
 
     public ResourceStorageService() {
-        String home = System.getProperty("user.home");
-        this.archiveBaseDir = new File(home, ".mainframemate" + File.separator + "archive");
+        this(new File(System.getProperty("user.home"), ".mainframemate" + File.separator + "archive"));
+    }
+
+    ResourceStorageService(File archiveBaseDir) {
+        this.archiveBaseDir = archiveBaseDir;
         if (!archiveBaseDir.exists()) {
             archiveBaseDir.mkdirs();
         }
     }
 
     /**
-     * Store a text blob in the run-based directory structure.
-     * Returns the relative path (from archive base) to the stored file.
-     * If a file with the same contentHash already exists, returns its path without re-writing.
+     * Store a text blob in the content-addressed store.
+     * Returns the relative path (from archive base) to the stored blob.
+     * If a blob with the same content already exists, returns its path without re-writing.
      *
-     * @param runId       the run this resource belongs to
-     * @param host        the extracted hostname
-     * @param kind        the ResourceKind
-     * @param contentHash SHA-256 content hash
-     * @param content     the text content to store
+     * @param content the text content to store
      * @return relative path from archive base dir, or null on failure
      */
-    public String store(String runId, String host, ResourceKind kind, String contentHash, String content) {
-        if (contentHash == null || contentHash.isEmpty()) {
-            LOG.warning("[ResourceStorage] Cannot store without contentHash");
+    public String store(String content) {
+        byte[] data = (content != null ? content : "").getBytes(StandardCharsets.UTF_8);
+        try {
+            String hash = sha256(data);
+            String relativePath = BLOB_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4)
+                    + "/" + hash + BLOB_EXTENSION;
+            File targetFile = new File(archiveBaseDir, relativePath);
+
+            STORE_LOCK.readLock().lock();
+            try {
+                return write(data, targetFile, hash, relativePath);
+            } finally {
+                STORE_LOCK.readLock().unlock();
+            }
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "[ResourceStorage] Failed to store blob", e);
             return null;
         }
+    }
 
-        try {
-            String ext = kind.getDefaultExtension();
-            String safeHost = sanitizePathComponent(host);
-            String relativePath = "runs" + File.separator + runId
-                    + File.separator + "resources"
-                    + File.separator + safeHost
-                    + File.separator + kind.name().toLowerCase()
-                    + File.separator + contentHash + "." + ext;
+    private String write(byte[] data, File targetFile, String hash, String relativePath) throws IOException {
+        // Dedupe: same path means same content. Touch it so a running garbage
+        // collection does not remove it before the new reference is saved.
+        if (targetFile.exists()) {
+            targetFile.setLastModified(System.currentTimeMillis());
+            LOG.fine("[ResourceStorage] Dedupe hit: " + relativePath);
+            return relativePath;
+        }
 
-            File targetFile = new File(archiveBaseDir, relativePath);
+        File parentDir = targetFile.getParentFile();
+        if (!parentDir.exists()) {
+            parentDir.mkdirs();
+        }
 
-            // Dedupe: if file already exists with same hash, skip writing
-            if (targetFile.exists()) {
-                LOG.fine("[ResourceStorage] Dedupe hit: " + relativePath);
-                return relativePath;
+        // Write to a temp file and move it into place, so readers never see a partial blob
+        File tmp = File.createTempFile(hash, ".tmp", parentDir);
+        try {
+            OutputStream out = new GZIPOutputStream(new FileOutputStream(tmp), BUFFER);
+            try {
+                out.write(data);
+            } finally {
+                out.close();
             }
-
-            // Create directories
-            File parentDir = targetFile.getParentFile();
-            if (!parentDir.exists()) {
-                parentDir.mkdirs();
+            try {
+                Files.move(tmp.toPath(), targetFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently by another thread
+                LOG.fine("[ResourceStorage] Dedupe hit: " + relativePath);
             }
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
 
-            // Write content
-            FileOutputStream fos = new FileOutputStream(targetFile);
-            OutputStreamWriter writer = new OutputStreamWriter(fos, StandardCharsets.UTF_8);
-            writer.write(content != null ? content : "");
-            writer.flush();
-            writer.close();
+        LOG.fine("[ResourceStorage] Stored: " + relativePath + " (" + data.length + " → "
+                + targetFile.length() + " bytes)");
+        return relativePath;
+    }
 
-            LOG.fine("[ResourceStorage] Stored: " + relativePath + " (" + targetFile.length() + " bytes)");
-            return relativePath;
+    /**
+     * @deprecated Blobs are shared across runs and hosts; use {@link #store(String)}.
+     */
+    @Deprecated
+    public String store(String runId, String host, ResourceKind kind, String contentHash, String content) {
+        return store(content);
+    }
 
-        } catch (Exception e) {
-            LOG.log(Level.WARNING, "[ResourceStorage] Failed to store blob", e);
-            return null;
+    /**
+     * Open a stored blob for streaming, decompressing it if needed.
+     *
+     * @return the uncompressed content stream, or null if there is no such blob
+     */
+    public InputStream openStream(String relativePath) throws IOException {
+        if (relativePath == null || relativePath.isEmpty()) return null;
+        File file = new File(archiveBaseDir, relativePath);
+        if (!file.isFile()) return null;
+        InputStream in = new FileInputStream(file);
+        if (relativePath.endsWith(BLOB_EXTENSION)) {
+            try {
+                return new GZIPInputStream(in, BUFFER);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
         }
+        return new BufferedInputStream(in, BUFFER);
+    }
+
+    /**
+     * Open a stored blob as UTF-8 text.
+     *
+     * @return a buffered reader, or null if there is no such blob
+     */
+    public BufferedReader openReader(String relativePath) throws IOException {
+        InputStream in = openStream(relativePath);
+        return in != null ? new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)) : null;
     }
 
     /**
      * Read text content from a stored blob by its relative path.
      */
     public String readContent(String relativePath) {
-        if (relativePath == null || relativePath.isEmpty()) return null;
+        return readContent(relativePath, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read text content with max length limit. Only the first {@code maxLength}
+     * characters are decoded; the rest of the blob is not read.
+     */
+    public String readContent(String relativePath, int maxLength) {
         try {
-            File file = new File(archiveBaseDir, relativePath);
-            if (!file.exists()) return null;
-            return readFile(file);
+            Reader reader = openReader(relativePath);
+            if (reader == null) return null;
+            try {
+                StringBuilder sb = new StringBuilder();
+                char[] buf = new char[BUFFER];
+                int read;
+                while (sb.length() <= maxLength
+                        && (read = reader.read(buf, 0, (int) Math.min(buf.length, maxLength + 1L - sb.length()))) != -1) {
+                    sb.append(buf, 0, read);
+                }
+                if (sb.length() > maxLength) {
+                    sb.setLength(maxLength);
+                    sb.append("\n[... truncated at ").append(maxLength).append(" chars]");
+                }
+                return sb.toString();
+            } finally {
+                reader.close();
+            }
         } catch (Exception e) {
             LOG.fine("[ResourceStorage] Failed to read: " + relativePath + " – " + e.getMessage());
             return null;
@@ -103,14 +202,58 @@ public class ResourceStorageService {
     }
 
     /**
-     * Read text content with max length limit.
+     * Delete all stored files that are not referenced any more.
+     * Files modified within the last {@code minAgeMillis} are kept: their reference may
+     * not be saved yet.
+     *
+     * @param referencedPaths all storage paths still referenced by the repository
+     * @return number of deleted files
      */
-    public String readContent(String relativePath, int maxLength) {
-        String content = readContent(relativePath);
-        if (content != null && content.length() > maxLength) {
-            return content.substring(0, maxLength) + "\n[... truncated at " + maxLength + " chars]";
+    public int collectGarbage(Set<String> referencedPaths, long minAgeMillis) {
+        long cutoff = System.currentTimeMillis() - minAgeMillis;
+        int deleted = 0;
+        deleted += sweep(new File(archiveBaseDir, BLOB_DIR), BLOB_DIR, referencedPaths, cutoff);
+        deleted += sweep(new File(archiveBaseDir, LEGACY_RUN_DIR), LEGACY_RUN_DIR, referencedPaths, cutoff);
+        if (deleted > 0) {
+            LOG.info("[ResourceStorage] Garbage collection removed " + deleted + " unreferenced blobs");
+        }
+        return deleted;
+    }
+
+    private int sweep(File dir, String relativeDir, Set<String> referencedPaths, long cutoff) {
+        File[] children = dir.listFiles();
+        if (children == null) return 0;
+        int deleted = 0;
+        for (File child : children) {
+            String relativePath = relativeDir + "/" + child.getName();
+            if (child.isDirectory()) {
+                deleted += sweep(child, relativePath, referencedPaths, cutoff);
+                // Only succeeds if the directory is empty now
+                deleteUnlessStoring(child, Long.MAX_VALUE);
+            } else if (child.lastModified() <= cutoff
+                    && !referencedPaths.contains(relativePath)
+                    && !referencedPaths.contains(relativePath.replace('/', File.separatorChar))) {
+                if (deleteUnlessStoring(child, cutoff)) {
+                    deleted++;
+                } else {
+                    LOG.fine("[ResourceStorage] Not deleted: " + relativePath);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete a file or empty directory while no store runs. A file touched by a dedupe hit
+     * since it was listed is kept.
+     */
+    private static boolean deleteUnlessStoring(File file, long cutoff) {
+        STORE_LOCK.writeLock().lock();
+        try {
+            return file.lastModified() <= cutoff && file.delete();
+        } finally {
+            STORE_LOCK.writeLock().unlock();
         }
-        return content;
     }
 
     /**
@@ -127,24 +270,12 @@ public class ResourceStorageService {
         return archiveBaseDir;
     }
 
-    private String readFile(File file) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
-        try {
-            char[] buf = new char[8192];
-            int read;
-            while ((read = reader.read(buf)) != -1) {
-                sb.append(buf, 0, read);
-            }
-        } finally {
-            reader.close();
+    private static String sha256(byte[] data) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
         }
         return sb.toString();
     }
-
-    private String sanitizePathComponent(String name) {
-        if (name == null || name.isEmpty()) return "unknown";
-        return name.replaceAll("[^a-zA-Z0-9._-]", "_");
-    }
 }
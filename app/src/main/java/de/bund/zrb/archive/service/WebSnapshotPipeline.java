@@ -3,6 +3,7 @@ package de.bund.zrb.archive.service;
 import de.bund.zrb.archive.model.ArchiveEntry;
 import de.bund.zrb.archive.model.ArchiveEntryStatus;
 import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 
 import java.io.*;
 import java.net.URI;
@@ -27,10 +28,15 @@ public class WebSnapshotPipeline {
     private static final Logger LOG = Logger.getLogger(WebSnapshotPipeline.class.getName());
 
     private final CacheRepository repo;
+    private final CacheWriteBuffer entryBuffer;
     private final File snapshotBaseDir;
 
-    public WebSnapshotPipeline(CacheRepository repo) {
+    /**
+     * @param entryBuffer buffered entries of the crawl pipelines, looked up before the repository
+     */
+    public WebSnapshotPipeline(CacheRepository repo, CacheWriteBuffer entryBuffer) {
         this.repo = repo;
+        this.entryBuffer = entryBuffer;
         String home = System.getProperty("user.home");
         this.snapshotBaseDir = new File(home, ".mainframemate" + File.separator + "archive" + File.separator + "snapshots");
         if (!snapshotBaseDir.exists()) {
@@ -56,7 +62,10 @@ public class WebSnapshotPipeline {
 
         try {
             // Check if already archived
-            ArchiveEntry existing = repo.findByUrl(url);
+            ArchiveEntry existing = entryBuffer.getPending(url);
+            if (existing == null) {
+                existing = repo.findByUrl(url);
+            }
             if (existing != null && existing.getStatus() == ArchiveEntryStatus.INDEXED) {
                 LOG.fine("[Archive] URL already indexed: " + url);
                 return existing;
@@ -94,6 +103,8 @@ public class WebSnapshotPipeline {
             entry.setStatus(ArchiveEntryStatus.INDEXED);
             entry.setLastIndexed(System.currentTimeMillis());
 
+            // A single snapshot is saved right away, so the web cache row below never points
+            // to an entry that is still waiting in the buffer
             repo.save(entry);
 
             // Update web cache status if applicable
@@ -0,0 +1,364 @@
+package de.bund.zrb.archive.store;
+
+import de.bund.zrb.archive.model.ArchiveEntry;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.FlattenGraphFilter;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterGraphFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionLengthAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lucene full-text index over title, URL and excerpt of the archive entries, so archive searches
+ * are ranked index lookups instead of {@code LIKE '%…%'} scans of {@code archive_entries}.
+ * Only the entry id is stored; {@link CacheRepository} loads the rows from H2.
+ *
+ * Kept up to date by {@link CacheRepository} on every save and delete. Changes are committed in
+ * groups and made visible by the next search, so writes without searches in between cost no
+ * reopen. Every commit while the index is open is marked as unclean; only {@link #close(boolean)}
+ * after a complete session marks it clean, so after a crash the repository rebuilds the index
+ * even if lost updates left the number of documents unchanged.
+ */
+class ArchiveSearchIndex {
+
+    private static final Logger LOG = Logger.getLogger(ArchiveSearchIndex.class.getName());
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_URL_KEY = "urlKey";
+    private static final String FIELD_HOST = "host";
+    private static final String FIELD_RUN_ID = "runId";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_URL = "url";
+    private static final String FIELD_EXCERPT = "excerpt";
+    private static final String FIELD_CRAWLED = "crawled";
+
+    private static final float TITLE_BOOST = 3.0f;
+    private static final float URL_BOOST = 2.0f;
+    private static final float EXCERPT_BOOST = 1.0f;
+    /** Prefix matches keep the old substring behaviour for partial words, ranked below whole words. */
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int COMMIT_EVERY_CHANGES = 200;
+    private static final String CLEAN_SHUTDOWN_KEY = "cleanShutdown";
+
+    private final Directory directory;
+    private final Analyzer analyzer = createAnalyzer(true);
+    private final Analyzer queryAnalyzer = createAnalyzer(false);
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final boolean closedCleanly;
+    private volatile boolean ready;
+    // Set by writes, cleared by the refresh before the next search
+    private final AtomicBoolean refreshNeeded = new AtomicBoolean();
+
+    // Guarded by this
+    private int uncommittedChanges;
+
+    ArchiveSearchIndex(Path indexDir) throws IOException {
+        this.directory = FSDirectory.open(indexDir);
+        // A new index has nothing to lose; the count check decides whether to fill it
+        this.closedCleanly = !DirectoryReader.indexExists(directory)
+                || "true".equals(SegmentInfos.readLatestCommit(directory).getUserData().get(CLEAN_SHUTDOWN_KEY));
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        IndexWriter w = new IndexWriter(directory, config);
+        try {
+            w.setLiveCommitData(cleanShutdown(false).entrySet());
+            w.commit();
+            this.searcherManager = new SearcherManager(w, true, true, null);
+        } catch (IOException | RuntimeException e) {
+            w.close();
+            throw e;
+        }
+        this.writer = w;
+    }
+
+    /**
+     * Same tokenization as the RAG lexical index: words, URL parts and camel-case parts, lowercased,
+     * with the original token kept for exact matches.
+     *
+     * @param flatten true for indexing; queries keep the graph to tell split tokens from their parts
+     */
+    private static Analyzer createAnalyzer(final boolean flatten) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                StandardTokenizer tokenizer = new StandardTokenizer();
+                int flags = WordDelimiterGraphFilter.GENERATE_WORD_PARTS
+                        | WordDelimiterGraphFilter.GENERATE_NUMBER_PARTS
+                        | WordDelimiterGraphFilter.SPLIT_ON_CASE_CHANGE
+                        | WordDelimiterGraphFilter.SPLIT_ON_NUMERICS
+                        | WordDelimiterGraphFilter.PRESERVE_ORIGINAL;
+                TokenStream stream = new WordDelimiterGraphFilter(tokenizer, flags, null);
+                stream = new LowerCaseFilter(stream);
+                if (flatten) {
+                    stream = new FlattenGraphFilter(stream);
+                }
+                return new TokenStreamComponents(tokenizer, stream);
+            }
+        };
+    }
+
+    private static Map<String, String> cleanShutdown(boolean clean) {
+        return Collections.singletonMap(CLEAN_SHUTDOWN_KEY, String.valueOf(clean));
+    }
+
+    /**
+     * True if the last session ended with {@code close(true)}; otherwise changes may have been
+     * lost and the index must be rebuilt.
+     */
+    boolean wasClosedCleanly() {
+        return closedCleanly;
+    }
+
+    /** False until the index is known to match the table (checked or rebuilt on startup). */
+    boolean isReady() {
+        return ready;
+    }
+
+    void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    int size() throws IOException {
+        refreshIfNeeded();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Add or replace the given entries.
+     */
+    void update(Collection<ArchiveEntry> entries) throws IOException {
+        for (ArchiveEntry entry : entries) {
+            writer.updateDocument(new Term(FIELD_ID, entry.getEntryId()), toDocument(entry));
+        }
+        changed(entries.size());
+    }
+
+    void delete(Collection<String> entryIds) throws IOException {
+        Term[] terms = new Term[entryIds.size()];
+        int i = 0;
+        for (String id : entryIds) {
+            terms[i++] = new Term(FIELD_ID, id);
+        }
+        writer.deleteDocuments(terms);
+        changed(terms.length);
+    }
+
+    void deleteRun(String runId) throws IOException {
+        writer.deleteDocuments(new Term(FIELD_RUN_ID, runId));
+        changed(COMMIT_EVERY_CHANGES);
+    }
+
+    /** Delete all entries that belong to a research run. */
+    void deleteRunEntries() throws IOException {
+        writer.deleteDocuments(new PrefixQuery(new Term(FIELD_RUN_ID, "")));
+        changed(COMMIT_EVERY_CHANGES);
+    }
+
+    void clear() throws IOException {
+        writer.deleteAll();
+        changed(COMMIT_EVERY_CHANGES);
+    }
+
+    /**
+     * Make all changes durable.
+     */
+    synchronized void commit() throws IOException {
+        writer.commit();
+        uncommittedChanges = 0;
+    }
+
+    private void changed(int count) throws IOException {
+        boolean due;
+        synchronized (this) {
+            uncommittedChanges += count;
+            due = uncommittedChanges >= COMMIT_EVERY_CHANGES;
+        }
+        if (due) {
+            commit();
+        }
+        refreshNeeded.set(true);
+    }
+
+    /**
+     * Make the writes so far visible to searchers; one reopen covers all writes since the last search.
+     */
+    private void refreshIfNeeded() throws IOException {
+        if (refreshNeeded.getAndSet(false)) {
+            searcherManager.maybeRefreshBlocking();
+        }
+    }
+
+    /**
+     * Ids of the best matching entries, best first; ties go to the most recently crawled entry.
+     * All query words must occur in the title, URL or excerpt, as whole word or word prefix.
+     *
+     * @param urlPrefix only entries whose URL starts with this, or null
+     * @param host      only entries of this host, or null
+     */
+    List<String> search(String query, String urlPrefix, String host, int maxResults) throws IOException {
+        List<String> words = analyze(query);
+        if (words.isEmpty() || maxResults <= 0) {
+            return Collections.emptyList();
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String word : words) {
+            builder.add(wordQuery(word), BooleanClause.Occur.MUST);
+        }
+        if (urlPrefix != null && !urlPrefix.isEmpty()) {
+            builder.add(new PrefixQuery(new Term(FIELD_URL_KEY, urlPrefix)), BooleanClause.Occur.FILTER);
+        }
+        if (host != null && !host.isEmpty()) {
+            builder.add(new TermQuery(new Term(FIELD_HOST, host)), BooleanClause.Occur.FILTER);
+        }
+        return topIds(builder.build(), maxResults);
+    }
+
+    private static Query wordQuery(String word) {
+        BooleanQuery.Builder fields = new BooleanQuery.Builder();
+        addField(fields, FIELD_TITLE, word, TITLE_BOOST);
+        addField(fields, FIELD_URL, word, URL_BOOST);
+        addField(fields, FIELD_EXCERPT, word, EXCERPT_BOOST);
+        return fields.build();
+    }
+
+    private static void addField(BooleanQuery.Builder fields, String field, String word, float boost) {
+        Term term = new Term(field, word);
+        fields.add(new BoostQuery(new TermQuery(term), boost), BooleanClause.Occur.SHOULD);
+        if (word.length() > 1) {
+            fields.add(new BoostQuery(new PrefixQuery(term), boost * PREFIX_FACTOR), BooleanClause.Occur.SHOULD);
+        }
+    }
+
+    private List<String> topIds(Query query, int maxResults) throws IOException {
+        refreshIfNeeded();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            Sort sort = new Sort(SortField.FIELD_SCORE, new SortField(FIELD_CRAWLED, SortField.Type.LONG, true));
+            TopDocs top = searcher.search(query, maxResults, sort);
+            List<String> ids = new ArrayList<String>(top.scoreDocs.length);
+            for (ScoreDoc sd : top.scoreDocs) {
+                ids.add(searcher.doc(sd.doc, Collections.singleton(FIELD_ID)).get(FIELD_ID));
+            }
+            return ids;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Distinct lowercased words of the query, in order. A token split into parts ("foo-bar",
+     * "FooBar") is represented by its parts; the original spans them and is left out.
+     */
+    private List<String> analyze(String text) throws IOException {
+        Set<String> words = new LinkedHashSet<String>();
+        if (text == null) {
+            return new ArrayList<String>(words);
+        }
+        TokenStream stream = queryAnalyzer.tokenStream(FIELD_TITLE, text);
+        try {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            PositionLengthAttribute length = stream.addAttribute(PositionLengthAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                if (length.getPositionLength() == 1) {
+                    words.add(term.toString());
+                }
+            }
+            stream.end();
+        } finally {
+            stream.close();
+        }
+        return new ArrayList<String>(words);
+    }
+
+    private static Document toDocument(ArchiveEntry entry) {
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_ID, entry.getEntryId(), Field.Store.YES));
+        if (entry.getUrl() != null) {
+            doc.add(new StringField(FIELD_URL_KEY, entry.getUrl(), Field.Store.NO));
+            doc.add(new TextField(FIELD_URL, entry.getUrl(), Field.Store.NO));
+        }
+        if (entry.getHost() != null && !entry.getHost().isEmpty()) {
+            doc.add(new StringField(FIELD_HOST, entry.getHost(), Field.Store.NO));
+        }
+        if (entry.getRunId() != null && !entry.getRunId().isEmpty()) {
+            doc.add(new StringField(FIELD_RUN_ID, entry.getRunId(), Field.Store.NO));
+        }
+        if (entry.getTitle() != null) {
+            doc.add(new TextField(FIELD_TITLE, entry.getTitle(), Field.Store.NO));
+        }
+        if (entry.getExcerpt() != null) {
+            doc.add(new TextField(FIELD_EXCERPT, entry.getExcerpt(), Field.Store.NO));
+        }
+        doc.add(new NumericDocValuesField(FIELD_CRAWLED, entry.getCrawlTimestamp()));
+        return doc;
+    }
+
+    /**
+     * Commit and close.
+     *
+     * @param clean true if the index matches the table, so the next start may use it as is
+     */
+    void close(boolean clean) {
+        try {
+            if (clean) {
+                writer.setLiveCommitData(cleanShutdown(true).entrySet());
+            }
+            writer.commit();
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "[Archive] Could not commit search index", e);
+        }
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "[Archive] Could not close search index", e);
+        }
+    }
+}
@@ -3,11 +3,17 @@ package de.bund.zrb.archive.store;
 import de.bund.zrb.archive.model.*;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,23 +21,78 @@ import java.util.logging.Logger;
  * H2-backed repository for cached content and web-cache entries.
  * Stores local copies of remote content (Web, FTP, NDV, Mail, BetaView).
  * All cached content is automatically indexed for full-text search.
+ * <p>
+ * Connections come from a {@link ConnectionPool}: reads run on one of a few reader connections,
+ * writes on a single writer connection, and each connection reuses its prepared statements.
+ * Multi-row writes ({@link #saveAll}, {@link #updateStatuses}, {@link #addWebCacheEntries})
+ * run as JDBC batches in one transaction.
+ * <p>
+ * Text searches ({@link #searchEntries}, {@link #searchEntriesWithHost}) are answered by an
+ * {@link ArchiveSearchIndex} over title, URL and excerpt, updated on every save and delete.
+ * While that index is unavailable or being rebuilt, they fall back to LIKE queries.
  */
 public class CacheRepository {
 
     private static final Logger LOG = Logger.getLogger(CacheRepository.class.getName());
+    private static final int READER_CONNECTIONS = 3;
+    private static final int CACHED_STATEMENTS = 48;
+    private static final int REBUILD_BATCH = 500;
     private static CacheRepository instance;
 
+    private static final String MERGE_ENTRY_SQL =
+            "MERGE INTO archive_entries (entry_id, url, title, mime_type, snapshot_path, "
+                    + "content_length, file_size_bytes, crawl_timestamp, last_indexed, status, source_id, error_message, "
+                    + "run_id, kind, excerpt, text_content_path, language, word_count, host, source_resource_ids) "
+                    + "KEY(entry_id) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+    private static final String MERGE_WEB_CACHE_SQL =
+            "MERGE INTO web_cache (url, source_id, status, depth, parent_url, discovered_at, archive_entry_id) "
+                    + "KEY(url) VALUES (?,?,?,?,?,?,?)";
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE archive_entries SET status=?, error_message=? WHERE entry_id=?";
+    private static final String DELETE_METADATA_SQL = "DELETE FROM archive_metadata WHERE entry_id=?";
+    private static final String INSERT_METADATA_SQL =
+            "INSERT INTO archive_metadata (entry_id, meta_key, meta_value) VALUES (?,?,?)";
+    private static final String DELETE_ENTRY_SQL = "DELETE FROM archive_entries WHERE entry_id=?";
+    private static final String MARK_VOLATILE_SQL = "UPDATE archive_entries SET volatile_flag = TRUE WHERE entry_id = ?";
+
     private final String jdbcUrl;
-    private Connection connection;
+    private final ConnectionPool pool;
+    private final ArchiveSearchIndex searchIndex;
 
     private CacheRepository() {
+        this("jdbc:h2:" + new File(defaultDbDir(), "archive").getAbsolutePath() + ";AUTO_SERVER=TRUE",
+                new File(defaultDbDir(), "archive-search"));
+    }
+
+    /**
+     * Repository on the given database without a search index (LIKE search only).
+     */
+    CacheRepository(String jdbcUrl) {
+        this(jdbcUrl, null);
+    }
+
+    /**
+     * Repository on the given database; the singleton uses {@code ~/.mainframemate/db/archive}.
+     *
+     * @param searchIndexDir directory of the full-text index, or null to search with LIKE only
+     */
+    CacheRepository(String jdbcUrl, File searchIndexDir) {
+        this.jdbcUrl = jdbcUrl;
+        this.pool = new ConnectionPool(jdbcUrl, "sa", "", READER_CONNECTIONS, CACHED_STATEMENTS);
+        initDatabase();
+        this.searchIndex = openSearchIndex(searchIndexDir);
+        if (searchIndex != null) {
+            checkSearchIndex();
+        }
+    }
+
+    private static File defaultDbDir() {
         String home = System.getProperty("user.home");
         File dbDir = new File(home, ".mainframemate" + File.separator + "db");
         if (!dbDir.exists()) {
             dbDir.mkdirs();
         }
-        this.jdbcUrl = "jdbc:h2:" + new File(dbDir, "archive").getAbsolutePath() + ";AUTO_SERVER=TRUE";
-        initDatabase();
+        return dbDir;
     }
 
     public static synchronized CacheRepository getInstance() {
@@ -41,138 +102,134 @@ public class CacheRepository {
         return instance;
     }
 
-    private Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(jdbcUrl, "sa", "");
-        }
-        return connection;
-    }
 
     private void initDatabase() {
         try {
             Class.forName("org.h2.Driver");
-            Connection conn = getConnection();
-            Statement stmt = conn.createStatement();
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS archive_entries ("
-                    + "entry_id VARCHAR(36) PRIMARY KEY,"
-                    + "url VARCHAR(2048),"
-                    + "title VARCHAR(512),"
-                    + "mime_type VARCHAR(128),"
-                    + "snapshot_path VARCHAR(1024),"
-                    + "content_length BIGINT,"
-                    + "file_size_bytes BIGINT,"
-                    + "crawl_timestamp BIGINT,"
-                    + "last_indexed BIGINT,"
-                    + "status VARCHAR(20),"
-                    + "source_id VARCHAR(36),"
-                    + "error_message VARCHAR(2048),"
-                    // ── Catalog fields (unified from archive_documents) ──
-                    + "run_id VARCHAR(36) DEFAULT '',"
-                    + "kind VARCHAR(30) DEFAULT 'PAGE',"
-                    + "excerpt CLOB,"
-                    + "text_content_path VARCHAR(1024),"
-                    + "language VARCHAR(10),"
-                    + "word_count INT DEFAULT 0,"
-                    + "host VARCHAR(256),"
-                    + "source_resource_ids CLOB"
-                    + ")");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS archive_metadata ("
-                    + "entry_id VARCHAR(36),"
-                    + "meta_key VARCHAR(256),"
-                    + "meta_value CLOB,"
-                    + "PRIMARY KEY (entry_id, meta_key)"
-                    + ")");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS web_cache ("
-                    + "url VARCHAR(2048) PRIMARY KEY,"
-                    + "source_id VARCHAR(36) NOT NULL,"
-                    + "status VARCHAR(20) NOT NULL DEFAULT 'PENDING',"
-                    + "depth INT DEFAULT 0,"
-                    + "parent_url VARCHAR(2048),"
-                    + "discovered_at BIGINT,"
-                    + "archive_entry_id VARCHAR(36)"
-                    + ")");
-
-            // ── Data Lake tables ──────────────────────────────────
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS archive_runs ("
-                    + "run_id VARCHAR(36) PRIMARY KEY,"
-                    + "mode VARCHAR(20),"
-                    + "created_at BIGINT,"
-                    + "ended_at BIGINT DEFAULT 0,"
-                    + "seed_urls CLOB,"
-                    + "domain_policy_json CLOB,"
-                    + "status VARCHAR(20),"
-                    + "notes CLOB,"
-                    + "resource_count INT DEFAULT 0,"
-                    + "document_count INT DEFAULT 0"
-                    + ")");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS archive_resources ("
-                    + "resource_id VARCHAR(36) PRIMARY KEY,"
-                    + "run_id VARCHAR(36),"
-                    + "captured_at BIGINT,"
-                    + "source VARCHAR(20),"
-                    + "url VARCHAR(2048),"
-                    + "canonical_url VARCHAR(2048),"
-                    + "url_hash VARCHAR(64),"
-                    + "content_hash VARCHAR(64),"
-                    + "mime_type VARCHAR(128),"
-                    + "http_status INT,"
-                    + "kind VARCHAR(30),"
-                    + "size_bytes BIGINT,"
-                    + "indexable BOOLEAN,"
-                    + "storage_path VARCHAR(1024),"
-                    + "title VARCHAR(512),"
-                    + "seen_count INT DEFAULT 1,"
-                    + "first_seen_at BIGINT,"
-                    + "last_seen_at BIGINT,"
-                    + "error_message VARCHAR(2048)"
-                    + ")");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS archive_documents ("
-                    + "doc_id VARCHAR(36) PRIMARY KEY,"
-                    + "run_id VARCHAR(36),"
-                    + "created_at BIGINT,"
-                    + "kind VARCHAR(30),"
-                    + "title VARCHAR(512),"
-                    + "canonical_url VARCHAR(2048),"
-                    + "source_resource_ids CLOB,"
-                    + "excerpt CLOB,"
-                    + "text_content_path VARCHAR(1024),"
-                    + "language VARCHAR(10),"
-                    + "indexed_at BIGINT DEFAULT 0,"
-                    + "word_count INT DEFAULT 0,"
-                    + "host VARCHAR(256)"
-                    + ")");
-
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_cache_source ON web_cache(source_id)"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_cache_status ON web_cache(status)"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_status ON archive_entries(status)"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_url ON archive_entries(url)"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_resources_run ON archive_resources(run_id)"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_resources_content ON archive_resources(content_hash, canonical_url)"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_documents_run ON archive_documents(run_id)"); } catch (Exception ignored) {}
-
-            // Migration: add volatile_flag for ephemeral prefetch cache entries
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS volatile_flag BOOLEAN DEFAULT FALSE"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_volatile ON archive_entries(volatile_flag)"); } catch (Exception ignored) {}
-
-            // Migration: add catalog fields (unified from archive_documents)
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS run_id VARCHAR(36) DEFAULT ''"); } catch (Exception ignored) {}
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS kind VARCHAR(30) DEFAULT 'PAGE'"); } catch (Exception ignored) {}
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS excerpt CLOB"); } catch (Exception ignored) {}
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS text_content_path VARCHAR(1024)"); } catch (Exception ignored) {}
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS language VARCHAR(10)"); } catch (Exception ignored) {}
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS word_count INT DEFAULT 0"); } catch (Exception ignored) {}
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS host VARCHAR(256)"); } catch (Exception ignored) {}
-            try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS source_resource_ids CLOB"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_run ON archive_entries(run_id)"); } catch (Exception ignored) {}
-            try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_host ON archive_entries(host)"); } catch (Exception ignored) {}
-
-            stmt.close();
+            pool.write(conn -> {
+                Statement stmt = conn.createStatement();
+
+                stmt.execute("CREATE TABLE IF NOT EXISTS archive_entries ("
+                        + "entry_id VARCHAR(36) PRIMARY KEY,"
+                        + "url VARCHAR(2048),"
+                        + "title VARCHAR(512),"
+                        + "mime_type VARCHAR(128),"
+                        + "snapshot_path VARCHAR(1024),"
+                        + "content_length BIGINT,"
+                        + "file_size_bytes BIGINT,"
+                        + "crawl_timestamp BIGINT,"
+                        + "last_indexed BIGINT,"
+                        + "status VARCHAR(20),"
+                        + "source_id VARCHAR(36),"
+                        + "error_message VARCHAR(2048),"
+                        // ── Catalog fields (unified from archive_documents) ──
+                        + "run_id VARCHAR(36) DEFAULT '',"
+                        + "kind VARCHAR(30) DEFAULT 'PAGE',"
+                        + "excerpt CLOB,"
+                        + "text_content_path VARCHAR(1024),"
+                        + "language VARCHAR(10),"
+                        + "word_count INT DEFAULT 0,"
+                        + "host VARCHAR(256),"
+                        + "source_resource_ids CLOB"
+                        + ")");
+
+                stmt.execute("CREATE TABLE IF NOT EXISTS archive_metadata ("
+                        + "entry_id VARCHAR(36),"
+                        + "meta_key VARCHAR(256),"
+                        + "meta_value CLOB,"
+                        + "PRIMARY KEY (entry_id, meta_key)"
+                        + ")");
+
+                stmt.execute("CREATE TABLE IF NOT EXISTS web_cache ("
+                        + "url VARCHAR(2048) PRIMARY KEY,"
+                        + "source_id VARCHAR(36) NOT NULL,"
+                        + "status VARCHAR(20) NOT NULL DEFAULT 'PENDING',"
+                        + "depth INT DEFAULT 0,"
+                        + "parent_url VARCHAR(2048),"
+                        + "discovered_at BIGINT,"
+                        + "archive_entry_id VARCHAR(36)"
+                        + ")");
+
+                // ── Data Lake tables ──────────────────────────────────
+
+                stmt.execute("CREATE TABLE IF NOT EXISTS archive_runs ("
+                        + "run_id VARCHAR(36) PRIMARY KEY,"
+                        + "mode VARCHAR(20),"
+                        + "created_at BIGINT,"
+                        + "ended_at BIGINT DEFAULT 0,"
+                        + "seed_urls CLOB,"
+                        + "domain_policy_json CLOB,"
+                        + "status VARCHAR(20),"
+                        + "notes CLOB,"
+                        + "resource_count INT DEFAULT 0,"
+                        + "document_count INT DEFAULT 0"
+                        + ")");
+
+                stmt.execute("CREATE TABLE IF NOT EXISTS archive_resources ("
+                        + "resource_id VARCHAR(36) PRIMARY KEY,"
+                        + "run_id VARCHAR(36),"
+                        + "captured_at BIGINT,"
+                        + "source VARCHAR(20),"
+                        + "url VARCHAR(2048),"
+                        + "canonical_url VARCHAR(2048),"
+                        + "url_hash VARCHAR(64),"
+                        + "content_hash VARCHAR(64),"
+                        + "mime_type VARCHAR(128),"
+                        + "http_status INT,"
+                        + "kind VARCHAR(30),"
+                        + "size_bytes BIGINT,"
+                        + "indexable BOOLEAN,"
+                        + "storage_path VARCHAR(1024),"
+                        + "title VARCHAR(512),"
+                        + "seen_count INT DEFAULT 1,"
+                        + "first_seen_at BIGINT,"
+                        + "last_seen_at BIGINT,"
+                        + "error_message VARCHAR(2048)"
+                        + ")");
+
+                stmt.execute("CREATE TABLE IF NOT EXISTS archive_documents ("
+                        + "doc_id VARCHAR(36) PRIMARY KEY,"
+                        + "run_id VARCHAR(36),"
+                        + "created_at BIGINT,"
+                        + "kind VARCHAR(30),"
+                        + "title VARCHAR(512),"
+                        + "canonical_url VARCHAR(2048),"
+                        + "source_resource_ids CLOB,"
+                        + "excerpt CLOB,"
+                        + "text_content_path VARCHAR(1024),"
+                        + "language VARCHAR(10),"
+                        + "indexed_at BIGINT DEFAULT 0,"
+                        + "word_count INT DEFAULT 0,"
+                        + "host VARCHAR(256)"
+                        + ")");
+
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_cache_source ON web_cache(source_id)"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_cache_status ON web_cache(status)"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_status ON archive_entries(status)"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_url ON archive_entries(url)"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_resources_run ON archive_resources(run_id)"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_resources_content ON archive_resources(content_hash, canonical_url)"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_documents_run ON archive_documents(run_id)"); } catch (Exception ignored) {}
+
+                // Migration: add volatile_flag for ephemeral prefetch cache entries
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS volatile_flag BOOLEAN DEFAULT FALSE"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_volatile ON archive_entries(volatile_flag)"); } catch (Exception ignored) {}
+
+                // Migration: add catalog fields (unified from archive_documents)
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS run_id VARCHAR(36) DEFAULT ''"); } catch (Exception ignored) {}
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS kind VARCHAR(30) DEFAULT 'PAGE'"); } catch (Exception ignored) {}
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS excerpt CLOB"); } catch (Exception ignored) {}
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS text_content_path VARCHAR(1024)"); } catch (Exception ignored) {}
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS language VARCHAR(10)"); } catch (Exception ignored) {}
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS word_count INT DEFAULT 0"); } catch (Exception ignored) {}
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS host VARCHAR(256)"); } catch (Exception ignored) {}
+                try { stmt.execute("ALTER TABLE archive_entries ADD COLUMN IF NOT EXISTS source_resource_ids CLOB"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_run ON archive_entries(run_id)"); } catch (Exception ignored) {}
+                try { stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_host ON archive_entries(host)"); } catch (Exception ignored) {}
+
+                stmt.close();
+                return null;
+            });
             LOG.info("[Archive] Database initialized at " + jdbcUrl);
         } catch (Exception e) {
             LOG.log(Level.SEVERE, "[Archive] Failed to initialize database", e);
@@ -183,46 +240,113 @@ public class CacheRepository {
     //  CRUD for ArchiveEntry
     // ═══════════════════════════════════════════════════════════
 
-    public ArchiveEntry save(ArchiveEntry entry) {
+    public ArchiveEntry save(final ArchiveEntry entry) {
         try {
-            Connection conn = getConnection();
-            // Upsert via MERGE
-            PreparedStatement ps = conn.prepareStatement(
-                    "MERGE INTO archive_entries (entry_id, url, title, mime_type, snapshot_path, "
-                            + "content_length, file_size_bytes, crawl_timestamp, last_indexed, status, source_id, error_message, "
-                            + "run_id, kind, excerpt, text_content_path, language, word_count, host, source_resource_ids) "
-                            + "KEY(entry_id) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)");
-            ps.setString(1, entry.getEntryId());
-            ps.setString(2, truncate(entry.getUrl(), 2048));
-            ps.setString(3, truncate(entry.getTitle(), 512));
-            ps.setString(4, entry.getMimeType());
-            ps.setString(5, entry.getSnapshotPath());
-            ps.setLong(6, entry.getContentLength());
-            ps.setLong(7, entry.getFileSizeBytes());
-            ps.setLong(8, entry.getCrawlTimestamp());
-            ps.setLong(9, entry.getLastIndexed());
-            ps.setString(10, entry.getStatus().name());
-            ps.setString(11, entry.getSourceId());
-            ps.setString(12, entry.getErrorMessage());
-            ps.setString(13, entry.getRunId() != null ? entry.getRunId() : "");
-            ps.setString(14, entry.getKind() != null ? entry.getKind() : "PAGE");
-            ps.setString(15, entry.getExcerpt());
-            ps.setString(16, entry.getTextContentPath());
-            ps.setString(17, entry.getLanguage());
-            ps.setInt(18, entry.getWordCount());
-            ps.setString(19, truncate(entry.getHost(), 256));
-            ps.setString(20, entry.getSourceResourceIds());
-            ps.executeUpdate();
-            ps.close();
-
-            // Save metadata
-            saveMetadata(conn, entry);
+            pool.transaction(conn -> {
+                saveEntry(conn, entry);
+                return null;
+            });
+            indexEntries(Collections.singletonList(entry));
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] Failed to save entry: " + entry.getEntryId(), e);
         }
         return entry;
     }
 
+    /**
+     * Save several entries in one transaction; the entry rows and their metadata are written
+     * as JDBC batches. Either all entries are saved or none.
+     *
+     * @return the number of entries saved, 0 if the transaction failed
+     */
+    public int saveAll(Collection<ArchiveEntry> entries) {
+        return saveAll(entries, false);
+    }
+
+    /**
+     * Same as {@link #saveAll(Collection)}, marking the entries as volatile like {@link #saveVolatile}.
+     */
+    public int saveAllVolatile(Collection<ArchiveEntry> entries) {
+        return saveAll(entries, true);
+    }
+
+    private int saveAll(Collection<ArchiveEntry> entries, final boolean markVolatile) {
+        if (entries == null || entries.isEmpty()) return 0;
+        // Last one wins if an entry occurs twice, as with consecutive save() calls
+        final Map<String, ArchiveEntry> byId = new LinkedHashMap<String, ArchiveEntry>();
+        for (ArchiveEntry entry : entries) {
+            byId.put(entry.getEntryId(), entry);
+        }
+        try {
+            pool.transaction(conn -> {
+                PreparedStatement merge = conn.prepare(MERGE_ENTRY_SQL);
+                PreparedStatement del = conn.prepare(DELETE_METADATA_SQL);
+                PreparedStatement ins = conn.prepare(INSERT_METADATA_SQL);
+                boolean hasMetadata = false;
+                for (ArchiveEntry entry : byId.values()) {
+                    bindEntry(merge, entry);
+                    merge.addBatch();
+                    del.setString(1, entry.getEntryId());
+                    del.addBatch();
+                    hasMetadata |= addMetadataBatch(ins, entry);
+                }
+                merge.executeBatch();
+                del.executeBatch();
+                if (hasMetadata) {
+                    ins.executeBatch();
+                }
+                if (markVolatile) {
+                    PreparedStatement flag = conn.prepare(MARK_VOLATILE_SQL);
+                    for (String entryId : byId.keySet()) {
+                        flag.setString(1, entryId);
+                        flag.addBatch();
+                    }
+                    flag.executeBatch();
+                }
+                return null;
+            });
+            indexEntries(byId.values());
+            LOG.fine("[Archive] Saved " + byId.size() + " entries in one transaction");
+            return byId.size();
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "[Archive] saveAll failed for " + byId.size() + " entries", e);
+            return 0;
+        }
+    }
+
+    private void saveEntry(PooledConnection conn, ArchiveEntry entry) throws SQLException {
+        // Upsert via MERGE
+        PreparedStatement ps = conn.prepare(MERGE_ENTRY_SQL);
+        bindEntry(ps, entry);
+        ps.executeUpdate();
+
+        // Save metadata
+        saveMetadata(conn, entry);
+    }
+
+    private static void bindEntry(PreparedStatement ps, ArchiveEntry entry) throws SQLException {
+        ps.setString(1, entry.getEntryId());
+        ps.setString(2, truncate(entry.getUrl(), 2048));
+        ps.setString(3, truncate(entry.getTitle(), 512));
+        ps.setString(4, entry.getMimeType());
+        ps.setString(5, entry.getSnapshotPath());
+        ps.setLong(6, entry.getContentLength());
+        ps.setLong(7, entry.getFileSizeBytes());
+        ps.setLong(8, entry.getCrawlTimestamp());
+        ps.setLong(9, entry.getLastIndexed());
+        ps.setString(10, entry.getStatus().name());
+        ps.setString(11, entry.getSourceId());
+        ps.setString(12, entry.getErrorMessage());
+        ps.setString(13, entry.getRunId() != null ? entry.getRunId() : "");
+        ps.setString(14, entry.getKind() != null ? entry.getKind() : "PAGE");
+        ps.setString(15, entry.getExcerpt());
+        ps.setString(16, entry.getTextContentPath());
+        ps.setString(17, entry.getLanguage());
+        ps.setInt(18, entry.getWordCount());
+        ps.setString(19, truncate(entry.getHost(), 256));
+        ps.setString(20, entry.getSourceResourceIds());
+    }
+
     private static String truncate(String value, int maxLen) {
         if (value == null) return null;
         return value.length() <= maxLen ? value : value.substring(0, maxLen);
@@ -236,17 +360,18 @@ public class CacheRepository {
      * Save an archive entry and mark it as volatile/ephemeral.
      * Volatile entries are prefetched search results that should not displace important cache entries.
      */
-    public ArchiveEntry saveVolatile(ArchiveEntry entry) {
-        save(entry);
+    public ArchiveEntry saveVolatile(final ArchiveEntry entry) {
         try {
-            Connection conn = getConnection();
-            PreparedStatement ps = conn.prepareStatement(
-                    "UPDATE archive_entries SET volatile_flag = TRUE WHERE entry_id = ?");
-            ps.setString(1, entry.getEntryId());
-            ps.executeUpdate();
-            ps.close();
+            pool.transaction(conn -> {
+                saveEntry(conn, entry);
+                PreparedStatement ps = conn.prepare(MARK_VOLATILE_SQL);
+                ps.setString(1, entry.getEntryId());
+                ps.executeUpdate();
+                return null;
+            });
+            indexEntries(Collections.singletonList(entry));
         } catch (SQLException e) {
-            LOG.log(Level.WARNING, "[Cache] Failed to mark entry as volatile: " + entry.getEntryId(), e);
+            LOG.log(Level.WARNING, "[Cache] Failed to save volatile entry: " + entry.getEntryId(), e);
         }
         return entry;
     }
@@ -256,17 +381,17 @@ public class CacheRepository {
      */
     public long getVolatileCacheSize() {
         try {
-            Connection conn = getConnection();
-            PreparedStatement ps = conn.prepareStatement(
-                    "SELECT COALESCE(SUM(file_size_bytes), 0) FROM archive_entries WHERE volatile_flag = TRUE");
-            java.sql.ResultSet rs = ps.executeQuery();
-            long size = 0;
-            if (rs.next()) {
-                size = rs.getLong(1);
-            }
-            rs.close();
-            ps.close();
-            return size;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT COALESCE(SUM(file_size_bytes), 0) FROM archive_entries WHERE volatile_flag = TRUE");
+                ResultSet rs = ps.executeQuery();
+                long size = 0;
+                if (rs.next()) {
+                    size = rs.getLong(1);
+                }
+                rs.close();
+                return size;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Cache] Failed to get volatile cache size", e);
             return 0;
@@ -276,110 +401,113 @@ public class CacheRepository {
     /**
      * Evict oldest volatile entries until total volatile size is below targetSizeBytes.
      */
-    public int evictOldestVolatile(long targetSizeBytes) {
-        int evicted = 0;
+    public int evictOldestVolatile(final long targetSizeBytes) {
         try {
-            Connection conn = getConnection();
-            PreparedStatement ps = conn.prepareStatement(
-                    "SELECT entry_id, file_size_bytes FROM archive_entries "
-                            + "WHERE volatile_flag = TRUE ORDER BY crawl_timestamp ASC");
-            java.sql.ResultSet rs = ps.executeQuery();
-
-            long currentSize = getVolatileCacheSize();
-            java.util.List<String> toDelete = new java.util.ArrayList<String>();
-
-            while (rs.next() && currentSize > targetSizeBytes) {
-                String entryId = rs.getString("entry_id");
-                long entrySize = rs.getLong("file_size_bytes");
-                toDelete.add(entryId);
-                currentSize -= entrySize;
-            }
-            rs.close();
-            ps.close();
-
-            for (String entryId : toDelete) {
-                delete(entryId);
-                evicted++;
-            }
+            final long volatileSize = getVolatileCacheSize();
+            List<ArchiveEntry> toDelete = pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT entry_id, file_size_bytes, snapshot_path FROM archive_entries "
+                                + "WHERE volatile_flag = TRUE ORDER BY crawl_timestamp ASC");
+                ResultSet rs = ps.executeQuery();
+                long currentSize = volatileSize;
+                List<ArchiveEntry> victims = new ArrayList<ArchiveEntry>();
+                while (currentSize > targetSizeBytes && rs.next()) {
+                    ArchiveEntry victim = new ArchiveEntry();
+                    victim.setEntryId(rs.getString("entry_id"));
+                    victim.setSnapshotPath(rs.getString("snapshot_path"));
+                    victims.add(victim);
+                    currentSize -= rs.getLong("file_size_bytes");
+                }
+                rs.close();
+                return victims;
+            });
 
+            int evicted = deleteEntries(toDelete);
             if (evicted > 0) {
                 LOG.info("[Cache] Evicted " + evicted + " volatile cache entries");
             }
+            return evicted;
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Cache] Failed to evict volatile entries", e);
+            return 0;
         }
-        return evicted;
     }
 
     /**
      * Check if an entry with the given URL exists in the cache.
      */
-    public boolean existsByUrl(String url) {
+    public boolean existsByUrl(final String url) {
         try {
-            Connection conn = getConnection();
-            PreparedStatement ps = conn.prepareStatement(
-                    "SELECT COUNT(*) FROM archive_entries WHERE url = ?");
-            ps.setString(1, url);
-            java.sql.ResultSet rs = ps.executeQuery();
-            boolean exists = rs.next() && rs.getInt(1) > 0;
-            rs.close();
-            ps.close();
-            return exists;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT COUNT(*) FROM archive_entries WHERE url = ?");
+                ps.setString(1, url);
+                ResultSet rs = ps.executeQuery();
+                boolean exists = rs.next() && rs.getInt(1) > 0;
+                rs.close();
+                return exists;
+            });
         } catch (SQLException e) {
             return false;
         }
     }
 
-    private void saveMetadata(Connection conn, ArchiveEntry entry) throws SQLException {
+    private void saveMetadata(PooledConnection conn, ArchiveEntry entry) throws SQLException {
         // Delete existing, then re-insert
-        PreparedStatement del = conn.prepareStatement("DELETE FROM archive_metadata WHERE entry_id=?");
+        PreparedStatement del = conn.prepare(DELETE_METADATA_SQL);
         del.setString(1, entry.getEntryId());
         del.executeUpdate();
-        del.close();
-
-        if (entry.getMetadata() != null && !entry.getMetadata().isEmpty()) {
-            PreparedStatement ins = conn.prepareStatement(
-                    "INSERT INTO archive_metadata (entry_id, meta_key, meta_value) VALUES (?,?,?)");
-            for (Map.Entry<String, String> e : entry.getMetadata().entrySet()) {
-                ins.setString(1, entry.getEntryId());
-                ins.setString(2, e.getKey());
-                ins.setString(3, e.getValue());
-                ins.addBatch();
-            }
+
+        PreparedStatement ins = conn.prepare(INSERT_METADATA_SQL);
+        if (addMetadataBatch(ins, entry)) {
             ins.executeBatch();
-            ins.close();
         }
     }
 
-    public ArchiveEntry findById(String entryId) {
+    private static boolean addMetadataBatch(PreparedStatement ins, ArchiveEntry entry) throws SQLException {
+        if (entry.getMetadata() == null || entry.getMetadata().isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<String, String> e : entry.getMetadata().entrySet()) {
+            ins.setString(1, entry.getEntryId());
+            ins.setString(2, e.getKey());
+            ins.setString(3, e.getValue());
+            ins.addBatch();
+        }
+        return true;
+    }
+
+    public ArchiveEntry findById(final String entryId) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_entries WHERE entry_id=?");
-            ps.setString(1, entryId);
-            ResultSet rs = ps.executeQuery();
-            ArchiveEntry entry = rs.next() ? mapEntry(rs) : null;
-            rs.close();
-            ps.close();
-            if (entry != null) {
-                entry.setMetadata(loadMetadata(entry.getEntryId()));
-            }
-            return entry;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT * FROM archive_entries WHERE entry_id=?");
+                ps.setString(1, entryId);
+                ResultSet rs = ps.executeQuery();
+                ArchiveEntry entry = rs.next() ? mapEntry(rs) : null;
+                rs.close();
+                if (entry != null) {
+                    entry.setMetadata(loadMetadata(conn, entry.getEntryId()));
+                }
+                return entry;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] findById failed", e);
             return null;
         }
     }
 
-    public ArchiveEntry findByUrl(String url) {
+    public ArchiveEntry findByUrl(final String url) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_entries WHERE url=?");
-            ps.setString(1, url);
-            ResultSet rs = ps.executeQuery();
-            ArchiveEntry entry = rs.next() ? mapEntry(rs) : null;
-            rs.close();
-            ps.close();
-            return entry;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT * FROM archive_entries WHERE url=?");
+                ps.setString(1, url);
+                ResultSet rs = ps.executeQuery();
+                ArchiveEntry entry = rs.next() ? mapEntry(rs) : null;
+                rs.close();
+                return entry;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] findByUrl failed", e);
             return null;
@@ -394,40 +522,43 @@ public class CacheRepository {
      * Find all archive entries whose URL starts with the given prefix, including metadata.
      * Used by NdvSourceCacheService for incremental change detection (one query per library open).
      */
-    public List<ArchiveEntry> findByUrlPrefixWithMetadata(String urlPrefix) {
-        List<ArchiveEntry> entries = new ArrayList<ArchiveEntry>();
+    public List<ArchiveEntry> findByUrlPrefixWithMetadata(final String urlPrefix) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_entries WHERE url LIKE ?");
-            ps.setString(1, urlPrefix + "%");
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                ArchiveEntry entry = mapEntry(rs);
-                entry.setMetadata(loadMetadata(entry.getEntryId()));
-                entries.add(entry);
-            }
-            rs.close();
-            ps.close();
+            return pool.read(conn -> {
+                List<ArchiveEntry> entries = new ArrayList<ArchiveEntry>();
+                PreparedStatement ps = conn.prepare(
+                        "SELECT * FROM archive_entries WHERE url LIKE ?");
+                ps.setString(1, urlPrefix + "%");
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    ArchiveEntry entry = mapEntry(rs);
+                    entry.setMetadata(loadMetadata(conn, entry.getEntryId()));
+                    entries.add(entry);
+                }
+                rs.close();
+                return entries;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] findByUrlPrefixWithMetadata failed", e);
+            return new ArrayList<ArchiveEntry>();
         }
-        return entries;
     }
 
     /**
      * Count archive entries whose URL starts with the given prefix.
      * Lightweight alternative to findByUrlPrefixWithMetadata when only the count is needed.
      */
-    public int countByUrlPrefix(String urlPrefix) {
+    public int countByUrlPrefix(final String urlPrefix) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT COUNT(*) FROM archive_entries WHERE url LIKE ?");
-            ps.setString(1, urlPrefix + "%");
-            ResultSet rs = ps.executeQuery();
-            int count = rs.next() ? rs.getInt(1) : 0;
-            rs.close();
-            ps.close();
-            return count;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT COUNT(*) FROM archive_entries WHERE url LIKE ?");
+                ps.setString(1, urlPrefix + "%");
+                ResultSet rs = ps.executeQuery();
+                int count = rs.next() ? rs.getInt(1) : 0;
+                rs.close();
+                return count;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] countByUrlPrefix failed", e);
             return 0;
@@ -439,53 +570,50 @@ public class CacheRepository {
      * Ordered by crawl_timestamp descending (newest first).
      */
     public List<ArchiveEntry> findByUrlPrefix(String urlPrefix) {
-        List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
-        try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_entries WHERE url LIKE ? ORDER BY crawl_timestamp DESC");
-            ps.setString(1, urlPrefix + "%");
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) { list.add(mapEntry(rs)); }
-            rs.close(); ps.close();
-        } catch (SQLException e) {
-            LOG.log(Level.WARNING, "[Archive] findByUrlPrefix failed", e);
-        }
-        return list;
+        return queryEntries("SELECT * FROM archive_entries WHERE url LIKE ? ORDER BY crawl_timestamp DESC",
+                urlPrefix + "%");
     }
 
     /**
-     * Search archive entries by title or URL containing the query string.
-     * Optional URL prefix filter.
+     * Search archive entries by the words of the query in title, URL or excerpt, best matches first.
+     * Optional URL prefix filter. Without the full-text index: title or URL containing the query string.
      */
-    public List<ArchiveEntry> searchEntries(String query, String urlPrefix, int maxResults) {
-        List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
+    public List<ArchiveEntry> searchEntries(final String query, final String urlPrefix, final int maxResults) {
+        List<ArchiveEntry> ranked = searchIndexed(query, urlPrefix, null, maxResults);
+        if (ranked != null) {
+            return ranked;
+        }
         try {
-            String pattern = "%" + query.toLowerCase() + "%";
-            String sql;
-            if (urlPrefix != null && !urlPrefix.isEmpty()) {
-                sql = "SELECT * FROM archive_entries WHERE url LIKE ? "
-                        + "AND (LOWER(title) LIKE ? OR LOWER(url) LIKE ?) "
-                        + "ORDER BY crawl_timestamp DESC LIMIT ?";
-            } else {
-                sql = "SELECT * FROM archive_entries WHERE "
-                        + "(LOWER(title) LIKE ? OR LOWER(url) LIKE ?) "
-                        + "ORDER BY crawl_timestamp DESC LIMIT ?";
-            }
-            PreparedStatement ps = getConnection().prepareStatement(sql);
-            int idx = 1;
-            if (urlPrefix != null && !urlPrefix.isEmpty()) {
-                ps.setString(idx++, urlPrefix + "%");
-            }
-            ps.setString(idx++, pattern);
-            ps.setString(idx++, pattern);
-            ps.setInt(idx, maxResults);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) { list.add(mapEntry(rs)); }
-            rs.close(); ps.close();
+            return pool.read(conn -> {
+                List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
+                String pattern = "%" + query.toLowerCase() + "%";
+                String sql;
+                if (urlPrefix != null && !urlPrefix.isEmpty()) {
+                    sql = "SELECT * FROM archive_entries WHERE url LIKE ? "
+                            + "AND (LOWER(title) LIKE ? OR LOWER(url) LIKE ?) "
+                            + "ORDER BY crawl_timestamp DESC LIMIT ?";
+                } else {
+                    sql = "SELECT * FROM archive_entries WHERE "
+                            + "(LOWER(title) LIKE ? OR LOWER(url) LIKE ?) "
+                            + "ORDER BY crawl_timestamp DESC LIMIT ?";
+                }
+                PreparedStatement ps = conn.prepare(sql);
+                int idx = 1;
+                if (urlPrefix != null && !urlPrefix.isEmpty()) {
+                    ps.setString(idx++, urlPrefix + "%");
+                }
+                ps.setString(idx++, pattern);
+                ps.setString(idx++, pattern);
+                ps.setInt(idx, maxResults);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) { list.add(mapEntry(rs)); }
+                rs.close();
+                return list;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] searchEntries failed", e);
+            return new ArrayList<ArchiveEntry>();
         }
-        return list;
     }
 
     /**
@@ -493,17 +621,12 @@ public class CacheRepository {
      * Also removes associated metadata and snapshot files.
      */
     public int deleteByUrlPrefix(String urlPrefix) {
-        int deleted = 0;
         try {
-            List<ArchiveEntry> entries = findByUrlPrefix(urlPrefix);
-            for (ArchiveEntry entry : entries) {
-                delete(entry.getEntryId());
-                deleted++;
-            }
+            return deleteEntries(findByUrlPrefix(urlPrefix));
         } catch (Exception e) {
             LOG.log(Level.WARNING, "[Archive] deleteByUrlPrefix failed", e);
+            return 0;
         }
-        return deleted;
     }
 
     public List<ArchiveEntry> findByStatus(ArchiveEntryStatus status) {
@@ -515,26 +638,50 @@ public class CacheRepository {
     }
 
     public void delete(String entryId) {
+        // Also delete snapshot file
+        ArchiveEntry entry = findById(entryId);
+        if (entry == null) {
+            entry = new ArchiveEntry();
+            entry.setEntryId(entryId);
+        }
         try {
-            Connection conn = getConnection();
-            // Also delete snapshot file
-            ArchiveEntry entry = findById(entryId);
-            if (entry != null && entry.getSnapshotPath() != null && !entry.getSnapshotPath().isEmpty()) {
-                deleteSnapshotFile(entry.getSnapshotPath());
-            }
-            PreparedStatement ps1 = conn.prepareStatement("DELETE FROM archive_metadata WHERE entry_id=?");
-            ps1.setString(1, entryId);
-            ps1.executeUpdate();
-            ps1.close();
-            PreparedStatement ps2 = conn.prepareStatement("DELETE FROM archive_entries WHERE entry_id=?");
-            ps2.setString(1, entryId);
-            ps2.executeUpdate();
-            ps2.close();
+            deleteEntries(Collections.singletonList(entry));
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] delete failed", e);
         }
     }
 
+    /**
+     * Delete entries with their metadata in one transaction, then their snapshot files.
+     */
+    private int deleteEntries(final List<ArchiveEntry> entries) throws SQLException {
+        if (entries.isEmpty()) return 0;
+        pool.transaction(conn -> {
+            PreparedStatement ps1 = conn.prepare(DELETE_METADATA_SQL);
+            PreparedStatement ps2 = conn.prepare(DELETE_ENTRY_SQL);
+            for (ArchiveEntry entry : entries) {
+                ps1.setString(1, entry.getEntryId());
+                ps1.addBatch();
+                ps2.setString(1, entry.getEntryId());
+                ps2.addBatch();
+            }
+            ps1.executeBatch();
+            ps2.executeBatch();
+            return null;
+        });
+        List<String> ids = new ArrayList<String>(entries.size());
+        for (ArchiveEntry entry : entries) {
+            ids.add(entry.getEntryId());
+        }
+        unindexEntries(ids);
+        for (ArchiveEntry entry : entries) {
+            if (entry.getSnapshotPath() != null && !entry.getSnapshotPath().isEmpty()) {
+                deleteSnapshotFile(entry.getSnapshotPath());
+            }
+        }
+        return entries.size();
+    }
+
     public void deleteAll() {
         try {
             // Delete all snapshot files
@@ -544,11 +691,14 @@ public class CacheRepository {
                     deleteSnapshotFile(entry.getSnapshotPath());
                 }
             }
-            Connection conn = getConnection();
-            Statement stmt = conn.createStatement();
-            stmt.executeUpdate("DELETE FROM archive_metadata");
-            stmt.executeUpdate("DELETE FROM archive_entries");
-            stmt.close();
+            pool.transaction(conn -> {
+                Statement stmt = conn.createStatement();
+                stmt.executeUpdate("DELETE FROM archive_metadata");
+                stmt.executeUpdate("DELETE FROM archive_entries");
+                stmt.close();
+                return null;
+            });
+            updateSearchIndex(ArchiveSearchIndex::clear);
             LOG.info("[Archive] All entries deleted");
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] deleteAll failed", e);
@@ -571,116 +721,164 @@ public class CacheRepository {
 
     public void updateStatus(String entryId, ArchiveEntryStatus status, String errorMessage) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "UPDATE archive_entries SET status=?, error_message=? WHERE entry_id=?");
-            ps.setString(1, status.name());
-            ps.setString(2, errorMessage != null ? errorMessage : "");
-            ps.setString(3, entryId);
-            ps.executeUpdate();
-            ps.close();
+            updateStatuses(Collections.singletonList(entryId), status, errorMessage, false);
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] updateStatus failed", e);
         }
     }
 
+    /**
+     * Set the same status on several entries in one transaction.
+     *
+     * @return the number of entries updated, 0 if the transaction failed
+     */
+    public int updateStatuses(Collection<String> entryIds, ArchiveEntryStatus status, String errorMessage) {
+        if (entryIds == null || entryIds.isEmpty()) return 0;
+        try {
+            return updateStatuses(entryIds, status, errorMessage, true);
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "[Archive] updateStatuses failed for " + entryIds.size() + " entries", e);
+            return 0;
+        }
+    }
+
+    private int updateStatuses(final Collection<String> entryIds, final ArchiveEntryStatus status,
+                               final String errorMessage, boolean batch) throws SQLException {
+        ConnectionPool.Work<Integer> work = conn -> {
+            PreparedStatement ps = conn.prepare(UPDATE_STATUS_SQL);
+            for (String entryId : entryIds) {
+                ps.setString(1, status.name());
+                ps.setString(2, errorMessage != null ? errorMessage : "");
+                ps.setString(3, entryId);
+                ps.addBatch();
+            }
+            int updated = 0;
+            for (int count : ps.executeBatch()) {
+                updated += Math.max(count, 0);
+            }
+            return updated;
+        };
+        return batch ? pool.transaction(work) : pool.write(work);
+    }
+
     // ═══════════════════════════════════════════════════════════
     //  Web-Cache
     // ═══════════════════════════════════════════════════════════
 
     public void addWebCacheEntry(WebCacheEntry entry) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "MERGE INTO web_cache (url, source_id, status, depth, parent_url, discovered_at, archive_entry_id) "
-                            + "KEY(url) VALUES (?,?,?,?,?,?,?)");
-            ps.setString(1, entry.getUrl());
-            ps.setString(2, entry.getSourceId());
-            ps.setString(3, entry.getStatus().name());
-            ps.setInt(4, entry.getDepth());
-            ps.setString(5, entry.getParentUrl());
-            ps.setLong(6, entry.getDiscoveredAt());
-            ps.setString(7, entry.getArchiveEntryId());
-            ps.executeUpdate();
-            ps.close();
+            addWebCacheEntries(Collections.singletonList(entry), false);
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] addWebCacheEntry failed", e);
         }
     }
 
-    public List<WebCacheEntry> getPendingUrls(String sourceId, int limit) {
-        List<WebCacheEntry> list = new ArrayList<WebCacheEntry>();
+    /**
+     * Add or update several web-cache entries in one transaction, e.g. the links found on a crawled page.
+     *
+     * @return the number of entries written, 0 if the transaction failed
+     */
+    public int addWebCacheEntries(Collection<WebCacheEntry> entries) {
+        if (entries == null || entries.isEmpty()) return 0;
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM web_cache WHERE source_id=? AND status='PENDING' ORDER BY depth, discovered_at LIMIT ?");
-            ps.setString(1, sourceId);
-            ps.setInt(2, limit);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                list.add(mapCacheEntry(rs));
-            }
-            rs.close();
-            ps.close();
+            addWebCacheEntries(entries, true);
+            return entries.size();
         } catch (SQLException e) {
-            LOG.log(Level.WARNING, "[Archive] getPendingUrls failed", e);
+            LOG.log(Level.WARNING, "[Archive] addWebCacheEntries failed for " + entries.size() + " entries", e);
+            return 0;
         }
-        return list;
     }
 
-    public WebCacheEntry getWebCacheEntry(String url) {
+    private void addWebCacheEntries(final Collection<WebCacheEntry> entries, boolean batch) throws SQLException {
+        ConnectionPool.Work<Void> work = conn -> {
+            PreparedStatement ps = conn.prepare(MERGE_WEB_CACHE_SQL);
+            for (WebCacheEntry entry : entries) {
+                ps.setString(1, entry.getUrl());
+                ps.setString(2, entry.getSourceId());
+                ps.setString(3, entry.getStatus().name());
+                ps.setInt(4, entry.getDepth());
+                ps.setString(5, entry.getParentUrl());
+                ps.setLong(6, entry.getDiscoveredAt());
+                ps.setString(7, entry.getArchiveEntryId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return null;
+        };
+        if (batch) {
+            pool.transaction(work);
+        } else {
+            pool.write(work);
+        }
+    }
+
+    public List<WebCacheEntry> getPendingUrls(String sourceId, int limit) {
+        return queryCacheEntries(
+                "SELECT * FROM web_cache WHERE source_id=? AND status='PENDING' ORDER BY depth, discovered_at LIMIT ?",
+                sourceId, limit);
+    }
+
+    public WebCacheEntry getWebCacheEntry(final String url) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement("SELECT * FROM web_cache WHERE url=?");
-            ps.setString(1, url);
-            ResultSet rs = ps.executeQuery();
-            WebCacheEntry entry = rs.next() ? mapCacheEntry(rs) : null;
-            rs.close();
-            ps.close();
-            return entry;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare("SELECT * FROM web_cache WHERE url=?");
+                ps.setString(1, url);
+                ResultSet rs = ps.executeQuery();
+                WebCacheEntry entry = rs.next() ? mapCacheEntry(rs) : null;
+                rs.close();
+                return entry;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] getWebCacheEntry failed", e);
             return null;
         }
     }
 
-    public void updateWebCacheStatus(String url, ArchiveEntryStatus status, String archiveEntryId) {
+    public void updateWebCacheStatus(final String url, final ArchiveEntryStatus status, final String archiveEntryId) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "UPDATE web_cache SET status=?, archive_entry_id=? WHERE url=?");
-            ps.setString(1, status.name());
-            ps.setString(2, archiveEntryId != null ? archiveEntryId : "");
-            ps.setString(3, url);
-            ps.executeUpdate();
-            ps.close();
+            pool.write(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "UPDATE web_cache SET status=?, archive_entry_id=? WHERE url=?");
+                ps.setString(1, status.name());
+                ps.setString(2, archiveEntryId != null ? archiveEntryId : "");
+                ps.setString(3, url);
+                ps.executeUpdate();
+                return null;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] updateWebCacheStatus failed", e);
         }
     }
 
-    public int countByStatus(String sourceId, ArchiveEntryStatus status) {
+    public int countByStatus(final String sourceId, final ArchiveEntryStatus status) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT COUNT(*) FROM web_cache WHERE source_id=? AND status=?");
-            ps.setString(1, sourceId);
-            ps.setString(2, status.name());
-            ResultSet rs = ps.executeQuery();
-            int count = rs.next() ? rs.getInt(1) : 0;
-            rs.close();
-            ps.close();
-            return count;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT COUNT(*) FROM web_cache WHERE source_id=? AND status=?");
+                ps.setString(1, sourceId);
+                ps.setString(2, status.name());
+                ResultSet rs = ps.executeQuery();
+                int count = rs.next() ? rs.getInt(1) : 0;
+                rs.close();
+                return count;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] countByStatus failed", e);
             return 0;
         }
     }
 
-    public int countBySourceId(String sourceId) {
+    public int countBySourceId(final String sourceId) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT COUNT(*) FROM web_cache WHERE source_id=?");
-            ps.setString(1, sourceId);
-            ResultSet rs = ps.executeQuery();
-            int count = rs.next() ? rs.getInt(1) : 0;
-            rs.close();
-            ps.close();
-            return count;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT COUNT(*) FROM web_cache WHERE source_id=?");
+                ps.setString(1, sourceId);
+                ResultSet rs = ps.executeQuery();
+                int count = rs.next() ? rs.getInt(1) : 0;
+                rs.close();
+                return count;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] countBySourceId failed", e);
             return 0;
@@ -692,121 +890,114 @@ public class CacheRepository {
      */
     public int countAllDocuments() {
         try {
-            Statement stmt = getConnection().createStatement();
-            int total = 0;
-            ResultSet rs1 = stmt.executeQuery("SELECT COUNT(*) FROM archive_documents");
-            if (rs1.next()) total += rs1.getInt(1);
-            rs1.close();
-            ResultSet rs2 = stmt.executeQuery("SELECT COUNT(*) FROM web_cache");
-            if (rs2.next()) total += rs2.getInt(1);
-            rs2.close();
-            stmt.close();
-            return total;
+            return pool.read(conn -> {
+                int total = 0;
+                ResultSet rs1 = conn.prepare("SELECT COUNT(*) FROM archive_documents").executeQuery();
+                if (rs1.next()) total += rs1.getInt(1);
+                rs1.close();
+                ResultSet rs2 = conn.prepare("SELECT COUNT(*) FROM web_cache").executeQuery();
+                if (rs2.next()) total += rs2.getInt(1);
+                rs2.close();
+                return total;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Cache] countAllDocuments failed", e);
             return 0;
         }
     }
 
-    public boolean urlExists(String url) {
+    public boolean urlExists(final String url) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement("SELECT 1 FROM web_cache WHERE url=?");
-            ps.setString(1, url);
-            ResultSet rs = ps.executeQuery();
-            boolean exists = rs.next();
-            rs.close();
-            ps.close();
-            return exists;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare("SELECT 1 FROM web_cache WHERE url=?");
+                ps.setString(1, url);
+                ResultSet rs = ps.executeQuery();
+                boolean exists = rs.next();
+                rs.close();
+                return exists;
+            });
         } catch (SQLException e) {
             return false;
         }
     }
 
     public List<WebCacheEntry> getWebCacheEntries(String sourceId) {
-        List<WebCacheEntry> list = new ArrayList<WebCacheEntry>();
-        try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM web_cache WHERE source_id=? ORDER BY depth, discovered_at");
-            ps.setString(1, sourceId);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                list.add(mapCacheEntry(rs));
-            }
-            rs.close();
-            ps.close();
-        } catch (SQLException e) {
-            LOG.log(Level.WARNING, "[Archive] getWebCacheEntries failed", e);
-        }
-        return list;
+        return queryCacheEntries(
+                "SELECT * FROM web_cache WHERE source_id=? ORDER BY depth, discovered_at", sourceId, -1);
     }
 
     // ═══════════════════════════════════════════════════════════
     //  CRUD for ArchiveRun
     // ═══════════════════════════════════════════════════════════
 
-    public void saveRun(ArchiveRun run) {
+    public void saveRun(final ArchiveRun run) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "MERGE INTO archive_runs (run_id, mode, created_at, ended_at, seed_urls, "
-                            + "domain_policy_json, status, notes, resource_count, document_count) "
-                            + "KEY(run_id) VALUES (?,?,?,?,?,?,?,?,?,?)");
-            ps.setString(1, run.getRunId());
-            ps.setString(2, run.getMode());
-            ps.setLong(3, run.getCreatedAt());
-            ps.setLong(4, run.getEndedAt());
-            ps.setString(5, run.getSeedUrls());
-            ps.setString(6, run.getDomainPolicyJson());
-            ps.setString(7, run.getStatus());
-            ps.setString(8, run.getNotes());
-            ps.setInt(9, run.getResourceCount());
-            ps.setInt(10, run.getDocumentCount());
-            ps.executeUpdate();
-            ps.close();
+            pool.write(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "MERGE INTO archive_runs (run_id, mode, created_at, ended_at, seed_urls, "
+                                + "domain_policy_json, status, notes, resource_count, document_count) "
+                                + "KEY(run_id) VALUES (?,?,?,?,?,?,?,?,?,?)");
+                ps.setString(1, run.getRunId());
+                ps.setString(2, run.getMode());
+                ps.setLong(3, run.getCreatedAt());
+                ps.setLong(4, run.getEndedAt());
+                ps.setString(5, run.getSeedUrls());
+                ps.setString(6, run.getDomainPolicyJson());
+                ps.setString(7, run.getStatus());
+                ps.setString(8, run.getNotes());
+                ps.setInt(9, run.getResourceCount());
+                ps.setInt(10, run.getDocumentCount());
+                ps.executeUpdate();
+                return null;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] saveRun failed: " + run.getRunId(), e);
         }
     }
 
-    public void updateRunStatus(String runId, String status) {
+    public void updateRunStatus(final String runId, final String status) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "UPDATE archive_runs SET status=?, ended_at=? WHERE run_id=?");
-            ps.setString(1, status);
-            ps.setLong(2, System.currentTimeMillis());
-            ps.setString(3, runId);
-            ps.executeUpdate();
-            ps.close();
+            pool.write(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "UPDATE archive_runs SET status=?, ended_at=? WHERE run_id=?");
+                ps.setString(1, status);
+                ps.setLong(2, System.currentTimeMillis());
+                ps.setString(3, runId);
+                ps.executeUpdate();
+                return null;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] updateRunStatus failed: " + runId, e);
         }
     }
 
-    public void updateRunCounts(String runId) {
+    public void updateRunCounts(final String runId) {
         try {
-            Connection conn = getConnection();
-            int resourceCount = 0;
-            int documentCount = 0;
-            PreparedStatement ps1 = conn.prepareStatement(
-                    "SELECT COUNT(*) FROM archive_resources WHERE run_id=?");
-            ps1.setString(1, runId);
-            ResultSet rs1 = ps1.executeQuery();
-            if (rs1.next()) resourceCount = rs1.getInt(1);
-            rs1.close(); ps1.close();
-
-            PreparedStatement ps2 = conn.prepareStatement(
-                    "SELECT COUNT(*) FROM archive_entries WHERE run_id=?");
-            ps2.setString(1, runId);
-            ResultSet rs2 = ps2.executeQuery();
-            if (rs2.next()) documentCount = rs2.getInt(1);
-            rs2.close(); ps2.close();
-
-            PreparedStatement upd = conn.prepareStatement(
-                    "UPDATE archive_runs SET resource_count=?, document_count=? WHERE run_id=?");
-            upd.setInt(1, resourceCount);
-            upd.setInt(2, documentCount);
-            upd.setString(3, runId);
-            upd.executeUpdate();
-            upd.close();
+            pool.write(conn -> {
+                int resourceCount = 0;
+                int documentCount = 0;
+                PreparedStatement ps1 = conn.prepare(
+                        "SELECT COUNT(*) FROM archive_resources WHERE run_id=?");
+                ps1.setString(1, runId);
+                ResultSet rs1 = ps1.executeQuery();
+                if (rs1.next()) resourceCount = rs1.getInt(1);
+                rs1.close();
+
+                PreparedStatement ps2 = conn.prepare(
+                        "SELECT COUNT(*) FROM archive_entries WHERE run_id=?");
+                ps2.setString(1, runId);
+                ResultSet rs2 = ps2.executeQuery();
+                if (rs2.next()) documentCount = rs2.getInt(1);
+                rs2.close();
+
+                PreparedStatement upd = conn.prepare(
+                        "UPDATE archive_runs SET resource_count=?, document_count=? WHERE run_id=?");
+                upd.setInt(1, resourceCount);
+                upd.setInt(2, documentCount);
+                upd.setString(3, runId);
+                upd.executeUpdate();
+                return null;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] updateRunCounts failed: " + runId, e);
         }
@@ -816,65 +1007,70 @@ public class CacheRepository {
     //  CRUD for ArchiveResource
     // ═══════════════════════════════════════════════════════════
 
-    public void saveResource(ArchiveResource res) {
+    public void saveResource(final ArchiveResource res) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "MERGE INTO archive_resources (resource_id, run_id, captured_at, source, url, "
-                            + "canonical_url, url_hash, content_hash, mime_type, http_status, kind, "
-                            + "size_bytes, indexable, storage_path, title, seen_count, first_seen_at, "
-                            + "last_seen_at, error_message) "
-                            + "KEY(resource_id) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)");
-            ps.setString(1, res.getResourceId());
-            ps.setString(2, res.getRunId());
-            ps.setLong(3, res.getCapturedAt());
-            ps.setString(4, res.getSource());
-            ps.setString(5, truncate(res.getUrl(), 2048));
-            ps.setString(6, truncate(res.getCanonicalUrl(), 2048));
-            ps.setString(7, res.getUrlHash());
-            ps.setString(8, res.getContentHash());
-            ps.setString(9, res.getMimeType());
-            ps.setInt(10, res.getHttpStatus());
-            ps.setString(11, res.getKind());
-            ps.setLong(12, res.getSizeBytes());
-            ps.setBoolean(13, res.isIndexable());
-            ps.setString(14, res.getStoragePath());
-            ps.setString(15, truncate(res.getTitle(), 512));
-            ps.setInt(16, res.getSeenCount());
-            ps.setLong(17, res.getFirstSeenAt());
-            ps.setLong(18, res.getLastSeenAt());
-            ps.setString(19, res.getErrorMessage());
-            ps.executeUpdate();
-            ps.close();
+            pool.write(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "MERGE INTO archive_resources (resource_id, run_id, captured_at, source, url, "
+                                + "canonical_url, url_hash, content_hash, mime_type, http_status, kind, "
+                                + "size_bytes, indexable, storage_path, title, seen_count, first_seen_at, "
+                                + "last_seen_at, error_message) "
+                                + "KEY(resource_id) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)");
+                ps.setString(1, res.getResourceId());
+                ps.setString(2, res.getRunId());
+                ps.setLong(3, res.getCapturedAt());
+                ps.setString(4, res.getSource());
+                ps.setString(5, truncate(res.getUrl(), 2048));
+                ps.setString(6, truncate(res.getCanonicalUrl(), 2048));
+                ps.setString(7, res.getUrlHash());
+                ps.setString(8, res.getContentHash());
+                ps.setString(9, res.getMimeType());
+                ps.setInt(10, res.getHttpStatus());
+                ps.setString(11, res.getKind());
+                ps.setLong(12, res.getSizeBytes());
+                ps.setBoolean(13, res.isIndexable());
+                ps.setString(14, res.getStoragePath());
+                ps.setString(15, truncate(res.getTitle(), 512));
+                ps.setInt(16, res.getSeenCount());
+                ps.setLong(17, res.getFirstSeenAt());
+                ps.setLong(18, res.getLastSeenAt());
+                ps.setString(19, res.getErrorMessage());
+                ps.executeUpdate();
+                return null;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] saveResource failed: " + res.getResourceId(), e);
         }
     }
 
-    public ArchiveResource findResourceByContentHashAndUrl(String contentHash, String canonicalUrl) {
+    public ArchiveResource findResourceByContentHashAndUrl(final String contentHash, final String canonicalUrl) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_resources WHERE content_hash=? AND canonical_url=?");
-            ps.setString(1, contentHash);
-            ps.setString(2, canonicalUrl);
-            ResultSet rs = ps.executeQuery();
-            ArchiveResource res = rs.next() ? mapResource(rs) : null;
-            rs.close();
-            ps.close();
-            return res;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT * FROM archive_resources WHERE content_hash=? AND canonical_url=?");
+                ps.setString(1, contentHash);
+                ps.setString(2, canonicalUrl);
+                ResultSet rs = ps.executeQuery();
+                ArchiveResource res = rs.next() ? mapResource(rs) : null;
+                rs.close();
+                return res;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] findResourceByContentHashAndUrl failed", e);
             return null;
         }
     }
 
-    public void updateResourceSeen(String resourceId) {
+    public void updateResourceSeen(final String resourceId) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "UPDATE archive_resources SET seen_count = seen_count + 1, last_seen_at=? WHERE resource_id=?");
-            ps.setLong(1, System.currentTimeMillis());
-            ps.setString(2, resourceId);
-            ps.executeUpdate();
-            ps.close();
+            pool.write(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "UPDATE archive_resources SET seen_count = seen_count + 1, last_seen_at=? WHERE resource_id=?");
+                ps.setLong(1, System.currentTimeMillis());
+                ps.setString(2, resourceId);
+                ps.executeUpdate();
+                return null;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] updateResourceSeen failed: " + resourceId, e);
         }
@@ -907,16 +1103,17 @@ public class CacheRepository {
         return entry != null ? entryToDocument(entry) : null;
     }
 
-    public ArchiveResource findResourceById(String resourceId) {
+    public ArchiveResource findResourceById(final String resourceId) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_resources WHERE resource_id=?");
-            ps.setString(1, resourceId);
-            ResultSet rs = ps.executeQuery();
-            ArchiveResource res = rs.next() ? mapResource(rs) : null;
-            rs.close();
-            ps.close();
-            return res;
+            return pool.read(conn -> {
+                PreparedStatement ps = conn.prepare(
+                        "SELECT * FROM archive_resources WHERE resource_id=?");
+                ps.setString(1, resourceId);
+                ResultSet rs = ps.executeQuery();
+                ArchiveResource res = rs.next() ? mapResource(rs) : null;
+                rs.close();
+                return res;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] findResourceById failed", e);
             return null;
@@ -935,58 +1132,65 @@ public class CacheRepository {
     }
 
     /**
-     * Search archive entries by title/URL/excerpt with optional host filter.
+     * Search archive entries by title/URL/excerpt with optional host filter, best matches first.
      */
-    public List<ArchiveEntry> searchEntriesWithHost(String query, String host, int maxResults) {
-        List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
+    public List<ArchiveEntry> searchEntriesWithHost(final String query, final String host, final int maxResults) {
+        List<ArchiveEntry> ranked = searchIndexed(query, null, host, maxResults);
+        if (ranked != null) {
+            return ranked;
+        }
         try {
-            String sql;
-            boolean hasHost = host != null && !host.isEmpty();
-            boolean hasQuery = query != null && !query.isEmpty();
-
-            if (hasQuery && hasHost) {
-                sql = "SELECT * FROM archive_entries WHERE host=? "
-                        + "AND (LOWER(title) LIKE ? OR LOWER(excerpt) LIKE ? OR LOWER(url) LIKE ?) "
-                        + "ORDER BY crawl_timestamp DESC LIMIT ?";
-            } else if (hasQuery) {
-                sql = "SELECT * FROM archive_entries WHERE "
-                        + "(LOWER(title) LIKE ? OR LOWER(excerpt) LIKE ? OR LOWER(url) LIKE ?) "
-                        + "ORDER BY crawl_timestamp DESC LIMIT ?";
-            } else if (hasHost) {
-                sql = "SELECT * FROM archive_entries WHERE host=? ORDER BY crawl_timestamp DESC LIMIT ?";
-            } else {
-                sql = "SELECT * FROM archive_entries ORDER BY crawl_timestamp DESC LIMIT ?";
-            }
+            return pool.read(conn -> {
+                List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
+                String sql;
+                boolean hasHost = host != null && !host.isEmpty();
+                boolean hasQuery = query != null && !query.isEmpty();
+
+                if (hasQuery && hasHost) {
+                    sql = "SELECT * FROM archive_entries WHERE host=? "
+                            + "AND (LOWER(title) LIKE ? OR LOWER(excerpt) LIKE ? OR LOWER(url) LIKE ?) "
+                            + "ORDER BY crawl_timestamp DESC LIMIT ?";
+                } else if (hasQuery) {
+                    sql = "SELECT * FROM archive_entries WHERE "
+                            + "(LOWER(title) LIKE ? OR LOWER(excerpt) LIKE ? OR LOWER(url) LIKE ?) "
+                            + "ORDER BY crawl_timestamp DESC LIMIT ?";
+                } else if (hasHost) {
+                    sql = "SELECT * FROM archive_entries WHERE host=? ORDER BY crawl_timestamp DESC LIMIT ?";
+                } else {
+                    sql = "SELECT * FROM archive_entries ORDER BY crawl_timestamp DESC LIMIT ?";
+                }
 
-            PreparedStatement ps = getConnection().prepareStatement(sql);
-            int idx = 1;
-            if (hasQuery && hasHost) {
-                ps.setString(idx++, host);
-                String pattern = "%" + query.toLowerCase() + "%";
-                ps.setString(idx++, pattern);
-                ps.setString(idx++, pattern);
-                ps.setString(idx++, pattern);
-                ps.setInt(idx, maxResults);
-            } else if (hasQuery) {
-                String pattern = "%" + query.toLowerCase() + "%";
-                ps.setString(idx++, pattern);
-                ps.setString(idx++, pattern);
-                ps.setString(idx++, pattern);
-                ps.setInt(idx, maxResults);
-            } else if (hasHost) {
-                ps.setString(idx++, host);
-                ps.setInt(idx, maxResults);
-            } else {
-                ps.setInt(idx, maxResults);
-            }
+                PreparedStatement ps = conn.prepare(sql);
+                int idx = 1;
+                if (hasQuery && hasHost) {
+                    ps.setString(idx++, host);
+                    String pattern = "%" + query.toLowerCase() + "%";
+                    ps.setString(idx++, pattern);
+                    ps.setString(idx++, pattern);
+                    ps.setString(idx++, pattern);
+                    ps.setInt(idx, maxResults);
+                } else if (hasQuery) {
+                    String pattern = "%" + query.toLowerCase() + "%";
+                    ps.setString(idx++, pattern);
+                    ps.setString(idx++, pattern);
+                    ps.setString(idx++, pattern);
+                    ps.setInt(idx, maxResults);
+                } else if (hasHost) {
+                    ps.setString(idx++, host);
+                    ps.setInt(idx, maxResults);
+                } else {
+                    ps.setInt(idx, maxResults);
+                }
 
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) { list.add(mapEntry(rs)); }
-            rs.close(); ps.close();
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) { list.add(mapEntry(rs)); }
+                rs.close();
+                return list;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] searchEntriesWithHost failed", e);
+            return new ArrayList<ArchiveEntry>();
         }
-        return list;
     }
 
     /** Convert an ArchiveEntry to the deprecated ArchiveDocument for legacy callers. */
@@ -1050,17 +1254,9 @@ public class CacheRepository {
      * Find all entries that belong to a research run (non-empty run_id).
      */
     public List<ArchiveEntry> findEntriesByRunId() {
-        List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
-        try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_entries WHERE run_id IS NOT NULL AND run_id <> '' ORDER BY crawl_timestamp DESC");
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) { list.add(mapEntry(rs)); }
-            rs.close(); ps.close();
-        } catch (SQLException e) {
-            LOG.log(Level.WARNING, "[Archive] findEntriesByRunId failed", e);
-        }
-        return list;
+        return queryEntries(
+                "SELECT * FROM archive_entries WHERE run_id IS NOT NULL AND run_id <> '' ORDER BY crawl_timestamp DESC",
+                null);
     }
 
     /** @deprecated Use {@link #findByRunId(String)}. */
@@ -1077,32 +1273,22 @@ public class CacheRepository {
      * Find all entries belonging to a specific research run.
      */
     public List<ArchiveEntry> findByRunId(String runId) {
-        List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
-        try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_entries WHERE run_id=? ORDER BY crawl_timestamp DESC");
-            ps.setString(1, runId);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) { list.add(mapEntry(rs)); }
-            rs.close(); ps.close();
-        } catch (SQLException e) {
-            LOG.log(Level.WARNING, "[Archive] findByRunId failed: " + runId, e);
-        }
-        return list;
+        return queryEntries("SELECT * FROM archive_entries WHERE run_id=? ORDER BY crawl_timestamp DESC", runId);
     }
 
     public List<ArchiveRun> findAllRuns() {
-        List<ArchiveRun> list = new ArrayList<ArchiveRun>();
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_runs ORDER BY created_at DESC");
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) { list.add(mapRun(rs)); }
-            rs.close(); ps.close();
+            return pool.read(conn -> {
+                List<ArchiveRun> list = new ArrayList<ArchiveRun>();
+                ResultSet rs = conn.prepare("SELECT * FROM archive_runs ORDER BY created_at DESC").executeQuery();
+                while (rs.next()) { list.add(mapRun(rs)); }
+                rs.close();
+                return list;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] findAllRuns failed", e);
+            return new ArrayList<ArchiveRun>();
         }
-        return list;
     }
 
     private ArchiveRun mapRun(ResultSet rs) throws SQLException {
@@ -1126,23 +1312,26 @@ public class CacheRepository {
         delete(docId);
     }
 
-    public void deleteRun(String runId) {
+    public void deleteRun(final String runId) {
         try {
-            Connection conn = getConnection();
-            // Delete entries belonging to this run
-            PreparedStatement ps0 = conn.prepareStatement("DELETE FROM archive_metadata WHERE entry_id IN (SELECT entry_id FROM archive_entries WHERE run_id=?)");
-            ps0.setString(1, runId); ps0.executeUpdate(); ps0.close();
-            PreparedStatement ps1 = conn.prepareStatement("DELETE FROM archive_entries WHERE run_id=?");
-            ps1.setString(1, runId); ps1.executeUpdate(); ps1.close();
-            // Also clean legacy archive_documents table if it still exists
-            try {
-                PreparedStatement psd = conn.prepareStatement("DELETE FROM archive_documents WHERE run_id=?");
-                psd.setString(1, runId); psd.executeUpdate(); psd.close();
-            } catch (SQLException ignored) {}
-            PreparedStatement ps2 = conn.prepareStatement("DELETE FROM archive_resources WHERE run_id=?");
-            ps2.setString(1, runId); ps2.executeUpdate(); ps2.close();
-            PreparedStatement ps3 = conn.prepareStatement("DELETE FROM archive_runs WHERE run_id=?");
-            ps3.setString(1, runId); ps3.executeUpdate(); ps3.close();
+            pool.transaction(conn -> {
+                // Delete entries belonging to this run
+                PreparedStatement ps0 = conn.prepare("DELETE FROM archive_metadata WHERE entry_id IN (SELECT entry_id FROM archive_entries WHERE run_id=?)");
+                ps0.setString(1, runId); ps0.executeUpdate();
+                PreparedStatement ps1 = conn.prepare("DELETE FROM archive_entries WHERE run_id=?");
+                ps1.setString(1, runId); ps1.executeUpdate();
+                // Also clean legacy archive_documents table if it still exists
+                try {
+                    PreparedStatement psd = conn.prepare("DELETE FROM archive_documents WHERE run_id=?");
+                    psd.setString(1, runId); psd.executeUpdate();
+                } catch (SQLException ignored) {}
+                PreparedStatement ps2 = conn.prepare("DELETE FROM archive_resources WHERE run_id=?");
+                ps2.setString(1, runId); ps2.executeUpdate();
+                PreparedStatement ps3 = conn.prepare("DELETE FROM archive_runs WHERE run_id=?");
+                ps3.setString(1, runId); ps3.executeUpdate();
+                return null;
+            });
+            updateSearchIndex(index -> index.deleteRun(runId));
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] deleteRun failed: " + runId, e);
         }
@@ -1150,49 +1339,86 @@ public class CacheRepository {
 
     public void deleteAllDocuments() {
         try {
-            Connection conn = getConnection();
-            Statement stmt = conn.createStatement();
-            // Delete entries that belong to research runs
-            stmt.executeUpdate("DELETE FROM archive_metadata WHERE entry_id IN (SELECT entry_id FROM archive_entries WHERE run_id IS NOT NULL AND run_id <> '')");
-            stmt.executeUpdate("DELETE FROM archive_entries WHERE run_id IS NOT NULL AND run_id <> ''");
-            // Also clean legacy tables
-            try { stmt.executeUpdate("DELETE FROM archive_documents"); } catch (SQLException ignored) {}
-            stmt.executeUpdate("DELETE FROM archive_resources");
-            stmt.executeUpdate("DELETE FROM archive_runs");
-            stmt.close();
+            pool.transaction(conn -> {
+                Statement stmt = conn.createStatement();
+                // Delete entries that belong to research runs
+                stmt.executeUpdate("DELETE FROM archive_metadata WHERE entry_id IN (SELECT entry_id FROM archive_entries WHERE run_id IS NOT NULL AND run_id <> '')");
+                stmt.executeUpdate("DELETE FROM archive_entries WHERE run_id IS NOT NULL AND run_id <> ''");
+                // Also clean legacy tables
+                try { stmt.executeUpdate("DELETE FROM archive_documents"); } catch (SQLException ignored) {}
+                stmt.executeUpdate("DELETE FROM archive_resources");
+                stmt.executeUpdate("DELETE FROM archive_runs");
+                stmt.close();
+                return null;
+            });
+            updateSearchIndex(ArchiveSearchIndex::deleteRunEntries);
             LOG.info("[Archive] All research documents, resources and runs deleted");
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] deleteAllDocuments failed", e);
         }
     }
 
+    /**
+     * All blob paths still referenced by a resource or entry; blobs outside this set
+     * can be garbage collected.
+     */
+    public Set<String> findReferencedStoragePaths() {
+        try {
+            return pool.read(conn -> {
+                Set<String> paths = new HashSet<String>();
+                collectPaths(conn, "SELECT DISTINCT storage_path FROM archive_resources "
+                        + "WHERE storage_path IS NOT NULL AND storage_path <> ''", paths);
+                collectPaths(conn, "SELECT DISTINCT text_content_path FROM archive_entries "
+                        + "WHERE text_content_path IS NOT NULL AND text_content_path <> ''", paths);
+                // Legacy archive_documents table if it still exists
+                try {
+                    collectPaths(conn, "SELECT DISTINCT text_content_path FROM archive_documents "
+                            + "WHERE text_content_path IS NOT NULL AND text_content_path <> ''", paths);
+                } catch (SQLException ignored) {}
+                return paths;
+            });
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "[Archive] findReferencedStoragePaths failed", e);
+            return null;
+        }
+    }
+
+    private static void collectPaths(PooledConnection conn, String sql, Set<String> paths) throws SQLException {
+        ResultSet rs = conn.prepare(sql).executeQuery();
+        while (rs.next()) { paths.add(rs.getString(1)); }
+        rs.close();
+    }
+
     // ═══════════════════════════════════════════════════════════
     //  Export / Import via live connection
     // ═══════════════════════════════════════════════════════════
 
     /**
-     * Export the complete database as an SQL script using the <b>already-open</b>
-     * connection.  This avoids opening a second connection that would compete
+     * Export the complete database as an SQL script over the repository's own
+     * connections.  This avoids opening a separate connection that would compete
      * for the H2 lock file on Windows.
      *
      * @return the SQL script as a String, or null on failure
      */
     public String exportDatabaseScript() {
         try {
-            // Use SCRIPT TABLE … to get SQL text as a ResultSet
-            Statement stmt = getConnection().createStatement();
-            ResultSet rs = stmt.executeQuery("SCRIPT");
-
-            StringBuilder sb = new StringBuilder(64 * 1024);
-            while (rs.next()) {
-                sb.append(rs.getString(1));
-                sb.append('\n');
-            }
-            rs.close();
-            stmt.close();
+            String script = pool.read(conn -> {
+                // Use SCRIPT TABLE … to get SQL text as a ResultSet
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SCRIPT");
+
+                StringBuilder sb = new StringBuilder(64 * 1024);
+                while (rs.next()) {
+                    sb.append(rs.getString(1));
+                    sb.append('\n');
+                }
+                rs.close();
+                stmt.close();
+                return sb.toString();
+            });
 
-            LOG.info("[Archive] Database script exported (" + sb.length() + " chars)");
-            return sb.toString();
+            LOG.info("[Archive] Database script exported (" + script.length() + " chars)");
+            return script;
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] exportDatabaseScript failed", e);
             return null;
@@ -1200,22 +1426,29 @@ public class CacheRepository {
     }
 
     /**
-     * Import an SQL dump into the database using the existing connection.
+     * Import an SQL dump into the database using the existing connections.
      * Drops all existing objects first, then runs the script.
      *
      * @param sqlFile the temporary SQL file to import
      */
-    public void importDatabaseScript(java.io.File sqlFile) throws java.io.IOException {
+    public void importDatabaseScript(final java.io.File sqlFile) throws java.io.IOException {
         try {
-            Connection conn = getConnection();
-            Statement stmt = conn.createStatement();
-            stmt.execute("DROP ALL OBJECTS");
-            stmt.execute("RUNSCRIPT FROM '" + sqlFile.getAbsolutePath().replace("'", "''") + "'");
-            stmt.close();
+            pool.write(conn -> {
+                Statement stmt = conn.createStatement();
+                stmt.execute("DROP ALL OBJECTS");
+                stmt.execute("RUNSCRIPT FROM '" + sqlFile.getAbsolutePath().replace("'", "''") + "'");
+                stmt.close();
+                return null;
+            });
+            // The cached statements refer to the dropped tables
+            pool.invalidateStatements();
             LOG.info("[Archive] Database script imported from " + sqlFile.getName());
 
             // Re-initialise tables (in case the script was empty or from an older version)
             initDatabase();
+            if (searchIndex != null) {
+                startSearchIndexRebuild();
+            }
         } catch (SQLException e) {
             throw new java.io.IOException("H2 import failed: " + e.getMessage(), e);
         }
@@ -1225,51 +1458,234 @@ public class CacheRepository {
      * Find all ArchiveResources in the database.
      */
     public List<ArchiveResource> findAllResources() {
-        List<ArchiveResource> list = new ArrayList<ArchiveResource>();
         try {
-            PreparedStatement ps = getConnection().prepareStatement(
-                    "SELECT * FROM archive_resources ORDER BY captured_at DESC");
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                list.add(mapResource(rs));
-            }
-            rs.close();
-            ps.close();
+            return pool.read(conn -> {
+                List<ArchiveResource> list = new ArrayList<ArchiveResource>();
+                ResultSet rs = conn.prepare("SELECT * FROM archive_resources ORDER BY captured_at DESC").executeQuery();
+                while (rs.next()) {
+                    list.add(mapResource(rs));
+                }
+                rs.close();
+                return list;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] findAllResources failed", e);
+            return new ArrayList<ArchiveResource>();
         }
-        return list;
     }
 
     public void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException ignored) {}
+        if (searchIndex != null) {
+            // Not ready: a rebuild is running or an update failed, so the index is incomplete
+            boolean clean = searchIndex.isReady();
+            searchIndex.setReady(false);
+            searchIndex.close(clean);
+        }
+        pool.close();
     }
 
     // ═══════════════════════════════════════════════════════════
-    //  Helpers
+    //  Full-text search index
     // ═══════════════════════════════════════════════════════════
 
-    private List<ArchiveEntry> queryEntries(String sql, String param) {
-        List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
+    private interface SearchIndexChange {
+        void apply(ArchiveSearchIndex index) throws IOException;
+    }
+
+    private ArchiveSearchIndex openSearchIndex(File dir) {
+        if (dir == null) return null;
+        try {
+            return new ArchiveSearchIndex(dir.toPath());
+        } catch (IOException | RuntimeException e) {
+            // e.g. locked by a second application instance
+            LOG.log(Level.WARNING, "[Archive] Search index unavailable, searching with LIKE: " + dir, e);
+            return null;
+        }
+    }
+
+    /**
+     * Use the index if the last session closed it cleanly and it holds as many entries as the
+     * table; rebuild it otherwise (first start, or changes lost in a crash before they were
+     * committed, including updates that left the count unchanged).
+     */
+    private void checkSearchIndex() {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(sql);
-            if (param != null) {
-                ps.setString(1, param);
+            int rows = pool.read(conn -> {
+                ResultSet rs = conn.prepare("SELECT COUNT(*) FROM archive_entries").executeQuery();
+                int count = rs.next() ? rs.getInt(1) : 0;
+                rs.close();
+                return count;
+            });
+            if (!searchIndex.wasClosedCleanly()) {
+                LOG.info("[Archive] Search index was not closed cleanly, rebuilding");
+            } else if (searchIndex.size() == rows) {
+                searchIndex.setReady(true);
+                return;
+            } else {
+                LOG.info("[Archive] Search index has " + searchIndex.size() + " of " + rows + " entries, rebuilding");
             }
+        } catch (SQLException | IOException e) {
+            LOG.log(Level.WARNING, "[Archive] Search index check failed, rebuilding", e);
+        }
+        startSearchIndexRebuild();
+    }
+
+    private void startSearchIndexRebuild() {
+        searchIndex.setReady(false);
+        Thread t = new Thread(this::rebuildSearchIndex, "ArchiveSearchIndexRebuild");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Re-index all entries; searches use LIKE until this is done.
+     */
+    void rebuildSearchIndex() {
+        long start = System.currentTimeMillis();
+        try {
+            searchIndex.setReady(false);
+            searchIndex.clear();
+            int count = pool.read(conn -> {
+                ResultSet rs = conn.prepare("SELECT * FROM archive_entries").executeQuery();
+                List<ArchiveEntry> batch = new ArrayList<ArchiveEntry>(REBUILD_BATCH);
+                int total = 0;
+                try {
+                    while (rs.next()) {
+                        batch.add(mapEntry(rs));
+                        if (batch.size() == REBUILD_BATCH) {
+                            searchIndex.update(batch);
+                            total += batch.size();
+                            batch.clear();
+                        }
+                    }
+                    searchIndex.update(batch);
+                    total += batch.size();
+                } catch (IOException e) {
+                    throw new SQLException("Search index write failed", e);
+                } finally {
+                    rs.close();
+                }
+                return total;
+            });
+            searchIndex.commit();
+            searchIndex.setReady(true);
+            LOG.info("[Archive] Search index rebuilt: " + count + " entries in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "[Archive] Search index rebuild failed, searching with LIKE", e);
+        }
+    }
+
+    private void indexEntries(final Collection<ArchiveEntry> entries) {
+        updateSearchIndex(index -> index.update(entries));
+    }
+
+    private void unindexEntries(final Collection<String> entryIds) {
+        updateSearchIndex(index -> index.delete(entryIds));
+    }
+
+    /**
+     * Apply a change to the index. If that fails, the index no longer matches the table:
+     * searches fall back to LIKE, and the next start rebuilds it.
+     */
+    private void updateSearchIndex(SearchIndexChange change) {
+        if (searchIndex == null) return;
+        try {
+            change.apply(searchIndex);
+        } catch (IOException | RuntimeException e) {
+            searchIndex.setReady(false);
+            LOG.log(Level.WARNING, "[Archive] Search index update failed, searching with LIKE", e);
+        }
+    }
+
+    /**
+     * Ranked search through the index, or null if the index cannot answer (not ready or failed).
+     */
+    private List<ArchiveEntry> searchIndexed(String query, String urlPrefix, String host, int maxResults) {
+        if (searchIndex == null || !searchIndex.isReady() || query == null || query.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return findByIdsInOrder(searchIndex.search(query, urlPrefix, host, maxResults));
+        } catch (IOException | SQLException | RuntimeException e) {
+            LOG.log(Level.WARNING, "[Archive] Indexed search failed, searching with LIKE", e);
+            return null;
+        }
+    }
+
+    /**
+     * Load entries in the given order; ids without a row are skipped.
+     */
+    private List<ArchiveEntry> findByIdsInOrder(final List<String> ids) throws SQLException {
+        if (ids.isEmpty()) return new ArrayList<ArchiveEntry>();
+        Map<String, ArchiveEntry> byId = pool.read(conn -> {
+            Map<String, ArchiveEntry> found = new HashMap<String, ArchiveEntry>();
+            PreparedStatement ps = conn.prepare("SELECT * FROM archive_entries WHERE entry_id = ANY(?)");
+            ps.setArray(1, conn.connection().createArrayOf("VARCHAR", ids.toArray()));
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
-                list.add(mapEntry(rs));
+                ArchiveEntry entry = mapEntry(rs);
+                found.put(entry.getEntryId(), entry);
             }
             rs.close();
-            ps.close();
+            return found;
+        });
+        List<ArchiveEntry> list = new ArrayList<ArchiveEntry>(byId.size());
+        for (String id : ids) {
+            ArchiveEntry entry = byId.get(id);
+            if (entry != null) list.add(entry);
+        }
+        return list;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  Helpers
+    // ═══════════════════════════════════════════════════════════
+
+    private List<ArchiveEntry> queryEntries(final String sql, final String param) {
+        try {
+            return pool.read(conn -> {
+                List<ArchiveEntry> list = new ArrayList<ArchiveEntry>();
+                PreparedStatement ps = conn.prepare(sql);
+                if (param != null) {
+                    ps.setString(1, param);
+                }
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    list.add(mapEntry(rs));
+                }
+                rs.close();
+                return list;
+            });
         } catch (SQLException e) {
             LOG.log(Level.WARNING, "[Archive] queryEntries failed", e);
+            return new ArrayList<ArchiveEntry>();
+        }
+    }
+
+    /**
+     * @param limit bound for a second LIMIT parameter, or -1 if the SQL has none
+     */
+    private List<WebCacheEntry> queryCacheEntries(final String sql, final String sourceId, final int limit) {
+        try {
+            return pool.read(conn -> {
+                List<WebCacheEntry> list = new ArrayList<WebCacheEntry>();
+                PreparedStatement ps = conn.prepare(sql);
+                ps.setString(1, sourceId);
+                if (limit >= 0) {
+                    ps.setInt(2, limit);
+                }
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    list.add(mapCacheEntry(rs));
+                }
+                rs.close();
+                return list;
+            });
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "[Archive] Web cache query failed", e);
+            return new ArrayList<WebCacheEntry>();
         }
-        return list;
     }
 
     private ArchiveEntry mapEntry(ResultSet rs) throws SQLException {
@@ -1298,9 +1714,9 @@ public class CacheRepository {
         return e;
     }
 
-    private Map<String, String> loadMetadata(String entryId) throws SQLException {
+    private Map<String, String> loadMetadata(PooledConnection conn, String entryId) throws SQLException {
         Map<String, String> map = new HashMap<String, String>();
-        PreparedStatement ps = getConnection().prepareStatement(
+        PreparedStatement ps = conn.prepare(
                 "SELECT meta_key, meta_value FROM archive_metadata WHERE entry_id=?");
         ps.setString(1, entryId);
         ResultSet rs = ps.executeQuery();
@@ -1308,7 +1724,6 @@ public class CacheRepository {
             map.put(rs.getString("meta_key"), rs.getString("meta_value"));
         }
         rs.close();
-        ps.close();
         return map;
     }
 
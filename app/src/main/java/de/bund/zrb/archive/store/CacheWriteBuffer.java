@@ -0,0 +1,158 @@
+package de.bund.zrb.archive.store;
+
+import de.bund.zrb.archive.model.ArchiveEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind buffer for the crawl and prefetch pipelines, which produce archive entries one
+ * page or file at a time. Entries are saved together with {@link CacheRepository#saveAll} (or
+ * {@link CacheRepository#saveAllVolatile}) once {@code maxPending} are collected or the oldest
+ * has waited {@code maxDelayMs}, so a burst of pages costs one transaction instead of one each.
+ *
+ * If a batch fails, its entries are saved one by one, so a bad entry does not take the others
+ * with it.
+ *
+ * Until they are saved, entries are returned by {@link #getPending(String)}; writers that look
+ * up an existing entry by URL check the buffer first. Code that deletes entries the buffer may
+ * hold calls {@link #flush()} before.
+ */
+public class CacheWriteBuffer {
+
+    private static final Logger LOG = Logger.getLogger(CacheWriteBuffer.class.getName());
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "CacheWriteFlush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final CacheRepository repository;
+    private final int maxPending;
+    private final long maxDelayMs;
+    private volatile long maxVolatileBytes = -1;
+
+    // Guarded by this; keyed by entry id
+    private Map<String, ArchiveEntry> pending = new LinkedHashMap<String, ArchiveEntry>();
+    private Map<String, ArchiveEntry> saving = Collections.emptyMap();
+    private boolean flushScheduled;
+
+    // Serializes flushes, so a later batch never overtakes an earlier one
+    private final Object flushLock = new Object();
+
+    public CacheWriteBuffer(CacheRepository repository, int maxPending, long maxDelayMs) {
+        this.repository = repository;
+        this.maxPending = Math.max(1, maxPending);
+        this.maxDelayMs = Math.max(1, maxDelayMs);
+    }
+
+    /**
+     * Save entries as volatile prefetch results, evicting the oldest volatile entries before
+     * each flush so that they stay within {@code maxBytes}.
+     */
+    public CacheWriteBuffer setVolatileLimit(long maxBytes) {
+        this.maxVolatileBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Queue an entry for saving; saves right away if the buffer is full.
+     */
+    public void add(ArchiveEntry entry) {
+        boolean full;
+        boolean schedule = false;
+        synchronized (this) {
+            pending.put(entry.getEntryId(), entry);
+            full = pending.size() >= maxPending;
+            if (!full && !flushScheduled) {
+                flushScheduled = true;
+                schedule = true;
+            }
+        }
+        if (full) {
+            flush();
+        } else if (schedule) {
+            FLUSHER.schedule(this::flush, maxDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The queued entry for this URL, or null if none is waiting to be saved.
+     */
+    public synchronized ArchiveEntry getPending(String url) {
+        if (url == null) return null;
+        ArchiveEntry found = null;
+        for (ArchiveEntry entry : saving.values()) {
+            if (url.equals(entry.getUrl())) found = entry;
+        }
+        for (ArchiveEntry entry : pending.values()) {
+            if (url.equals(entry.getUrl())) found = entry;
+        }
+        return found;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Save everything queued so far.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<ArchiveEntry> batch;
+            synchronized (this) {
+                flushScheduled = false;
+                if (pending.isEmpty()) return;
+                saving = pending;
+                pending = new LinkedHashMap<String, ArchiveEntry>();
+                batch = new ArrayList<ArchiveEntry>(saving.values());
+            }
+            try {
+                boolean volatileEntries = maxVolatileBytes >= 0;
+                if (volatileEntries) {
+                    makeRoom(batch);
+                }
+                int saved = volatileEntries ? repository.saveAllVolatile(batch) : repository.saveAll(batch);
+                if (saved == 0) {
+                    // The batch is all-or-nothing; save one by one so a bad entry only loses itself
+                    // (the repository logs the entries that fail)
+                    LOG.fine("[Cache] Batch of " + batch.size() + " entries failed, saving them one by one");
+                    for (ArchiveEntry entry : batch) {
+                        if (volatileEntries) {
+                            repository.saveVolatile(entry);
+                        } else {
+                            repository.save(entry);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "[Cache] Saving " + batch.size() + " buffered entries failed", e);
+            } finally {
+                synchronized (this) {
+                    saving = Collections.emptyMap();
+                }
+            }
+        }
+    }
+
+    private void makeRoom(List<ArchiveEntry> batch) {
+        long batchBytes = 0;
+        for (ArchiveEntry entry : batch) {
+            batchBytes += entry.getFileSizeBytes();
+        }
+        long limit = maxVolatileBytes;
+        if (repository.getVolatileCacheSize() + batchBytes > limit) {
+            repository.evictOldestVolatile(limit - batchBytes);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package de.bund.zrb.archive.store;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connections of {@link CacheRepository}: one writer connection, used by one thread at a time,
+ * and a few reader connections. Lookups from the search UI and the tools therefore do not queue
+ * behind bulk writes of the crawl and prefetch pipelines; H2 (MVStore) lets readers see the last
+ * committed state while a write transaction is open.
+ *
+ * Calls nest: a thread that already holds a connection keeps using it, and reads inside a write
+ * run on the writer connection, so they see the transaction's own changes.
+ */
+class ConnectionPool {
+
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    interface Work<T> {
+        T run(PooledConnection conn) throws SQLException;
+    }
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final PooledConnection writer;
+    private final List<PooledConnection> readers = new ArrayList<PooledConnection>();
+    private final BlockingQueue<PooledConnection> idleReaders;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ThreadLocal<PooledConnection> held = new ThreadLocal<PooledConnection>();
+    private volatile int statementGeneration;
+
+    ConnectionPool(String jdbcUrl, String user, String password, int readerCount, int statementCacheSize) {
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+        this.writer = new PooledConnection(this, false, statementCacheSize);
+        int count = Math.max(1, readerCount);
+        this.idleReaders = new ArrayBlockingQueue<PooledConnection>(count);
+        for (int i = 0; i < count; i++) {
+            PooledConnection reader = new PooledConnection(this, true, statementCacheSize);
+            readers.add(reader);
+            idleReaders.add(reader);
+        }
+    }
+
+    /**
+     * Run read-only work on a reader connection (or on the connection this thread already holds).
+     */
+    <T> T read(Work<T> work) throws SQLException {
+        PooledConnection current = held.get();
+        if (current != null) {
+            return work.run(current);
+        }
+        PooledConnection reader = borrowReader();
+        held.set(reader);
+        try {
+            return work.run(reader);
+        } finally {
+            held.remove();
+            idleReaders.add(reader);
+        }
+    }
+
+    /**
+     * Run work on the writer connection in auto-commit mode.
+     */
+    <T> T write(Work<T> work) throws SQLException {
+        return onWriter(work, false);
+    }
+
+    /**
+     * Run work on the writer connection in one transaction: committed if it returns normally,
+     * rolled back if it throws. Nested inside another write, the work joins the outer one.
+     */
+    <T> T transaction(Work<T> work) throws SQLException {
+        return onWriter(work, true);
+    }
+
+    private <T> T onWriter(Work<T> work, boolean transaction) throws SQLException {
+        PooledConnection previous = held.get();
+        if (previous == writer) {
+            return work.run(writer);
+        }
+        writeLock.lock();
+        held.set(writer);
+        try {
+            if (!transaction) {
+                return work.run(writer);
+            }
+            Connection conn = writer.connection();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(writer);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                rollbackQuietly(conn);
+                throw e;
+            } finally {
+                resetAutoCommit(conn);
+            }
+        } finally {
+            if (previous != null) {
+                held.set(previous);
+            } else {
+                held.remove();
+            }
+            writeLock.unlock();
+        }
+    }
+
+    private PooledConnection borrowReader() throws SQLException {
+        try {
+            PooledConnection reader = idleReaders.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (reader == null) {
+                throw new SQLException("No reader connection available after " + BORROW_TIMEOUT_SECONDS + "s");
+            }
+            return reader;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a reader connection", e);
+        }
+    }
+
+    /**
+     * Drop all cached statements, e.g. after the schema was replaced by an import.
+     * Each connection closes its statements the next time it prepares one.
+     */
+    synchronized void invalidateStatements() {
+        statementGeneration++;
+    }
+
+    /**
+     * Close all connections; they are reopened on the next use.
+     */
+    void close() {
+        writeLock.lock();
+        try {
+            writer.close();
+        } finally {
+            writeLock.unlock();
+        }
+        for (PooledConnection reader : readers) {
+            reader.close();
+        }
+    }
+
+    String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    String getUser() {
+        return user;
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    int getStatementGeneration() {
+        return statementGeneration;
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "[Archive] Rollback failed", e);
+        }
+    }
+
+    private static void resetAutoCommit(Connection conn) {
+        try {
+            if (!conn.isClosed()) {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "[Archive] Could not reset auto-commit", e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package de.bund.zrb.archive.store;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A JDBC connection of the {@link ConnectionPool} together with its prepared statements,
+ * cached by SQL text (LRU). Used by one thread at a time; the connection is opened lazily and
+ * reopened if it was closed.
+ *
+ * Statements returned by {@link #prepare} belong to the cache and must not be closed by callers;
+ * their result sets must be.
+ */
+class PooledConnection {
+
+    private static final Logger LOG = Logger.getLogger(PooledConnection.class.getName());
+
+    private final ConnectionPool pool;
+    private final boolean readOnly;
+    private final Map<String, PreparedStatement> statements;
+    private Connection connection;
+    private int statementGeneration;
+
+    PooledConnection(ConnectionPool pool, boolean readOnly, final int statementCacheSize) {
+        this.pool = pool;
+        this.readOnly = readOnly;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            statements.clear();
+            connection = DriverManager.getConnection(pool.getJdbcUrl(), pool.getUser(), pool.getPassword());
+            connection.setReadOnly(readOnly);
+            statementGeneration = pool.getStatementGeneration();
+        }
+        return connection;
+    }
+
+    /**
+     * The cached statement for this SQL, with parameters and batch cleared.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        Connection conn = connection();
+        if (statementGeneration != pool.getStatementGeneration()) {
+            closeStatements();
+            statementGeneration = pool.getStatementGeneration();
+        }
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null || ps.isClosed()) {
+            ps = conn.prepareStatement(sql);
+            statements.put(sql, ps);
+        } else {
+            ps.clearParameters();
+            ps.clearBatch();
+        }
+        return ps;
+    }
+
+    /**
+     * A plain statement for one-off SQL (DDL, scripts); closed by the caller.
+     */
+    Statement createStatement() throws SQLException {
+        return connection().createStatement();
+    }
+
+    int cachedStatements() {
+        return statements.size();
+    }
+
+    void close() {
+        closeStatements();
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            LOG.log(Level.FINE, "[Archive] Could not close connection", e);
+        }
+        connection = null;
+    }
+
+    private void closeStatements() {
+        Iterator<PreparedStatement> it = statements.values().iterator();
+        while (it.hasNext()) {
+            closeQuietly(it.next());
+            it.remove();
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
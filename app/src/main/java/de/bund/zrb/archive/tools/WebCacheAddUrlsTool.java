@@ -66,7 +66,7 @@ public class WebCacheAddUrlsTool implements McpTool {
         // Build domain filter from source config (if available)
         DomainFilter filter = buildFilter(sourceId);
 
-        int added = 0;
+        Map<String, WebCacheEntry> newEntries = new LinkedHashMap<String, WebCacheEntry>();
         JsonArray rejected = new JsonArray();
 
         for (int i = 0; i < urls.size(); i++) {
@@ -74,7 +74,7 @@ public class WebCacheAddUrlsTool implements McpTool {
             if (url.isEmpty()) continue;
 
             // Skip already known URLs
-            if (repo.urlExists(url)) continue;
+            if (newEntries.containsKey(url) || repo.urlExists(url)) continue;
 
             // Apply domain filter
             if (filter != null && !filter.accepts(url)) {
@@ -101,10 +101,12 @@ public class WebCacheAddUrlsTool implements McpTool {
             entry.setDepth(childDepth);
             entry.setParentUrl(parentUrl);
             entry.setDiscoveredAt(System.currentTimeMillis());
-            repo.addWebCacheEntry(entry);
-            added++;
+            newEntries.put(url, entry);
         }
 
+        // One transaction for all links of the page
+        int added = repo.addWebCacheEntries(newEntries.values());
+
         int totalPending = sourceId.isEmpty() ? 0 : repo.countByStatus(sourceId, ArchiveEntryStatus.PENDING);
 
         JsonObject response = new JsonObject();
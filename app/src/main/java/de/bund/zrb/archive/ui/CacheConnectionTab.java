@@ -515,7 +515,7 @@ public class CacheConnectionTab implements ConnectionTab {
                     "Run '" + shortId + "…' mit allen Dokumenten löschen?",
                     "Run löschen", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
             if (result == JOptionPane.YES_OPTION) {
-                repo.deleteRun(run.getRunId());
+                ArchiveService.getInstance().deleteRun(run.getRunId());
                 refresh();
                 previewArea.setText("");
             }
@@ -563,7 +563,7 @@ public class CacheConnectionTab implements ConnectionTab {
                     "Alle " + count + " Runs mit Dokumenten und Resources löschen?",
                     "Alles löschen", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
             if (result == JOptionPane.YES_OPTION) {
-                repo.deleteAllDocuments();
+                ArchiveService.getInstance().deleteAllRuns();
                 refresh();
                 previewArea.setText("");
             }
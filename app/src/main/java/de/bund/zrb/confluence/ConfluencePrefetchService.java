@@ -5,6 +5,7 @@ import com.google.gson.JsonParser;
 import de.bund.zrb.archive.model.ArchiveEntry;
 import de.bund.zrb.archive.model.ArchiveEntryStatus;
 import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 
 import java.util.List;
 import java.util.UUID;
@@ -30,9 +31,13 @@ public class ConfluencePrefetchService {
 
     private static final Logger LOG = Logger.getLogger(ConfluencePrefetchService.class.getName());
 
+    private static final int DB_BATCH_SIZE = 20;
+    private static final long DB_BATCH_DELAY_MS = 500;
+
     private final ConfluenceRestClient client;
     private final CacheRepository cacheRepository;
-    private final long maxVolatileBytes;
+    /** Collects the prefetched pages so they are saved as volatile entries in batches. */
+    private final CacheWriteBuffer dbBuffer;
     private final int maxItems;
 
     /** Bounded pool for background prefetching. */
@@ -71,7 +76,10 @@ public class ConfluencePrefetchService {
                                      int concurrency) {
         this.client = client;
         this.cacheRepository = cacheRepository;
-        this.maxVolatileBytes = (long) maxVolatileMb * 1024L * 1024L;
+        this.dbBuffer = cacheRepository != null
+                ? new CacheWriteBuffer(cacheRepository, DB_BATCH_SIZE, DB_BATCH_DELAY_MS)
+                        .setVolatileLimit((long) maxVolatileMb * 1024L * 1024L)
+                : null;
         this.maxItems = Math.max(1, maxItems);
         int poolSize = Math.max(1, Math.min(concurrency, 8));
         this.prefetchPool = Executors.newFixedThreadPool(poolSize);
@@ -182,6 +190,9 @@ public class ConfluencePrefetchService {
 
     /** Shut down background threads. Called when the connection tab closes. */
     public void shutdown() {
+        if (dbBuffer != null) {
+            dbBuffer.flush();
+        }
         cancelRunningPrefetches();
         prefetchPool.shutdownNow();
         priorityThread.shutdownNow();
@@ -243,15 +254,10 @@ public class ConfluencePrefetchService {
         if (cacheRepository == null || html == null || html.isEmpty()) return;
         try {
             String cacheUrl = "confluence://" + pageId;
-            if (cacheRepository.existsByUrl(cacheUrl)) return;
+            if (dbBuffer.getPending(cacheUrl) != null || cacheRepository.existsByUrl(cacheUrl)) return;
 
             long sizeBytes = html.getBytes("UTF-8").length;
 
-            long currentSize = cacheRepository.getVolatileCacheSize();
-            if (currentSize + sizeBytes > maxVolatileBytes) {
-                cacheRepository.evictOldestVolatile(maxVolatileBytes - sizeBytes);
-            }
-
             ArchiveEntry entry = new ArchiveEntry();
             entry.setEntryId(UUID.randomUUID().toString());
             entry.setUrl(cacheUrl);
@@ -262,7 +268,7 @@ public class ConfluencePrefetchService {
             entry.setCrawlTimestamp(System.currentTimeMillis());
             entry.setStatus(ArchiveEntryStatus.CRAWLED);
             entry.setSourceId("confluence-prefetch");
-            cacheRepository.saveVolatile(entry);
+            dbBuffer.add(entry);
         } catch (Exception e) {
             LOG.log(Level.FINE, "[ConfluencePrefetch] DB persist failed: " + pageId, e);
         }
@@ -39,24 +39,8 @@ public class LocalSourceScanner implements SourceScanner {
                     source.getMaxDepth(), new SimpleFileVisitor<Path>() {
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                    if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
-                    if (attrs.size() > source.getMaxFileSizeBytes()) return FileVisitResult.CONTINUE;
-
-                    String relativePath = root.relativize(file).toString().replace('\\', '/');
-                    String fileName = file.getFileName().toString();
-
-                    // Apply include/exclude patterns
-                    if (!matchesInclude(fileName, source)) return FileVisitResult.CONTINUE;
-                    if (matchesExclude(relativePath, source)) return FileVisitResult.CONTINUE;
-
-                    items.add(new ScannedItem(
-                            file.toAbsolutePath().toString(),
-                            attrs.lastModifiedTime().toMillis(),
-                            attrs.size(),
-                            false,
-                            detectMimeType(fileName)
-                    ));
-
+                    ScannedItem item = toScannedItem(root, file, attrs, source);
+                    if (item != null) items.add(item);
                     return FileVisitResult.CONTINUE;
                 }
 
@@ -72,11 +56,47 @@ public class LocalSourceScanner implements SourceScanner {
         return items;
     }
 
+    @Override
+    public int getMaxConcurrentFetches() {
+        // Plain file reads, no shared state
+        return Integer.MAX_VALUE;
+    }
+
     @Override
     public byte[] fetchContent(IndexSource source, String itemPath) throws Exception {
         return java.nio.file.Files.readAllBytes(Paths.get(itemPath));
     }
 
+    @Override
+    public java.io.InputStream openContent(IndexSource source, String itemPath) throws Exception {
+        return java.nio.file.Files.newInputStream(Paths.get(itemPath));
+    }
+
+    /**
+     * Apply the size limit and include/exclude patterns to one file.
+     *
+     * @return the item, or null if the file is filtered out
+     */
+    ScannedItem toScannedItem(Path root, Path file, BasicFileAttributes attrs, IndexSource source) {
+        if (!attrs.isRegularFile()) return null;
+        if (attrs.size() > source.getMaxFileSizeBytes()) return null;
+
+        String relativePath = root.relativize(file).toString().replace('\\', '/');
+        String fileName = file.getFileName().toString();
+
+        // Apply include/exclude patterns
+        if (!matchesInclude(fileName, source)) return null;
+        if (matchesExclude(relativePath, source)) return null;
+
+        return new ScannedItem(
+                file.toAbsolutePath().toString(),
+                attrs.lastModifiedTime().toMillis(),
+                attrs.size(),
+                false,
+                detectMimeType(fileName)
+        );
+    }
+
     // ─── Pattern matching ───
 
     private boolean matchesInclude(String fileName, IndexSource source) {
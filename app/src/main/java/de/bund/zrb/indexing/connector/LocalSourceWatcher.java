@@ -0,0 +1,254 @@
+package de.bund.zrb.indexing.connector;
+
+import de.bund.zrb.indexing.model.IndexSource;
+import de.bund.zrb.indexing.model.ScannedItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Follows file system events below the scope paths of a LOCAL source, so changes reach the
+ * index within seconds instead of waiting for the next full walk.
+ *
+ * - Every directory within maxDepth is registered with a {@link WatchService}; directories
+ *   created later are registered when their CREATE event arrives, and the files already in them
+ *   are reported as changed.
+ * - Events are debounced: a batch is handed to the listener once no event arrived for the
+ *   debounce period (or after ten periods at the latest, for trees that never go quiet).
+ *   Only the last event per path counts, so an editor's save sequence becomes one change.
+ * - On OVERFLOW events were lost; pending changes are dropped and the listener is asked for a
+ *   full rescan instead.
+ */
+public class LocalSourceWatcher implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(LocalSourceWatcher.class.getName());
+
+    /**
+     * Receives debounced changes from the watcher thread.
+     */
+    public interface ChangeListener {
+        /**
+         * @return false if the changes cannot be taken now (e.g. a run of the source is in
+         *         progress); the watcher keeps them and offers them again after the next period
+         */
+        boolean onChanges(List<ScannedItem> changed, List<String> deletedPaths);
+
+        /** Events were lost; the source needs a full scan. */
+        void onOverflow();
+    }
+
+    private final IndexSource source;
+    private final LocalSourceScanner scanner;
+    private final ChangeListener listener;
+    private final long debounceMs;
+
+    private WatchService watchService;
+    private final List<Path> roots = new ArrayList<>();
+    private final Map<WatchKey, WatchedDir> keys = new HashMap<>();
+    // Last event per path since the previous batch: true = exists (created/modified), false = deleted
+    private final Map<Path, Boolean> pending = new LinkedHashMap<>();
+    private long firstPendingAt;
+    private long lastEventAt;
+    private Thread thread;
+    private volatile boolean closed;
+
+    public LocalSourceWatcher(IndexSource source, LocalSourceScanner scanner, ChangeListener listener,
+                              long debounceMs) {
+        this.source = source;
+        this.scanner = scanner;
+        this.listener = listener;
+        this.debounceMs = Math.max(1, debounceMs);
+    }
+
+    /**
+     * Register all directories and start the watcher thread.
+     */
+    public synchronized void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        for (String scopePath : source.getScopePaths()) {
+            Path root = Paths.get(scopePath).toAbsolutePath();
+            if (!Files.isDirectory(root)) {
+                LOG.warning("[Indexing] Watch: scope path not a directory: " + scopePath);
+                continue;
+            }
+            roots.add(root);
+            registerTree(root, root, 0, null);
+        }
+        LOG.info("[Indexing] Watching " + keys.size() + " directories for: " + source.getName());
+
+        thread = new Thread(this::watchLoop, "Indexing-Watch-" + source.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Number of directories currently registered.
+     */
+    public synchronized int watchedDirectoryCount() {
+        return keys.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        try {
+            if (watchService != null) watchService.close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "[Indexing] Error closing watch service", e);
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (!closed) {
+                WatchKey key = watchService.poll(Math.min(debounceMs, 250), java.util.concurrent.TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    handle(key);
+                }
+                flushIfQuiet();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        } catch (RuntimeException e) {
+            LOG.log(Level.SEVERE, "[Indexing] Watcher stopped for: " + source.getName(), e);
+        }
+    }
+
+    private synchronized void handle(WatchKey key) {
+        WatchedDir dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                LOG.info("[Indexing] Watch overflow for " + source.getName() + " – full rescan");
+                pending.clear();
+                listener.onOverflow();
+                continue;
+            }
+            if (dir == null) continue;
+            Path path = dir.path.resolve((Path) event.context());
+            boolean exists = event.kind() != StandardWatchEventKinds.ENTRY_DELETE;
+            if (exists && event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                // New subtree: watch it and report what was written before the registration
+                registerTree(dir.root, path, dir.depth + 1, pending);
+                continue;
+            }
+            pending.remove(path); // re-insert to keep event order
+            pending.put(path, exists);
+            long now = System.currentTimeMillis();
+            if (firstPendingAt == 0) firstPendingAt = now;
+            lastEventAt = now;
+        }
+        if (!key.reset()) {
+            // Directory deleted or no longer accessible
+            keys.remove(key);
+        }
+    }
+
+    private synchronized void flushIfQuiet() {
+        if (pending.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        if (now - lastEventAt < debounceMs && now - firstPendingAt < debounceMs * 10) return;
+
+        List<ScannedItem> changed = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (Map.Entry<Path, Boolean> entry : pending.entrySet()) {
+            Path path = entry.getKey();
+            if (entry.getValue() && Files.exists(path)) {
+                ScannedItem item = describe(path);
+                if (item != null) changed.add(item);
+            } else {
+                deleted.add(path.toString());
+            }
+        }
+
+        if (changed.isEmpty() && deleted.isEmpty()) {
+            pending.clear();
+        } else if (listener.onChanges(changed, deleted)) {
+            pending.clear();
+        } else {
+            // Not accepted; try again after another period
+            lastEventAt = now;
+            firstPendingAt = now;
+            return;
+        }
+        firstPendingAt = 0;
+    }
+
+    private ScannedItem describe(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return scanner.toScannedItem(rootOf(file), file, attrs, source);
+        } catch (IOException e) {
+            LOG.fine("[Indexing] Watch: cannot read " + file + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Path rootOf(Path file) {
+        for (Path root : roots) {
+            if (file.startsWith(root)) return root;
+        }
+        return file.getParent();
+    }
+
+    /**
+     * Register a directory and its subdirectories within maxDepth. If {@code found} is given,
+     * the files inside are recorded as changed.
+     */
+    private void registerTree(Path root, Path start, int startDepth, Map<Path, Boolean> found) {
+        int remaining = source.getMaxDepth() - startDepth;
+        if (remaining <= 0) return;
+        try {
+            Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), remaining, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    int depth = dir.equals(start) ? startDepth : startDepth + start.relativize(dir).getNameCount();
+                    WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    keys.put(key, new WatchedDir(root, dir, depth));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (found != null && attrs.isRegularFile()) {
+                        found.put(file, Boolean.TRUE);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    LOG.fine("[Indexing] Watch: cannot access " + file + " - " + exc.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "[Indexing] Watch: cannot register " + start, e);
+        }
+        if (found != null && !found.isEmpty()) {
+            long now = System.currentTimeMillis();
+            if (firstPendingAt == 0) firstPendingAt = now;
+            lastEventAt = now;
+        }
+    }
+
+    private static class WatchedDir {
+        final Path root;
+        final Path path;
+        final int depth;   // 0 = scope root
+
+        WatchedDir(Path root, Path path, int depth) {
+            this.root = root;
+            this.path = path;
+            this.depth = depth;
+        }
+    }
+}
@@ -128,6 +128,12 @@ public class MailSourceScanner implements SourceScanner {
         };
     }
 
+    @Override
+    public int getMaxConcurrentFetches() {
+        // Every fetch opens its own PSTFile
+        return Integer.MAX_VALUE;
+    }
+
     @Override
     public byte[] fetchContent(IndexSource source, String itemPath) throws Exception {
         // itemPath format: "mailboxPath#folderPath#descriptorNodeId"
@@ -98,6 +98,12 @@ public class WikiSourceScanner implements SourceScanner {
         return items;
     }
 
+    @Override
+    public int getMaxConcurrentFetches() {
+        // Stateless HTTP page loads
+        return Integer.MAX_VALUE;
+    }
+
     @Override
     public byte[] fetchContent(IndexSource source, String itemPath) throws Exception {
         if (wikiService == null) {
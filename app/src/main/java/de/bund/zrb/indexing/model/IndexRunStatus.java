@@ -1,5 +1,7 @@
 package de.bund.zrb.indexing.model;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -12,6 +14,7 @@ public class IndexRunStatus {
     private long startedAt;
     private long completedAt;
     private RunState runState = RunState.RUNNING;
+    private boolean incremental;      // triggered by file system events, covers only the changed items
 
     // ── Counters ──
     private int itemsScanned;
@@ -21,10 +24,27 @@ public class IndexRunStatus {
     private int itemsSkipped;
     private int itemsErrored;
     private int itemsUnchanged;
+    private int itemsSkippedByHash;   // fetched, but content hash unchanged → not re-extracted
+
+    // ── Embedding throughput ──
+    private int embeddingsGenerated;
+    private long embeddingMillis;        // summed per item; items embed concurrently, so this overlaps
+    private long firstEmbeddingStartedAt;
+    private long lastEmbeddingEndedAt;
+
+    // ── Per-stage throughput and latency ──
+    private List<StageMetrics> stageMetrics = new ArrayList<>();
+    private transient RunMetrics metrics = new RunMetrics();   // live samples, not persisted
 
     // ── Error info ──
     private String lastError;
 
+    // ── Checkpointing ──
+    private boolean resumedFromCheckpoint;  // an earlier run of this source was interrupted
+    private String resumedRunId;            // runId of the interrupted run
+    private long lastCheckpointAt;
+    private int itemsCheckpointed;
+
     public enum RunState {
         RUNNING, COMPLETED, FAILED, CANCELLED
     }
@@ -43,6 +63,9 @@ public class IndexRunStatus {
     public long getCompletedAt() { return completedAt; }
     public void setCompletedAt(long completedAt) { this.completedAt = completedAt; }
 
+    public boolean isIncremental() { return incremental; }
+    public void setIncremental(boolean incremental) { this.incremental = incremental; }
+
     public RunState getRunState() { return runState; }
     public void setRunState(RunState runState) { this.runState = runState; }
 
@@ -67,17 +90,74 @@ public class IndexRunStatus {
     public int getItemsUnchanged() { return itemsUnchanged; }
     public void setItemsUnchanged(int n) { this.itemsUnchanged = n; }
 
+    public int getItemsSkippedByHash() { return itemsSkippedByHash; }
+    public void setItemsSkippedByHash(int n) { this.itemsSkippedByHash = n; }
+
+    public int getEmbeddingsGenerated() { return embeddingsGenerated; }
+    public void setEmbeddingsGenerated(int n) { this.embeddingsGenerated = n; }
+
+    public long getEmbeddingMillis() { return embeddingMillis; }
+    public void setEmbeddingMillis(long ms) { this.embeddingMillis = ms; }
+
+    public List<StageMetrics> getStageMetrics() { return stageMetrics; }
+    public void setStageMetrics(List<StageMetrics> stageMetrics) { this.stageMetrics = stageMetrics; }
+
+    /** Live measurements the stages record into while the run is in flight. */
+    public RunMetrics getMetrics() { return metrics; }
+
+    /** Copy the live measurements into {@link #getStageMetrics()}, which is what gets persisted. */
+    public void updateStageMetrics() {
+        stageMetrics = metrics.snapshot(getDurationMs());
+    }
+
     public String getLastError() { return lastError; }
     public void setLastError(String lastError) { this.lastError = lastError; }
 
-    /** Increment convenience methods for pipeline use. */
-    public void incScanned() { itemsScanned++; }
-    public void incNew() { itemsNew++; }
-    public void incChanged() { itemsChanged++; }
-    public void incDeleted() { itemsDeleted++; }
-    public void incSkipped() { itemsSkipped++; }
-    public void incErrored() { itemsErrored++; }
-    public void incUnchanged() { itemsUnchanged++; }
+    public boolean isResumedFromCheckpoint() { return resumedFromCheckpoint; }
+    public void setResumedFromCheckpoint(boolean resumedFromCheckpoint) { this.resumedFromCheckpoint = resumedFromCheckpoint; }
+
+    public String getResumedRunId() { return resumedRunId; }
+    public void setResumedRunId(String resumedRunId) { this.resumedRunId = resumedRunId; }
+
+    public long getLastCheckpointAt() { return lastCheckpointAt; }
+    public void setLastCheckpointAt(long lastCheckpointAt) { this.lastCheckpointAt = lastCheckpointAt; }
+
+    public int getItemsCheckpointed() { return itemsCheckpointed; }
+    public void setItemsCheckpointed(int itemsCheckpointed) { this.itemsCheckpointed = itemsCheckpointed; }
+
+    /** Increment convenience methods for pipeline use (synchronized: stages run on several threads). */
+    public synchronized void incScanned() { itemsScanned++; }
+    public synchronized void incNew() { itemsNew++; }
+    public synchronized void incChanged() { itemsChanged++; }
+    public synchronized void incDeleted() { itemsDeleted++; }
+    public synchronized void incSkipped() { itemsSkipped++; }
+    public synchronized void incErrored() { itemsErrored++; }
+    public synchronized void incUnchanged() { itemsUnchanged++; }
+    public synchronized void incSkippedByHash() { itemsSkippedByHash++; }
+
+    /** Record embeddings generated for one item and the time spent on them, ending now. */
+    public void addEmbeddings(int count, long millis) {
+        addEmbeddings(count, millis, System.currentTimeMillis());
+    }
+
+    synchronized void addEmbeddings(int count, long millis, long endedAt) {
+        embeddingsGenerated += count;
+        embeddingMillis += millis;
+        long startedAt = endedAt - millis;
+        if (firstEmbeddingStartedAt == 0 || startedAt < firstEmbeddingStartedAt) {
+            firstEmbeddingStartedAt = startedAt;
+        }
+        lastEmbeddingEndedAt = Math.max(lastEmbeddingEndedAt, endedAt);
+    }
+
+    /**
+     * Embeddings per second of wall time from the first embedding call to the last, or 0 if
+     * none were generated. Items embed concurrently, so their summed times would understate it.
+     */
+    public synchronized double getEmbeddingsPerSecond() {
+        long wallMillis = lastEmbeddingEndedAt - firstEmbeddingStartedAt;
+        return embeddingsGenerated > 0 && wallMillis > 0 ? embeddingsGenerated * 1000.0 / wallMillis : 0;
+    }
 
     public long getDurationMs() {
         if (completedAt > 0 && startedAt > 0) return completedAt - startedAt;
@@ -91,6 +171,10 @@ public class IndexRunStatus {
                 + " scanned=" + itemsScanned
                 + " new=" + itemsNew + " changed=" + itemsChanged
                 + " deleted=" + itemsDeleted + " errors=" + itemsErrored
-                + " duration=" + getDurationMs() + "ms";
+                + (itemsSkippedByHash > 0 ? " hashUnchanged=" + itemsSkippedByHash : "")
+                + " embeddings=" + embeddingsGenerated
+                + String.format(" (%.1f/s)", getEmbeddingsPerSecond())
+                + " duration=" + getDurationMs() + "ms"
+                + (resumedFromCheckpoint ? " resumed" : "");
     }
 }
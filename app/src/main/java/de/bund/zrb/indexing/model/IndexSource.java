@@ -43,6 +43,17 @@ public class IndexSource {
     private int chunkOverlap = 64;
     private int maxChunksPerItem = 100;
 
+    // Pipeline parallelism (threads per stage, items buffered between stages)
+    private int fetchThreads = 2;     // capped by SourceScanner.getMaxConcurrentFetches()
+    private int extractThreads = 2;
+    private int embedThreads = 2;     // chunk + embed
+    private int writeThreads = 1;
+    private int stageQueueCapacity = 16;
+
+    // Crash safety: item statuses are checkpointed every N items or T seconds, whichever comes first
+    private int checkpointEveryItems = 100;
+    private int checkpointIntervalSeconds = 30;
+
     // ── Security ──
     private SecurityMode securityMode = SecurityMode.NONE;
 
@@ -131,6 +142,27 @@ public class IndexSource {
     public int getMaxChunksPerItem() { return maxChunksPerItem; }
     public void setMaxChunksPerItem(int maxChunksPerItem) { this.maxChunksPerItem = maxChunksPerItem; }
 
+    public int getFetchThreads() { return fetchThreads; }
+    public void setFetchThreads(int fetchThreads) { this.fetchThreads = fetchThreads; }
+
+    public int getExtractThreads() { return extractThreads; }
+    public void setExtractThreads(int extractThreads) { this.extractThreads = extractThreads; }
+
+    public int getEmbedThreads() { return embedThreads; }
+    public void setEmbedThreads(int embedThreads) { this.embedThreads = embedThreads; }
+
+    public int getWriteThreads() { return writeThreads; }
+    public void setWriteThreads(int writeThreads) { this.writeThreads = writeThreads; }
+
+    public int getStageQueueCapacity() { return stageQueueCapacity; }
+    public void setStageQueueCapacity(int stageQueueCapacity) { this.stageQueueCapacity = stageQueueCapacity; }
+
+    public int getCheckpointEveryItems() { return checkpointEveryItems; }
+    public void setCheckpointEveryItems(int checkpointEveryItems) { this.checkpointEveryItems = checkpointEveryItems; }
+
+    public int getCheckpointIntervalSeconds() { return checkpointIntervalSeconds; }
+    public void setCheckpointIntervalSeconds(int checkpointIntervalSeconds) { this.checkpointIntervalSeconds = checkpointIntervalSeconds; }
+
     public SecurityMode getSecurityMode() { return securityMode; }
     public void setSecurityMode(SecurityMode securityMode) { this.securityMode = securityMode; }
 
@@ -0,0 +1,146 @@
+package de.bund.zrb.indexing.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live per-stage measurements of a run in flight. Stages record one sample per item from
+ * their worker threads; {@link #snapshot} turns them into {@link StageMetrics} for the history.
+ *
+ * Latencies go into a fixed log-scale histogram, so recording is cheap and memory stays
+ * constant however many items a run has.
+ */
+public class RunMetrics {
+
+    // 8 buckets per power of two: bucket upper bounds grow by 2^(1/8) ≈ 9%
+    private static final int BUCKETS_PER_OCTAVE = 8;
+    private static final int OCTAVES = 42;  // up to 2^42 µs ≈ 50 days
+    private static final double LOG_BASE = Math.log(2) / BUCKETS_PER_OCTAVE;
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+    /**
+     * Record one item handled by a stage.
+     *
+     * @param nanos time the stage spent on the item
+     * @param bytes bytes the stage consumed for the item, 0 if not meaningful
+     * @param success false if the item failed in this stage
+     */
+    public void record(String stage, long nanos, long bytes, boolean success) {
+        stage(stage).record(nanos, bytes, success);
+    }
+
+    /**
+     * Record the depth of a stage's input queue at the moment an item is handed to it.
+     */
+    public void sampleQueue(String stage, int depth) {
+        stage(stage).sampleQueue(depth);
+    }
+
+    /**
+     * Current state of all stages, in the order they first recorded something.
+     *
+     * @param elapsedMs wall-clock time of the run so far, for the rates
+     */
+    public List<StageMetrics> snapshot(long elapsedMs) {
+        List<Stage> current;
+        synchronized (stages) {
+            current = new ArrayList<>(stages.values());
+        }
+        List<StageMetrics> result = new ArrayList<>();
+        for (Stage s : current) {
+            result.add(s.snapshot(elapsedMs));
+        }
+        return result;
+    }
+
+    private Stage stage(String name) {
+        synchronized (stages) {
+            Stage stage = stages.get(name);
+            if (stage == null) {
+                stage = new Stage(name);
+                stages.put(name, stage);
+            }
+            return stage;
+        }
+    }
+
+    static int bucketOf(long micros) {
+        if (micros <= 1) return 0;
+        int bucket = (int) (Math.log(micros) / LOG_BASE);
+        return Math.min(bucket, BUCKETS_PER_OCTAVE * OCTAVES - 1);
+    }
+
+    static double upperBoundMicros(int bucket) {
+        return Math.exp((bucket + 1) * LOG_BASE);
+    }
+
+    private static class Stage {
+        final String name;
+        final long[] histogram = new long[BUCKETS_PER_OCTAVE * OCTAVES];
+        long items;
+        long errors;
+        long bytes;
+        long totalNanos;
+        long maxNanos;
+        long queueSamples;
+        long queueSum;
+        int maxQueue;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        synchronized void record(long nanos, long bytes, boolean success) {
+            nanos = Math.max(0, nanos);
+            histogram[bucketOf(nanos / 1000)]++;
+            items++;
+            if (!success) errors++;
+            this.bytes += Math.max(0, bytes);
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        synchronized void sampleQueue(int depth) {
+            queueSamples++;
+            queueSum += depth;
+            maxQueue = Math.max(maxQueue, depth);
+        }
+
+        synchronized StageMetrics snapshot(long elapsedMs) {
+            StageMetrics m = new StageMetrics();
+            m.setStage(name);
+            m.setItems(items);
+            m.setErrors(errors);
+            m.setBytes(bytes);
+            m.setBusyMillis(totalNanos / 1_000_000);
+            if (elapsedMs > 0) {
+                m.setItemsPerSecond(items * 1000.0 / elapsedMs);
+                m.setBytesPerSecond(bytes * 1000.0 / elapsedMs);
+            }
+            double maxMs = maxNanos / 1e6;
+            m.setP50Ms(Math.min(maxMs, percentileMs(0.50)));
+            m.setP95Ms(Math.min(maxMs, percentileMs(0.95)));
+            m.setP99Ms(Math.min(maxMs, percentileMs(0.99)));
+            m.setMaxMs(maxMs);
+            m.setMaxQueueDepth(maxQueue);
+            m.setAvgQueueDepth(queueSamples > 0 ? (double) queueSum / queueSamples : 0);
+            return m;
+        }
+
+        private double percentileMs(double p) {
+            if (items == 0) return 0;
+            long rank = (long) Math.ceil(p * items);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return upperBoundMicros(i) / 1000;
+                }
+            }
+            return maxNanos / 1e6;
+        }
+    }
+}
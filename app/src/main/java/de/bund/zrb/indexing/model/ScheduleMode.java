@@ -11,5 +11,7 @@ public enum ScheduleMode {
     /** Run at fixed interval (see IndexSource.intervalMinutes). */
     INTERVAL,
     /** Run daily at a specific time (see IndexSource.startHour/startMinute). */
-    DAILY
+    DAILY,
+    /** LOCAL only: full scan at startup, then follow file system events (see LocalSourceWatcher). */
+    WATCH
 }
@@ -0,0 +1,84 @@
+package de.bund.zrb.indexing.model;
+
+/**
+ * Throughput and latency of one pipeline stage over a run, as persisted with the run history.
+ * Latencies are per item and taken from a log-scale histogram (about 9% resolution).
+ */
+public class StageMetrics {
+
+    private String stage;
+
+    // ── Volume ──
+    private long items;
+    private long errors;
+    private long bytes;
+    private long busyMillis;          // sum of the item latencies (all threads)
+
+    // ── Rates over the run's wall-clock time ──
+    private double itemsPerSecond;
+    private double bytesPerSecond;
+
+    // ── Latency per item ──
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+
+    // ── Input queue, sampled whenever an item is handed to the stage ──
+    private int maxQueueDepth;
+    private double avgQueueDepth;
+
+    // ── Getters & Setters ──
+
+    public String getStage() { return stage; }
+    public void setStage(String stage) { this.stage = stage; }
+
+    public long getItems() { return items; }
+    public void setItems(long items) { this.items = items; }
+
+    public long getErrors() { return errors; }
+    public void setErrors(long errors) { this.errors = errors; }
+
+    public long getBytes() { return bytes; }
+    public void setBytes(long bytes) { this.bytes = bytes; }
+
+    public long getBusyMillis() { return busyMillis; }
+    public void setBusyMillis(long busyMillis) { this.busyMillis = busyMillis; }
+
+    public double getItemsPerSecond() { return itemsPerSecond; }
+    public void setItemsPerSecond(double itemsPerSecond) { this.itemsPerSecond = itemsPerSecond; }
+
+    public double getBytesPerSecond() { return bytesPerSecond; }
+    public void setBytesPerSecond(double bytesPerSecond) { this.bytesPerSecond = bytesPerSecond; }
+
+    public double getP50Ms() { return p50Ms; }
+    public void setP50Ms(double p50Ms) { this.p50Ms = p50Ms; }
+
+    public double getP95Ms() { return p95Ms; }
+    public void setP95Ms(double p95Ms) { this.p95Ms = p95Ms; }
+
+    public double getP99Ms() { return p99Ms; }
+    public void setP99Ms(double p99Ms) { this.p99Ms = p99Ms; }
+
+    public double getMaxMs() { return maxMs; }
+    public void setMaxMs(double maxMs) { this.maxMs = maxMs; }
+
+    public int getMaxQueueDepth() { return maxQueueDepth; }
+    public void setMaxQueueDepth(int maxQueueDepth) { this.maxQueueDepth = maxQueueDepth; }
+
+    public double getAvgQueueDepth() { return avgQueueDepth; }
+    public void setAvgQueueDepth(double avgQueueDepth) { this.avgQueueDepth = avgQueueDepth; }
+
+    /** Share of items that failed in this stage, 0..1. */
+    public double getErrorRate() {
+        return items > 0 ? (double) errors / items : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d items (%.1f/s, %.1f KB/s) p50=%.1fms p95=%.1fms p99=%.1fms"
+                        + " queue max=%d avg=%.1f errors=%d",
+                stage, items, itemsPerSecond, bytesPerSecond / 1024, p50Ms, p95Ms, p99Ms,
+                maxQueueDepth, avgQueueDepth, errors);
+    }
+}
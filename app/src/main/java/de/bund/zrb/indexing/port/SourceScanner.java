@@ -3,6 +3,8 @@ package de.bund.zrb.indexing.port;
 import de.bund.zrb.indexing.model.IndexSource;
 import de.bund.zrb.indexing.model.ScannedItem;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
 
@@ -54,4 +56,21 @@ public interface SourceScanner {
      * @throws Exception if the item cannot be read
      */
     byte[] fetchContent(IndexSource source, String itemPath) throws Exception;
+
+    /**
+     * Open the raw content of a single item as a stream. Used when the pipeline hashes content
+     * while fetching it. The default wraps {@link #fetchContent}; scanners that can read
+     * incrementally (e.g. local files) should override it.
+     */
+    default InputStream openContent(IndexSource source, String itemPath) throws Exception {
+        return new ByteArrayInputStream(fetchContent(source, itemPath));
+    }
+
+    /**
+     * How many {@link #fetchContent} calls may run at the same time. The default of 1 suits
+     * scanners that share a single session (FTP, NDV); scanners without shared state may allow more.
+     */
+    default int getMaxConcurrentFetches() {
+        return 1;
+    }
 }
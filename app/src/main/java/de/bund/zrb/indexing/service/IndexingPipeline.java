@@ -5,6 +5,11 @@ import de.bund.zrb.indexing.port.SourceScanner;
 import de.bund.zrb.indexing.store.IndexSourceRepository;
 import de.bund.zrb.indexing.store.IndexStatusStore;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -14,13 +19,26 @@ import java.util.logging.Logger;
  *
  *   1. Scan (discover items via SourceScanner)
  *   2. Delta detection (compare with IndexItemStatus)
- *   3. Process changed items (Fetch → Extract → Chunk → Embed → Index)
+ *   3. Process changed items (Fetch → Extract → Chunk+Embed → Write)
  *   4. Handle deletions (tombstone)
  *   5. Persist status
  *
  * The pipeline is source-agnostic – source-specific logic lives in SourceScanner.
  * Text extraction, chunking, and indexing reuse the existing RAG infrastructure.
  *
+ * Step 3 runs as four concurrent stages connected by bounded queues (see {@link PipelineStage}),
+ * with thread counts taken from the IndexSource. Network fetches, Tika extraction, embedding
+ * calls and index writes of different items overlap, so a run is limited by its slowest stage
+ * instead of the sum of all stages. Processors that implement {@link StagedContentProcessor}
+ * are split across the stages; a plain {@link ContentProcessor} runs entirely in the write stage.
+ *
+ * Finished items are checkpointed to the status store every N items or T seconds (per source).
+ * If the application stops mid-run, the next run finds the checkpoint, records the interrupted
+ * run and only processes the items that were not checkpointed as done.
+ *
+ * Every stage records its latency, bytes, errors and input queue depth per item in the run's
+ * {@link RunMetrics}; the resulting {@link StageMetrics} are saved with each checkpoint and run.
+ *
  * Usage:
  *   IndexingPipeline pipeline = new IndexingPipeline(statusStore, scannerRegistry);
  *   IndexRunStatus result = pipeline.runForSource(source);
@@ -29,12 +47,14 @@ public class IndexingPipeline {
 
     private static final Logger LOG = Logger.getLogger(IndexingPipeline.class.getName());
     private static final int INDEX_SCHEMA_VERSION = 1;
+    /** Metrics name of the time the scanner takes per item; the other stages use their stage names. */
+    static final String SCAN_STAGE = "Scan";
 
     private final IndexStatusStore statusStore;
     private final Map<SourceType, SourceScanner> scanners = new HashMap<>();
 
     // Callback interface for the processing step (injected by caller to use RAG infra)
-    private ContentProcessor contentProcessor;
+    private volatile ContentProcessor contentProcessor;
 
     /**
      * Callback for processing a single item's content.
@@ -53,12 +73,80 @@ public class IndexingPipeline {
          */
         int process(IndexSource source, String itemPath, byte[] content, String mimeType) throws Exception;
 
+        /**
+         * Same as {@link #process(IndexSource, String, byte[], String)}, but lets the processor
+         * report per-item statistics (e.g. generated embeddings) into the running run status.
+         */
+        default int process(IndexSource source, String itemPath, byte[] content, String mimeType,
+                            IndexRunStatus run) throws Exception {
+            return process(source, itemPath, content, mimeType);
+        }
+
         /**
          * Remove an item from all indices.
          */
         void removeFromIndex(String documentId) throws Exception;
     }
 
+    /**
+     * ContentProcessor split into the pipeline stages. Each method runs on its own stage threads,
+     * so implementations must be thread-safe. Returning {@code null} from {@link #extract} or
+     * {@link #prepare} means "nothing to index" and marks the item as skipped.
+     *
+     * @param <X> extraction result handed to {@link #prepare}
+     * @param <P> prepared (chunked and embedded) content handed to {@link #write}
+     */
+    public interface StagedContentProcessor<X, P> extends ContentProcessor {
+
+        /** Extract stage: raw bytes → text/document. */
+        X extract(IndexSource source, ScannedItem item, byte[] content) throws Exception;
+
+        /** Chunk+embed stage: no index writes yet. */
+        P prepare(IndexSource source, ScannedItem item, X extracted, IndexRunStatus run) throws Exception;
+
+        /** Write stage: persist to the indices. @return number of chunks written */
+        int write(IndexSource source, ScannedItem item, P prepared, IndexRunStatus run) throws Exception;
+
+        /**
+         * Open the writer of one run. Its writes may be committed in groups; an item is marked
+         * INDEXED only once the session reports it durable. The default session calls
+         * {@link #write} and reports each item durable as soon as it returns.
+         */
+        default WriteSession<P> openWriteSession(IndexSource source, IndexRunStatus run) {
+            return (item, prepared, callback) -> callback.durable(write(source, item, prepared, run));
+        }
+    }
+
+    /**
+     * Write stage of one run, see {@link StagedContentProcessor#openWriteSession}.
+     */
+    public interface WriteSession<P> {
+
+        /**
+         * Write an item. The callback follows once the write is durable, which may be before or
+         * long after this method returns. If this method throws, the callback is not called.
+         */
+        void write(ScannedItem item, P prepared, WriteCallback callback) throws Exception;
+
+        /** Make everything written so far durable. */
+        default void flush() throws Exception {
+        }
+
+        /** Flush and release the session. */
+        default void close() throws Exception {
+            flush();
+        }
+    }
+
+    /**
+     * Outcome of a write handed to a {@link WriteSession}.
+     */
+    public interface WriteCallback {
+        void durable(int chunkCount);
+
+        void failed(Exception e);
+    }
+
     /**
      * Callback for reporting progress during a pipeline run.
      */
@@ -78,6 +166,10 @@ public class IndexingPipeline {
         this.contentProcessor = processor;
     }
 
+    public ContentProcessor getContentProcessor() {
+        return contentProcessor;
+    }
+
     /**
      * Run the full indexing pipeline for a source (no progress reporting).
      */
@@ -100,6 +192,21 @@ public class IndexingPipeline {
         String sourceId = source.getSourceId();
         LOG.info("[Indexing] Starting run for: " + source.getName() + " (" + source.getSourceType() + ")");
 
+        // A checkpoint left behind means the previous run never finished (crash or shutdown).
+        // Items it checkpointed as INDEXED are skipped by the delta detection below.
+        IndexRunStatus interrupted = statusStore.loadCheckpoint(sourceId);
+        if (interrupted != null) {
+            run.setResumedFromCheckpoint(true);
+            run.setResumedRunId(interrupted.getRunId());
+            interrupted.setRunState(IndexRunStatus.RunState.CANCELLED);
+            interrupted.setCompletedAt(interrupted.getLastCheckpointAt());
+            interrupted.setLastError("Interrupted; resumed from checkpoint by the next run");
+            statusStore.saveRun(interrupted);
+            LOG.info("[Indexing] Resuming from checkpoint of run " + interrupted.getRunId()
+                    + " (" + interrupted.getItemsCheckpointed() + " items checkpointed)");
+        }
+        statusStore.saveCheckpoint(run);
+
         try {
             // ── 1. Get scanner ──
             SourceScanner scanner = scanners.get(source.getSourceType());
@@ -112,66 +219,78 @@ public class IndexingPipeline {
                     ? source.getMaxDurationMinutes() * 60_000L : Long.MAX_VALUE;
             long deadline = run.getStartedAt() + maxDurationMs;
 
-            // ── 2. Load existing statuses for delta detection ──
-            Map<String, IndexItemStatus> existingStatuses = statusStore.loadItemStatuses(sourceId);
+            // ── 2. Delta detection reads single items from the status store ──
+            // The pipeline stages write each result back as soon as the item is done
             Set<String> seenPaths = new HashSet<>();
             boolean timedOut = false;
 
-            // ── 3. Stream items: scan + process on-demand ──
-            // Items are processed as they arrive – no need to collect all first.
-            Iterator<ScannedItem> itemIterator = scanner.scanStreaming(source);
+            StagedRun<?, ?> stages = contentProcessor != null
+                    ? startStages(source, scanner, stagedProcessor(contentProcessor), statusStore, run, deadline)
+                    : null;
             int scannedCount = 0;
+            try {
+                // ── 3. Stream items: scan + process on-demand ──
+                // Items are processed as they arrive – no need to collect all first.
+                Iterator<ScannedItem> itemIterator = scanner.scanStreaming(source);
+
+                // For progress reporting, try to get total count (works for batch scanners).
+                // For streaming scanners, total is estimated from existing statuses.
+                int estimatedTotal = statusStore.countItems(sourceId);
+
+                while (true) {
+                    long scanStart = System.nanoTime();
+                    if (!itemIterator.hasNext()) break;
+                    ScannedItem item = itemIterator.next();
+                    run.getMetrics().record(SCAN_STAGE, System.nanoTime() - scanStart, 0, true);
+                    scannedCount++;
+                    seenPaths.add(item.getPath());
+
+                    // Update estimated total if we're discovering more items than expected
+                    if (scannedCount > estimatedTotal) {
+                        estimatedTotal = scannedCount;
+                    }
 
-            // For progress reporting, try to get total count (works for batch scanners).
-            // For streaming scanners, total is estimated from existing statuses.
-            int estimatedTotal = existingStatuses.size();
-
-            while (itemIterator.hasNext()) {
-                ScannedItem item = itemIterator.next();
-                scannedCount++;
-                seenPaths.add(item.getPath());
+                    // Report progress
+                    if (progressCallback != null && (scannedCount % 10 == 0 || scannedCount == 1)) {
+                        progressCallback.onProgress(scannedCount, estimatedTotal);
+                    }
 
-                // Update estimated total if we're discovering more items than expected
-                if (scannedCount > estimatedTotal) {
-                    estimatedTotal = scannedCount;
-                }
+                    // Check timeout
+                    if (System.currentTimeMillis() >= deadline) {
+                        if (!timedOut) {
+                            LOG.info("[Indexing] Max duration reached (" + source.getMaxDurationMinutes()
+                                    + " min). Stopping processing. Remaining items will be picked up next run.");
+                            timedOut = true;
+                        }
+                        // After timeout: still consume iterator to track seen paths (for deletion detection)
+                        // but don't process. Break after a reasonable additional count to avoid infinite iteration.
+                        // For streaming scanners, we can't know the total – just stop.
+                        break;
+                    }
 
-                // Report progress
-                if (progressCallback != null && (scannedCount % 10 == 0 || scannedCount == 1)) {
-                    progressCallback.onProgress(scannedCount, estimatedTotal);
-                }
+                    detectAndSubmit(source, stages, item, run);
 
-                // Check timeout
-                if (System.currentTimeMillis() >= deadline) {
-                    if (!timedOut) {
-                        LOG.info("[Indexing] Max duration reached (" + source.getMaxDurationMinutes()
-                                + " min). Stopping processing. Remaining items will be picked up next run.");
-                        timedOut = true;
+                    // Log progress periodically
+                    if (scannedCount % 500 == 0) {
+                        LOG.info("[Indexing] Progress: " + scannedCount + " items processed"
+                                + " (new=" + run.getItemsNew() + " changed=" + run.getItemsChanged()
+                                + " unchanged=" + run.getItemsUnchanged()
+                                + " embeddings=" + run.getEmbeddingsGenerated()
+                                + String.format(" @ %.1f/s", run.getEmbeddingsPerSecond()) + ")"
+                                + (stages != null ? " queues " + stages.queueDepths() : ""));
                     }
-                    // After timeout: still consume iterator to track seen paths (for deletion detection)
-                    // but don't process. Break after a reasonable additional count to avoid infinite iteration.
-                    // For streaming scanners, we can't know the total – just stop.
-                    break;
                 }
 
-                // Delta detection
-                IndexItemStatus existing = existingStatuses.get(item.getPath());
-
-                if (existing == null) {
-                    run.incNew();
-                    processItem(source, scanner, item, existingStatuses, sourceId);
-                } else if (existing.needsReindex(item.getLastModified(), item.getSize())) {
-                    run.incChanged();
-                    processItem(source, scanner, item, existingStatuses, sourceId);
-                } else {
-                    run.incUnchanged();
+                // Let the stages finish the items already handed to them
+                if (stages != null) {
+                    stages.finish();
+                    stages.checkpoint();
+                    stages = null;
                 }
-
-                // Log progress periodically
-                if (scannedCount % 500 == 0) {
-                    LOG.info("[Indexing] Progress: " + scannedCount + " items processed"
-                            + " (new=" + run.getItemsNew() + " changed=" + run.getItemsChanged()
-                            + " unchanged=" + run.getItemsUnchanged() + ")");
+            } finally {
+                if (stages != null) {
+                    stages.abort();
+                    stages.checkpoint(); // keep whatever finished before the failure
                 }
             }
 
@@ -185,28 +304,19 @@ public class IndexingPipeline {
             // If timed out, do NOT delete anything – we didn't see all items
             if (!timedOut) {
                 // ── 4. Handle deletions ──
-                for (Map.Entry<String, IndexItemStatus> entry : existingStatuses.entrySet()) {
-                    if (!seenPaths.contains(entry.getKey())
-                            && entry.getValue().getState() != IndexItemState.DELETED) {
-                        IndexItemStatus status = entry.getValue();
-                        status.setState(IndexItemState.DELETED);
-                        status.setDeletedAt(System.currentTimeMillis());
-
-                        if (contentProcessor != null) {
-                            try {
-                                contentProcessor.removeFromIndex(entry.getKey());
-                            } catch (Exception e) {
-                                LOG.log(Level.WARNING, "[Indexing] Error removing deleted item: " + entry.getKey(), e);
-                            }
-                        }
-                        run.incDeleted();
+                // Collected while streaming the store, removed from the index afterwards
+                final List<IndexItemStatus> deleted = new ArrayList<>();
+                statusStore.forEachItemStatus(sourceId, status -> {
+                    if (!seenPaths.contains(status.getItemPath())
+                            && status.getState() != IndexItemState.DELETED) {
+                        deleted.add(status);
                     }
-                }
+                });
+                tombstone(deleted, run);
+                // ── 5. Persist the tombstones ──
+                statusStore.checkpoint(run, deleted);
             }
 
-            // ── 5. Persist all statuses ──
-            statusStore.saveItemStatuses(sourceId, existingStatuses);
-
             run.setRunState(IndexRunStatus.RunState.COMPLETED);
 
         } catch (Exception e) {
@@ -216,17 +326,147 @@ public class IndexingPipeline {
         }
 
         run.setCompletedAt(System.currentTimeMillis());
+        run.updateStageMetrics();
         statusStore.saveRun(run);
+        statusStore.deleteCheckpoint(sourceId);
 
         LOG.info("[Indexing] Run completed: " + run);
+        for (StageMetrics stage : run.getStageMetrics()) {
+            LOG.info("[Indexing]   " + stage);
+        }
+        return run;
+    }
+
+    /**
+     * Incremental run for items reported by a file system watcher: only the given items go
+     * through delta detection and the stages, and only the given paths are tombstoned. A deleted
+     * path that is not a tracked item but has tracked items below it was a directory; those items
+     * are tombstoned.
+     *
+     * Incremental runs write item statuses directly and are not added to the run history;
+     * whatever they miss is picked up by the next full run.
+     */
+    public IndexRunStatus runForChanges(IndexSource source, Collection<ScannedItem> changed,
+                                        Collection<String> deletedPaths) {
+        IndexRunStatus run = new IndexRunStatus();
+        run.setSourceId(source.getSourceId());
+        run.setStartedAt(System.currentTimeMillis());
+        run.setIncremental(true);
+        String sourceId = source.getSourceId();
+
+        try {
+            SourceScanner scanner = scanners.get(source.getSourceType());
+            if (scanner == null) {
+                throw new IllegalStateException("No scanner registered for: " + source.getSourceType());
+            }
+
+            StagedRun<?, ?> stages = contentProcessor != null
+                    ? startStages(source, scanner, stagedProcessor(contentProcessor), statusStore, run, Long.MAX_VALUE)
+                    : null;
+            try {
+                for (ScannedItem item : changed) {
+                    run.incScanned();
+                    detectAndSubmit(source, stages, item, run);
+                }
+                if (stages != null) {
+                    stages.finish();
+                    stages.checkpoint();
+                    stages = null;
+                }
+            } finally {
+                if (stages != null) {
+                    stages.abort();
+                    stages.checkpoint();
+                }
+            }
+
+            List<IndexItemStatus> deleted = new ArrayList<>();
+            for (String path : deletedPaths) {
+                IndexItemStatus status = statusStore.getItemStatus(sourceId, path);
+                if (status == null) {
+                    // Not an item: a prefix query finds the items if it was a directory
+                    String directory = path.endsWith(File.separator) ? path : path + File.separator;
+                    deleted.addAll(statusStore.getLiveItemStatusesBelow(sourceId, directory));
+                } else if (status.getState() != IndexItemState.DELETED) {
+                    deleted.add(status);
+                }
+            }
+            tombstone(deleted, run);
+            statusStore.updateItemStatuses(sourceId, deleted);
+
+            run.setRunState(IndexRunStatus.RunState.COMPLETED);
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "[Indexing] Incremental run failed for: " + source.getName(), e);
+            run.setRunState(IndexRunStatus.RunState.FAILED);
+            run.setLastError(e.getMessage());
+        }
+
+        run.setCompletedAt(System.currentTimeMillis());
+        run.updateStageMetrics();
+        LOG.fine("[Indexing] Incremental run completed: " + run);
         return run;
     }
 
+    // ─── Delta detection for a single item ───
+
+    private void detectAndSubmit(IndexSource source, StagedRun<?, ?> stages, ScannedItem item,
+                                 IndexRunStatus run) throws InterruptedException {
+        String sourceId = source.getSourceId();
+        IndexItemStatus existing = statusStore.getItemStatus(sourceId, item.getPath());
+
+        if (existing == null) {
+            run.incNew();
+            processItem(stages, item, null, sourceId, false);
+        } else if (stages != null && needsHashCheck(source.getChangeDetection(), existing, item)) {
+            // Counted as changed or unchanged once the fetch stage has hashed the content
+            processItem(stages, item, existing, sourceId, true);
+        } else if (existing.needsReindex(item.getLastModified(), item.getSize())) {
+            run.incChanged();
+            processItem(stages, item, existing, sourceId, false);
+        } else {
+            run.incUnchanged();
+        }
+    }
+
+    /**
+     * Mark items as deleted and remove them from the index; the caller persists the statuses.
+     */
+    private void tombstone(List<IndexItemStatus> deleted, IndexRunStatus run) {
+        for (IndexItemStatus status : deleted) {
+            status.setState(IndexItemState.DELETED);
+            status.setDeletedAt(System.currentTimeMillis());
+
+            if (contentProcessor != null) {
+                try {
+                    contentProcessor.removeFromIndex(status.getItemPath());
+                } catch (Exception e) {
+                    LOG.log(Level.WARNING, "[Indexing] Error removing deleted item: " + status.getItemPath(), e);
+                }
+            }
+            run.incDeleted();
+        }
+    }
+
     // ─── Process a single item ───
 
-    private void processItem(IndexSource source, SourceScanner scanner, ScannedItem item,
-                              Map<String, IndexItemStatus> statuses, String sourceId) {
-        IndexItemStatus status = statuses.get(item.getPath());
+    /**
+     * Whether an already indexed item must be fetched and hashed to decide if it changed.
+     * CONTENT_HASH ignores mtime/size entirely; MTIME_THEN_HASH only hashes when they differ.
+     */
+    static boolean needsHashCheck(ChangeDetectionMode mode, IndexItemStatus existing, ScannedItem item) {
+        if (mode == null || mode == ChangeDetectionMode.MTIME_SIZE) return false;
+        if (existing.getState() != IndexItemState.INDEXED || existing.getChunkCount() <= 0) return false;
+        boolean metadataChanged = existing.needsReindex(item.getLastModified(), item.getSize());
+        if (mode == ChangeDetectionMode.CONTENT_HASH) return true;
+        // MTIME_THEN_HASH: unchanged metadata is trusted; changed metadata is confirmed by hash
+        return metadataChanged && existing.getContentHash() != null;
+    }
+
+    private void processItem(StagedRun<?, ?> stages, ScannedItem item, IndexItemStatus status,
+                             String sourceId, boolean hashCheck) throws InterruptedException {
+        // Before they are overwritten below: lets the fetch stage tell a metadata-only change
+        boolean metadataUnchanged = status != null
+                && status.getLastModifiedAt() == item.getLastModified() && status.getFileSize() == item.getSize();
         if (status == null) {
             status = new IndexItemStatus();
             status.setSourceId(sourceId);
@@ -236,39 +476,380 @@ public class IndexingPipeline {
         status.setLastModifiedAt(item.getLastModified());
         status.setFileSize(item.getSize());
 
-        try {
-            if (contentProcessor == null) {
-                // No processor registered – just track the status
-                status.setState(IndexItemState.PENDING);
-                status.setSkipReason("No ContentProcessor registered");
+        if (stages == null) {
+            // No processor registered – just track the status
+            status.setState(IndexItemState.PENDING);
+            status.setSkipReason("No ContentProcessor registered");
+            statusStore.updateItemStatus(sourceId, status);
+        } else {
+            // Fetch → Extract → Chunk+Embed → Write; blocks while the fetch queue is full
+            stages.submit(item, status, hashCheck, metadataUnchanged);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StagedContentProcessor<?, ?> stagedProcessor(ContentProcessor processor) {
+        if (processor instanceof StagedContentProcessor) {
+            return (StagedContentProcessor<?, ?>) processor;
+        }
+        return new SingleStepProcessor(processor);
+    }
+
+    private <X, P> StagedRun<X, P> startStages(IndexSource source, SourceScanner scanner,
+                                               StagedContentProcessor<X, P> processor,
+                                               IndexStatusStore statuses,
+                                               IndexRunStatus run, long deadline) {
+        StagedRun<X, P> stages = new StagedRun<>(source, scanner, processor, statuses, run, deadline);
+        stages.start();
+        return stages;
+    }
+
+    /**
+     * Adapter that runs a plain ContentProcessor as a single step in the write stage.
+     */
+    private static class SingleStepProcessor implements StagedContentProcessor<byte[], byte[]> {
+        private final ContentProcessor delegate;
+
+        SingleStepProcessor(ContentProcessor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public byte[] extract(IndexSource source, ScannedItem item, byte[] content) {
+            return content;
+        }
+
+        @Override
+        public byte[] prepare(IndexSource source, ScannedItem item, byte[] extracted, IndexRunStatus run) {
+            return extracted;
+        }
+
+        @Override
+        public int write(IndexSource source, ScannedItem item, byte[] prepared, IndexRunStatus run) throws Exception {
+            return delegate.process(source, item.getPath(), prepared, item.getMimeType(), run);
+        }
+
+        @Override
+        public int process(IndexSource source, String itemPath, byte[] content, String mimeType) throws Exception {
+            return delegate.process(source, itemPath, content, mimeType);
+        }
+
+        @Override
+        public void removeFromIndex(String documentId) throws Exception {
+            delegate.removeFromIndex(documentId);
+        }
+    }
+
+    /**
+     * An item travelling through the stages. Each stage clears the data it consumed.
+     */
+    private static class WorkItem<X, P> {
+        final ScannedItem item;
+        final IndexItemStatus status;
+        final boolean hashCheck;          // skip extraction if the content hash is unchanged
+        final boolean metadataUnchanged;  // mtime and size equal to the last indexed version
+        final String previousHash;
+        byte[] content;
+        String contentHash;
+        X extracted;
+        P prepared;
+
+        WorkItem(ScannedItem item, IndexItemStatus status, boolean hashCheck, boolean metadataUnchanged) {
+            this.item = item;
+            this.status = status;
+            this.hashCheck = hashCheck;
+            this.metadataUnchanged = metadataUnchanged;
+            this.previousHash = status.getContentHash();
+        }
+    }
+
+    /**
+     * The four stages of one run and the bookkeeping of their results.
+     */
+    private static class StagedRun<X, P> {
+        private final IndexSource source;
+        private final SourceScanner scanner;
+        private final StagedContentProcessor<X, P> processor;
+        private final IndexStatusStore statuses;
+        private final IndexRunStatus run;
+        private final long deadline;
+        private final boolean hashContent;
+
+        private final PipelineStage<WorkItem<X, P>> fetchStage;
+        private final PipelineStage<WorkItem<X, P>> extractStage;
+        private final PipelineStage<WorkItem<X, P>> prepareStage;
+        private final PipelineStage<WorkItem<X, P>> writeStage;
+        private final WriteSession<P> writeSession;
+        private boolean writeSessionClosed;
+
+        // Finished statuses not yet checkpointed; guarded by this
+        private final List<IndexItemStatus> uncheckpointed = new ArrayList<>();
+        private final int checkpointEveryItems;
+        private final long checkpointIntervalMs;
+        private long lastCheckpoint = System.currentTimeMillis();
+
+        StagedRun(IndexSource source, SourceScanner scanner, StagedContentProcessor<X, P> processor,
+                  IndexStatusStore statuses, IndexRunStatus run, long deadline) {
+            this.source = source;
+            this.scanner = scanner;
+            this.processor = processor;
+            this.statuses = statuses;
+            this.run = run;
+            this.deadline = deadline;
+
+            int capacity = source.getStageQueueCapacity();
+            int fetchThreads = Math.min(source.getFetchThreads(), scanner.getMaxConcurrentFetches());
+            this.fetchStage = new PipelineStage<>("Fetch", fetchThreads, capacity, this::fetch);
+            this.extractStage = new PipelineStage<>("Extract", source.getExtractThreads(), capacity, this::extract);
+            this.prepareStage = new PipelineStage<>("Embed", source.getEmbedThreads(), capacity, this::prepare);
+            this.writeStage = new PipelineStage<>("Write", source.getWriteThreads(), capacity, this::write);
+            this.writeSession = processor.openWriteSession(source, run);
+            this.hashContent = source.getChangeDetection() != null
+                    && source.getChangeDetection() != ChangeDetectionMode.MTIME_SIZE;
+            this.checkpointEveryItems = Math.max(1, source.getCheckpointEveryItems());
+            this.checkpointIntervalMs = Math.max(1, source.getCheckpointIntervalSeconds()) * 1000L;
+        }
+
+        void start() {
+            writeStage.start();
+            prepareStage.start();
+            extractStage.start();
+            fetchStage.start();
+        }
+
+        void submit(ScannedItem item, IndexItemStatus status, boolean hashCheck, boolean metadataUnchanged)
+                throws InterruptedException {
+            handOver(fetchStage, new WorkItem<X, P>(item, status, hashCheck, metadataUnchanged));
+        }
+
+        /**
+         * Queue an item for a stage, sampling the queue depth the item finds there.
+         */
+        private void handOver(PipelineStage<WorkItem<X, P>> stage, WorkItem<X, P> w) throws InterruptedException {
+            run.getMetrics().sampleQueue(stage.getName(), stage.queued());
+            stage.put(w);
+        }
+
+        private void record(PipelineStage<WorkItem<X, P>> stage, long startNanos, long bytes, boolean success) {
+            run.getMetrics().record(stage.getName(), System.nanoTime() - startNanos, bytes, success);
+        }
+
+        /**
+         * Drain all stages front to back, then commit the last writes.
+         */
+        void finish() throws InterruptedException {
+            fetchStage.finish();
+            extractStage.finish();
+            prepareStage.finish();
+            writeStage.finish();
+            closeWriteSession();
+        }
+
+        void abort() {
+            fetchStage.abort();
+            extractStage.abort();
+            prepareStage.abort();
+            // Never interrupt a writer: an interrupted IndexWriter thread closes the shared index
+            writeStage.stop();
+            // Items already written still count once committed
+            closeWriteSession();
+        }
+
+        private synchronized void closeWriteSession() {
+            if (writeSessionClosed) return;
+            writeSessionClosed = true;
+            try {
+                writeSession.close();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "[Indexing] Failed to commit the last writes of: " + source.getName(), e);
+            }
+        }
+
+        /**
+         * Persist all statuses finished since the last checkpoint.
+         */
+        synchronized void checkpoint() {
+            if (run.isIncremental()) {
+                // No checkpoint record for watcher-triggered runs, just the item statuses
+                statuses.updateItemStatuses(source.getSourceId(), new ArrayList<>(uncheckpointed));
             } else {
-                // Fetch content
-                byte[] content = scanner.fetchContent(source, item.getPath());
-
-                // Process (extract → chunk → embed → index)
-                int chunkCount = contentProcessor.process(source, item.getPath(), content, item.getMimeType());
-
-                if (chunkCount > 0) {
-                    status.setState(IndexItemState.INDEXED);
-                    status.setIndexedAt(System.currentTimeMillis());
-                    status.setChunkCount(chunkCount);
-                    status.setIndexSchemaVersion(INDEX_SCHEMA_VERSION);
-                    status.setErrorMessage(null);
-                    status.setErrorCount(0);
+                run.updateStageMetrics();
+                statuses.checkpoint(run, new ArrayList<>(uncheckpointed));
+            }
+            uncheckpointed.clear();
+            lastCheckpoint = System.currentTimeMillis();
+        }
+
+        private synchronized void finished(IndexItemStatus status) {
+            uncheckpointed.add(status);
+            if (uncheckpointed.size() >= checkpointEveryItems
+                    || System.currentTimeMillis() - lastCheckpoint >= checkpointIntervalMs) {
+                checkpoint();
+            }
+        }
+
+        String queueDepths() {
+            return "fetch=" + fetchStage.queued() + " extract=" + extractStage.queued()
+                    + " embed=" + prepareStage.queued() + " write=" + writeStage.queued();
+        }
+
+        private void fetch(WorkItem<X, P> w) throws InterruptedException {
+            if (System.currentTimeMillis() >= deadline) {
+                // Max duration reached while queued: leave the status untouched so the
+                // item counts as new/changed again on the next run
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                if (hashContent) {
+                    fetchAndHash(w);
                 } else {
-                    // Extraction returned no text/chunks – mark as skipped so it gets retried
-                    status.setState(IndexItemState.SKIPPED);
-                    status.setSkipReason("No text extracted (0 chunks)");
-                    status.setChunkCount(0);
+                    w.content = scanner.fetchContent(source, w.item.getPath());
                 }
+            } catch (Exception e) {
+                record(fetchStage, start, 0, false);
+                failed(w, e);
+                return;
             }
-        } catch (Exception e) {
-            LOG.log(Level.WARNING, "[Indexing] Error processing: " + item.getPath(), e);
+            record(fetchStage, start, w.content != null ? w.content.length : 0, true);
+            if (w.hashCheck) {
+                // A missing previous hash (indexed before hashes were kept) falls back to the metadata
+                boolean same = w.previousHash != null ? w.previousHash.equals(w.contentHash) : w.metadataUnchanged;
+                if (same) {
+                    unchangedByHash(w);
+                    return;
+                }
+                run.incChanged();
+            }
+            handOver(extractStage, w);
+        }
+
+        /**
+         * Read the item and compute its SHA-256 on the fly, without a second pass over the bytes.
+         */
+        private void fetchAndHash(WorkItem<X, P> w) throws Exception {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+                    (int) Math.max(32, Math.min(w.item.getSize(), 64L * 1024 * 1024)));
+            try (InputStream in = new DigestInputStream(scanner.openContent(source, w.item.getPath()), digest)) {
+                byte[] chunk = new byte[8192];
+                int n;
+                while ((n = in.read(chunk)) != -1) {
+                    buffer.write(chunk, 0, n);
+                }
+            }
+            w.content = buffer.toByteArray();
+            w.contentHash = toHex(digest.digest());
+        }
+
+        /**
+         * Content identical to the indexed version: keep the index entries, only record the new metadata.
+         */
+        private void unchangedByHash(WorkItem<X, P> w) {
+            w.content = null;
+            w.status.setContentHash(w.contentHash);
+            run.incUnchanged();
+            run.incSkippedByHash();
+            finished(w.status);
+        }
+
+        private void extract(WorkItem<X, P> w) throws InterruptedException {
+            long start = System.nanoTime();
+            long bytes = w.content != null ? w.content.length : 0;
+            try {
+                w.extracted = processor.extract(source, w.item, w.content);
+                w.content = null;
+            } catch (Exception e) {
+                record(extractStage, start, bytes, false);
+                failed(w, e);
+                return;
+            }
+            record(extractStage, start, bytes, true);
+            if (w.extracted == null) {
+                completed(w, 0);
+            } else {
+                handOver(prepareStage, w);
+            }
+        }
+
+        private void prepare(WorkItem<X, P> w) throws InterruptedException {
+            long start = System.nanoTime();
+            try {
+                w.prepared = processor.prepare(source, w.item, w.extracted, run);
+                w.extracted = null;
+            } catch (Exception e) {
+                record(prepareStage, start, 0, false);
+                failed(w, e);
+                return;
+            }
+            record(prepareStage, start, 0, true);
+            if (w.prepared == null) {
+                completed(w, 0);
+            } else {
+                handOver(writeStage, w);
+            }
+        }
+
+        private void write(final WorkItem<X, P> w) {
+            P prepared = w.prepared;
+            w.prepared = null;
+            long start = System.nanoTime();
+            try {
+                // INDEXED only once the write is durable
+                writeSession.write(w.item, prepared, new WriteCallback() {
+                    @Override
+                    public void durable(int chunkCount) {
+                        completed(w, chunkCount);
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        StagedRun.this.failed(w, e);
+                    }
+                });
+                record(writeStage, start, 0, true);
+            } catch (Exception e) {
+                record(writeStage, start, 0, false);
+                failed(w, e);
+            }
+        }
+
+        private void completed(WorkItem<X, P> w, int chunkCount) {
+            IndexItemStatus status = w.status;
+            status.setContentHash(w.contentHash);
+            if (chunkCount > 0) {
+                status.setState(IndexItemState.INDEXED);
+                status.setIndexedAt(System.currentTimeMillis());
+                status.setChunkCount(chunkCount);
+                status.setIndexSchemaVersion(INDEX_SCHEMA_VERSION);
+                status.setErrorMessage(null);
+                status.setErrorCount(0);
+            } else {
+                // Extraction returned no text/chunks – mark as skipped so it gets retried
+                status.setState(IndexItemState.SKIPPED);
+                status.setSkipReason("No text extracted (0 chunks)");
+                status.setChunkCount(0);
+                run.incSkipped();
+            }
+            finished(status);
+        }
+
+        private void failed(WorkItem<X, P> w, Exception e) {
+            LOG.log(Level.WARNING, "[Indexing] Error processing: " + w.item.getPath(), e);
+            IndexItemStatus status = w.status;
             status.setState(IndexItemState.ERROR);
             status.setErrorMessage(e.getMessage());
             status.setErrorCount(status.getErrorCount() + 1);
+            run.incErrored();
+            finished(status);
         }
+    }
 
-        statuses.put(item.getPath(), status);
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
     }
 }
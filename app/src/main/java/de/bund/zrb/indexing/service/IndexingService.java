@@ -2,11 +2,19 @@ package de.bund.zrb.indexing.service;
 
 import de.bund.zrb.indexing.connector.FtpSourceScanner;
 import de.bund.zrb.indexing.connector.LocalSourceScanner;
+import de.bund.zrb.indexing.connector.LocalSourceWatcher;
 import de.bund.zrb.indexing.connector.NdvSourceScanner;
 import de.bund.zrb.indexing.model.*;
 import de.bund.zrb.indexing.store.IndexSourceRepository;
 import de.bund.zrb.indexing.store.IndexStatusStore;
-
+import de.bund.zrb.indexing.store.RunMetricsExport;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.logging.Level;
@@ -35,14 +43,17 @@ public class IndexingService {
     private final IndexStatusStore statusStore = new IndexStatusStore();
     private final IndexingPipeline pipeline;
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "Indexing-Worker");
-        t.setDaemon(true);
-        return t;
-    });
+    // Independent sources run side by side; scanners of one type share a connection
+    private final SourceRunScheduler runScheduler = new SourceRunScheduler(4, 2)
+            .setTypeLimit(SourceType.FTP, 1)    // one FileService session
+            .setTypeLimit(SourceType.NDV, 1)    // one NdvService session
+            .setTypeLimit(SourceType.MAIL, 1);  // one PST/OST reader at a time
 
     private ScheduledExecutorService scheduler;
-    private final Map<String, Future<?>> runningJobs = new ConcurrentHashMap<>();
+
+    // WATCH sources: file system watchers feeding incremental runs (while the scheduler runs)
+    private static final long WATCH_DEBOUNCE_MS = 2000;
+    private final Map<String, LocalSourceWatcher> watchers = new ConcurrentHashMap<>();
 
     // Listeners for UI updates
     private final List<IndexingListener> listeners = new CopyOnWriteArrayList<>();
@@ -58,11 +69,13 @@ public class IndexingService {
     private final de.bund.zrb.indexing.connector.WikiSourceScanner wikiScanner;
     private final NdvSourceScanner ndvScanner;
     private final FtpSourceScanner ftpScanner;
+    private final LocalSourceScanner localScanner;
 
     private IndexingService() {
         pipeline = new IndexingPipeline(statusStore);
         // Register built-in scanners
-        pipeline.registerScanner(SourceType.LOCAL, new LocalSourceScanner());
+        localScanner = new LocalSourceScanner();
+        pipeline.registerScanner(SourceType.LOCAL, localScanner);
         pipeline.registerScanner(SourceType.MAIL, new de.bund.zrb.indexing.connector.MailSourceScanner());
         wikiScanner = new de.bund.zrb.indexing.connector.WikiSourceScanner();
         pipeline.registerScanner(SourceType.WIKI, wikiScanner);
@@ -128,9 +141,15 @@ public class IndexingService {
 
     public void saveSource(IndexSource source) {
         sourceRepo.save(source);
+        if (scheduler != null) {
+            // Scope, filters or schedule mode may have changed
+            stopWatching(source.getSourceId());
+            startWatching(source);
+        }
     }
 
     public boolean removeSource(String sourceId) {
+        stopWatching(sourceId);
         statusStore.deleteSource(sourceId);
         return sourceRepo.remove(sourceId);
     }
@@ -140,121 +159,155 @@ public class IndexingService {
     // ═══════════════════════════════════════════════════════════════
 
     /**
-     * Run indexing for a specific source immediately (async).
+     * Run indexing for a specific source as soon as possible (async).
+     * Interactive runs start ahead of waiting scheduled runs.
      */
     public void runNow(String sourceId) {
-        if (runningJobs.containsKey(sourceId)) {
-            LOG.info("[Indexing] Run already in progress for: " + sourceId);
-            return;
-        }
-
-        IndexSource source = sourceRepo.findById(sourceId);
-        if (source == null) {
-            LOG.warning("[Indexing] Source not found: " + sourceId);
-            return;
-        }
-
-        Future<?> future = executor.submit(() -> {
-            for (IndexingListener l : listeners) l.onRunStarted(sourceId);
-            try {
-                IndexRunStatus result = pipeline.runForSource(source, new IndexingPipeline.ProgressCallback() {
-                    @Override
-                    public void onProgress(int current, int total) {
-                        for (IndexingListener l : listeners) l.onProgress(sourceId, current, total);
-                    }
-                });
-                for (IndexingListener l : listeners) l.onRunCompleted(sourceId, result);
-            } catch (Exception e) {
-                LOG.log(Level.SEVERE, "[Indexing] Run failed", e);
-                for (IndexingListener l : listeners) l.onRunFailed(sourceId, e.getMessage());
-            } finally {
-                runningJobs.remove(sourceId);
-            }
-        });
-        runningJobs.put(sourceId, future);
+        submitRun(sourceId, SourceRunScheduler.Priority.INTERACTIVE, false);
     }
 
     /**
-     * Run indexing for all enabled sources (async, sequential).
+     * Run indexing for all enabled sources (async). Sources run concurrently within the
+     * per-type limits.
      */
     public void runAll() {
-        executor.submit(() -> {
-            for (IndexSource source : sourceRepo.getEnabled()) {
-                if (!runningJobs.containsKey(source.getSourceId())) {
-                    final String sid = source.getSourceId();
-                    for (IndexingListener l : listeners) l.onRunStarted(sid);
-                    try {
-                        IndexRunStatus result = pipeline.runForSource(source, new IndexingPipeline.ProgressCallback() {
-                            @Override
-                            public void onProgress(int current, int total) {
-                                for (IndexingListener l : listeners) l.onProgress(sid, current, total);
-                            }
-                        });
-                        for (IndexingListener l : listeners) l.onRunCompleted(sid, result);
-                    } catch (Exception e) {
-                        for (IndexingListener l : listeners) l.onRunFailed(sid, e.getMessage());
-                    }
-                }
-            }
-        });
+        for (IndexSource source : sourceRepo.getEnabled()) {
+            submitRun(source.getSourceId(), SourceRunScheduler.Priority.INTERACTIVE, false);
+        }
     }
 
     /**
      * Check if a source is currently being indexed.
      */
     public boolean isRunning(String sourceId) {
-        return runningJobs.containsKey(sourceId);
+        return runScheduler.isRunning(sourceId);
     }
 
     /**
-     * Force a complete re-index: clears all item statuses and the Lucene index,
-     * then runs the indexing pipeline from scratch.
+     * Check if a source waits for a free slot (its type or the global limit is reached).
+     */
+    public boolean isQueued(String sourceId) {
+        return runScheduler.isQueued(sourceId);
+    }
+
+    /**
+     * Force a complete re-index: removes the source's documents from the index and clears
+     * its item statuses, then runs the indexing pipeline from scratch.
      */
     public void forceReindex(String sourceId) {
-        if (runningJobs.containsKey(sourceId)) {
-            LOG.info("[Indexing] Run already in progress for: " + sourceId);
+        submitRun(sourceId, SourceRunScheduler.Priority.INTERACTIVE, true);
+    }
+
+    private void submitRun(String sourceId, SourceRunScheduler.Priority priority, boolean reindex) {
+        IndexSource source = sourceRepo.findById(sourceId);
+        if (source == null) {
+            LOG.warning("[Indexing] Source not found: " + sourceId);
             return;
         }
+        if (!runScheduler.submit(sourceId, source.getSourceType(), priority, () -> executeRun(sourceId, reindex))) {
+            LOG.fine("[Indexing] Run already queued or in progress for: " + sourceId);
+        }
+    }
 
+    private void executeRun(String sourceId, boolean reindex) {
+        // Re-read: the configuration may have been edited while the run was waiting
         IndexSource source = sourceRepo.findById(sourceId);
         if (source == null) {
-            LOG.warning("[Indexing] Source not found for reindex: " + sourceId);
+            LOG.info("[Indexing] Source removed before its run started: " + sourceId);
             return;
         }
 
-        Future<?> future = executor.submit(() -> {
+        if (reindex) {
             LOG.info("[Indexing] FORCE REINDEX: Clearing all statuses for " + source.getName());
-
-            // 1. Clear all item statuses for this source
+            removeIndexedItems(sourceId);
             statusStore.clearItemStatuses(sourceId);
             LOG.info("[Indexing] Cleared item statuses for: " + sourceId);
+        }
 
-            // 2. Clear the Lucene index
+        for (IndexingListener l : listeners) l.onRunStarted(sourceId);
+        try {
+            IndexRunStatus result = pipeline.runForSource(source, new IndexingPipeline.ProgressCallback() {
+                @Override
+                public void onProgress(int current, int total) {
+                    for (IndexingListener l : listeners) l.onProgress(sourceId, current, total);
+                }
+            });
+            for (IndexingListener l : listeners) l.onRunCompleted(sourceId, result);
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "[Indexing] Run failed", e);
+            for (IndexingListener l : listeners) l.onRunFailed(sourceId, e.getMessage());
+        }
+    }
+
+    /**
+     * Remove the documents of one source from the index. Other sources may be indexing at the
+     * same time, so the shared index is not cleared as a whole.
+     */
+    private void removeIndexedItems(String sourceId) {
+        List<String> paths = new ArrayList<>();
+        statusStore.forEachItemStatus(sourceId, status -> {
+            if (status.getState() != IndexItemState.DELETED) paths.add(status.getItemPath());
+        });
+        IndexingPipeline.ContentProcessor processor = pipeline.getContentProcessor();
+        if (processor == null) return;
+        for (String path : paths) {
             try {
-                de.bund.zrb.rag.service.RagService.getInstance().clear();
-                LOG.info("[Indexing] Cleared Lucene index");
+                processor.removeFromIndex(path);
             } catch (Exception e) {
-                LOG.log(Level.WARNING, "[Indexing] Error clearing Lucene index", e);
+                LOG.log(Level.WARNING, "[Indexing] Error removing item from index: " + path, e);
             }
+        }
+        LOG.info("[Indexing] Removed " + paths.size() + " documents of " + sourceId + " from the index");
+    }
 
-            // 3. Run the pipeline
-            for (IndexingListener l : listeners) l.onRunStarted(sourceId);
-            try {
-                IndexRunStatus result = pipeline.runForSource(source, new IndexingPipeline.ProgressCallback() {
-                    @Override
-                    public void onProgress(int current, int total) {
-                        for (IndexingListener l : listeners) l.onProgress(sourceId, current, total);
-                    }
-                });
-                for (IndexingListener l : listeners) l.onRunCompleted(sourceId, result);
-            } catch (Exception e) {
-                LOG.log(Level.SEVERE, "[Indexing] Reindex run failed", e);
-                for (IndexingListener l : listeners) l.onRunFailed(sourceId, e.getMessage());
-            } finally {
-                runningJobs.remove(sourceId);
+    // ═══════════════════════════════════════════════════════════════
+    //  Watch mode (LOCAL sources)
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Start following file system events for an enabled LOCAL source in WATCH mode.
+     */
+    private void startWatching(IndexSource source) {
+        if (!source.isEnabled() || source.getScheduleMode() != ScheduleMode.WATCH
+                || source.getSourceType() != SourceType.LOCAL) {
+            return;
+        }
+        final String sourceId = source.getSourceId();
+        LocalSourceWatcher watcher = new LocalSourceWatcher(source, localScanner, new LocalSourceWatcher.ChangeListener() {
+            @Override
+            public boolean onChanges(List<ScannedItem> changed, List<String> deletedPaths) {
+                return runScheduler.submit(sourceId, SourceType.LOCAL, SourceRunScheduler.Priority.SCHEDULED,
+                        () -> executeIncrementalRun(sourceId, changed, deletedPaths));
             }
-        });
-        runningJobs.put(sourceId, future);
+
+            @Override
+            public void onOverflow() {
+                submitRun(sourceId, SourceRunScheduler.Priority.SCHEDULED, false);
+            }
+        }, WATCH_DEBOUNCE_MS);
+        try {
+            watcher.start();
+            watchers.put(sourceId, watcher);
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "[Indexing] Cannot watch " + source.getName() + ", falling back to manual runs", e);
+            watcher.close();
+        }
+    }
+
+    private void stopWatching(String sourceId) {
+        LocalSourceWatcher watcher = watchers.remove(sourceId);
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    private void executeIncrementalRun(String sourceId, List<ScannedItem> changed, List<String> deletedPaths) {
+        IndexSource source = sourceRepo.findById(sourceId);
+        if (source == null) return;
+        IndexRunStatus result = pipeline.runForChanges(source, changed, deletedPaths);
+        LOG.info("[Indexing] Watch: " + source.getName() + " – " + changed.size() + " changed, "
+                + deletedPaths.size() + " deleted → new=" + result.getItemsNew()
+                + " changed=" + result.getItemsChanged() + " deleted=" + result.getItemsDeleted());
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -273,6 +326,22 @@ public class IndexingService {
         return statusStore.getLastSuccessfulRun(sourceId);
     }
 
+    /**
+     * Write the stage metrics of the source's run history to a CSV file (UTF-8).
+     */
+    public void exportRunMetrics(String sourceId, File target) throws IOException {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(target), StandardCharsets.UTF_8)) {
+            RunMetricsExport.writeCsv(statusStore.loadRuns(sourceId), out);
+        }
+    }
+
+    /**
+     * True if the last run of the source was interrupted; the next run resumes from its checkpoint.
+     */
+    public boolean hasCheckpoint(String sourceId) {
+        return statusStore.hasCheckpoint(sourceId);
+    }
+
     // ═══════════════════════════════════════════════════════════════
     //  Scheduler
     // ═══════════════════════════════════════════════════════════════
@@ -290,11 +359,13 @@ public class IndexingService {
             return t;
         });
 
-        // Run ON_STARTUP sources
+        // Run ON_STARTUP sources; WATCH sources catch up with a full scan, then follow events
         for (IndexSource source : sourceRepo.getEnabled()) {
-            if (source.getScheduleMode() == ScheduleMode.ON_STARTUP) {
-                runNow(source.getSourceId());
+            if (source.getScheduleMode() == ScheduleMode.ON_STARTUP
+                    || source.getScheduleMode() == ScheduleMode.WATCH) {
+                submitRun(source.getSourceId(), SourceRunScheduler.Priority.SCHEDULED, false);
             }
+            startWatching(source);
         }
 
         // Schedule periodic check for INTERVAL and DAILY sources (check every minute)
@@ -304,8 +375,9 @@ public class IndexingService {
                 int currentHour = now.get(java.util.Calendar.HOUR_OF_DAY);
                 int currentMinute = now.get(java.util.Calendar.MINUTE);
 
+                // Last runs come from the status store's in-memory cache, not from runs.json
                 for (IndexSource source : sourceRepo.getEnabled()) {
-                    if (isRunning(source.getSourceId())) continue;
+                    if (runScheduler.isActive(source.getSourceId())) continue;
 
                     if (source.getScheduleMode() == ScheduleMode.INTERVAL) {
                         IndexRunStatus lastRun = statusStore.getLastSuccessfulRun(source.getSourceId());
@@ -313,7 +385,7 @@ public class IndexingService {
                         long lastRunTime = lastRun != null ? lastRun.getCompletedAt() : 0;
 
                         if (System.currentTimeMillis() - lastRunTime >= intervalMs) {
-                            runNow(source.getSourceId());
+                            submitRun(source.getSourceId(), SourceRunScheduler.Priority.SCHEDULED, false);
                         }
                     } else if (source.getScheduleMode() == ScheduleMode.DAILY) {
                         // Check if it's the right time and hasn't run today yet
@@ -321,7 +393,7 @@ public class IndexingService {
                                 && currentMinute == source.getStartMinute()) {
                             IndexRunStatus lastRun = statusStore.getLastSuccessfulRun(source.getSourceId());
                             if (lastRun == null || !isSameDay(lastRun.getStartedAt())) {
-                                runNow(source.getSourceId());
+                                submitRun(source.getSourceId(), SourceRunScheduler.Priority.SCHEDULED, false);
                             }
                         }
                     }
@@ -338,6 +410,9 @@ public class IndexingService {
      * Stop the scheduler.
      */
     public void stopScheduler() {
+        for (String sourceId : new ArrayList<>(watchers.keySet())) {
+            stopWatching(sourceId);
+        }
         if (scheduler != null) {
             scheduler.shutdownNow();
             scheduler = null;
@@ -350,7 +425,7 @@ public class IndexingService {
      */
     public void shutdown() {
         stopScheduler();
-        executor.shutdownNow();
+        runScheduler.shutdown();
     }
 
     /**
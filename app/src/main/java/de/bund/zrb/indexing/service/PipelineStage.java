@@ -0,0 +1,148 @@
+package de.bund.zrb.indexing.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One stage of the {@link IndexingPipeline}: a fixed number of worker threads taking items
+ * from a bounded queue. {@link #put} blocks while the queue is full, so a slow stage throttles
+ * the stages in front of it and the number of items held in memory stays bounded.
+ *
+ * @param <T> item type
+ */
+class PipelineStage<T> {
+
+    private static final Logger LOG = Logger.getLogger(PipelineStage.class.getName());
+
+    /**
+     * Work done per item. Exceptions are logged; handlers are expected to record failures themselves.
+     */
+    interface Handler<T> {
+        void handle(T item) throws Exception;
+    }
+
+    private static final Object END = new Object();
+
+    private final String name;
+    private final BlockingQueue<Object> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Handler<T> handler;
+    private volatile boolean stopped;
+
+    PipelineStage(String name, int threads, int capacity, Handler<T> handler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.handler = handler;
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            Thread t = new Thread(this::work, "Indexing-" + name + "-" + (i + 1));
+            t.setDaemon(true);
+            workers.add(t);
+        }
+    }
+
+    void start() {
+        for (Thread t : workers) {
+            t.start();
+        }
+    }
+
+    /**
+     * Hand an item to this stage, blocking while the queue is full.
+     */
+    void put(T item) throws InterruptedException {
+        queue.put(item);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    /**
+     * Let the workers drain the queue, then wait for them to exit.
+     */
+    void finish() throws InterruptedException {
+        for (int i = 0; i < workers.size(); i++) {
+            queue.put(END);
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+    }
+
+    /**
+     * Stop the workers without draining the queue. The workers are interrupted, so this is only
+     * for stages whose handlers may be interrupted at any point.
+     */
+    void abort() {
+        queue.clear();
+        for (Thread t : workers) {
+            t.interrupt();
+        }
+    }
+
+    /**
+     * Stop the workers without draining the queue and without interrupting them: each finishes
+     * the item it is handling, then exits. Waits for that, even if the calling thread is
+     * interrupted (the interrupt status is restored afterwards).
+     */
+    void stop() {
+        stopped = true;
+        queue.clear();
+        boolean interrupted = false;
+        for (int i = 0; i < workers.size(); i++) {
+            while (true) {
+                try {
+                    // Items put by a stage in front after the clear are skipped, so there is room
+                    queue.put(END);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        for (Thread t : workers) {
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void work() {
+        try {
+            while (true) {
+                Object next = queue.take();
+                if (next == END) {
+                    return;
+                }
+                if (stopped) {
+                    continue;
+                }
+                try {
+                    handler.handle((T) next);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    LOG.log(Level.WARNING, "[Indexing] Unhandled error in stage " + name, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
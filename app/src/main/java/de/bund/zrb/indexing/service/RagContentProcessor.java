@@ -1,11 +1,14 @@
 package de.bund.zrb.indexing.service;
 
+import de.bund.zrb.indexing.model.IndexRunStatus;
 import de.bund.zrb.indexing.model.IndexSource;
+import de.bund.zrb.indexing.model.ScannedItem;
 import de.bund.zrb.ingestion.model.DocumentSource;
 import de.bund.zrb.ingestion.model.ExtractionResult;
 import de.bund.zrb.ingestion.model.document.Document;
 import de.bund.zrb.ingestion.model.document.DocumentMetadata;
 import de.bund.zrb.ingestion.usecase.ExtractTextFromDocumentUseCase;
+import de.bund.zrb.rag.service.BulkIngestSession;
 import de.bund.zrb.rag.service.RagService;
 
 import java.util.logging.Level;
@@ -20,24 +23,55 @@ import java.util.logging.Logger;
  *   2. Extract text via Tika (ExtractTextFromDocumentUseCase)
  *   3. Build a Document from extracted text
  *   4. Index via RagService (chunk → Lucene + optional embeddings)
+ *
+ * In the pipeline, steps 1–3 run in the extract stage, chunking and embedding in the
+ * chunk+embed stage, and the Lucene/vector writes in the write stage. Pipeline writes go
+ * through a {@link BulkIngestSession}, so they are committed in groups rather than per item.
+ * Chunking, embedding and group commit times are recorded as sub-stages in the run metrics.
  */
-public class RagContentProcessor implements IndexingPipeline.ContentProcessor {
+public class RagContentProcessor
+        implements IndexingPipeline.StagedContentProcessor<Document, RagService.PreparedDocument> {
 
     private static final Logger LOG = Logger.getLogger(RagContentProcessor.class.getName());
 
+    // Sub-stages of the chunk+embed and write stages in the run metrics
+    static final String CHUNK_STAGE = "Chunk";
+    static final String EMBEDDING_STAGE = "Embedding";
+    static final String COMMIT_STAGE = "Commit";
+
     private final ExtractTextFromDocumentUseCase extractionUseCase;
     private final RagService ragService;
 
     public RagContentProcessor() {
+        // One pool for all sources, not sized from IndexSource.extractThreads (see the use case)
         this.extractionUseCase = new ExtractTextFromDocumentUseCase();
         this.ragService = RagService.getInstance();
     }
 
     @Override
     public int process(IndexSource source, String itemPath, byte[] content, String mimeType) throws Exception {
+        return process(source, itemPath, content, mimeType, null);
+    }
+
+    @Override
+    public int process(IndexSource source, String itemPath, byte[] content, String mimeType,
+                       IndexRunStatus run) throws Exception {
+        ScannedItem item = new ScannedItem(itemPath, 0, content != null ? content.length : 0, false, mimeType);
+        Document document = extract(source, item, content);
+        if (document == null) {
+            return 0;
+        }
+        RagService.PreparedDocument prepared = prepare(source, item, document, run);
+        return prepared != null ? write(source, item, prepared, run) : 0;
+    }
+
+    @Override
+    public Document extract(IndexSource source, ScannedItem item, byte[] content) {
+        String itemPath = item.getPath();
+        String mimeType = item.getMimeType();
         if (content == null || content.length == 0) {
             LOG.info("[IndexProcessor] SKIP empty content: " + itemPath);
-            return 0;
+            return null;
         }
 
         // Derive a filename hint from the item path
@@ -46,18 +80,18 @@ public class RagContentProcessor implements IndexingPipeline.ContentProcessor {
 
         // Step 1: Extract text via Tika pipeline
         DocumentSource docSource = DocumentSource.fromBytes(content, filenameHint);
-        ExtractionResult extraction = extractionUseCase.executeSync(docSource);
+        ExtractionResult extraction = extractionUseCase.execute(docSource);
 
         if (!extraction.isSuccess()) {
             LOG.warning("[IndexProcessor] EXTRACTION FAILED for " + filenameHint
                     + ": " + extraction.getErrorMessage());
-            return 0;
+            return null;
         }
 
         String plainText = extraction.getPlainText();
         if (plainText == null || plainText.trim().isEmpty()) {
             LOG.warning("[IndexProcessor] NO TEXT extracted from: " + filenameHint);
-            return 0;
+            return null;
         }
 
         LOG.info("[IndexProcessor] Extracted " + plainText.length() + " chars from: " + filenameHint);
@@ -69,28 +103,87 @@ public class RagContentProcessor implements IndexingPipeline.ContentProcessor {
                 .attribute("sourcePath", itemPath)
                 .build();
 
-        Document document = Document.builder()
+        return Document.builder()
                 .metadata(metadata)
                 .paragraph(plainText)
                 .build();
+    }
 
-        // Step 3: Index via RagService (chunks + Lucene + optional embeddings)
-        // Only generate embeddings if the indexing rule has it enabled
+    @Override
+    public RagService.PreparedDocument prepare(IndexSource source, ScannedItem item, Document document,
+                                               IndexRunStatus run) {
+        // Step 3a: Chunk + embed (only if the indexing rule has embeddings enabled)
         boolean generateEmbeddings = source.isEmbeddingEnabled();
+        RagService.PreparedDocument prepared = ragService.prepareDocument(
+                item.getPath(), extractFilename(item.getPath()), document, generateEmbeddings);
+        if (run != null && prepared != null) {
+            run.getMetrics().record(CHUNK_STAGE, prepared.chunkMillis * 1_000_000L, 0, true);
+            if (prepared.embeddedChunkCount > 0) {
+                run.addEmbeddings(prepared.embeddedChunkCount, prepared.embeddingMillis);
+                run.getMetrics().record(EMBEDDING_STAGE, prepared.embeddingMillis * 1_000_000L, 0,
+                        prepared.embeddedChunkCount == prepared.chunks.size());
+            }
+        }
+        return prepared;
+    }
+
+    @Override
+    public int write(IndexSource source, ScannedItem item, RagService.PreparedDocument prepared,
+                     IndexRunStatus run) throws Exception {
+        // Step 3b: Write to Lucene + vector index
         try {
-            ragService.indexDocument(itemPath, filenameHint, document, generateEmbeddings);
+            ragService.writePreparedDocument(prepared);
         } catch (Exception e) {
-            LOG.log(Level.WARNING, "[IndexProcessor] RAG indexing FAILED for: " + itemPath, e);
+            LOG.log(Level.WARNING, "[IndexProcessor] RAG indexing FAILED for: " + item.getPath(), e);
             throw e;
         }
 
-        // Return chunk count
-        RagService.IndexedDocument indexed = ragService.getIndexedDocument(itemPath);
-        int chunks = indexed != null ? indexed.chunkCount : 1;
-        LOG.info("[IndexProcessor] INDEXED: " + filenameHint + " → " + chunks + " chunks");
+        int chunks = prepared.chunks.size();
+        LOG.info("[IndexProcessor] INDEXED: " + prepared.documentName + " → " + chunks + " chunks");
         return chunks;
     }
 
+    @Override
+    public IndexingPipeline.WriteSession<RagService.PreparedDocument> openWriteSession(IndexSource source,
+                                                                                     final IndexRunStatus run) {
+        final BulkIngestSession session = ragService.openBulkSession();
+        return new IndexingPipeline.WriteSession<RagService.PreparedDocument>() {
+            @Override
+            public void write(ScannedItem item, final RagService.PreparedDocument prepared,
+                              final IndexingPipeline.WriteCallback callback) throws Exception {
+                try {
+                    session.add(prepared, new BulkIngestSession.CommitCallback() {
+                        @Override
+                        public void committed(int chunkCount, long commitMillis) {
+                            LOG.info("[IndexProcessor] INDEXED: " + prepared.documentName + " → " + chunkCount + " chunks");
+                            run.getMetrics().record(COMMIT_STAGE, commitMillis * 1_000_000L, 0, true);
+                            callback.durable(chunkCount);
+                        }
+
+                        @Override
+                        public void failed(Exception e) {
+                            run.getMetrics().record(COMMIT_STAGE, 0, 0, false);
+                            callback.failed(e);
+                        }
+                    });
+                } catch (Exception e) {
+                    LOG.log(Level.WARNING, "[IndexProcessor] RAG indexing FAILED for: " + item.getPath(), e);
+                    throw e;
+                }
+            }
+
+            @Override
+            public void flush() {
+                session.flush();
+            }
+
+            @Override
+            public void close() {
+                session.close();
+            }
+        };
+    }
+
     @Override
     public void removeFromIndex(String documentId) throws Exception {
         ragService.removeDocument(documentId);
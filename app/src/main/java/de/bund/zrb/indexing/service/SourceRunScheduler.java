@@ -0,0 +1,169 @@
+package de.bund.zrb.indexing.service;
+
+import de.bund.zrb.indexing.model.SourceType;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs indexing jobs of different sources concurrently.
+ *
+ * Limits:
+ * - at most one job per source at a time (a source already queued or running is not queued twice)
+ * - per-SourceType limits, because scanners of one type share their backend connection
+ *   (one FTP/NDV session, one PST reader); types without a limit use the default limit
+ * - a global limit on concurrently running jobs
+ *
+ * Waiting jobs start in priority order (INTERACTIVE before SCHEDULED, then FIFO). A job whose
+ * type is at its limit does not hold back jobs of other types queued behind it.
+ */
+class SourceRunScheduler {
+
+    private static final Logger LOG = Logger.getLogger(SourceRunScheduler.class.getName());
+
+    /**
+     * INTERACTIVE: started by the user ("Jetzt indexieren"); SCHEDULED: interval/daily/startup runs.
+     */
+    enum Priority { INTERACTIVE, SCHEDULED }
+
+    private final ExecutorService workers;
+    private final Map<SourceType, Integer> typeLimits = new EnumMap<>(SourceType.class);
+    private final int defaultTypeLimit;
+    private final int maxConcurrentRuns;
+
+    // All guarded by this
+    private final TreeSet<Job> waiting = new TreeSet<>();   // in start order
+    private final Map<String, Job> queuedBySource = new HashMap<>();
+    private final Set<String> runningSources = new HashSet<>();
+    private final Map<SourceType, Integer> runningByType = new EnumMap<>(SourceType.class);
+    private long sequence;
+    private boolean shutdown;
+
+    SourceRunScheduler(int maxConcurrentRuns, int defaultTypeLimit) {
+        this.maxConcurrentRuns = Math.max(1, maxConcurrentRuns);
+        this.defaultTypeLimit = Math.max(1, defaultTypeLimit);
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "Indexing-Worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    synchronized SourceRunScheduler setTypeLimit(SourceType type, int limit) {
+        typeLimits.put(type, Math.max(1, limit));
+        return this;
+    }
+
+    synchronized int getTypeLimit(SourceType type) {
+        Integer limit = typeLimits.get(type);
+        return limit != null ? limit : defaultTypeLimit;
+    }
+
+    /**
+     * Queue a job for a source.
+     *
+     * @return false if the source is already running, or already queued with at least this priority
+     */
+    synchronized boolean submit(String sourceId, SourceType type, Priority priority, Runnable body) {
+        if (shutdown || runningSources.contains(sourceId)) {
+            return false;
+        }
+        Job queued = queuedBySource.get(sourceId);
+        if (queued != null) {
+            if (queued.priority.compareTo(priority) <= 0) {
+                return false;
+            }
+            // An interactive request for a source that waits as a background run moves it ahead
+            waiting.remove(queued);
+        }
+        Job job = new Job(sourceId, type, priority, sequence++, body);
+        waiting.add(job);
+        queuedBySource.put(sourceId, job);
+        dispatch();
+        return true;
+    }
+
+    synchronized boolean isRunning(String sourceId) {
+        return runningSources.contains(sourceId);
+    }
+
+    synchronized boolean isQueued(String sourceId) {
+        return queuedBySource.containsKey(sourceId);
+    }
+
+    /**
+     * True while the source is waiting or running.
+     */
+    synchronized boolean isActive(String sourceId) {
+        return runningSources.contains(sourceId) || queuedBySource.containsKey(sourceId);
+    }
+
+    synchronized void shutdown() {
+        shutdown = true;
+        waiting.clear();
+        queuedBySource.clear();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Start every waiting job that fits into the limits, in priority order.
+     */
+    private void dispatch() {
+        if (shutdown || waiting.isEmpty()) return;
+        for (Job job : new ArrayList<>(waiting)) {
+            if (runningSources.size() >= maxConcurrentRuns) {
+                return;
+            }
+            int running = runningByType.getOrDefault(job.type, 0);
+            if (running >= getTypeLimit(job.type)) {
+                continue;
+            }
+            waiting.remove(job);
+            queuedBySource.remove(job.sourceId);
+            runningSources.add(job.sourceId);
+            runningByType.put(job.type, running + 1);
+            workers.execute(() -> run(job));
+        }
+    }
+
+    private void run(Job job) {
+        try {
+            job.body.run();
+        } catch (RuntimeException e) {
+            LOG.log(Level.SEVERE, "[Indexing] Job failed for source " + job.sourceId, e);
+        } finally {
+            synchronized (this) {
+                runningSources.remove(job.sourceId);
+                runningByType.put(job.type, runningByType.get(job.type) - 1);
+                dispatch();
+            }
+        }
+    }
+
+    private static class Job implements Comparable<Job> {
+        final String sourceId;
+        final SourceType type;
+        final Priority priority;
+        final long sequence;
+        final Runnable body;
+
+        Job(String sourceId, SourceType type, Priority priority, long sequence, Runnable body) {
+            this.sourceId = sourceId;
+            this.type = type;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.body = body;
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
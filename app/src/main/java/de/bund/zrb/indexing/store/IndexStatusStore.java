@@ -11,18 +11,32 @@ import de.bund.zrb.indexing.model.IndexRunStatus;
 import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Persists IndexItemStatus and IndexRunStatus per source as JSON files.
+ * Persists IndexItemStatus and IndexRunStatus per source.
+ *
+ * Item statuses live in an embedded H2 table keyed by (source_id, item_path), so point reads
+ * and updates do not touch the other items of a source and counts by state come from an index.
+ * The table is in its own database file below, not in the archive database of CacheRepository.
+ * Run history stays a small JSON file per source.
  *
  * Storage layout:
- *   ~/.mainframemate/db/indexing/status/{sourceId}/items.json
+ *   ~/.mainframemate/db/indexing/status/items.mv.db          (all item statuses)
  *   ~/.mainframemate/db/indexing/status/{sourceId}/runs.json
+ *   ~/.mainframemate/db/indexing/status/{sourceId}/checkpoint.json (only while a run is in flight)
+ *
+ * An items.json left by older versions is imported on first access and renamed to
+ * items.json.migrated.
  *
- * Thread-safety: synchronized on instance level (single-writer assumption).
+ * Thread-safety: synchronized on instance level; the pipeline stages update items concurrently.
  */
 public class IndexStatusStore {
 
@@ -32,11 +46,79 @@ public class IndexStatusStore {
     private static final Type RUN_LIST_TYPE = new TypeToken<List<IndexRunStatus>>() {}.getType();
 
     private static final int MAX_RUNS_KEPT = 50;
+    private static final int BATCH_SIZE = 500;
+
+    private static final String COLUMNS = "source_id, item_path, state, last_modified_at, file_size, content_hash,"
+            + " indexed_at, index_schema_version, parser_version, embedding_model, chunk_count,"
+            + " error_message, skip_reason, error_count, deleted_at, acl_fingerprint";
 
     private final File baseDir;
+    private final String jdbcUrl;
+    private Connection connection;
+    private final Set<String> migratedSources = new HashSet<>();
+    // In-memory copy of the newest COMPLETED run per source (value null = none); the scheduler asks every minute
+    private final Map<String, IndexRunStatus> lastSuccessfulRuns = new HashMap<>();
 
     public IndexStatusStore() {
-        this.baseDir = new File(SettingsHelper.getSettingsFolder(), "db/indexing/status");
+        this(new File(SettingsHelper.getSettingsFolder(), "db/indexing/status"));
+    }
+
+    public IndexStatusStore(File baseDir) {
+        this.baseDir = baseDir;
+        baseDir.mkdirs();
+        this.jdbcUrl = "jdbc:h2:" + new File(baseDir, "items").getAbsolutePath() + ";AUTO_SERVER=TRUE";
+        initDatabase();
+    }
+
+    private Connection getConnection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+        }
+        return connection;
+    }
+
+    private void initDatabase() {
+        try {
+            Class.forName("org.h2.Driver");
+            try (Statement stmt = getConnection().createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS index_item_status ("
+                        + "source_id VARCHAR(64) NOT NULL,"
+                        + "item_path VARCHAR(4096) NOT NULL,"
+                        + "state VARCHAR(16) NOT NULL,"
+                        + "last_modified_at BIGINT,"
+                        + "file_size BIGINT,"
+                        + "content_hash VARCHAR(64),"
+                        + "indexed_at BIGINT,"
+                        + "index_schema_version INT,"
+                        + "parser_version VARCHAR(128),"
+                        + "embedding_model VARCHAR(256),"
+                        + "chunk_count INT,"
+                        + "error_message VARCHAR(2048),"
+                        + "skip_reason VARCHAR(512),"
+                        + "error_count INT,"
+                        + "deleted_at BIGINT,"
+                        + "acl_fingerprint VARCHAR(128),"
+                        + "PRIMARY KEY (source_id, item_path)"
+                        + ")");
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_item_status_state ON index_item_status(source_id, state)");
+            }
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "Error initializing item status database", e);
+        }
+    }
+
+    /**
+     * Close the database connection; the next call reopens it.
+     */
+    public synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.log(Level.FINE, "Error closing item status database", e);
+            }
+            connection = null;
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -45,29 +127,62 @@ public class IndexStatusStore {
 
     /**
      * Load all item statuses for a source.
-     * Key = itemPath.
+     * Key = itemPath. Holds every item in memory; prefer {@link #forEachItemStatus} for large sources.
      */
     public synchronized Map<String, IndexItemStatus> loadItemStatuses(String sourceId) {
-        File file = itemsFile(sourceId);
-        if (!file.exists()) return new LinkedHashMap<>();
-        try (Reader r = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
-            Map<String, IndexItemStatus> map = GSON.fromJson(r, ITEM_MAP_TYPE);
-            return map != null ? map : new LinkedHashMap<>();
-        } catch (Exception e) {
+        final Map<String, IndexItemStatus> map = new LinkedHashMap<>();
+        forEachItemStatus(sourceId, new Consumer<IndexItemStatus>() {
+            @Override
+            public void accept(IndexItemStatus status) {
+                map.put(status.getItemPath(), status);
+            }
+        });
+        return map;
+    }
+
+    /**
+     * Stream all item statuses of a source to the consumer without materializing them.
+     * The consumer runs while the store lock is held and must not call back into the store.
+     */
+    public synchronized void forEachItemStatus(String sourceId, Consumer<IndexItemStatus> consumer) {
+        migrateLegacyItems(sourceId);
+        try (PreparedStatement ps = getConnection().prepareStatement(
+                "SELECT " + COLUMNS + " FROM index_item_status WHERE source_id = ?")) {
+            ps.setString(1, sourceId);
+            ps.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
             LOG.log(Level.WARNING, "Error loading item statuses for " + sourceId, e);
-            return new LinkedHashMap<>();
         }
     }
 
     /**
-     * Save all item statuses for a source.
+     * Replace all item statuses for a source.
      */
     public synchronized void saveItemStatuses(String sourceId, Map<String, IndexItemStatus> statuses) {
-        File file = itemsFile(sourceId);
-        file.getParentFile().mkdirs();
-        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
-            GSON.toJson(statuses, ITEM_MAP_TYPE, w);
-        } catch (Exception e) {
+        migrateLegacyItems(sourceId);
+        try {
+            Connection conn = getConnection();
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement del = conn.prepareStatement(
+                        "DELETE FROM index_item_status WHERE source_id = ?")) {
+                    del.setString(1, sourceId);
+                    del.executeUpdate();
+                }
+                writeBatch(conn, sourceId, statuses.values());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
             LOG.log(Level.SEVERE, "Error saving item statuses for " + sourceId, e);
         }
     }
@@ -76,35 +191,118 @@ public class IndexStatusStore {
      * Update a single item status.
      */
     public synchronized void updateItemStatus(String sourceId, IndexItemStatus status) {
-        Map<String, IndexItemStatus> map = loadItemStatuses(sourceId);
-        map.put(status.getItemPath(), status);
-        saveItemStatuses(sourceId, map);
+        updateItemStatuses(sourceId, Collections.singletonList(status));
+    }
+
+    /**
+     * Insert or update several item statuses in one transaction.
+     */
+    public synchronized void updateItemStatuses(String sourceId, Collection<IndexItemStatus> statuses) {
+        if (statuses.isEmpty()) return;
+        migrateLegacyItems(sourceId);
+        try {
+            Connection conn = getConnection();
+            conn.setAutoCommit(false);
+            try {
+                writeBatch(conn, sourceId, statuses);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOG.log(Level.SEVERE, "Error updating item statuses for " + sourceId, e);
+        }
     }
 
     /**
      * Get status for a specific item, or null if not tracked.
      */
     public synchronized IndexItemStatus getItemStatus(String sourceId, String itemPath) {
-        return loadItemStatuses(sourceId).get(itemPath);
+        migrateLegacyItems(sourceId);
+        try (PreparedStatement ps = getConnection().prepareStatement(
+                "SELECT " + COLUMNS + " FROM index_item_status WHERE source_id = ? AND item_path = ?")) {
+            ps.setString(1, sourceId);
+            ps.setString(2, itemPath);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "Error loading item status " + itemPath + " for " + sourceId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Statuses of the items below a directory that are not deleted yet. Reads a range of the
+     * primary key instead of all items of the source.
+     *
+     * @param directoryPrefix directory path ending with its separator
+     */
+    public synchronized List<IndexItemStatus> getLiveItemStatusesBelow(String sourceId, String directoryPrefix) {
+        migrateLegacyItems(sourceId);
+        List<IndexItemStatus> statuses = new ArrayList<>();
+        if (directoryPrefix == null || directoryPrefix.isEmpty()) return statuses;
+        // All paths starting with the prefix sort between the prefix and the prefix with its last char + 1
+        int last = directoryPrefix.length() - 1;
+        String upperBound = directoryPrefix.substring(0, last) + (char) (directoryPrefix.charAt(last) + 1);
+        try (PreparedStatement ps = getConnection().prepareStatement(
+                "SELECT " + COLUMNS + " FROM index_item_status"
+                        + " WHERE source_id = ? AND item_path >= ? AND item_path < ? AND state <> ?")) {
+            ps.setString(1, sourceId);
+            ps.setString(2, directoryPrefix);
+            ps.setString(3, upperBound);
+            ps.setString(4, IndexItemState.DELETED.name());
+            ps.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    statuses.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "Error loading item statuses below " + directoryPrefix + " for " + sourceId, e);
+        }
+        return statuses;
     }
 
     /**
      * Count items by state for a source.
      */
     public synchronized Map<IndexItemState, Integer> countByState(String sourceId) {
+        migrateLegacyItems(sourceId);
         Map<IndexItemState, Integer> counts = new LinkedHashMap<>();
         for (IndexItemState s : IndexItemState.values()) counts.put(s, 0);
-        for (IndexItemStatus item : loadItemStatuses(sourceId).values()) {
-            counts.merge(item.getState(), 1, Integer::sum);
+        try (PreparedStatement ps = getConnection().prepareStatement(
+                "SELECT state, COUNT(*) FROM index_item_status WHERE source_id = ? GROUP BY state")) {
+            ps.setString(1, sourceId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(IndexItemState.valueOf(rs.getString(1)), rs.getInt(2));
+                }
+            }
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Error counting item statuses for " + sourceId, e);
         }
         return counts;
     }
 
+    /**
+     * Number of tracked items for a source, in any state.
+     */
+    public synchronized int countItems(String sourceId) {
+        int total = 0;
+        for (int n : countByState(sourceId).values()) total += n;
+        return total;
+    }
+
     /**
      * Clear all item statuses for a source (force full re-index on next run).
      */
     public synchronized void clearItemStatuses(String sourceId) {
-        saveItemStatuses(sourceId, new LinkedHashMap<String, IndexItemStatus>());
+        migrateLegacyItems(sourceId);
+        deleteItems(sourceId);
         LOG.info("[IndexStatusStore] Cleared all item statuses for: " + sourceId);
     }
 
@@ -133,14 +331,15 @@ public class IndexStatusStore {
     public synchronized void saveRun(IndexRunStatus run) {
         List<IndexRunStatus> runs = loadRuns(run.getSourceId());
         runs.add(0, run); // newest first
+        if (run.getRunState() == IndexRunStatus.RunState.COMPLETED) {
+            lastSuccessfulRuns.put(run.getSourceId(), run);
+        }
         if (runs.size() > MAX_RUNS_KEPT) {
             runs = new ArrayList<>(runs.subList(0, MAX_RUNS_KEPT));
         }
-        File file = runsFile(run.getSourceId());
-        file.getParentFile().mkdirs();
-        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
-            GSON.toJson(runs, RUN_LIST_TYPE, w);
-        } catch (Exception e) {
+        try {
+            writeJsonAtomically(runsFile(run.getSourceId()), runs, RUN_LIST_TYPE);
+        } catch (IOException e) {
             LOG.log(Level.SEVERE, "Error saving run for " + run.getSourceId(), e);
         }
     }
@@ -149,10 +348,70 @@ public class IndexStatusStore {
      * Get the last successful run for a source, or null.
      */
     public synchronized IndexRunStatus getLastSuccessfulRun(String sourceId) {
+        if (lastSuccessfulRuns.containsKey(sourceId)) {
+            return lastSuccessfulRuns.get(sourceId);
+        }
+        IndexRunStatus found = null;
         for (IndexRunStatus run : loadRuns(sourceId)) {
-            if (run.getRunState() == IndexRunStatus.RunState.COMPLETED) return run;
+            if (run.getRunState() == IndexRunStatus.RunState.COMPLETED) {
+                found = run;
+                break;
+            }
+        }
+        lastSuccessfulRuns.put(sourceId, found);
+        return found;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    //  Checkpoints (progress of the run in flight)
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Persist the statuses finished since the last checkpoint together with the run counters.
+     * The items are written in one transaction, the run record by atomic rename, so a crash
+     * leaves either the previous or the new checkpoint, never a partial one.
+     */
+    public synchronized void checkpoint(IndexRunStatus run, Collection<IndexItemStatus> finished) {
+        updateItemStatuses(run.getSourceId(), finished);
+        run.setLastCheckpointAt(System.currentTimeMillis());
+        run.setItemsCheckpointed(run.getItemsCheckpointed() + finished.size());
+        saveCheckpoint(run);
+    }
+
+    /**
+     * Mark a run as in flight. The record stays until {@link #deleteCheckpoint} is called at the end of the run.
+     */
+    public synchronized void saveCheckpoint(IndexRunStatus run) {
+        try {
+            writeJsonAtomically(checkpointFile(run.getSourceId()), run, IndexRunStatus.class);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error writing checkpoint for " + run.getSourceId(), e);
+        }
+    }
+
+    /**
+     * The run that was in flight when the application stopped, or null if the last run ended normally.
+     */
+    public synchronized IndexRunStatus loadCheckpoint(String sourceId) {
+        File file = checkpointFile(sourceId);
+        if (!file.exists()) return null;
+        try (Reader r = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return GSON.fromJson(r, IndexRunStatus.class);
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Error loading checkpoint for " + sourceId, e);
+            return null;
+        }
+    }
+
+    public synchronized boolean hasCheckpoint(String sourceId) {
+        return checkpointFile(sourceId).exists();
+    }
+
+    public synchronized void deleteCheckpoint(String sourceId) {
+        File file = checkpointFile(sourceId);
+        if (file.exists() && !file.delete()) {
+            LOG.warning("[IndexStatusStore] Could not delete checkpoint " + file);
         }
-        return null;
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -163,6 +422,9 @@ public class IndexStatusStore {
      * Delete all status data for a source (used when removing a source config).
      */
     public synchronized void deleteSource(String sourceId) {
+        deleteItems(sourceId);
+        migratedSources.remove(sourceId);
+        lastSuccessfulRuns.remove(sourceId);
         File dir = sourceDir(sourceId);
         if (dir.exists()) {
             File[] files = dir.listFiles();
@@ -179,11 +441,139 @@ public class IndexStatusStore {
         return new File(baseDir, sourceId);
     }
 
-    private File itemsFile(String sourceId) {
+    private File legacyItemsFile(String sourceId) {
         return new File(sourceDir(sourceId), "items.json");
     }
 
+    private void deleteItems(String sourceId) {
+        try (PreparedStatement ps = getConnection().prepareStatement(
+                "DELETE FROM index_item_status WHERE source_id = ?")) {
+            ps.setString(1, sourceId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            LOG.log(Level.SEVERE, "Error deleting item statuses for " + sourceId, e);
+        }
+    }
+
+    /**
+     * Import an items.json written by older versions, once per source.
+     */
+    private void migrateLegacyItems(String sourceId) {
+        if (!migratedSources.add(sourceId)) return;
+        File file = legacyItemsFile(sourceId);
+        if (!file.exists()) return;
+        try (Reader r = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            Map<String, IndexItemStatus> map = GSON.fromJson(r, ITEM_MAP_TYPE);
+            if (map != null && !map.isEmpty()) {
+                Connection conn = getConnection();
+                conn.setAutoCommit(false);
+                try {
+                    writeBatch(conn, sourceId, map.values());
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Error migrating item statuses for " + sourceId, e);
+            return;
+        }
+        if (!file.renameTo(new File(file.getParentFile(), "items.json.migrated"))) {
+            LOG.warning("[IndexStatusStore] Could not rename migrated " + file);
+        }
+        LOG.info("[IndexStatusStore] Migrated items.json into status database for: " + sourceId);
+    }
+
+    private static void writeBatch(Connection conn, String sourceId, Collection<IndexItemStatus> statuses)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "MERGE INTO index_item_status (" + COLUMNS + ") KEY (source_id, item_path)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int pending = 0;
+            for (IndexItemStatus status : statuses) {
+                int i = 1;
+                ps.setString(i++, sourceId);
+                ps.setString(i++, status.getItemPath());
+                ps.setString(i++, status.getState().name());
+                ps.setLong(i++, status.getLastModifiedAt());
+                ps.setLong(i++, status.getFileSize());
+                ps.setString(i++, status.getContentHash());
+                ps.setLong(i++, status.getIndexedAt());
+                ps.setInt(i++, status.getIndexSchemaVersion());
+                ps.setString(i++, status.getParserVersion());
+                ps.setString(i++, status.getEmbeddingModel());
+                ps.setInt(i++, status.getChunkCount());
+                ps.setString(i++, truncate(status.getErrorMessage(), 2048));
+                ps.setString(i++, truncate(status.getSkipReason(), 512));
+                ps.setInt(i++, status.getErrorCount());
+                ps.setLong(i++, status.getDeletedAt());
+                ps.setString(i, status.getAclFingerprint());
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+    }
+
+    private static IndexItemStatus mapRow(ResultSet rs) throws SQLException {
+        IndexItemStatus status = new IndexItemStatus();
+        int i = 1;
+        status.setSourceId(rs.getString(i++));
+        status.setItemPath(rs.getString(i++));
+        status.setState(IndexItemState.valueOf(rs.getString(i++)));
+        status.setLastModifiedAt(rs.getLong(i++));
+        status.setFileSize(rs.getLong(i++));
+        status.setContentHash(rs.getString(i++));
+        status.setIndexedAt(rs.getLong(i++));
+        status.setIndexSchemaVersion(rs.getInt(i++));
+        status.setParserVersion(rs.getString(i++));
+        status.setEmbeddingModel(rs.getString(i++));
+        status.setChunkCount(rs.getInt(i++));
+        status.setErrorMessage(rs.getString(i++));
+        status.setSkipReason(rs.getString(i++));
+        status.setErrorCount(rs.getInt(i++));
+        status.setDeletedAt(rs.getLong(i++));
+        status.setAclFingerprint(rs.getString(i));
+        return status;
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+
     private File runsFile(String sourceId) {
         return new File(sourceDir(sourceId), "runs.json");
     }
+
+    private File checkpointFile(String sourceId) {
+        return new File(sourceDir(sourceId), "checkpoint.json");
+    }
+
+    /**
+     * Write to a temp file in the same directory, then rename it over the target.
+     */
+    private static void writeJsonAtomically(File file, Object value, Type type) throws IOException {
+        file.getParentFile().mkdirs();
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            GSON.toJson(value, type, w);
+            w.flush();
+            out.getFD().sync();
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
 }
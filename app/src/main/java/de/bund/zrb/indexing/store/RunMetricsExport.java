@@ -0,0 +1,56 @@
+package de.bund.zrb.indexing.store;
+
+import de.bund.zrb.indexing.model.IndexRunStatus;
+import de.bund.zrb.indexing.model.StageMetrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Writes the stage metrics of a run history as CSV, one row per run and stage, so runs before
+ * and after a tuning change can be compared in a spreadsheet or script.
+ * Decimal point and UTC timestamps regardless of the locale.
+ */
+public final class RunMetricsExport {
+
+    static final String HEADER = "run_id,source_id,started_at,duration_ms,run_state,stage,items,errors,"
+            + "error_rate,bytes,items_per_s,bytes_per_s,p50_ms,p95_ms,p99_ms,max_ms,"
+            + "max_queue_depth,avg_queue_depth,busy_ms";
+
+    private RunMetricsExport() {
+    }
+
+    public static void writeCsv(List<IndexRunStatus> runs, Writer out) throws IOException {
+        SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.ROOT);
+        iso.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        out.write(HEADER);
+        out.write('\n');
+        for (IndexRunStatus run : runs) {
+            if (run.getStageMetrics() == null) continue;
+            String runColumns = run.getRunId() + "," + quote(run.getSourceId()) + ","
+                    + (run.getStartedAt() > 0 ? iso.format(new Date(run.getStartedAt())) : "") + ","
+                    + run.getDurationMs() + "," + run.getRunState();
+            for (StageMetrics m : run.getStageMetrics()) {
+                out.write(runColumns);
+                out.write(String.format(Locale.ROOT, ",%s,%d,%d,%.4f,%d,%.2f,%.1f,%.2f,%.2f,%.2f,%.2f,%d,%.2f,%d\n",
+                        quote(m.getStage()), m.getItems(), m.getErrors(), m.getErrorRate(), m.getBytes(),
+                        m.getItemsPerSecond(), m.getBytesPerSecond(), m.getP50Ms(), m.getP95Ms(),
+                        m.getP99Ms(), m.getMaxMs(), m.getMaxQueueDepth(), m.getAvgQueueDepth(),
+                        m.getBusyMillis()));
+            }
+        }
+        out.flush();
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
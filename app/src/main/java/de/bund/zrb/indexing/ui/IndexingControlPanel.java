@@ -22,6 +22,7 @@ import java.util.logging.Logger;
  * - Add/Edit/Remove sources
  * - Run Now / Run All / Stop
  * - Run history and item counts per source
+ * - Per-stage throughput/latency of each run, exportable as CSV
  * - Fine-grained policy editing per source
  *
  * Accessible via: Einstellungen → Indexierung...
@@ -51,6 +52,8 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
     private JSpinner startHourSpinner;
     private JSpinner startMinuteSpinner;
     private JSpinner maxDurationSpinner;
+    private JSpinner checkpointItemsSpinner;
+    private JSpinner checkpointSecondsSpinner;
     private JComboBox<IndexDirection> indexDirectionCombo;
     private JComboBox<ChangeDetectionMode> changeDetectionCombo;
     private JCheckBox fulltextCheck;
@@ -58,6 +61,11 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
     private JSpinner chunkSizeSpinner;
     private JSpinner chunkOverlapSpinner;
     private JSpinner maxChunksSpinner;
+    private JSpinner fetchThreadsSpinner;
+    private JSpinner extractThreadsSpinner;
+    private JSpinner embedThreadsSpinner;
+    private JSpinner writeThreadsSpinner;
+    private JSpinner stageQueueSpinner;
 
     // Run history
     private JTextArea historyArea;
@@ -310,6 +318,18 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
         schedPanel.add(maxDurationSpinner, gbc);
         gbc.gridy++; gbc.gridx = 0;
 
+        schedPanel.add(label("Checkpoint alle (Items):"), gbc); gbc.gridx = 1;
+        checkpointItemsSpinner = new JSpinner(new SpinnerNumberModel(100, 1, 10000, 50));
+        checkpointItemsSpinner.setToolTipText("Fortschritt wird spätestens nach so vielen Items gesichert");
+        schedPanel.add(checkpointItemsSpinner, gbc);
+        gbc.gridy++; gbc.gridx = 0;
+
+        schedPanel.add(label("Checkpoint alle (Sek.):"), gbc); gbc.gridx = 1;
+        checkpointSecondsSpinner = new JSpinner(new SpinnerNumberModel(30, 1, 3600, 10));
+        checkpointSecondsSpinner.setToolTipText("Fortschritt wird spätestens nach so vielen Sekunden gesichert");
+        schedPanel.add(checkpointSecondsSpinner, gbc);
+        gbc.gridy++; gbc.gridx = 0;
+
         schedPanel.add(label("Reihenfolge:"), gbc); gbc.gridx = 1;
         indexDirectionCombo = new JComboBox<>(IndexDirection.values());
         schedPanel.add(indexDirectionCombo, gbc);
@@ -349,6 +369,33 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
         procPanel.add(label("Max. Chunks/Item:"), gbc); gbc.gridx = 1;
         maxChunksSpinner = new JSpinner(new SpinnerNumberModel(100, 1, 1000, 10));
         procPanel.add(maxChunksSpinner, gbc);
+        gbc.gridy++; gbc.gridx = 0;
+
+        procPanel.add(label("Threads Abruf:"), gbc); gbc.gridx = 1;
+        fetchThreadsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 16, 1));
+        fetchThreadsSpinner.setToolTipText("FTP und NDV rufen immer nur ein Item gleichzeitig ab (eine Sitzung)");
+        procPanel.add(fetchThreadsSpinner, gbc);
+        gbc.gridy++; gbc.gridx = 0;
+
+        procPanel.add(label("Threads Extraktion:"), gbc); gbc.gridx = 1;
+        extractThreadsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 16, 1));
+        procPanel.add(extractThreadsSpinner, gbc);
+        gbc.gridy++; gbc.gridx = 0;
+
+        procPanel.add(label("Threads Chunking/Embedding:"), gbc); gbc.gridx = 1;
+        embedThreadsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 16, 1));
+        procPanel.add(embedThreadsSpinner, gbc);
+        gbc.gridy++; gbc.gridx = 0;
+
+        procPanel.add(label("Threads Schreiben:"), gbc); gbc.gridx = 1;
+        writeThreadsSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 8, 1));
+        procPanel.add(writeThreadsSpinner, gbc);
+        gbc.gridy++; gbc.gridx = 0;
+
+        procPanel.add(label("Puffer je Stufe:"), gbc); gbc.gridx = 1;
+        stageQueueSpinner = new JSpinner(new SpinnerNumberModel(16, 1, 256, 4));
+        stageQueueSpinner.setToolTipText("Max. Items zwischen zwei Stufen – begrenzt den Speicherbedarf");
+        procPanel.add(stageQueueSpinner, gbc);
 
         panel.add(procPanel);
 
@@ -410,6 +457,17 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
         reindexBtn.addActionListener(e -> forceReindexSelected());
         actionButtons.add(reindexBtn);
 
+        JButton exportMetricsBtn = new JButton("📊");
+        exportMetricsBtn.setToolTipText("Stufen-Metriken aller Läufe als CSV exportieren");
+        exportMetricsBtn.setMargin(new Insets(0, 0, 0, 0));
+        exportMetricsBtn.setFont(exportMetricsBtn.getFont().deriveFont(14f));
+        exportMetricsBtn.setBorderPainted(false);
+        exportMetricsBtn.setContentAreaFilled(false);
+        exportMetricsBtn.setFocusable(false);
+        exportMetricsBtn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        exportMetricsBtn.addActionListener(e -> exportRunMetrics());
+        actionButtons.add(exportMetricsBtn);
+
         topPanel.add(actionButtons, BorderLayout.EAST);
         panel.add(topPanel, BorderLayout.NORTH);
 
@@ -577,6 +635,31 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
                 JOptionPane.PLAIN_MESSAGE);
     }
 
+    /**
+     * Export the stage metrics of the selected source's run history as CSV.
+     */
+    private void exportRunMetrics() {
+        int row = sourceTable.getSelectedRow();
+        if (row < 0 || tableModel.isCacheRow(row)) return;
+        IndexSource source = tableModel.getSourceAt(row);
+
+        JFileChooser fc = new JFileChooser();
+        fc.setSelectedFile(new java.io.File(source.getName().replaceAll("[^\\w.-]", "_") + "-metriken.csv"));
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        java.io.File target = fc.getSelectedFile();
+        if (!target.getName().toLowerCase().endsWith(".csv")) {
+            target = new java.io.File(target.getAbsolutePath() + ".csv");
+        }
+        try {
+            service.exportRunMetrics(source.getSourceId(), target);
+            statusLabel.setText("Metriken exportiert: " + target.getAbsolutePath());
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(this,
+                    "Fehler beim Export: " + ex.getMessage(),
+                    "Fehler", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     private void saveSelectedSource() {
         int row = sourceTable.getSelectedRow();
         if (row < 0 || tableModel.isCacheRow(row)) return;
@@ -609,6 +692,8 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
         startHourSpinner.setValue(source.getStartHour());
         startMinuteSpinner.setValue(source.getStartMinute());
         maxDurationSpinner.setValue(source.getMaxDurationMinutes());
+        checkpointItemsSpinner.setValue(source.getCheckpointEveryItems());
+        checkpointSecondsSpinner.setValue(source.getCheckpointIntervalSeconds());
         indexDirectionCombo.setSelectedItem(source.getIndexDirection());
         changeDetectionCombo.setSelectedItem(source.getChangeDetection());
         fulltextCheck.setSelected(source.isFulltextEnabled());
@@ -616,6 +701,11 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
         chunkSizeSpinner.setValue(source.getChunkSize());
         chunkOverlapSpinner.setValue(source.getChunkOverlap());
         maxChunksSpinner.setValue(source.getMaxChunksPerItem());
+        fetchThreadsSpinner.setValue(source.getFetchThreads());
+        extractThreadsSpinner.setValue(source.getExtractThreads());
+        embedThreadsSpinner.setValue(source.getEmbedThreads());
+        writeThreadsSpinner.setValue(source.getWriteThreads());
+        stageQueueSpinner.setValue(source.getStageQueueCapacity());
 
         // Load item counts
         Map<IndexItemState, Integer> counts = service.getItemCounts(source.getSourceId());
@@ -643,10 +733,30 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
                     .append(" new=").append(run.getItemsNew())
                     .append(" changed=").append(run.getItemsChanged())
                     .append(" errors=").append(run.getItemsErrored());
+            if (run.getItemsSkippedByHash() > 0) {
+                histText.append(" hashUnchanged=").append(run.getItemsSkippedByHash());
+            }
+            if (run.isResumedFromCheckpoint()) {
+                histText.append("  ↻ fortgesetzt ab Checkpoint");
+            }
+            if (run.getEmbeddingsGenerated() > 0) {
+                histText.append(" embeddings=").append(run.getEmbeddingsGenerated())
+                        .append(String.format(" (%.1f/s)", run.getEmbeddingsPerSecond()));
+            }
             if (run.getLastError() != null) {
                 histText.append("\n  ⚠ ").append(run.getLastError());
             }
             histText.append("\n");
+            if (run.getStageMetrics() != null) {
+                for (StageMetrics stage : run.getStageMetrics()) {
+                    histText.append(String.format("    %-9s %6d Items %7.1f/s %8.1f KB/s"
+                                    + "  p50=%.0f p95=%.0f p99=%.0f ms  Queue max=%d Ø%.1f  Fehler=%.1f%%\n",
+                            stage.getStage(), stage.getItems(), stage.getItemsPerSecond(),
+                            stage.getBytesPerSecond() / 1024, stage.getP50Ms(), stage.getP95Ms(),
+                            stage.getP99Ms(), stage.getMaxQueueDepth(), stage.getAvgQueueDepth(),
+                            stage.getErrorRate() * 100));
+                }
+            }
         }
         if (runs.isEmpty()) histText.append("(Noch keine Läufe)");
         historyArea.setText(histText.toString());
@@ -678,6 +788,8 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
         source.setStartHour((Integer) startHourSpinner.getValue());
         source.setStartMinute((Integer) startMinuteSpinner.getValue());
         source.setMaxDurationMinutes((Integer) maxDurationSpinner.getValue());
+        source.setCheckpointEveryItems((Integer) checkpointItemsSpinner.getValue());
+        source.setCheckpointIntervalSeconds((Integer) checkpointSecondsSpinner.getValue());
         source.setIndexDirection((IndexDirection) indexDirectionCombo.getSelectedItem());
         source.setChangeDetection((ChangeDetectionMode) changeDetectionCombo.getSelectedItem());
         source.setFulltextEnabled(fulltextCheck.isSelected());
@@ -685,6 +797,11 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
         source.setChunkSize((Integer) chunkSizeSpinner.getValue());
         source.setChunkOverlap((Integer) chunkOverlapSpinner.getValue());
         source.setMaxChunksPerItem((Integer) maxChunksSpinner.getValue());
+        source.setFetchThreads((Integer) fetchThreadsSpinner.getValue());
+        source.setExtractThreads((Integer) extractThreadsSpinner.getValue());
+        source.setEmbedThreads((Integer) embedThreadsSpinner.getValue());
+        source.setWriteThreads((Integer) writeThreadsSpinner.getValue());
+        source.setStageQueueCapacity((Integer) stageQueueSpinner.getValue());
     }
 
     private void refreshTable() {
@@ -697,8 +814,11 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
 
     @Override
     public void onRunStarted(String sourceId) {
+        // Checked here, before the run writes its own checkpoint
+        boolean resumed = service.hasCheckpoint(sourceId);
         SwingUtilities.invokeLater(() -> {
-            statusLabel.setText("⏳ Indexierung läuft: " + sourceId);
+            statusLabel.setText("⏳ Indexierung läuft: " + sourceId
+                    + (resumed ? " (fortgesetzt ab Checkpoint)" : ""));
             refreshTable();
         });
     }
@@ -709,7 +829,8 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
             statusLabel.setText("✅ Abgeschlossen: " + sourceId
                     + " (" + result.getItemsScanned() + " gescannt, "
                     + result.getItemsNew() + " neu, "
-                    + result.getItemsChanged() + " geändert)");
+                    + result.getItemsChanged() + " geändert)"
+                    + (result.isResumedFromCheckpoint() ? " – fortgesetzt ab Checkpoint" : ""));
             refreshTable();
             loadSelectedSource(); // refresh detail view
         });
@@ -1026,6 +1147,7 @@ public class IndexingControlPanel extends JDialog implements IndexingService.Ind
                     return last != null ? DATE_FMT.format(new Date(last.getCompletedAt())) : "–";
                 case 5:
                     if (service.isRunning(s.getSourceId())) return "⏳";
+                    if (service.isQueued(s.getSourceId())) return "🕒";
                     IndexRunStatus lastRun = service.getLastSuccessfulRun(s.getSourceId());
                     return lastRun != null ? "✅" : "–";
                 case 6:
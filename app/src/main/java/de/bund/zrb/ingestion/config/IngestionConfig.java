@@ -12,7 +12,11 @@ public class IngestionConfig {
     private long maxFileSizeBytes = 25 * 1024 * 1024; // 25 MB default
 
     // Timeout
-    private long timeoutPerExtractionMs = 10000; // 10 seconds default
+    private long timeoutPerExtractionMs = 10000; // 10 seconds default, per document
+
+    // Extraction pool
+    private int extractionThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private long maxBytesInFlight = 256L * 1024 * 1024; // raw document bytes being extracted at once
 
     // Policy flags
     private boolean allowOctetStream = false;
@@ -54,6 +58,24 @@ public class IngestionConfig {
         return this;
     }
 
+    public int getExtractionThreads() {
+        return extractionThreads;
+    }
+
+    public IngestionConfig setExtractionThreads(int extractionThreads) {
+        this.extractionThreads = Math.max(1, extractionThreads);
+        return this;
+    }
+
+    public long getMaxBytesInFlight() {
+        return maxBytesInFlight;
+    }
+
+    public IngestionConfig setMaxBytesInFlight(long maxBytesInFlight) {
+        this.maxBytesInFlight = Math.max(1024, maxBytesInFlight);
+        return this;
+    }
+
     public boolean isAllowOctetStream() {
         return allowOctetStream;
     }
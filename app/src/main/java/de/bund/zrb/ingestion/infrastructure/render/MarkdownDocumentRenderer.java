@@ -6,6 +6,10 @@ import de.bund.zrb.ingestion.port.render.BlockRenderer;
 import de.bund.zrb.ingestion.port.render.DocumentRenderer;
 import de.bund.zrb.ingestion.port.render.RenderFormat;
 
+import java.io.Reader;
+import java.util.Collections;
+import java.util.Iterator;
+
 /**
  * Renders a Document to Markdown format.
  */
@@ -26,19 +30,83 @@ public class MarkdownDocumentRenderer implements DocumentRenderer {
         StringBuilder out = new StringBuilder();
 
         for (Block block : document.getBlocks()) {
-            BlockRenderer renderer = registry.findBlockRenderer(RenderFormat.MARKDOWN, block);
-            if (renderer != null) {
-                renderer.render(block, out);
-            } else {
-                // Fallback: render as paragraph with block info
-                out.append("[Unsupported block: ").append(block.getType()).append("]\n\n");
-            }
+            renderBlock(block, out);
         }
 
         // Trim trailing whitespace
         return out.toString().trim();
     }
 
+    /**
+     * Render block by block while the reader is consumed; the text read equals {@link #render}.
+     */
+    @Override
+    public Reader openReader(Document document) {
+        return new BlockReader(document == null || document.isEmpty()
+                ? Collections.<Block>emptyIterator()
+                : document.getBlocks().iterator());
+    }
+
+    private void renderBlock(Block block, StringBuilder out) {
+        BlockRenderer renderer = registry.findBlockRenderer(RenderFormat.MARKDOWN, block);
+        if (renderer != null) {
+            renderer.render(block, out);
+        } else {
+            // Fallback: render as paragraph with block info
+            out.append("[Unsupported block: ").append(block.getType()).append("]\n\n");
+        }
+    }
+
+    /**
+     * Serves the rendered blocks one after another. Like {@code trim()} in {@link #render},
+     * leading whitespace is skipped and trailing whitespace is held back until more text follows.
+     */
+    private class BlockReader extends Reader {
+        private final Iterator<Block> blocks;
+        private final StringBuilder pending = new StringBuilder();
+        private int pos;
+        private int servable;   // end of pending up to its last non-blank character
+        private boolean started;
+
+        BlockReader(Iterator<Block> blocks) {
+            this.blocks = blocks;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            while (pos >= servable) {
+                if (!blocks.hasNext()) {
+                    return -1;
+                }
+                pending.delete(0, pos);
+                servable -= pos;
+                pos = 0;
+                renderBlock(blocks.next(), pending);
+                if (!started) {
+                    int skip = 0;
+                    while (skip < pending.length() && pending.charAt(skip) <= ' ') skip++;
+                    pending.delete(0, skip);
+                    started = pending.length() > 0;
+                }
+                int end = pending.length();
+                while (end > servable && pending.charAt(end - 1) <= ' ') end--;
+                servable = Math.max(servable, end);
+            }
+            int n = Math.min(len, servable - pos);
+            pending.getChars(pos, pos + n, cbuf, off);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            pending.setLength(0);
+        }
+    }
+
     @Override
     public RenderFormat getFormat() {
         return RenderFormat.MARKDOWN;
@@ -2,6 +2,9 @@ package de.bund.zrb.ingestion.port.render;
 
 import de.bund.zrb.ingestion.model.document.Document;
 
+import java.io.Reader;
+import java.io.StringReader;
+
 /**
  * Port interface for rendering a Document to a specific format.
  */
@@ -15,6 +18,15 @@ public interface DocumentRenderer {
      */
     String render(Document document);
 
+    /**
+     * Render the document as a character stream, with the same content as {@link #render}.
+     * Renderers that can produce the output block by block override this so that large
+     * documents are never held as one string.
+     */
+    default Reader openReader(Document document) {
+        return new StringReader(render(document));
+    }
+
     /**
      * Get the output format of this renderer.
      */
@@ -17,12 +17,25 @@ import de.bund.zrb.ingestion.port.TextPostProcessor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Main use case for extracting text from documents.
  * Orchestrates the pipeline: Detection -> Acceptance -> Extraction -> Normalization.
+ *
+ * Documents are extracted on a bounded worker pool (IngestionConfig.extractionThreads), so
+ * several documents are parsed in parallel. Each document has its own timeout, measured from
+ * the moment a worker picks it up, and can be cancelled through its Future. The raw bytes of
+ * documents queued or being extracted are capped by IngestionConfig.maxBytesInFlight:
+ * {@link #submit} blocks until enough earlier documents are done.
+ *
+ * The pool size is independent of the extract stage threads of the indexing pipeline
+ * (IndexSource.extractThreads): those threads only wait here for their document, while one
+ * instance of this use case serves all sources that are indexed at the same time. The pool
+ * therefore caps the CPU-bound parsing for all of them together.
  */
 public class ExtractTextFromDocumentUseCase {
 
@@ -33,7 +46,15 @@ public class ExtractTextFromDocumentUseCase {
     private final DocumentAcceptancePolicy acceptancePolicy;
     private final ExtractorRegistry extractorRegistry;
     private final TextPostProcessor normalizer;
-    private final ExecutorService executor;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore bytesInFlight;   // one permit per KiB
+    private final int maxPermits;
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "DocumentExtractor-Timeout");
+        t.setDaemon(true);
+        return t;
+    });
 
     /**
      * Create use case with default components.
@@ -66,11 +87,17 @@ public class ExtractTextFromDocumentUseCase {
         this.acceptancePolicy = acceptancePolicy;
         this.extractorRegistry = extractorRegistry;
         this.normalizer = normalizer;
-        this.executor = Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r, "DocumentExtractor");
-            t.setDaemon(true);
-            return t;
-        });
+        final AtomicInteger threadCount = new AtomicInteger();
+        int threads = config.getExtractionThreads();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), r -> {
+                    Thread t = new Thread(r, "DocumentExtractor-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.maxPermits = (int) Math.min(Integer.MAX_VALUE, Math.max(1, config.getMaxBytesInFlight() / 1024));
+        this.bytesInFlight = new Semaphore(maxPermits, true);
     }
 
     /**
@@ -81,6 +108,144 @@ public class ExtractTextFromDocumentUseCase {
      * @return extraction result with plaintext or error
      */
     public ExtractionResult execute(DocumentSource source) {
+        try {
+            return await(submit(source));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ExtractionResult.failure("Extraktion unterbrochen", getName());
+        }
+    }
+
+    /**
+     * Extract several documents in parallel; results are in the order of the sources.
+     * Blocks while the bytes in flight would exceed the configured limit.
+     */
+    public List<ExtractionResult> executeAll(List<DocumentSource> sources) {
+        List<Future<ExtractionResult>> futures = new ArrayList<>(sources.size());
+        try {
+            for (DocumentSource source : sources) {
+                futures.add(submit(source));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<ExtractionResult> future : futures) {
+                future.cancel(true);
+            }
+            List<ExtractionResult> interrupted = new ArrayList<>(sources.size());
+            for (int i = 0; i < sources.size(); i++) {
+                interrupted.add(ExtractionResult.failure("Extraktion unterbrochen", getName()));
+            }
+            return interrupted;
+        }
+        List<ExtractionResult> results = new ArrayList<>(futures.size());
+        for (Future<ExtractionResult> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * Queue a document for extraction. Cancelling the returned future interrupts the extraction.
+     * Blocks while the bytes in flight would exceed the configured limit.
+     *
+     * @throws InterruptedException if interrupted while waiting for memory
+     */
+    public Future<ExtractionResult> submit(DocumentSource source) throws InterruptedException {
+        // Oversized documents take the whole budget instead of waiting forever
+        int permits = Math.min(maxPermits, Math.max(1, source.getSize() / 1024));
+        bytesInFlight.acquire(permits);
+        ExtractionTask task = new ExtractionTask(source, permits);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            task.release();
+            throw e;
+        }
+        return task;
+    }
+
+    /**
+     * Wait for a submitted extraction and map cancellation/timeouts to failure results.
+     */
+    public ExtractionResult await(Future<ExtractionResult> future) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            if (future instanceof ExtractionTask && ((ExtractionTask) future).timedOut) {
+                LOG.warning("Extraction timed out");
+                return ExtractionResult.failure("Zeitüberschreitung bei der Textextraktion", getName());
+            }
+            return ExtractionResult.failure("Extraktion abgebrochen", getName());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return ExtractionResult.failure("Extraktion unterbrochen", getName());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            LOG.log(Level.SEVERE, "Extraction failed", cause);
+            return ExtractionResult.failure(
+                    "Fehler bei der Textextraktion: " + (cause != null ? cause.getMessage() : e.getMessage()),
+                    getName()
+            );
+        }
+    }
+
+    /**
+     * Number of documents queued or being extracted.
+     */
+    public int getPendingCount() {
+        return executor.getQueue().size() + executor.getActiveCount();
+    }
+
+    /**
+     * A queued extraction. The timeout starts when a worker picks the task up; the memory
+     * permits are returned once the worker is done with it, or on cancellation before it started.
+     */
+    private class ExtractionTask extends FutureTask<ExtractionResult> {
+        private final int permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean started;
+        volatile boolean timedOut;
+
+        ExtractionTask(DocumentSource source, int permits) {
+            super(() -> extract(source));
+            this.permits = permits;
+        }
+
+        @Override
+        public void run() {
+            started = true;
+            ScheduledFuture<?> watchdog = WATCHDOG.schedule(() -> {
+                timedOut = true;
+                cancel(true);
+            }, config.getTimeoutPerExtractionMs(), TimeUnit.MILLISECONDS);
+            try {
+                super.run();
+            } finally {
+                watchdog.cancel(false);
+                release();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (!started) {
+                release();
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                bytesInFlight.release(permits);
+            }
+        }
+    }
+
+    /**
+     * Runs on a worker thread: detection, acceptance, extraction (with fallback), normalization.
+     */
+    private ExtractionResult extract(DocumentSource source) {
         List<String> allWarnings = new ArrayList<>();
 
         try {
@@ -102,24 +267,19 @@ public class ExtractTextFromDocumentUseCase {
             TextExtractor extractor = extractorRegistry.findExtractor(detection.getBaseMimeType());
             LOG.fine("Using extractor: " + extractor.getName());
 
-            // Stage C: Extraction with timeout
+            // Stage C: Extraction (the watchdog interrupts this thread on timeout)
             LOG.fine("Stage C: Extracting text...");
-            ExtractionResult extractionResult = executeWithTimeout(
-                    () -> extractor.extract(source, detection),
-                    config.getTimeoutPerExtractionMs()
-            );
+            ExtractionResult extractionResult = extractor.extract(source, detection);
 
             // Handle extraction failure with fallback
-            if (!extractionResult.isSuccess() && config.isEnableFallbackOnExtractorFailure()) {
+            if (!extractionResult.isSuccess() && config.isEnableFallbackOnExtractorFailure()
+                    && !Thread.currentThread().isInterrupted()) {
                 LOG.warning("Primary extractor failed, trying fallback: " + extractionResult.getErrorMessage());
                 allWarnings.add("Primärer Extractor fehlgeschlagen: " + extractionResult.getErrorMessage());
 
                 TextExtractor fallback = extractorRegistry.getFallbackExtractor();
                 if (fallback != extractor) {
-                    extractionResult = executeWithTimeout(
-                            () -> fallback.extract(source, detection),
-                            config.getTimeoutPerExtractionMs()
-                    );
+                    extractionResult = fallback.extract(source, detection);
                 }
             }
 
@@ -145,38 +305,12 @@ public class ExtractTextFromDocumentUseCase {
             LOG.fine("Extraction complete: " + normalizedText.length() + " chars");
             return finalResult;
 
-        } catch (TimeoutException e) {
-            LOG.warning("Extraction timed out");
-            return ExtractionResult.failure("Zeitüberschreitung bei der Textextraktion", getName());
         } catch (Exception e) {
             LOG.log(Level.SEVERE, "Extraction failed", e);
             return ExtractionResult.failure("Fehler bei der Textextraktion: " + e.getMessage(), getName());
         }
     }
 
-    /**
-     * Execute extraction with timeout.
-     */
-    private ExtractionResult executeWithTimeout(Callable<ExtractionResult> task, long timeoutMs)
-            throws TimeoutException {
-        Future<ExtractionResult> future = executor.submit(task);
-        try {
-            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
-        } catch (TimeoutException e) {
-            future.cancel(true);
-            throw e;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return ExtractionResult.failure("Extraktion unterbrochen", getName());
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            return ExtractionResult.failure(
-                    "Extraktionsfehler: " + (cause != null ? cause.getMessage() : e.getMessage()),
-                    getName()
-            );
-        }
-    }
-
     /**
      * Extract text synchronously (without timeout).
      * Use this for simple cases or testing.
@@ -5,6 +5,9 @@ import de.bund.zrb.ingestion.model.document.Document;
 import de.bund.zrb.ingestion.port.render.DocumentRenderer;
 import de.bund.zrb.ingestion.port.render.RenderFormat;
 
+import java.io.Reader;
+import java.io.StringReader;
+
 /**
  * Use case for rendering documents to different formats.
  * Selects the appropriate renderer based on target format.
@@ -49,6 +52,21 @@ public class RenderDocumentUseCase {
         return render(document, RenderFormat.MARKDOWN);
     }
 
+    /**
+     * Render a document to Markdown as a character stream, for consumers that process large
+     * documents incrementally (e.g. the chunker). The text read equals {@link #renderToMarkdown}.
+     */
+    public Reader openMarkdownReader(Document document) {
+        if (document == null) {
+            return new StringReader("");
+        }
+        DocumentRenderer renderer = registry.getDocumentRenderer(RenderFormat.MARKDOWN);
+        if (renderer == null) {
+            throw new IllegalArgumentException("No renderer available for format: " + RenderFormat.MARKDOWN);
+        }
+        return renderer.openReader(document);
+    }
+
     /**
      * Render a document to Plaintext (for LLM, minimal overhead).
      */
@@ -21,6 +21,7 @@ public class EmbeddingSettings {
     private int proxyPort = 0;
     private int timeoutSeconds = 30;
     private int batchSize = 10;
+    private int concurrency = 2;
     private boolean enabled = true;
 
     // Getters and setters
@@ -106,6 +107,18 @@ public class EmbeddingSettings {
         return this;
     }
 
+    /**
+     * Maximum number of embedding batches sent to the provider at the same time.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public EmbeddingSettings setConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -197,6 +210,12 @@ public class EmbeddingSettings {
                 result.setBatchSize(10);
             }
 
+            try {
+                result.setConcurrency(Integer.parseInt(embConfig.getOrDefault("concurrency", "2")));
+            } catch (NumberFormatException e) {
+                result.setConcurrency(2);
+            }
+
             result.setEnabled(Boolean.parseBoolean(embConfig.getOrDefault("enabled", "true")));
         }
 
@@ -11,16 +11,39 @@ public class RagConfig {
 
     // Lucene (lexical)
     private int luceneTopN = 200;
+    // How long an indexed chunk may stay invisible to lexical searches (NRT reopen interval)
+    private long lexicalMaxStalenessMs = 1000;
+    private ChunkCacheMode chunkCacheMode = ChunkCacheMode.LAZY;
+    private int chunkCacheSize = 5000;
+    // Bulk ingestion (indexing runs): group commits instead of one commit per document
+    private int bulkCommitEveryChunks = 5000;
+    private long bulkCommitIntervalMs = 10000;
+    private double bulkRamBufferMb = 64;
 
     // HNSW (semantic)
     private int hnswTopM = 50;
     private int hnswEfConstruction = 200;
     private int hnswM = 16;
+    private int hnswEfSearch = 64;
+    private SemanticIndexType semanticIndexType = SemanticIndexType.HNSW;
+
+    // Quantized scan (SemanticIndexType.QUANTIZED)
+    private VectorQuantization quantization = VectorQuantization.INT8;
+    private int quantizationRescoreMultiplier = 8;
+
+    // Vector persistence (HNSW and QUANTIZED)
+    private boolean persistVectors = true;
+    private boolean halfFloatVectors = false;
 
     // Hybrid retrieval
     private int finalTopK = 12;
     private float weightLexical = 0.35f;
     private float weightSemantic = 0.65f;
+    private MergeMode mergeMode = MergeMode.WEIGHTED_SCORE;
+    private int rrfK = 60;
+    // Deadlines for the concurrent retrieval stages, measured from the start of the query
+    private long lexicalStageTimeoutMs = 2000;
+    private long semanticStageTimeoutMs = 5000;
 
     // Context limits
     private int maxContextCharsTotal = 40000;
@@ -35,6 +58,36 @@ public class RagConfig {
         HYBRID
     }
 
+    public enum MergeMode {
+        /** Max-normalize each result list, then combine with the lexical/semantic weights. */
+        WEIGHTED_SCORE,
+        /** Reciprocal rank fusion: weight / (rrfK + rank), independent of raw score scales. */
+        RECIPROCAL_RANK
+    }
+
+    public enum ChunkCacheMode {
+        /** All chunks are loaded on startup and stay on the heap. */
+        RESIDENT,
+        /** Chunks stay in Lucene stored fields and are loaded on demand through a bounded LRU. */
+        LAZY
+    }
+
+    public enum SemanticIndexType {
+        /** Exact cosine scan over all chunks – only for small collections. */
+        BRUTE_FORCE,
+        /** Approximate nearest-neighbour graph – scales to 100k+ chunks. */
+        HNSW,
+        /** Scan over compact int8/binary codes, exact re-scoring of the best candidates. */
+        QUANTIZED
+    }
+
+    public enum VectorQuantization {
+        /** One byte per dimension (≈4× smaller than float). */
+        INT8,
+        /** One sign bit per dimension (32× smaller), Hamming-distance first pass. */
+        BINARY
+    }
+
     // Getters and setters
 
     public int getChunkSizeChars() {
@@ -64,6 +117,60 @@ public class RagConfig {
         return this;
     }
 
+    public long getLexicalMaxStalenessMs() {
+        return lexicalMaxStalenessMs;
+    }
+
+    public RagConfig setLexicalMaxStalenessMs(long lexicalMaxStalenessMs) {
+        this.lexicalMaxStalenessMs = lexicalMaxStalenessMs;
+        return this;
+    }
+
+    public ChunkCacheMode getChunkCacheMode() {
+        return chunkCacheMode;
+    }
+
+    public RagConfig setChunkCacheMode(ChunkCacheMode chunkCacheMode) {
+        this.chunkCacheMode = chunkCacheMode;
+        return this;
+    }
+
+    public int getBulkCommitEveryChunks() {
+        return bulkCommitEveryChunks;
+    }
+
+    public RagConfig setBulkCommitEveryChunks(int bulkCommitEveryChunks) {
+        this.bulkCommitEveryChunks = Math.max(1, bulkCommitEveryChunks);
+        return this;
+    }
+
+    public long getBulkCommitIntervalMs() {
+        return bulkCommitIntervalMs;
+    }
+
+    public RagConfig setBulkCommitIntervalMs(long bulkCommitIntervalMs) {
+        this.bulkCommitIntervalMs = Math.max(1, bulkCommitIntervalMs);
+        return this;
+    }
+
+    public double getBulkRamBufferMb() {
+        return bulkRamBufferMb;
+    }
+
+    public RagConfig setBulkRamBufferMb(double bulkRamBufferMb) {
+        this.bulkRamBufferMb = bulkRamBufferMb;
+        return this;
+    }
+
+    public int getChunkCacheSize() {
+        return chunkCacheSize;
+    }
+
+    public RagConfig setChunkCacheSize(int chunkCacheSize) {
+        this.chunkCacheSize = chunkCacheSize;
+        return this;
+    }
+
     public int getHnswTopM() {
         return hnswTopM;
     }
@@ -91,6 +198,60 @@ public class RagConfig {
         return this;
     }
 
+    public int getHnswEfSearch() {
+        return hnswEfSearch;
+    }
+
+    public RagConfig setHnswEfSearch(int hnswEfSearch) {
+        this.hnswEfSearch = hnswEfSearch;
+        return this;
+    }
+
+    public SemanticIndexType getSemanticIndexType() {
+        return semanticIndexType;
+    }
+
+    public RagConfig setSemanticIndexType(SemanticIndexType semanticIndexType) {
+        this.semanticIndexType = semanticIndexType;
+        return this;
+    }
+
+    public VectorQuantization getQuantization() {
+        return quantization;
+    }
+
+    public RagConfig setQuantization(VectorQuantization quantization) {
+        this.quantization = quantization;
+        return this;
+    }
+
+    public int getQuantizationRescoreMultiplier() {
+        return quantizationRescoreMultiplier;
+    }
+
+    public RagConfig setQuantizationRescoreMultiplier(int quantizationRescoreMultiplier) {
+        this.quantizationRescoreMultiplier = quantizationRescoreMultiplier;
+        return this;
+    }
+
+    public boolean isPersistVectors() {
+        return persistVectors;
+    }
+
+    public RagConfig setPersistVectors(boolean persistVectors) {
+        this.persistVectors = persistVectors;
+        return this;
+    }
+
+    public boolean isHalfFloatVectors() {
+        return halfFloatVectors;
+    }
+
+    public RagConfig setHalfFloatVectors(boolean halfFloatVectors) {
+        this.halfFloatVectors = halfFloatVectors;
+        return this;
+    }
+
     public int getFinalTopK() {
         return finalTopK;
     }
@@ -118,6 +279,42 @@ public class RagConfig {
         return this;
     }
 
+    public MergeMode getMergeMode() {
+        return mergeMode;
+    }
+
+    public RagConfig setMergeMode(MergeMode mergeMode) {
+        this.mergeMode = mergeMode;
+        return this;
+    }
+
+    public int getRrfK() {
+        return rrfK;
+    }
+
+    public RagConfig setRrfK(int rrfK) {
+        this.rrfK = rrfK;
+        return this;
+    }
+
+    public long getLexicalStageTimeoutMs() {
+        return lexicalStageTimeoutMs;
+    }
+
+    public RagConfig setLexicalStageTimeoutMs(long lexicalStageTimeoutMs) {
+        this.lexicalStageTimeoutMs = lexicalStageTimeoutMs;
+        return this;
+    }
+
+    public long getSemanticStageTimeoutMs() {
+        return semanticStageTimeoutMs;
+    }
+
+    public RagConfig setSemanticStageTimeoutMs(long semanticStageTimeoutMs) {
+        this.semanticStageTimeoutMs = semanticStageTimeoutMs;
+        return this;
+    }
+
     public int getMaxContextCharsTotal() {
         return maxContextCharsTotal;
     }
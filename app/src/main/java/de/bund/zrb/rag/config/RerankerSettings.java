@@ -88,6 +88,24 @@ public class RerankerSettings {
      */
     private float scoreThreshold = 0.0f;
 
+    /**
+     * Maximum number of passages per HTTP request. Larger candidate pools are split
+     * into sub-batches that are scored concurrently.
+     */
+    private int batchSize = 16;
+
+    /** Maximum number of sub-batch requests in flight at the same time. */
+    private int maxConcurrentBatches = 4;
+
+    /**
+     * How long the retriever waits for reranking before it falls back to the
+     * Stage 1+2 ranking. 0 waits until the HTTP timeout.
+     */
+    private long latencyBudgetMs = 3000;
+
+    /** Number of cached (query, passage) scores. 0 disables the cache. */
+    private int cacheSize = 5000;
+
     // ── Getters & Setters (fluent) ──────────────────────────────────
 
     public boolean isEnabled() {
@@ -171,6 +189,42 @@ public class RerankerSettings {
         return this;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public RerankerSettings setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    public int getMaxConcurrentBatches() {
+        return maxConcurrentBatches;
+    }
+
+    public RerankerSettings setMaxConcurrentBatches(int maxConcurrentBatches) {
+        this.maxConcurrentBatches = Math.max(1, maxConcurrentBatches);
+        return this;
+    }
+
+    public long getLatencyBudgetMs() {
+        return latencyBudgetMs;
+    }
+
+    public RerankerSettings setLatencyBudgetMs(long latencyBudgetMs) {
+        this.latencyBudgetMs = Math.max(0, latencyBudgetMs);
+        return this;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public RerankerSettings setCacheSize(int cacheSize) {
+        this.cacheSize = Math.max(0, cacheSize);
+        return this;
+    }
+
     // ── Factory ─────────────────────────────────────────────────────
 
     public static RerankerSettings defaults() {
@@ -208,6 +262,18 @@ public class RerankerSettings {
         try { result.setScoreThreshold(Float.parseFloat(cfg.getOrDefault("scoreThreshold", "0.0"))); }
         catch (NumberFormatException e) { /* keep default */ }
 
+        try { result.setBatchSize(Integer.parseInt(cfg.getOrDefault("batchSize", "16"))); }
+        catch (NumberFormatException e) { /* keep default */ }
+
+        try { result.setMaxConcurrentBatches(Integer.parseInt(cfg.getOrDefault("maxConcurrentBatches", "4"))); }
+        catch (NumberFormatException e) { /* keep default */ }
+
+        try { result.setLatencyBudgetMs(Long.parseLong(cfg.getOrDefault("latencyBudgetMs", "3000"))); }
+        catch (NumberFormatException e) { /* keep default */ }
+
+        try { result.setCacheSize(Integer.parseInt(cfg.getOrDefault("cacheSize", "5000"))); }
+        catch (NumberFormatException e) { /* keep default */ }
+
         return result;
     }
 }
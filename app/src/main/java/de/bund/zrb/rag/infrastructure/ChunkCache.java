@@ -0,0 +1,50 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.model.Chunk;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe chunk cache in front of the Lucene stored fields.
+ * With a positive capacity it evicts the least recently used chunk; with capacity 0 it is unbounded.
+ */
+class ChunkCache {
+
+    private final int capacity;
+    private final LinkedHashMap<String, Chunk> map;
+
+    ChunkCache(final int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.map = new LinkedHashMap<String, Chunk>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Chunk> eldest) {
+                return ChunkCache.this.capacity > 0 && size() > ChunkCache.this.capacity;
+            }
+        };
+    }
+
+    boolean isBounded() {
+        return capacity > 0;
+    }
+
+    synchronized Chunk get(String chunkId) {
+        return map.get(chunkId);
+    }
+
+    synchronized void put(Chunk chunk) {
+        map.put(chunk.getChunkId(), chunk);
+    }
+
+    synchronized void removeDocument(String documentId) {
+        map.values().removeIf(chunk -> documentId.equals(chunk.getDocumentId()));
+    }
+
+    synchronized void clear() {
+        map.clear();
+    }
+
+    synchronized int size() {
+        return map.size();
+    }
+}
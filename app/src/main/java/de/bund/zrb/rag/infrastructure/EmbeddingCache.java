@@ -0,0 +1,195 @@
+package de.bund.zrb.rag.infrastructure;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed cache for embedding vectors.
+ *
+ * Entries are keyed by model, dimension and the SHA-256 of the normalized text, so colliding
+ * texts never share a vector and vectors of different models never mix. A bounded LRU map
+ * serves hot entries; an optional H2 MVStore file keeps every vector across restarts, so
+ * re-indexing unchanged text (or switching back to an earlier model) needs no embedding calls.
+ */
+public class EmbeddingCache {
+
+    public static final int DEFAULT_MEMORY_ENTRIES = 10_000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Map<String, float[]> memory;
+    private final MVStore store;
+    private final MVMap<String, byte[]> disk;
+
+    /**
+     * Memory-only cache.
+     */
+    public EmbeddingCache(int memoryEntries) {
+        this.memory = createLru(memoryEntries);
+        this.store = null;
+        this.disk = null;
+    }
+
+    /**
+     * Cache persisted in the given MVStore file.
+     *
+     * @throws IllegalStateException if the file cannot be opened (e.g. locked by another process)
+     */
+    public EmbeddingCache(Path file, int memoryEntries) {
+        this.memory = createLru(memoryEntries);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Cannot create embedding cache directory for " + file, e);
+        }
+        this.store = new MVStore.Builder()
+                .fileName(file.toAbsolutePath().toString())
+                .compress()
+                .open();
+        this.disk = store.openMap("embeddings");
+    }
+
+    /**
+     * Build the cache key for a text embedded with the given model.
+     */
+    public static String key(String model, int dimension, String text) {
+        return model + '|' + dimension + '|' + sha256(normalize(text));
+    }
+
+    /**
+     * Normalize text so that insignificant differences (Unicode composition, whitespace runs,
+     * leading/trailing blanks) map to the same cache entry.
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        String nfc = Normalizer.normalize(text, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(nfc).replaceAll(" ").trim();
+    }
+
+    /**
+     * @return cached vector or {@code null}
+     */
+    public float[] get(String key) {
+        float[] vector;
+        synchronized (memory) {
+            vector = memory.get(key);
+        }
+        if (vector != null || disk == null) {
+            return vector;
+        }
+        byte[] bytes = disk.get(key);
+        if (bytes == null) {
+            return null;
+        }
+        vector = decode(bytes);
+        synchronized (memory) {
+            memory.put(key, vector);
+        }
+        return vector;
+    }
+
+    public void put(String key, float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return;
+        }
+        synchronized (memory) {
+            memory.put(key, vector);
+        }
+        if (disk != null) {
+            disk.put(key, encode(vector));
+        }
+    }
+
+    /**
+     * Number of entries in the in-memory LRU front.
+     */
+    public int memorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    /**
+     * Number of persisted entries (equals {@link #memorySize()} for a memory-only cache).
+     */
+    public long size() {
+        return disk != null ? disk.sizeAsLong() : memorySize();
+    }
+
+    public boolean isPersistent() {
+        return store != null;
+    }
+
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+        }
+        if (disk != null) {
+            disk.clear();
+            store.commit();
+        }
+    }
+
+    /**
+     * Write pending entries to disk.
+     */
+    public void flush() {
+        if (store != null && !store.isClosed()) {
+            store.commit();
+        }
+    }
+
+    public void close() {
+        if (store != null && !store.isClosed()) {
+            store.close();
+        }
+    }
+
+    private static Map<String, float[]> createLru(final int maxEntries) {
+        return new LinkedHashMap<String, float[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static float[] decode(byte[] bytes) {
+        float[] vector = new float[bytes.length / 4];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
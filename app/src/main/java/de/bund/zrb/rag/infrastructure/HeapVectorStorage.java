@@ -0,0 +1,76 @@
+package de.bund.zrb.rag.infrastructure;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Non-persistent {@link VectorStorage} keeping every vector as a {@code float[]} on the heap.
+ */
+public class HeapVectorStorage implements VectorStorage {
+
+    private volatile float[][] vectors = new float[1024][];
+    private int count = 0;
+
+    @Override
+    public synchronized int add(String chunkId, String documentId, float[] vector) {
+        if (count >= vectors.length) {
+            vectors = Arrays.copyOf(vectors, vectors.length * 2);
+        }
+        int slot = count++;
+        vectors[slot] = vector;
+        return slot;
+    }
+
+    @Override
+    public void release(String chunkId) {
+        // nothing persisted – the vector is dropped in free()
+    }
+
+    @Override
+    public synchronized void free(int slot) {
+        vectors[slot] = null;
+    }
+
+    @Override
+    public float[] read(int slot) {
+        float[] v = vectors[slot];
+        return Arrays.copyOf(v, v.length);
+    }
+
+    @Override
+    public float dot(int slot, float[] query) {
+        float[] v = vectors[slot];
+        float dot = 0;
+        for (int i = 0; i < v.length; i++) {
+            dot += v[i] * query[i];
+        }
+        return dot;
+    }
+
+    @Override
+    public float dot(int slotA, int slotB) {
+        return dot(slotA, vectors[slotB]);
+    }
+
+    @Override
+    public List<StoredVector> entries() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void flush() {
+        // nothing to persist
+    }
+
+    @Override
+    public synchronized void clear() {
+        vectors = new float[1024][];
+        count = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+}
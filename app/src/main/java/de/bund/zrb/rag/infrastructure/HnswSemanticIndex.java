@@ -0,0 +1,678 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * Approximate nearest-neighbour semantic index based on a
+ * Hierarchical Navigable Small World graph (Malkov &amp; Yashunin).
+ *
+ * <p>Search cost grows roughly logarithmically with the number of chunks,
+ * so this index stays responsive well beyond the ~10,000 chunks where
+ * {@link InMemorySemanticIndex} starts to stall chat turns.
+ *
+ * <ul>
+ *   <li><b>M</b> – max links per node on upper layers (2·M on layer 0)</li>
+ *   <li><b>efConstruction</b> – candidate list size while inserting</li>
+ *   <li><b>efSearch</b> – candidate list size while querying (raised to topM if smaller)</li>
+ * </ul>
+ *
+ * <p>Inserts run concurrently: each node guards its own link lists, only the
+ * entry point update is serialised. Removing a document marks its nodes as
+ * tombstones – they are still traversed (keeping the graph connected) but
+ * never returned. Once tombstones outnumber live nodes, the graph is rebuilt
+ * from the live nodes.
+ *
+ * <p>Nodes only reference a slot in a {@link VectorStorage}. With a
+ * {@link MappedVectorStore} the vectors live off-heap and survive restarts;
+ * {@link #restore(Function)} then rebuilds the graph without re-embedding. Restored
+ * nodes keep their chunk without its text (see {@link RestoredChunks}).
+ */
+public class HnswSemanticIndex implements StoredVectorIndex {
+
+    private static final Logger LOG = Logger.getLogger(HnswSemanticIndex.class.getName());
+
+    /** Rebuild once at least this many tombstones exist and they outnumber live nodes. */
+    private static final int MIN_TOMBSTONES_FOR_COMPACTION = 1000;
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private volatile int efSearch;
+    private final double levelMultiplier;
+
+    /** Inserts and searches share the read lock; removal, compaction and clear take the write lock. */
+    private final ReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private final Object entryLock = new Object();
+    private final Object growLock = new Object();
+
+    private volatile Node[] nodes = new Node[1024];
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    private volatile int entryPoint = -1;
+    private volatile int maxLevel = -1;
+
+    private final Map<String, Node> liveByChunkId = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> documentChunks = new ConcurrentHashMap<>();
+    private final AtomicInteger tombstones = new AtomicInteger();
+    private final VectorStorage storage;
+    private volatile int dimension = 0;
+    private volatile Function<List<String>, List<Chunk>> chunkLoader;
+
+    public HnswSemanticIndex() {
+        this(RagConfig.defaults());
+    }
+
+    public HnswSemanticIndex(RagConfig config) {
+        this(config, new HeapVectorStorage());
+    }
+
+    public HnswSemanticIndex(RagConfig config, VectorStorage storage) {
+        this(config.getHnswM(), config.getHnswEfConstruction(), config.getHnswEfSearch(), storage);
+    }
+
+    public HnswSemanticIndex(int m, int efConstruction, int efSearch) {
+        this(m, efConstruction, efSearch, new HeapVectorStorage());
+    }
+
+    public HnswSemanticIndex(int m, int efConstruction, int efSearch, VectorStorage storage) {
+        this.storage = storage;
+        this.m = Math.max(2, m);
+        this.maxM0 = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.efSearch = Math.max(1, efSearch);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+    }
+
+    /**
+     * Change the query-time candidate list size. Higher values trade speed for recall.
+     */
+    public void setEfSearch(int efSearch) {
+        this.efSearch = Math.max(1, efSearch);
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    @Override
+    public void indexChunk(Chunk chunk, float[] embedding) {
+        if (chunk == null || embedding == null || embedding.length == 0) {
+            return;
+        }
+
+        structureLock.readLock().lock();
+        try {
+            synchronized (entryLock) {
+                if (dimension == 0) {
+                    dimension = embedding.length;
+                }
+            }
+            if (embedding.length != dimension) {
+                LOG.warning("Skipping chunk " + chunk.getChunkId() + ": embedding dimension "
+                        + embedding.length + " does not match index dimension " + dimension);
+                return;
+            }
+
+            float[] vector = normalize(embedding);
+            int slot = storage.add(chunk.getChunkId(), chunk.getDocumentId(), vector);
+            addNode(chunk, slot, vector);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+
+        LOG.fine("Indexed chunk: " + chunk.getChunkId() + " (dim=" + embedding.length + ")");
+        compactIfNeeded();
+    }
+
+    /**
+     * Rebuild the graph from vectors persisted in the storage. Only the graph is
+     * recomputed – no embedding calls are made.
+     */
+    @Override
+    public int restore(Function<List<String>, List<Chunk>> chunkLoader) {
+        List<VectorStorage.StoredVector> stored = storage.entries();
+        if (stored.isEmpty()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        int restored = 0;
+        this.chunkLoader = chunkLoader;
+        for (int from = 0; from < stored.size(); from += RestoredChunks.RESTORE_BATCH) {
+            List<VectorStorage.StoredVector> batch =
+                    stored.subList(from, Math.min(stored.size(), from + RestoredChunks.RESTORE_BATCH));
+            Map<String, Chunk> known = RestoredChunks.lookup(batch, chunkLoader);
+            structureLock.readLock().lock();
+            try {
+                for (VectorStorage.StoredVector sv : batch) {
+                    Chunk chunk = known.get(sv.chunkId);
+                    if (chunk == null) {
+                        storage.release(sv.chunkId);
+                        continue;
+                    }
+                    float[] vector = storage.read(sv.slot);
+                    synchronized (entryLock) {
+                        if (dimension == 0) {
+                            dimension = vector.length;
+                        }
+                    }
+                    if (vector.length != dimension) {
+                        continue;
+                    }
+                    addNode(RestoredChunks.withoutText(chunk), sv.slot, vector);
+                    restored++;
+                }
+            } finally {
+                structureLock.readLock().unlock();
+            }
+        }
+        LOG.info("Restored " + restored + " vectors from storage in "
+                + (System.currentTimeMillis() - start) + "ms (skipped " + (stored.size() - restored) + ")");
+        return restored;
+    }
+
+    @Override
+    public void flush() {
+        storage.flush();
+    }
+
+    @Override
+    public void close() {
+        storage.close();
+    }
+
+    private void addNode(Chunk chunk, int slot, float[] vector) {
+        Node node = allocateNode(chunk, slot);
+
+        // Re-indexing the same chunk replaces the previous vector
+        Node previous = liveByChunkId.put(chunk.getChunkId(), node);
+        if (previous != null) {
+            markDeleted(previous);
+        }
+        documentChunks.computeIfAbsent(chunk.getDocumentId(), k -> ConcurrentHashMap.newKeySet())
+                .add(chunk.getChunkId());
+
+        insert(node, vector);
+    }
+
+    @Override
+    public List<ScoredChunk> search(float[] queryEmbedding, int topM) {
+        if (queryEmbedding == null || queryEmbedding.length == 0 || topM <= 0 || liveByChunkId.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ScoredChunk> results;
+        structureLock.readLock().lock();
+        try {
+            int ep = entryPoint;
+            if (ep < 0 || queryEmbedding.length != dimension) {
+                return Collections.emptyList();
+            }
+            float[] query = normalize(queryEmbedding);
+
+            int top = maxLevel;
+            Candidate current = new Candidate(ep, storage.dot(node(ep).slot, query));
+            for (int level = top; level > 0; level--) {
+                current = greedyClosest(query, current, level);
+            }
+
+            int ef = Math.max(efSearch, topM);
+            List<Candidate> found = searchLayer(query, Collections.singletonList(current), ef, 0);
+
+            results = new ArrayList<>(Math.min(topM, found.size()));
+            for (Candidate c : found) {
+                Node n = node(c.id);
+                if (n.deleted) {
+                    continue;
+                }
+                results.add(new ScoredChunk(n.chunk, c.similarity, ScoredChunk.ScoreSource.SEMANTIC));
+                if (results.size() >= topM) {
+                    break;
+                }
+            }
+        } finally {
+            structureLock.readLock().unlock();
+        }
+        return RestoredChunks.withText(results, chunkLoader);
+    }
+
+    @Override
+    public Chunk getChunk(String chunkId) {
+        Node node = liveByChunkId.get(chunkId);
+        return node != null ? RestoredChunks.withText(node.chunk, chunkLoader) : null;
+    }
+
+    @Override
+    public void removeDocument(String documentId) {
+        Set<String> chunkIds;
+        // Exclusive: compact() re-registers live nodes and must not miss a removal
+        structureLock.writeLock().lock();
+        try {
+            chunkIds = documentChunks.remove(documentId);
+            if (chunkIds == null) {
+                return;
+            }
+            for (String chunkId : chunkIds) {
+                Node node = liveByChunkId.remove(chunkId);
+                if (node != null) {
+                    markDeleted(node);
+                    storage.release(chunkId);
+                }
+            }
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        LOG.info("Removed " + chunkIds.size() + " chunks for document: " + documentId
+                + " (tombstones=" + tombstones.get() + ")");
+        compactIfNeeded();
+    }
+
+    @Override
+    public void clear() {
+        structureLock.writeLock().lock();
+        try {
+            nodes = new Node[1024];
+            nodeCount.set(0);
+            entryPoint = -1;
+            maxLevel = -1;
+            liveByChunkId.clear();
+            documentChunks.clear();
+            tombstones.set(0);
+            dimension = 0;
+            storage.clear();
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        LOG.info("Semantic index cleared");
+    }
+
+    @Override
+    public int size() {
+        return liveByChunkId.size();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Number of removed nodes still present in the graph.
+     */
+    public int getTombstoneCount() {
+        return tombstones.get();
+    }
+
+    /**
+     * Rebuild the graph from live nodes only, dropping all tombstones.
+     */
+    public void compact() {
+        structureLock.writeLock().lock();
+        try {
+            int count = nodeCount.get();
+            List<Node> live = new ArrayList<>(liveByChunkId.size());
+            for (int i = 0; i < count; i++) {
+                Node n = nodes[i];
+                if (n == null) {
+                    continue;
+                }
+                if (n.deleted) {
+                    storage.free(n.slot);
+                } else {
+                    live.add(n);
+                }
+            }
+
+            nodes = new Node[Math.max(1024, live.size() * 2)];
+            nodeCount.set(0);
+            entryPoint = -1;
+            maxLevel = -1;
+            tombstones.set(0);
+
+            for (Node old : live) {
+                Node fresh = allocateNode(old.chunk, old.slot);
+                liveByChunkId.put(old.chunk.getChunkId(), fresh);
+                insert(fresh, storage.read(old.slot));
+            }
+            LOG.info("HNSW graph compacted: " + live.size() + " live nodes");
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        int dead = tombstones.get();
+        if (dead >= MIN_TOMBSTONES_FOR_COMPACTION && dead > liveByChunkId.size()) {
+            compact();
+        }
+    }
+
+    private void markDeleted(Node node) {
+        if (!node.deleted) {
+            node.deleted = true;
+            tombstones.incrementAndGet();
+        }
+    }
+
+    // ==================== Graph construction ====================
+
+    private Node allocateNode(Chunk chunk, int slot) {
+        int level = randomLevel();
+        synchronized (growLock) {
+            int id = nodeCount.get();
+            Node[] current = nodes;
+            if (id >= current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            Node node = new Node(id, chunk, slot, level, m, maxM0);
+            current[id] = node;
+            nodes = current;
+            nodeCount.incrementAndGet();
+            return node;
+        }
+    }
+
+    private void insert(Node node, float[] vector) {
+        int ep;
+        int top;
+        synchronized (entryLock) {
+            if (entryPoint < 0) {
+                entryPoint = node.id;
+                maxLevel = node.level;
+                return;
+            }
+            ep = entryPoint;
+            top = maxLevel;
+        }
+
+        Candidate current = new Candidate(ep, storage.dot(node(ep).slot, vector));
+        for (int level = top; level > node.level; level--) {
+            current = greedyClosest(vector, current, level);
+        }
+
+        List<Candidate> entryPoints = Collections.singletonList(current);
+        for (int level = Math.min(top, node.level); level >= 0; level--) {
+            List<Candidate> candidates = searchLayer(vector, entryPoints, efConstruction, level);
+            // A concurrent insert may already have linked back to this node
+            candidates = withoutNode(candidates, node.id);
+            int maxLinks = level == 0 ? maxM0 : m;
+            List<Candidate> neighbours = selectNeighbours(candidates, m);
+
+            synchronized (node) {
+                for (Candidate c : neighbours) {
+                    node.addLink(level, c.id);
+                }
+            }
+            for (Candidate c : neighbours) {
+                connect(node(c.id), node.id, c.similarity, level, maxLinks);
+            }
+            entryPoints = candidates;
+        }
+
+        if (node.level > top) {
+            synchronized (entryLock) {
+                if (node.level > maxLevel) {
+                    maxLevel = node.level;
+                    entryPoint = node.id;
+                }
+            }
+        }
+    }
+
+    private static List<Candidate> withoutNode(List<Candidate> candidates, int id) {
+        List<Candidate> result = new ArrayList<>(candidates.size());
+        for (Candidate c : candidates) {
+            if (c.id != id) {
+                result.add(c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add a back-link from {@code target} to {@code newId}, shrinking the
+     * link list with the neighbour heuristic when it overflows.
+     */
+    private void connect(Node target, int newId, float similarity, int level, int maxLinks) {
+        synchronized (target) {
+            if (target.linkCount(level) < maxLinks) {
+                target.addLink(level, newId);
+                return;
+            }
+            int[] links = target.links(level);
+            List<Candidate> pool = new ArrayList<>(links.length + 1);
+            for (int id : links) {
+                pool.add(new Candidate(id, storage.dot(target.slot, node(id).slot)));
+            }
+            pool.add(new Candidate(newId, similarity));
+            Collections.sort(pool);
+            List<Candidate> kept = selectNeighbours(pool, maxLinks);
+            target.setLinks(level, kept);
+        }
+    }
+
+    /**
+     * Neighbour selection heuristic: keep a candidate only if it is closer to
+     * the base node than to any neighbour already selected. This spreads links
+     * across clusters and keeps the graph navigable. Gaps are filled with the
+     * nearest discarded candidates.
+     *
+     * @param candidates sorted by similarity, best first
+     */
+    private List<Candidate> selectNeighbours(List<Candidate> candidates, int max) {
+        if (candidates.size() <= max) {
+            return candidates;
+        }
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> discarded = new ArrayList<>();
+        for (Candidate c : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            int slot = node(c.id).slot;
+            boolean good = true;
+            for (Candidate s : selected) {
+                if (storage.dot(slot, node(s.id).slot) > c.similarity) {
+                    good = false;
+                    break;
+                }
+            }
+            if (good) {
+                selected.add(c);
+            } else {
+                discarded.add(c);
+            }
+        }
+        for (int i = 0; i < discarded.size() && selected.size() < max; i++) {
+            selected.add(discarded.get(i));
+        }
+        return selected;
+    }
+
+    // ==================== Graph search ====================
+
+    private Candidate greedyClosest(float[] query, Candidate start, int level) {
+        Candidate best = start;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int id : linksOf(node(best.id), level)) {
+                float sim = storage.dot(node(id).slot, query);
+                if (sim > best.similarity) {
+                    best = new Candidate(id, sim);
+                    changed = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Beam search on one layer.
+     *
+     * @return up to {@code ef} candidates, best first
+     */
+    private List<Candidate> searchLayer(float[] query, List<Candidate> entryPoints, int ef, int level) {
+        BitSet visited = new BitSet(nodeCount.get());
+        // Best candidate on top
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>();
+        // Worst result on top
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Collections.reverseOrder());
+
+        for (Candidate ep : entryPoints) {
+            if (!visited.get(ep.id)) {
+                visited.set(ep.id);
+                toVisit.add(ep);
+                results.add(ep);
+            }
+        }
+        while (results.size() > ef) {
+            results.poll();
+        }
+
+        while (!toVisit.isEmpty()) {
+            Candidate current = toVisit.poll();
+            if (results.size() >= ef && current.similarity < results.peek().similarity) {
+                break;
+            }
+            for (int id : linksOf(node(current.id), level)) {
+                if (visited.get(id)) {
+                    continue;
+                }
+                visited.set(id);
+                float sim = storage.dot(node(id).slot, query);
+                if (results.size() < ef || sim > results.peek().similarity) {
+                    Candidate c = new Candidate(id, sim);
+                    toVisit.add(c);
+                    results.add(c);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private int[] linksOf(Node node, int level) {
+        synchronized (node) {
+            return node.links(level);
+        }
+    }
+
+    private Node node(int id) {
+        return nodes[id];
+    }
+
+    private int randomLevel() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        return (int) Math.floor(-Math.log(Math.max(r, Double.MIN_VALUE)) * levelMultiplier);
+    }
+
+    /**
+     * Normalize a vector to unit length.
+     */
+    private float[] normalize(float[] vector) {
+        float norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = (float) Math.sqrt(norm);
+
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] / norm;
+        }
+        return normalized;
+    }
+
+    /**
+     * Graph node. Link lists are guarded by the node's own monitor.
+     */
+    private static final class Node {
+        final int id;
+        final Chunk chunk;
+        final int slot;
+        final int level;
+        final int[][] links;
+        final int[] counts;
+        volatile boolean deleted;
+
+        Node(int id, Chunk chunk, int slot, int level, int m, int maxM0) {
+            this.id = id;
+            this.chunk = chunk;
+            this.slot = slot;
+            this.level = level;
+            this.links = new int[level + 1][];
+            this.counts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                links[l] = new int[l == 0 ? maxM0 : m];
+            }
+        }
+
+        int linkCount(int level) {
+            return level <= this.level ? counts[level] : 0;
+        }
+
+        int[] links(int level) {
+            if (level > this.level) {
+                return new int[0];
+            }
+            return Arrays.copyOf(links[level], counts[level]);
+        }
+
+        void addLink(int level, int id) {
+            int[] list = links[level];
+            if (counts[level] < list.length) {
+                list[counts[level]++] = id;
+            }
+        }
+
+        void setLinks(int level, List<Candidate> kept) {
+            int[] list = links[level];
+            int n = Math.min(kept.size(), list.length);
+            for (int i = 0; i < n; i++) {
+                list[i] = kept.get(i).id;
+            }
+            counts[level] = n;
+        }
+    }
+
+    /**
+     * Node id with its similarity to the current query. Natural order is best first.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        final int id;
+        final float similarity;
+
+        Candidate(int id, float similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Float.compare(other.similarity, this.similarity);
+        }
+    }
+}
@@ -11,7 +11,16 @@ import de.bund.zrb.rag.port.RerankerClient;
 import java.io.*;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -44,20 +53,46 @@ import java.util.logging.Logger;
  *   ]
  * }
  * }</pre>
+ *
+ * <p>Scores are cached per (query, passage) content hash, so a repeated or refined query in
+ * the same chat only sends the passages it has not seen yet. Candidate pools larger than
+ * {@link RerankerSettings#getBatchSize()} are split into sub-batches scored concurrently.
  */
 public class HttpRerankerClient implements RerankerClient {
 
     private static final Logger LOG = Logger.getLogger(HttpRerankerClient.class.getName());
     private static final Gson GSON = new Gson();
 
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
     private final RerankerSettings settings;
     private boolean available;
+    private final Map<String, Float> scoreCache;
+    private final ThreadPoolExecutor batchExecutor;
 
     public HttpRerankerClient(RerankerSettings settings) {
         this.settings = settings;
         this.available = settings.isEnabled()
                 && settings.getApiUrl() != null
                 && !settings.getApiUrl().trim().isEmpty();
+
+        final int cacheSize = settings.getCacheSize();
+        this.scoreCache = new LinkedHashMap<String, Float>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Float> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        // Idle threads time out, so replaced clients need no explicit shutdown
+        int threads = settings.getMaxConcurrentBatches();
+        this.batchExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), r -> {
+                    Thread t = new Thread(r, "RagReranker-" + THREAD_COUNT.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.batchExecutor.allowCoreThreadTimeOut(true);
     }
 
     @Override
@@ -72,6 +107,100 @@ public class HttpRerankerClient implements RerankerClient {
             return zeros;
         }
 
+        float[] scores = new float[passages.size()];
+        String queryHash = EmbeddingCache.sha256(EmbeddingCache.normalize(query));
+
+        // Serve cached scores, collect the rest
+        List<Integer> missing = new ArrayList<>();
+        String[] keys = new String[passages.size()];
+        synchronized (scoreCache) {
+            for (int i = 0; i < passages.size(); i++) {
+                keys[i] = queryHash + '|' + EmbeddingCache.sha256(EmbeddingCache.normalize(passages.get(i)));
+                Float cached = scoreCache.get(keys[i]);
+                if (cached != null) {
+                    scores[i] = cached;
+                } else {
+                    missing.add(i);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            LOG.fine("[Reranker] All " + passages.size() + " scores served from cache");
+            return scores;
+        }
+
+        // Score the misses in concurrent sub-batches
+        int batchSize = settings.getBatchSize();
+        List<List<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            batches.add(missing.subList(from, Math.min(from + batchSize, missing.size())));
+        }
+        List<Future<float[]>> futures = new ArrayList<>(batches.size());
+        for (final List<Integer> batch : batches) {
+            final List<String> batchPassages = new ArrayList<>(batch.size());
+            for (int index : batch) {
+                batchPassages.add(passages.get(index));
+            }
+            futures.add(batchExecutor.submit(() -> requestScores(query, batchPassages)));
+        }
+
+        try {
+            for (int b = 0; b < batches.size(); b++) {
+                List<Integer> batch = batches.get(b);
+                float[] batchScores = futures.get(b).get();
+                synchronized (scoreCache) {
+                    for (int j = 0; j < batch.size(); j++) {
+                        int index = batch.get(j);
+                        if (Float.isNaN(batchScores[j])) {
+                            // Not in the response: neutral score, asked again next time
+                            scores[index] = 0f;
+                            continue;
+                        }
+                        scores[index] = batchScores[j];
+                        if (settings.getCacheSize() > 0) {
+                            scoreCache.put(keys[index], batchScores[j]);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(futures);
+            throw new RerankerException("Reranking interrupted", e);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            Throwable cause = e.getCause();
+            if (cause instanceof RerankerException) {
+                throw (RerankerException) cause;
+            }
+            throw new RerankerException("Reranker request failed: " + cause.getMessage(), cause);
+        }
+
+        LOG.fine("[Reranker] " + (passages.size() - missing.size()) + " cached, "
+                + missing.size() + " scored in " + batches.size() + " request(s)");
+        return scores;
+    }
+
+    /**
+     * Number of cached (query, passage) scores.
+     */
+    public int cachedScoreCount() {
+        synchronized (scoreCache) {
+            return scoreCache.size();
+        }
+    }
+
+    private static void cancelAll(List<Future<float[]>> futures) {
+        for (Future<float[]> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Send one rerank request and return the scores in passage order; NaN for passages the
+     * response does not score.
+     */
+    float[] requestScores(String query, List<String> passages) throws RerankerException {
         // Build request body
         JsonObject requestBody = new JsonObject();
         if (settings.getModel() != null && !settings.getModel().trim().isEmpty()) {
@@ -106,6 +235,7 @@ public class HttpRerankerClient implements RerankerClient {
      */
     private float[] parseResponse(String responseJson, int passageCount) throws RerankerException {
         float[] scores = new float[passageCount];
+        java.util.Arrays.fill(scores, Float.NaN);
 
         try {
             JsonElement root = JsonParser.parseString(responseJson);
@@ -224,4 +354,9 @@ public class HttpRerankerClient implements RerankerClient {
     public float getScoreThreshold() {
         return settings.getScoreThreshold();
     }
+
+    @Override
+    public long getLatencyBudgetMs() {
+        return settings.getLatencyBudgetMs();
+    }
 }
@@ -10,7 +10,7 @@ import java.util.logging.Logger;
 
 /**
  * Simple in-memory semantic index using brute-force cosine similarity.
- * For production, this should be replaced with hnswlib-core for better performance.
+ * For larger collections use {@link HnswSemanticIndex} (see {@code RagConfig.SemanticIndexType}).
  *
  * This implementation is suitable for small to medium document collections (< 10,000 chunks).
  */
@@ -1,5 +1,6 @@
 package de.bund.zrb.rag.infrastructure;
 
+import de.bund.zrb.rag.config.RagConfig;
 import de.bund.zrb.rag.model.Chunk;
 import de.bund.zrb.rag.model.ScoredChunk;
 import de.bund.zrb.rag.port.LexicalIndex;
@@ -10,25 +11,42 @@ import org.apache.lucene.analysis.miscellaneous.WordDelimiterGraphFilter;
 import org.apache.lucene.analysis.standard.StandardTokenizer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiBits;
+import org.apache.lucene.index.MultiTerms;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.index.TieredMergePolicy;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,6 +54,20 @@ import java.util.logging.Logger;
  * Lucene-based lexical (BM25) index for chunk retrieval.
  * Supports both in-memory (ByteBuffersDirectory) and persistent (FSDirectory) storage.
  * Lucene 8.11.x (Java 8 compatible).
+ *
+ * Readers are near-real-time: a {@link SearcherManager} is reopened by a background
+ * {@link ControlledRealTimeReopenThread}, so writes become visible to searches within the
+ * configured max staleness. Searches acquire a searcher without locking the index and never
+ * wait for a running indexer. Writes stay serialized among themselves.
+ *
+ * For bulk loads, {@link #beginBulk}/{@link #addChunks}/{@link #commit}/{@link #endBulk} add
+ * chunks without a commit per document: the caller commits in groups, the RAM buffer is raised
+ * and merges are deferred while at least one bulk load is running, and bulk writes become
+ * searchable with the scheduled reopen instead of forcing one.
+ *
+ * Chunk text lives in Lucene stored fields. In {@link RagConfig.ChunkCacheMode#LAZY} mode chunks
+ * are loaded on demand through a size-bounded LRU; {@link RagConfig.ChunkCacheMode#RESIDENT}
+ * preloads every chunk on startup and keeps them all on the heap.
  */
 public class LuceneLexicalIndex implements LexicalIndex {
 
@@ -46,36 +78,85 @@ public class LuceneLexicalIndex implements LexicalIndex {
     private static final String FIELD_SOURCE_NAME = "sourceName";
     private static final String FIELD_TEXT = "text";
     private static final String FIELD_HEADING = "heading";
+    private static final String FIELD_POSITION = "position";
+
+    /** Reopen delay used when a caller waits for its own writes. */
+    private static final double MIN_STALE_SEC = 0.025;
+
+    private static final double RAM_BUFFER_MB = 8.0;
+    private static final double DEFAULT_SEGMENTS_PER_TIER = 10.0;
+    /** Fewer, larger merges while bulk loading; merged down again once the load ends. */
+    private static final double BULK_SEGMENTS_PER_TIER = 30.0;
 
     private final Directory directory;
     private final Analyzer analyzer;
+    private final long maxStalenessMs;
     private IndexWriter writer;
-    private DirectoryReader reader;
-    private IndexSearcher searcher;
+    private volatile SearcherManager searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    // Sequence number of the latest write, used to wait until it is searchable
+    private final AtomicLong lastWriteGeneration = new AtomicLong(-1);
+
+    private final ChunkCache chunkCache;
+    private volatile boolean available = false;
+    // Live documents as last reported by the writer, so emptiness checks need no searcher
+    private volatile int writerDocCount;
 
-    private final Map<String, Chunk> chunkCache = new ConcurrentHashMap<>();
-    private boolean available = false;
+    // Number of running bulk loads; guarded by this
+    private int bulkLoads;
+    private final double bulkRamBufferMB;
 
     /**
      * In-memory index (non-persistent, for tests/backwards compatibility).
+     * Searches always see the latest writes (max staleness 0).
      */
     public LuceneLexicalIndex() {
         this.directory = new ByteBuffersDirectory();
         this.analyzer = createSubwordAnalyzer();
-        initialize(8.0);
+        this.maxStalenessMs = 0;
+        this.chunkCache = new ChunkCache(0);
+        this.bulkRamBufferMB = RagConfig.defaults().getBulkRamBufferMb();
+        initialize(RAM_BUFFER_MB);
     }
 
     /**
-     * Persistent index on disk.
+     * Persistent index on disk with the default configuration.
      *
      * @param indexPath path to the directory where the Lucene index is stored
      */
     public LuceneLexicalIndex(Path indexPath) throws IOException {
+        this(indexPath, RagConfig.defaults());
+    }
+
+    /**
+     * Persistent index on disk with the default chunk cache.
+     *
+     * @param indexPath      path to the directory where the Lucene index is stored
+     * @param maxStalenessMs how long a write may stay invisible to searches;
+     *                       0 makes every search wait for the latest write
+     */
+    public LuceneLexicalIndex(Path indexPath, long maxStalenessMs) throws IOException {
+        this(indexPath, RagConfig.defaults().setLexicalMaxStalenessMs(maxStalenessMs));
+    }
+
+    /**
+     * Persistent index on disk.
+     *
+     * @param indexPath path to the directory where the Lucene index is stored
+     * @param config    max staleness and chunk cache mode/size
+     */
+    public LuceneLexicalIndex(Path indexPath, RagConfig config) throws IOException {
         indexPath.toFile().mkdirs();
         this.directory = FSDirectory.open(indexPath);
         this.analyzer = createSubwordAnalyzer();
-        initialize(8.0);
-        rebuildCacheFromIndex();
+        this.maxStalenessMs = Math.max(0, config.getLexicalMaxStalenessMs());
+        boolean resident = config.getChunkCacheMode() == RagConfig.ChunkCacheMode.RESIDENT;
+        this.chunkCache = new ChunkCache(resident ? 0 : config.getChunkCacheSize());
+        this.bulkRamBufferMB = Math.max(RAM_BUFFER_MB, config.getBulkRamBufferMb());
+        initialize(RAM_BUFFER_MB);
+        if (resident) {
+            rebuildCacheFromIndex();
+        }
     }
 
     /**
@@ -118,10 +199,23 @@ public class LuceneLexicalIndex implements LexicalIndex {
             IndexWriterConfig config = new IndexWriterConfig(analyzer);
             config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
             config.setRAMBufferSizeMB(ramBufferMB);
+            TieredMergePolicy mergePolicy = new TieredMergePolicy();
+            mergePolicy.setSegmentsPerTier(DEFAULT_SEGMENTS_PER_TIER);
+            config.setMergePolicy(mergePolicy);
             this.writer = new IndexWriter(directory, config);
             this.writer.commit(); // ensure segments exist for reader
+            this.searcherManager = new SearcherManager(writer, true, true, null);
+            // Background reopen at most every maxStaleness; sooner when a caller waits for a write
+            double maxStaleSec = maxStalenessMs > 0 ? maxStalenessMs / 1000.0 : 1.0;
+            double minStaleSec = maxStalenessMs > 0 ? Math.min(MIN_STALE_SEC, maxStaleSec) : 0.0;
+            this.reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, maxStaleSec, minStaleSec);
+            reopenThread.setName("LuceneNrtReopen");
+            reopenThread.setDaemon(true);
+            reopenThread.start();
+            this.writerDocCount = writer.getDocStats().numDocs;
             this.available = true;
-            LOG.info("Lucene 8.11 index initialized (ramBuffer=" + ramBufferMB + "MB)");
+            LOG.info("Lucene 8.11 index initialized (ramBuffer=" + ramBufferMB + "MB, maxStaleness="
+                    + maxStalenessMs + "ms)");
         } catch (IOException e) {
             LOG.log(Level.SEVERE, "Failed to initialize Lucene index", e);
             this.available = false;
@@ -129,12 +223,13 @@ public class LuceneLexicalIndex implements LexicalIndex {
     }
 
     /**
-     * Rebuild the in-memory chunk cache from a persisted index.
+     * Preload the chunk cache from a persisted index ({@link RagConfig.ChunkCacheMode#RESIDENT} only).
      */
     private void rebuildCacheFromIndex() {
+        if (!available) return;
+        IndexSearcher searcher = null;
         try {
-            refreshReader();
-            if (searcher == null) return;
+            searcher = searcherManager.acquire();
 
             int numDocs = searcher.getIndexReader().numDocs();
             if (numDocs == 0) return;
@@ -144,7 +239,7 @@ public class LuceneLexicalIndex implements LexicalIndex {
                     Document doc = searcher.doc(i);
                     Chunk chunk = chunkFromDocument(doc);
                     if (chunk != null) {
-                        chunkCache.put(chunk.getChunkId(), chunk);
+                        chunkCache.put(chunk);
                     }
                 } catch (Exception e) {
                     // skip deleted or problematic docs
@@ -153,6 +248,8 @@ public class LuceneLexicalIndex implements LexicalIndex {
             LOG.info("Rebuilt chunk cache from persisted index: " + chunkCache.size() + " chunks");
         } catch (IOException e) {
             LOG.log(Level.WARNING, "Failed to rebuild cache from index", e);
+        } finally {
+            release(searcher);
         }
     }
 
@@ -162,9 +259,9 @@ public class LuceneLexicalIndex implements LexicalIndex {
 
         try {
             Document doc = createDocument(chunk);
-            writer.updateDocument(new Term(FIELD_CHUNK_ID, chunk.getChunkId()), doc);
-            chunkCache.put(chunk.getChunkId(), chunk);
-            refreshReader();
+            chunkCache.put(chunk);
+            recordWrite(writer.updateDocument(new Term(FIELD_CHUNK_ID, chunk.getChunkId()), doc));
+            writerDocCount = writer.getDocStats().numDocs;
         } catch (IOException e) {
             LOG.log(Level.WARNING, "Failed to index chunk: " + chunk.getChunkId(), e);
         }
@@ -177,28 +274,98 @@ public class LuceneLexicalIndex implements LexicalIndex {
         try {
             for (Chunk chunk : chunks) {
                 Document doc = createDocument(chunk);
-                writer.updateDocument(new Term(FIELD_CHUNK_ID, chunk.getChunkId()), doc);
-                chunkCache.put(chunk.getChunkId(), chunk);
+                chunkCache.put(chunk);
+                recordWrite(writer.updateDocument(new Term(FIELD_CHUNK_ID, chunk.getChunkId()), doc));
             }
             writer.commit();
-            refreshReader();
+            writerDocCount = writer.getDocStats().numDocs;
             LOG.info("Indexed " + chunks.size() + " chunks");
         } catch (IOException e) {
             LOG.log(Level.WARNING, "Failed to index chunks", e);
         }
     }
 
+    /**
+     * Start a bulk load: until the matching {@link #endBulk()}, the writer uses a larger RAM
+     * buffer and lets more segments accumulate before merging. Bulk loads may overlap.
+     */
+    public synchronized void beginBulk() {
+        if (!available) return;
+        if (bulkLoads++ == 0) {
+            writer.getConfig().setRAMBufferSizeMB(bulkRamBufferMB);
+            setSegmentsPerTier(BULK_SEGMENTS_PER_TIER);
+            LOG.info("[Lucene] Bulk load started (ramBuffer=" + bulkRamBufferMB + "MB)");
+        }
+    }
+
+    /**
+     * End a bulk load started with {@link #beginBulk()}. The last one restores the normal writer
+     * settings; the deferred merges run in the background.
+     */
+    public synchronized void endBulk() {
+        if (bulkLoads == 0) return;
+        if (--bulkLoads == 0 && available) {
+            writer.getConfig().setRAMBufferSizeMB(RAM_BUFFER_MB);
+            setSegmentsPerTier(DEFAULT_SEGMENTS_PER_TIER);
+            try {
+                writer.maybeMerge();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "[Lucene] Merge after bulk load failed", e);
+            }
+            LOG.info("[Lucene] Bulk load finished");
+        }
+    }
+
+    private void setSegmentsPerTier(double segmentsPerTier) {
+        MergePolicy policy = writer.getConfig().getMergePolicy();
+        if (policy instanceof TieredMergePolicy) {
+            ((TieredMergePolicy) policy).setSegmentsPerTier(segmentsPerTier);
+        }
+    }
+
+    /**
+     * Add or replace chunks without committing. They become searchable with the next scheduled
+     * reopen and durable with the next {@link #commit()}.
+     */
+    public synchronized void addChunks(List<Chunk> chunks) throws IOException {
+        if (!available) {
+            throw new IOException("Lucene index not available");
+        }
+        for (Chunk chunk : chunks) {
+            Document doc = createDocument(chunk);
+            chunkCache.put(chunk);
+            recordWrite(writer.updateDocument(new Term(FIELD_CHUNK_ID, chunk.getChunkId()), doc));
+        }
+        writerDocCount = writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Make all writes so far durable. Unlike {@link #flush()}, failures are reported to the caller.
+     */
+    public void commit() throws IOException {
+        // Not synchronized: writers keep adding while the commit syncs its files
+        if (!available) {
+            throw new IOException("Lucene index not available");
+        }
+        try {
+            writer.commit();
+        } catch (AlreadyClosedException e) {
+            throw new IOException("Lucene index closed", e);
+        }
+    }
+
     @Override
-    public synchronized List<ScoredChunk> search(String query, int topN) {
+    public List<ScoredChunk> search(String query, int topN) {
         if (!available || query == null || query.trim().isEmpty()) {
             return Collections.emptyList();
         }
 
+        IndexSearcher searcher = null;
         try {
-            refreshReader();
-            if (searcher == null) {
-                return Collections.emptyList();
+            if (maxStalenessMs == 0) {
+                awaitLatestWrites();
             }
+            searcher = searcherManager.acquire();
 
             Query luceneQuery = buildSmartQuery(query.trim());
             LOG.info("[Search] Query: " + luceneQuery + " (index size: " + searcher.getIndexReader().numDocs() + ", cache: " + chunkCache.size() + ")");
@@ -216,8 +383,8 @@ public class LuceneLexicalIndex implements LexicalIndex {
                 if (chunk == null) {
                     chunk = chunkFromDocument(doc);
                     if (chunk != null) {
-                        chunkCache.put(chunkId, chunk); // warm the cache
-                        LOG.info("[Search] Cache miss for chunk " + chunkId + " – reconstructed from index");
+                        chunkCache.put(chunk); // warm the cache
+                        LOG.fine("[Search] Cache miss for chunk " + chunkId + " – reconstructed from index");
                     }
                 }
 
@@ -233,6 +400,8 @@ public class LuceneLexicalIndex implements LexicalIndex {
         } catch (Exception e) {
             LOG.log(Level.WARNING, "Search failed for query: " + query, e);
             return Collections.emptyList();
+        } finally {
+            release(searcher);
         }
     }
 
@@ -257,6 +426,11 @@ public class LuceneLexicalIndex implements LexicalIndex {
         String heading = doc.get(FIELD_HEADING);
         if (heading != null) builder.heading(heading);
 
+        IndexableField position = doc.getField(FIELD_POSITION);
+        if (position != null && position.numericValue() != null) {
+            builder.position(position.numericValue().intValue());
+        }
+
         return builder.build();
     }
 
@@ -361,12 +535,12 @@ public class LuceneLexicalIndex implements LexicalIndex {
         if (!available || documentId == null) return;
 
         try {
-            writer.deleteDocuments(new Term(FIELD_DOCUMENT_ID, documentId));
+            recordWrite(writer.deleteDocuments(new Term(FIELD_DOCUMENT_ID, documentId)));
             writer.commit();
+            writerDocCount = writer.getDocStats().numDocs;
 
             // Remove from cache
-            chunkCache.entrySet().removeIf(e -> documentId.equals(e.getValue().getDocumentId()));
-            refreshReader();
+            chunkCache.removeDocument(documentId);
             LOG.info("Removed chunks for document: " + documentId);
         } catch (IOException e) {
             LOG.log(Level.WARNING, "Failed to remove document: " + documentId, e);
@@ -376,10 +550,10 @@ public class LuceneLexicalIndex implements LexicalIndex {
     @Override
     public synchronized void clear() {
         try {
-            writer.deleteAll();
+            recordWrite(writer.deleteAll());
             writer.commit();
+            writerDocCount = 0;
             chunkCache.clear();
-            refreshReader();
             LOG.info("Lucene index cleared");
         } catch (IOException e) {
             LOG.log(Level.WARNING, "Failed to clear index", e);
@@ -391,46 +565,127 @@ public class LuceneLexicalIndex implements LexicalIndex {
         // Return the actual index size, not just the cache.
         // The cache may be empty after restart until rebuilt,
         // but the persistent Lucene index still has all documents.
-        try {
-            refreshReader();
-            if (searcher != null) {
+        if (available) {
+            IndexSearcher searcher = null;
+            try {
+                if (maxStalenessMs == 0) {
+                    awaitLatestWrites();
+                }
+                searcher = searcherManager.acquire();
                 int indexSize = searcher.getIndexReader().numDocs();
                 if (indexSize > 0) return indexSize;
+            } catch (Exception ignored) {
+            } finally {
+                release(searcher);
             }
-        } catch (Exception ignored) {}
+        }
         return chunkCache.size();
     }
 
+    /**
+     * Cheap check for the retriever: answered from the writer's document count,
+     * without acquiring a searcher or waiting for a reopen.
+     */
+    @Override
+    public boolean isEmpty() {
+        return !available || (writerDocCount == 0 && chunkCache.size() == 0);
+    }
+
     /**
      * List all unique document IDs and their source names in the index.
      * Used for the control panel "show indexed documents" feature.
      *
      * @return map of documentId → sourceName
      */
-    public synchronized java.util.Map<String, String> listAllDocuments() {
+    public java.util.Map<String, String> listAllDocuments() {
         java.util.Map<String, String> docs = new java.util.LinkedHashMap<>();
         if (!available) return docs;
 
+        IndexSearcher searcher = null;
         try {
-            refreshReader();
-            if (searcher == null) return docs;
+            awaitLatestWrites();
+            searcher = searcherManager.acquire();
 
-            for (int i = 0; i < searcher.getIndexReader().maxDoc(); i++) {
+            // One stored-field load per document (its first live chunk), not per chunk
+            Map<String, Integer> firstDocs = firstLiveDocPerDocument(searcher.getIndexReader());
+            for (Map.Entry<String, Integer> entry : firstDocs.entrySet()) {
+                String name = null;
                 try {
-                    Document doc = searcher.doc(i);
-                    String docId = doc.get(FIELD_DOCUMENT_ID);
-                    String name = doc.get(FIELD_SOURCE_NAME);
-                    if (docId != null && !docs.containsKey(docId)) {
-                        docs.put(docId, name != null ? name : docId);
-                    }
+                    name = searcher.doc(entry.getValue()).get(FIELD_SOURCE_NAME);
                 } catch (Exception ignored) {}
+                docs.put(entry.getKey(), name != null ? name : entry.getKey());
             }
         } catch (Exception e) {
             LOG.log(Level.WARNING, "Failed to list documents", e);
+        } finally {
+            release(searcher);
         }
         return docs;
     }
 
+    /**
+     * Number of distinct documents in the index, read from the term dictionary.
+     */
+    public int documentCount() {
+        if (!available) return 0;
+        IndexSearcher searcher = null;
+        try {
+            awaitLatestWrites();
+            searcher = searcherManager.acquire();
+            return firstLiveDocPerDocument(searcher.getIndexReader()).size();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to count documents", e);
+            return 0;
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Number of chunks stored for a document.
+     */
+    public int countChunks(String documentId) {
+        if (!available || documentId == null) return 0;
+        IndexSearcher searcher = null;
+        try {
+            if (maxStalenessMs == 0) {
+                awaitLatestWrites();
+            }
+            searcher = searcherManager.acquire();
+            return searcher.count(new TermQuery(new Term(FIELD_DOCUMENT_ID, documentId)));
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to count chunks for: " + documentId, e);
+            return 0;
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Map every document ID with at least one live chunk to the Lucene doc number of its first chunk.
+     */
+    private static Map<String, Integer> firstLiveDocPerDocument(IndexReader reader) throws IOException {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        Terms terms = MultiTerms.getTerms(reader, FIELD_DOCUMENT_ID);
+        if (terms == null) return result;
+
+        Bits liveDocs = MultiBits.getLiveDocs(reader);
+        TermsEnum termsEnum = terms.iterator();
+        PostingsEnum postings = null;
+        BytesRef term;
+        while ((term = termsEnum.next()) != null) {
+            postings = termsEnum.postings(postings, PostingsEnum.NONE);
+            int doc;
+            while ((doc = postings.nextDoc()) != PostingsEnum.NO_MORE_DOCS) {
+                if (liveDocs == null || liveDocs.get(doc)) {
+                    result.put(term.utf8ToString(), doc);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean isAvailable() {
         return available;
@@ -453,20 +708,70 @@ public class LuceneLexicalIndex implements LexicalIndex {
             doc.add(new TextField(FIELD_HEADING, chunk.getHeading(), Field.Store.YES));
         }
 
+        doc.add(new StoredField(FIELD_POSITION, chunk.getPosition()));
+
         return doc;
     }
 
-    private void refreshReader() throws IOException {
-        if (reader == null) {
-            reader = DirectoryReader.open(writer);
-            searcher = new IndexSearcher(reader);
-        } else {
-            DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
-            if (newReader != null) {
-                reader.close();
-                reader = newReader;
-                searcher = new IndexSearcher(reader);
+    private void recordWrite(long generation) {
+        lastWriteGeneration.accumulateAndGet(generation, Math::max);
+    }
+
+    /**
+     * Block until all writes issued so far are visible to newly acquired searchers.
+     * The reopen thread is asked for an early refresh; waiting is capped so a stuck
+     * reopen cannot hang the caller.
+     */
+    private void awaitLatestWrites() {
+        long generation = lastWriteGeneration.get();
+        if (generation < 0) return;
+        try {
+            reopenThread.waitForGeneration(generation, (int) Math.max(1000, maxStalenessMs * 2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Version of the index as searches currently see it. It changes whenever a reopen makes
+     * writes or deletions visible, so results computed at one version stay valid until it
+     * changes. Returns -1 if the index is not available.
+     */
+    public long getSearchGeneration() {
+        if (!available) return -1;
+        IndexSearcher searcher = null;
+        try {
+            if (maxStalenessMs == 0) {
+                awaitLatestWrites();
             }
+            searcher = searcherManager.acquire();
+            return ((DirectoryReader) searcher.getIndexReader()).getVersion();
+        } catch (Exception e) {
+            LOG.log(Level.FINE, "Failed to read Lucene reader version", e);
+            return -1;
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Make all writes issued so far visible to searches immediately.
+     */
+    public void refresh() {
+        if (!available) return;
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to refresh Lucene searcher", e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        if (searcher == null) return;
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Failed to release Lucene searcher", e);
         }
     }
 
@@ -476,13 +781,14 @@ public class LuceneLexicalIndex implements LexicalIndex {
      *
      * @return list of all chunks, or empty list
      */
-    public synchronized List<Chunk> exportAllChunks() {
+    public List<Chunk> exportAllChunks() {
         List<Chunk> result = new ArrayList<>();
         if (!available) return result;
 
+        IndexSearcher searcher = null;
         try {
-            refreshReader();
-            if (searcher == null) return result;
+            awaitLatestWrites();
+            searcher = searcherManager.acquire();
 
             int maxDoc = searcher.getIndexReader().maxDoc();
             for (int i = 0; i < maxDoc; i++) {
@@ -500,20 +806,71 @@ public class LuceneLexicalIndex implements LexicalIndex {
             LOG.info("[Lucene] Exported " + result.size() + " chunks from index (maxDoc=" + maxDoc + ")");
         } catch (IOException e) {
             LOG.log(Level.WARNING, "Failed to export chunks from index", e);
+        } finally {
+            release(searcher);
         }
         return result;
     }
 
     /**
-     * Return all chunks currently in the in-memory cache.
-     * After a persistent index is opened, the cache is rebuilt from the index
-     * on startup, so this returns ALL known chunks.
-     * Used by RagService to restore its own in-memory maps after restart.
+     * Get a chunk by ID, from the cache or – on a miss – from the stored fields.
      *
-     * @return unmodifiable collection of all cached chunks
+     * @return the chunk, or {@code null} if it is not indexed
+     */
+    public Chunk getChunk(String chunkId) {
+        if (chunkId == null) return null;
+        List<Chunk> chunks = getChunks(Collections.singletonList(chunkId));
+        return chunks.isEmpty() ? null : chunks.get(0);
+    }
+
+    /**
+     * Get chunks by ID in the given order. Cache misses are loaded with a single terms query.
+     * Unknown IDs are skipped.
      */
-    public Collection<Chunk> getAllCachedChunks() {
-        return Collections.unmodifiableCollection(chunkCache.values());
+    public List<Chunk> getChunks(List<String> chunkIds) {
+        if (!available || chunkIds == null || chunkIds.isEmpty()) return Collections.emptyList();
+
+        Map<String, Chunk> found = new HashMap<>();
+        List<BytesRef> missing = new ArrayList<>();
+        for (String chunkId : chunkIds) {
+            Chunk cached = chunkCache.get(chunkId);
+            if (cached != null) {
+                found.put(chunkId, cached);
+            } else if (chunkId != null) {
+                missing.add(new BytesRef(chunkId));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            IndexSearcher searcher = null;
+            try {
+                if (maxStalenessMs == 0) {
+                    awaitLatestWrites();
+                }
+                searcher = searcherManager.acquire();
+                TopDocs topDocs = searcher.search(new TermInSetQuery(FIELD_CHUNK_ID, missing), missing.size());
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    Chunk chunk = chunkFromDocument(searcher.doc(scoreDoc.doc));
+                    if (chunk != null) {
+                        chunkCache.put(chunk);
+                        found.put(chunk.getChunkId(), chunk);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "[Lucene] Failed to load " + missing.size() + " chunks", e);
+            } finally {
+                release(searcher);
+            }
+        }
+
+        List<Chunk> result = new ArrayList<>(chunkIds.size());
+        for (String chunkId : chunkIds) {
+            Chunk chunk = found.get(chunkId);
+            if (chunk != null) {
+                result.add(chunk);
+            }
+        }
+        return result;
     }
 
     /**
@@ -524,18 +881,22 @@ public class LuceneLexicalIndex implements LexicalIndex {
      * @param documentId the document ID (e.g. "LOCAL:C:/path", "FTP:host/path")
      * @return list of chunks sorted by position, or empty list
      */
-    public synchronized List<Chunk> getChunksByDocumentId(String documentId) {
+    public List<Chunk> getChunksByDocumentId(String documentId) {
         List<Chunk> result = new ArrayList<>();
         if (!available || documentId == null) return result;
 
+        IndexSearcher searcher = null;
         try {
-            refreshReader();
-            if (searcher == null) return result;
+            if (maxStalenessMs == 0) {
+                awaitLatestWrites();
+            }
+            searcher = searcherManager.acquire();
 
             // Use TermQuery for exact match on documentId field
-            org.apache.lucene.search.TermQuery termQuery =
-                    new org.apache.lucene.search.TermQuery(new Term(FIELD_DOCUMENT_ID, documentId));
-            TopDocs topDocs = searcher.search(termQuery, 10000);
+            TermQuery termQuery = new TermQuery(new Term(FIELD_DOCUMENT_ID, documentId));
+            int hits = searcher.count(termQuery);
+            if (hits == 0) return result;
+            TopDocs topDocs = searcher.search(termQuery, hits);
 
             for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
                 Document doc = searcher.doc(scoreDoc.doc);
@@ -554,6 +915,8 @@ public class LuceneLexicalIndex implements LexicalIndex {
             });
         } catch (Exception e) {
             LOG.log(Level.WARNING, "[Lucene] getChunksByDocumentId failed for: " + documentId, e);
+        } finally {
+            release(searcher);
         }
         return result;
     }
@@ -578,9 +941,13 @@ public class LuceneLexicalIndex implements LexicalIndex {
      * Close the index.
      */
     public synchronized void close() {
+        available = false;
         try {
-            if (reader != null) {
-                reader.close();
+            if (reopenThread != null) {
+                reopenThread.close();
+            }
+            if (searcherManager != null) {
+                searcherManager.close();
             }
             if (writer != null) {
                 writer.close();
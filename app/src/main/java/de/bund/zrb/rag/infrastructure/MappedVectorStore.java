@@ -0,0 +1,517 @@
+package de.bund.zrb.rag.infrastructure;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent, memory-mapped {@link VectorStorage}.
+ *
+ * <p>On-disk layout inside the store directory:
+ * <pre>
+ *   vectors.bin   header (magic, version, dimension, encoding) followed by
+ *                 fixed-size vector slots, append-only, mapped via FileChannel.map
+ *   vectors.idx   append-only log: ADD(chunkId, documentId, slot) / REMOVE(chunkId) /
+ *                 COMMIT(slotCount)
+ * </pre>
+ *
+ * <p>{@link #flush()} forces the vector slots to disk and then appends a COMMIT record with
+ * the number of slots written. The index log is replayed on open up to the last COMMIT to
+ * rebuild the chunkId → slot table; records after it are cut off, since their vectors may
+ * not have reached the disk (the file grows in whole regions, so its size proves nothing).
+ * Vectors are read straight from the mapped
+ * regions, so they do not occupy the Java heap. Dead slots are reclaimed by rewriting
+ * both files on open once they outnumber live ones.
+ */
+public class MappedVectorStore implements VectorStorage {
+
+    private static final Logger LOG = Logger.getLogger(MappedVectorStore.class.getName());
+
+    private static final int MAGIC = 0x4D4D5653; // "MMVS"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final long TARGET_REGION_BYTES = 64L * 1024 * 1024;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_COMMIT = 3;
+
+    static final String VECTORS_FILE = "vectors.bin";
+    static final String INDEX_FILE = "vectors.idx";
+
+    /** How vector components are stored on disk. */
+    public enum Encoding {
+        FLOAT32(4),
+        /** IEEE 754 half precision – half the size, ~3 significant digits. */
+        FLOAT16(2);
+
+        final int bytes;
+
+        Encoding(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final Path directory;
+    private final Encoding requestedEncoding;
+
+    private FileChannel channel;
+    private FileOutputStream indexFile;
+    private DataOutputStream indexOut;
+    // Volatile: read() and dot() run without the lock
+    private volatile Encoding encoding;
+    private volatile int dimension;
+    private volatile int slotBytes;
+    private volatile int slotsPerRegion;
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+    private volatile int slotCount;
+    // Guarded by this; log records written since the last COMMIT
+    private boolean uncommitted;
+
+    private final LinkedHashMap<String, StoredVector> live = new LinkedHashMap<>();
+
+    /**
+     * Open (or create) a store in the given directory.
+     *
+     * @param encoding encoding used when the store is created; an existing store keeps its own
+     */
+    public MappedVectorStore(Path directory, Encoding encoding) throws IOException {
+        this.directory = directory;
+        this.requestedEncoding = encoding;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    private void open() throws IOException {
+        Path vectorsPath = directory.resolve(VECTORS_FILE);
+        Path indexPath = directory.resolve(INDEX_FILE);
+
+        readHeader(vectorsPath);
+        replayIndex(indexPath);
+
+        if (dimension > 0 && slotCount > 2 * Math.max(live.size(), 1) && slotCount > 1024) {
+            compactFiles(vectorsPath, indexPath);
+        }
+
+        channel = FileChannel.open(vectorsPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexFile = new FileOutputStream(indexPath.toFile(), true);
+        indexOut = new DataOutputStream(new BufferedOutputStream(indexFile));
+        if (dimension > 0) {
+            mapRegionsUpTo(slotCount);
+        }
+        LOG.info("Vector store opened: " + live.size() + " vectors (dim=" + dimension
+                + ", encoding=" + encoding + ", slots=" + slotCount + ")");
+    }
+
+    private void readHeader(Path vectorsPath) throws IOException {
+        dimension = 0;
+        encoding = requestedEncoding;
+        if (!Files.exists(vectorsPath) || Files.size(vectorsPath) < HEADER_BYTES) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(vectorsPath))) {
+            int magic = in.readInt();
+            int version = in.readInt();
+            int dim = in.readInt();
+            int enc = in.readInt();
+            if (magic != MAGIC || version != VERSION || dim <= 0 || enc < 0 || enc >= Encoding.values().length) {
+                LOG.warning("Unrecognised vector store header, starting empty: " + vectorsPath);
+                return;
+            }
+            dimension = dim;
+            encoding = Encoding.values()[enc];
+            initLayout();
+        }
+    }
+
+    private void initLayout() {
+        slotBytes = dimension * encoding.bytes;
+        slotsPerRegion = (int) Math.max(1, TARGET_REGION_BYTES / slotBytes);
+    }
+
+    private void replayIndex(Path indexPath) throws IOException {
+        live.clear();
+        slotCount = 0;
+        if (dimension == 0 || !Files.exists(indexPath)) {
+            Files.deleteIfExists(indexPath);
+            return;
+        }
+
+        // Records are applied only once a COMMIT confirms their vectors are on disk
+        List<Object[]> uncommitted = new ArrayList<>();
+        long committedBytes = 0;
+        long fileSlots = (Files.size(directory.resolve(VECTORS_FILE)) - HEADER_BYTES) / slotBytes;
+        try (CountingInput counting = new CountingInput(new BufferedInputStream(Files.newInputStream(indexPath)));
+             DataInputStream in = new DataInputStream(counting)) {
+            while (true) {
+                int op = in.read();
+                if (op < 0) {
+                    break;
+                }
+                if (op == OP_ADD) {
+                    uncommitted.add(new Object[]{in.readUTF(), in.readUTF(), in.readInt()});
+                } else if (op == OP_REMOVE) {
+                    uncommitted.add(new Object[]{in.readUTF()});
+                } else if (op == OP_COMMIT) {
+                    int committedSlots = in.readInt();
+                    if (committedSlots > fileSlots) {
+                        throw new EOFException("Commit of " + committedSlots + " slots exceeds " + fileSlots);
+                    }
+                    for (Object[] record : uncommitted) {
+                        String chunkId = (String) record[0];
+                        live.remove(chunkId);
+                        if (record.length == 3) {
+                            live.put(chunkId, new StoredVector(chunkId, (String) record[1], (Integer) record[2]));
+                        }
+                    }
+                    uncommitted.clear();
+                    slotCount = committedSlots;
+                    committedBytes = counting.count;
+                } else {
+                    throw new EOFException("Unknown record type " + op);
+                }
+            }
+        } catch (EOFException e) {
+            LOG.warning("Vector index log damaged: " + e.getMessage());
+        }
+
+        if (Files.size(indexPath) > committedBytes) {
+            LOG.warning("Vector index log cut back to last commit at " + committedBytes
+                    + " bytes, dropping " + uncommitted.size() + " uncommitted records");
+            try (FileChannel ch = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+                ch.truncate(committedBytes);
+            }
+        }
+    }
+
+    /**
+     * Rewrite both files keeping only live slots. Runs before anything is mapped.
+     */
+    private void compactFiles(Path vectorsPath, Path indexPath) throws IOException {
+        Path tmpVectors = directory.resolve(VECTORS_FILE + ".tmp");
+        Path tmpIndex = directory.resolve(INDEX_FILE + ".tmp");
+        List<StoredVector> compacted = new ArrayList<>(live.size());
+
+        try (FileChannel in = FileChannel.open(vectorsPath, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmpVectors, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream idx = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(tmpIndex)))) {
+            out.write(header());
+            ByteBuffer buf = ByteBuffer.allocate(slotBytes);
+            int next = 0;
+            for (StoredVector v : live.values()) {
+                buf.clear();
+                in.read(buf, HEADER_BYTES + (long) v.slot * slotBytes);
+                buf.flip();
+                out.write(buf);
+                writeAdd(idx, v.chunkId, v.documentId, next);
+                compacted.add(new StoredVector(v.chunkId, v.documentId, next));
+                next++;
+            }
+            out.force(false);
+            writeCommit(idx, next);
+        }
+        Files.move(tmpVectors, vectorsPath, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(tmpIndex, indexPath, StandardCopyOption.REPLACE_EXISTING);
+
+        LOG.info("Vector store compacted: " + slotCount + " → " + compacted.size() + " slots");
+        live.clear();
+        for (StoredVector v : compacted) {
+            live.put(v.chunkId, v);
+        }
+        slotCount = compacted.size();
+    }
+
+    private ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(encoding.ordinal());
+        header.flip();
+        return header;
+    }
+
+    private void mapRegionsUpTo(int slots) throws IOException {
+        int needed = (slots + slotsPerRegion - 1) / slotsPerRegion;
+        MappedByteBuffer[] current = regions;
+        if (needed <= current.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, needed);
+        long regionBytes = (long) slotsPerRegion * slotBytes;
+        for (int r = current.length; r < needed; r++) {
+            // Mapping READ_WRITE past the end extends the file
+            grown[r] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + r * regionBytes, regionBytes);
+        }
+        regions = grown;
+    }
+
+    // ==================== VectorStorage ====================
+
+    @Override
+    public synchronized int add(String chunkId, String documentId, float[] vector) {
+        try {
+            if (dimension == 0 || (dimension != vector.length && slotCount == 0)) {
+                // First vector (or first after clear() with a new model) defines the layout
+                dimension = vector.length;
+                encoding = requestedEncoding;
+                initLayout();
+                regions = new MappedByteBuffer[0];
+                channel.write(header(), 0);
+            }
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException("Vector dimension " + vector.length
+                        + " does not match store dimension " + dimension);
+            }
+
+            int slot = slotCount;
+            mapRegionsUpTo(slot + 1);
+            MappedByteBuffer region = regions[slot / slotsPerRegion];
+            int offset = (slot % slotsPerRegion) * slotBytes;
+            if (encoding == Encoding.FLOAT32) {
+                for (int i = 0; i < dimension; i++) {
+                    region.putFloat(offset + i * 4, vector[i]);
+                }
+            } else {
+                for (int i = 0; i < dimension; i++) {
+                    region.putShort(offset + i * 2, floatToHalf(vector[i]));
+                }
+            }
+            slotCount++;
+
+            // Buffered; it only counts once flush() has committed the slot
+            writeAdd(indexOut, chunkId, documentId, slot);
+            uncommitted = true;
+            live.remove(chunkId);
+            live.put(chunkId, new StoredVector(chunkId, documentId, slot));
+            return slot;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append vector for chunk " + chunkId, e);
+        }
+    }
+
+    @Override
+    public synchronized void release(String chunkId) {
+        if (live.remove(chunkId) == null) {
+            return;
+        }
+        try {
+            indexOut.writeByte(OP_REMOVE);
+            indexOut.writeUTF(chunkId);
+            uncommitted = true;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to record vector removal for chunk " + chunkId, e);
+        }
+    }
+
+    @Override
+    public void free(int slot) {
+        // Dead slots are reclaimed by file compaction on the next open
+    }
+
+    @Override
+    public float[] read(int slot) {
+        MappedByteBuffer region = regions[slot / slotsPerRegion];
+        int offset = (slot % slotsPerRegion) * slotBytes;
+        float[] v = new float[dimension];
+        if (encoding == Encoding.FLOAT32) {
+            for (int i = 0; i < v.length; i++) {
+                v[i] = region.getFloat(offset + i * 4);
+            }
+        } else {
+            for (int i = 0; i < v.length; i++) {
+                v[i] = halfToFloat(region.getShort(offset + i * 2));
+            }
+        }
+        return v;
+    }
+
+    @Override
+    public float dot(int slot, float[] query) {
+        MappedByteBuffer region = regions[slot / slotsPerRegion];
+        int offset = (slot % slotsPerRegion) * slotBytes;
+        float dot = 0;
+        if (encoding == Encoding.FLOAT32) {
+            for (int i = 0; i < query.length; i++) {
+                dot += region.getFloat(offset + i * 4) * query[i];
+            }
+        } else {
+            for (int i = 0; i < query.length; i++) {
+                dot += halfToFloat(region.getShort(offset + i * 2)) * query[i];
+            }
+        }
+        return dot;
+    }
+
+    @Override
+    public float dot(int slotA, int slotB) {
+        return dot(slotA, read(slotB));
+    }
+
+    @Override
+    public synchronized List<StoredVector> entries() {
+        return new ArrayList<>(live.values());
+    }
+
+    /**
+     * Force the vectors to disk, then record how many slots are durable.
+     */
+    @Override
+    public synchronized void flush() {
+        if (!uncommitted) {
+            return;
+        }
+        try {
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+            channel.force(false);
+            writeCommit(indexOut, slotCount);
+            indexOut.flush();
+            indexFile.getChannel().force(false);
+            uncommitted = false;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to flush vector store", e);
+        }
+    }
+
+    /**
+     * Drop all vectors. The mapped file is kept (it cannot be deleted while mapped on
+     * Windows) and simply overwritten from slot 0; the index log starts fresh.
+     */
+    @Override
+    public synchronized void clear() {
+        try {
+            indexOut.close();
+            indexFile = new FileOutputStream(directory.resolve(INDEX_FILE).toFile(), false);
+            indexOut = new DataOutputStream(new BufferedOutputStream(indexFile));
+            live.clear();
+            slotCount = 0;
+            uncommitted = true;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to clear vector store", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            indexOut.close();
+            channel.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to close vector store", e);
+        }
+        regions = new MappedByteBuffer[0];
+    }
+
+    public synchronized int getDimension() {
+        return dimension;
+    }
+
+    public synchronized Encoding getEncoding() {
+        return encoding;
+    }
+
+    private static void writeAdd(DataOutputStream out, String chunkId, String documentId, int slot) throws IOException {
+        out.writeByte(OP_ADD);
+        out.writeUTF(chunkId);
+        out.writeUTF(documentId != null ? documentId : "");
+        out.writeInt(slot);
+    }
+
+    private static void writeCommit(DataOutputStream out, int slots) throws IOException {
+        out.writeByte(OP_COMMIT);
+        out.writeInt(slots);
+    }
+
+    // ==================== Half-float conversion ====================
+
+    static short floatToHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int val = (bits & 0x7fffffff) + 0x1000; // round to nearest
+
+        if (val >= 0x47800000) {
+            if ((bits & 0x7fffffff) >= 0x47800000) {
+                if (val < 0x7f800000) {
+                    return (short) (sign | 0x7c00); // overflow → infinity
+                }
+                return (short) (sign | 0x7c00 | ((bits & 0x007fffff) >>> 13)); // NaN / infinity
+            }
+            return (short) (sign | 0x7bff); // largest finite half
+        }
+        if (val >= 0x38800000) {
+            return (short) (sign | ((val - 0x38000000) >>> 13)); // normal
+        }
+        if (val < 0x33000000) {
+            return (short) sign; // too small → zero
+        }
+        val = (bits & 0x7fffffff) >>> 23;
+        return (short) (sign | ((((bits & 0x7fffff) | 0x800000) + (0x800000 >>> (val - 102))) >>> (126 - val)));
+    }
+
+    static float halfToFloat(short half) {
+        int h = half & 0xffff;
+        int sign = (h & 0x8000) << 16;
+        int exp = (h >>> 10) & 0x1f;
+        int mantissa = h & 0x03ff;
+
+        if (exp == 0) {
+            if (mantissa == 0) {
+                return Float.intBitsToFloat(sign);
+            }
+            // subnormal
+            float f = mantissa / 1024f * (1f / 16384f);
+            return sign != 0 ? -f : f;
+        }
+        if (exp == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exp + 112) << 23) | (mantissa << 13));
+    }
+
+    /**
+     * Tracks how many bytes were consumed so a torn trailing record can be cut off.
+     */
+    private static final class CountingInput extends FilterInputStream {
+        long count;
+
+        CountingInput(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -68,8 +68,9 @@ public class MarkdownChunker implements Chunker {
             }
 
             // Move forward with overlap
+            int lastStart = chunks.isEmpty() ? offset : chunks.get(chunks.size() - 1).getStartOffset();
             offset = endOffset - overlapChars;
-            if (offset <= chunks.get(chunks.size() - 1).getStartOffset()) {
+            if (offset <= lastStart) {
                 offset = endOffset; // Avoid infinite loop
             }
         }
@@ -15,7 +15,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,12 +27,20 @@ public class MultiProviderEmbeddingClient implements EmbeddingClient {
     private static final Gson GSON = new Gson();
 
     private final EmbeddingSettings settings;
-    private final ConcurrentHashMap<String, float[]> cache = new ConcurrentHashMap<>();
+    private final EmbeddingCache cache;
     private int cachedDimension = 0;
     private boolean available = false;
 
     public MultiProviderEmbeddingClient(EmbeddingSettings settings) {
+        this(settings, new EmbeddingCache(EmbeddingCache.DEFAULT_MEMORY_ENTRIES));
+    }
+
+    /**
+     * @param cache shared vector cache; may be persistent so it survives client re-creation and restarts
+     */
+    public MultiProviderEmbeddingClient(EmbeddingSettings settings, EmbeddingCache cache) {
         this.settings = settings;
+        this.cache = cache;
         checkAvailability();
     }
 
@@ -65,7 +72,7 @@ public class MultiProviderEmbeddingClient implements EmbeddingClient {
         }
 
         // Check cache
-        String cacheKey = Integer.toHexString(text.hashCode());
+        String cacheKey = cacheKey(text);
         float[] cached = cache.get(cacheKey);
         if (cached != null) {
             return cached;
@@ -74,7 +81,7 @@ public class MultiProviderEmbeddingClient implements EmbeddingClient {
         try {
             float[] embedding = embedInternal(text);
             if (embedding != null && embedding.length > 0) {
-                cache.put(cacheKey, embedding);
+                store(cacheKey, embedding);
                 return embedding;
             }
         } catch (Exception e) {
@@ -90,27 +97,52 @@ public class MultiProviderEmbeddingClient implements EmbeddingClient {
             return Collections.emptyList();
         }
 
-        List<float[]> results = new ArrayList<>();
+        float[][] results = new float[texts.size()][];
+        String[] keys = new String[texts.size()];
+
+        // Serve cached texts, only send the misses to the provider
+        List<Integer> misses = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            keys[i] = cacheKey(texts.get(i));
+            results[i] = cache.get(keys[i]);
+            if (results[i] == null) {
+                misses.add(i);
+            }
+        }
 
         // Process in batches
-        int batchSize = settings.getBatchSize();
-        for (int i = 0; i < texts.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, texts.size());
-            List<String> batch = texts.subList(i, end);
+        int batchSize = Math.max(1, settings.getBatchSize());
+        for (int i = 0; i < misses.size(); i += batchSize) {
+            List<Integer> batchIndexes = misses.subList(i, Math.min(i + batchSize, misses.size()));
+            List<String> batch = new ArrayList<>(batchIndexes.size());
+            for (int index : batchIndexes) {
+                batch.add(texts.get(index));
+            }
 
             try {
                 List<float[]> batchResults = embedBatchInternal(batch);
-                results.addAll(batchResults);
+                if (batchResults.size() != batch.size()) {
+                    throw new IOException("Expected " + batch.size() + " embeddings, got " + batchResults.size());
+                }
+                for (int j = 0; j < batchIndexes.size(); j++) {
+                    int index = batchIndexes.get(j);
+                    results[index] = batchResults.get(j);
+                    store(keys[index], results[index]);
+                }
             } catch (Exception e) {
                 LOG.log(Level.WARNING, "Batch embedding failed", e);
                 // Fall back to individual embedding
-                for (String text : batch) {
-                    results.add(embed(text));
+                for (int index : batchIndexes) {
+                    results[index] = embed(texts.get(index));
                 }
             }
         }
 
-        return results;
+        List<float[]> list = new ArrayList<>(results.length);
+        for (float[] vector : results) {
+            list.add(vector != null ? vector : new float[0]);
+        }
+        return list;
     }
 
     @Override
@@ -142,7 +174,21 @@ public class MultiProviderEmbeddingClient implements EmbeddingClient {
         cache.clear();
     }
 
-    private float[] embedInternal(String text) throws IOException {
+    /**
+     * Cache key: model identity, dimension and SHA-256 of the normalized text.
+     */
+    private String cacheKey(String text) {
+        return EmbeddingCache.key(settings.getProvider() + "/" + settings.getModel(), cachedDimension, text);
+    }
+
+    private void store(String cacheKey, float[] embedding) {
+        // Only cache vectors of the probed dimension, so a key never points at a foreign shape
+        if (embedding != null && embedding.length > 0 && embedding.length == cachedDimension) {
+            cache.put(cacheKey, embedding);
+        }
+    }
+
+    float[] embedInternal(String text) throws IOException {
         switch (settings.getProvider()) {
             case OLLAMA:
                 return embedOllama(text);
@@ -156,7 +202,7 @@ public class MultiProviderEmbeddingClient implements EmbeddingClient {
         }
     }
 
-    private List<float[]> embedBatchInternal(List<String> texts) throws IOException {
+    List<float[]> embedBatchInternal(List<String> texts) throws IOException {
         switch (settings.getProvider()) {
             case OLLAMA:
                 // Ollama doesn't support batch, embed individually
@@ -0,0 +1,465 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Semantic index that scans compact quantized codes and re-scores only the best
+ * candidates against the full-precision vectors in a {@link VectorStorage}.
+ *
+ * <ul>
+ *   <li><b>INT8</b> – one signed byte per dimension plus a per-vector scale (≈4× smaller).
+ *       The first pass is an asymmetric float·int8 dot product.</li>
+ *   <li><b>BINARY</b> – one sign bit per dimension (32× smaller). The first pass ranks by
+ *       Hamming distance using {@link Long#bitCount(long)}.</li>
+ * </ul>
+ *
+ * <p>Only the codes are kept on the heap; with a {@link MappedVectorStore} the float
+ * vectors needed for re-scoring stay off-heap. The candidate pool for re-scoring is
+ * {@code topM × rescoreMultiplier}.
+ */
+public class QuantizedSemanticIndex implements StoredVectorIndex {
+
+    private static final Logger LOG = Logger.getLogger(QuantizedSemanticIndex.class.getName());
+
+    private final RagConfig.VectorQuantization quantization;
+    private final int rescoreMultiplier;
+    private final VectorStorage storage;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int dimension = 0;
+    private int codeWords;          // longs per vector (BINARY)
+
+    // Parallel arrays indexed by entry number
+    private byte[] int8Codes = new byte[0];
+    private float[] scales = new float[0];
+    private long[] binaryCodes = new long[0];
+    private int[] slots = new int[0];
+    private Chunk[] chunks = new Chunk[0];
+    private final BitSet deleted = new BitSet();
+    private int count = 0;
+
+    private final Map<String, Integer> entryByChunkId = new HashMap<>();
+    private final Map<String, Set<String>> documentChunks = new HashMap<>();
+    private volatile Function<List<String>, List<Chunk>> chunkLoader;
+
+    public QuantizedSemanticIndex(RagConfig config, VectorStorage storage) {
+        this(config.getQuantization(), config.getQuantizationRescoreMultiplier(), storage);
+    }
+
+    public QuantizedSemanticIndex(RagConfig.VectorQuantization quantization, int rescoreMultiplier,
+                                  VectorStorage storage) {
+        this.quantization = quantization;
+        this.rescoreMultiplier = Math.max(1, rescoreMultiplier);
+        this.storage = storage;
+    }
+
+    @Override
+    public void indexChunk(Chunk chunk, float[] embedding) {
+        if (chunk == null || embedding == null || embedding.length == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!acceptDimension(chunk.getChunkId(), embedding.length)) {
+                return;
+            }
+            float[] vector = normalize(embedding);
+            int slot = storage.add(chunk.getChunkId(), chunk.getDocumentId(), vector);
+            addEntry(chunk, slot, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int restore(Function<List<String>, List<Chunk>> chunkLoader) {
+        List<VectorStorage.StoredVector> stored = storage.entries();
+        int restored = 0;
+        this.chunkLoader = chunkLoader;
+        for (int from = 0; from < stored.size(); from += RestoredChunks.RESTORE_BATCH) {
+            List<VectorStorage.StoredVector> batch =
+                    stored.subList(from, Math.min(stored.size(), from + RestoredChunks.RESTORE_BATCH));
+            Map<String, Chunk> known = RestoredChunks.lookup(batch, chunkLoader);
+            lock.writeLock().lock();
+            try {
+                for (VectorStorage.StoredVector sv : batch) {
+                    Chunk chunk = known.get(sv.chunkId);
+                    if (chunk == null) {
+                        storage.release(sv.chunkId);
+                        continue;
+                    }
+                    float[] vector = storage.read(sv.slot);
+                    if (acceptDimension(sv.chunkId, vector.length)) {
+                        addEntry(RestoredChunks.withoutText(chunk), sv.slot, vector);
+                        restored++;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (!stored.isEmpty()) {
+            LOG.info("Restored " + restored + " quantized vectors (" + quantization + ") from storage");
+        }
+        return restored;
+    }
+
+    @Override
+    public List<ScoredChunk> search(float[] queryEmbedding, int topM) {
+        if (queryEmbedding == null || queryEmbedding.length == 0 || topM <= 0) {
+            return Collections.emptyList();
+        }
+        List<ScoredChunk> results;
+        lock.readLock().lock();
+        try {
+            if (count == 0 || queryEmbedding.length != dimension) {
+                return Collections.emptyList();
+            }
+            float[] query = normalize(queryEmbedding);
+            int poolSize = Math.min(entryByChunkId.size(), topM * rescoreMultiplier);
+
+            int[] pool = quantization == RagConfig.VectorQuantization.BINARY
+                    ? hammingPool(query, poolSize)
+                    : int8Pool(query, poolSize);
+
+            // Second pass: exact cosine on full-precision vectors
+            results = new ArrayList<>(pool.length);
+            for (int entry : pool) {
+                float similarity = storage.dot(slots[entry], query);
+                results.add(new ScoredChunk(chunks[entry], similarity, ScoredChunk.ScoreSource.SEMANTIC));
+            }
+            Collections.sort(results);
+            if (results.size() > topM) {
+                results = new ArrayList<>(results.subList(0, topM));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return RestoredChunks.withText(results, chunkLoader);
+    }
+
+    @Override
+    public Chunk getChunk(String chunkId) {
+        Chunk chunk;
+        lock.readLock().lock();
+        try {
+            Integer entry = entryByChunkId.get(chunkId);
+            chunk = entry != null ? chunks[entry] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return RestoredChunks.withText(chunk, chunkLoader);
+    }
+
+    @Override
+    public void removeDocument(String documentId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> chunkIds = documentChunks.remove(documentId);
+            if (chunkIds == null) {
+                return;
+            }
+            for (String chunkId : chunkIds) {
+                Integer entry = entryByChunkId.remove(chunkId);
+                if (entry != null) {
+                    deleted.set(entry);
+                    storage.release(chunkId);
+                }
+            }
+            LOG.info("Removed " + chunkIds.size() + " chunks for document: " + documentId);
+            if (deleted.cardinality() > entryByChunkId.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            int8Codes = new byte[0];
+            scales = new float[0];
+            binaryCodes = new long[0];
+            slots = new int[0];
+            chunks = new Chunk[0];
+            deleted.clear();
+            count = 0;
+            dimension = 0;
+            entryByChunkId.clear();
+            documentChunks.clear();
+            storage.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.info("Semantic index cleared");
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entryByChunkId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public void flush() {
+        storage.flush();
+    }
+
+    @Override
+    public void close() {
+        storage.close();
+    }
+
+    // ==================== Encoding ====================
+
+    private boolean acceptDimension(String chunkId, int length) {
+        if (dimension == 0) {
+            dimension = length;
+            codeWords = (length + 63) / 64;
+        }
+        if (length != dimension) {
+            LOG.warning("Skipping chunk " + chunkId + ": embedding dimension " + length
+                    + " does not match index dimension " + dimension);
+            return false;
+        }
+        return true;
+    }
+
+    private void addEntry(Chunk chunk, int slot, float[] vector) {
+        Integer previous = entryByChunkId.get(chunk.getChunkId());
+        if (previous != null) {
+            deleted.set(previous);
+        }
+        ensureCapacity(count + 1);
+        int entry = count++;
+
+        if (quantization == RagConfig.VectorQuantization.BINARY) {
+            int base = entry * codeWords;
+            for (int i = 0; i < dimension; i++) {
+                if (vector[i] > 0) {
+                    binaryCodes[base + (i >>> 6)] |= 1L << (i & 63);
+                }
+            }
+        } else {
+            float max = 0;
+            for (float v : vector) {
+                max = Math.max(max, Math.abs(v));
+            }
+            float scale = max > 0 ? max / 127f : 0f;
+            int base = entry * dimension;
+            for (int i = 0; i < dimension; i++) {
+                int q = scale > 0 ? Math.round(vector[i] / scale) : 0;
+                int8Codes[base + i] = (byte) Math.max(-127, Math.min(127, q));
+            }
+            scales[entry] = scale;
+        }
+
+        slots[entry] = slot;
+        chunks[entry] = chunk;
+        entryByChunkId.put(chunk.getChunkId(), entry);
+        documentChunks.computeIfAbsent(chunk.getDocumentId(), k -> new HashSet<>()).add(chunk.getChunkId());
+    }
+
+    private void ensureCapacity(int entries) {
+        if (entries <= chunks.length) {
+            return;
+        }
+        int capacity = Math.max(1024, chunks.length * 2);
+        while (capacity < entries) {
+            capacity *= 2;
+        }
+        if (quantization == RagConfig.VectorQuantization.BINARY) {
+            binaryCodes = Arrays.copyOf(binaryCodes, capacity * codeWords);
+        } else {
+            int8Codes = Arrays.copyOf(int8Codes, capacity * dimension);
+            scales = Arrays.copyOf(scales, capacity);
+        }
+        slots = Arrays.copyOf(slots, capacity);
+        chunks = Arrays.copyOf(chunks, capacity);
+    }
+
+    /**
+     * Drop deleted entries from the code arrays. Caller holds the write lock.
+     */
+    private void compact() {
+        int live = 0;
+        for (int entry = 0; entry < count; entry++) {
+            if (deleted.get(entry)) {
+                storage.free(slots[entry]);
+                continue;
+            }
+            if (entry != live) {
+                if (quantization == RagConfig.VectorQuantization.BINARY) {
+                    System.arraycopy(binaryCodes, entry * codeWords, binaryCodes, live * codeWords, codeWords);
+                } else {
+                    System.arraycopy(int8Codes, entry * dimension, int8Codes, live * dimension, dimension);
+                    scales[live] = scales[entry];
+                }
+                slots[live] = slots[entry];
+                chunks[live] = chunks[entry];
+                entryByChunkId.put(chunks[live].getChunkId(), live);
+            }
+            live++;
+        }
+        Arrays.fill(chunks, live, count, null);
+        if (quantization == RagConfig.VectorQuantization.BINARY) {
+            Arrays.fill(binaryCodes, live * codeWords, count * codeWords, 0L);
+        }
+        LOG.info("Quantized index compacted: " + count + " → " + live + " entries");
+        count = live;
+        deleted.clear();
+    }
+
+    // ==================== First pass ====================
+
+    private int[] int8Pool(float[] query, int poolSize) {
+        TopEntries top = new TopEntries(poolSize);
+        for (int entry = 0; entry < count; entry++) {
+            if (deleted.get(entry)) {
+                continue;
+            }
+            int base = entry * dimension;
+            float dot = 0;
+            for (int i = 0; i < dimension; i++) {
+                dot += int8Codes[base + i] * query[i];
+            }
+            top.offer(entry, dot * scales[entry]);
+        }
+        return top.entries();
+    }
+
+    private int[] hammingPool(float[] query, int poolSize) {
+        long[] code = new long[codeWords];
+        for (int i = 0; i < dimension; i++) {
+            if (query[i] > 0) {
+                code[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        TopEntries top = new TopEntries(poolSize);
+        for (int entry = 0; entry < count; entry++) {
+            if (deleted.get(entry)) {
+                continue;
+            }
+            int base = entry * codeWords;
+            int distance = 0;
+            for (int w = 0; w < codeWords; w++) {
+                distance += Long.bitCount(binaryCodes[base + w] ^ code[w]);
+            }
+            top.offer(entry, -distance);
+        }
+        return top.entries();
+    }
+
+    /**
+     * Bounded min-heap over primitive (entry, score) pairs.
+     */
+    private static final class TopEntries {
+        private final int[] entries;
+        private final float[] scores;
+        private int size;
+
+        TopEntries(int capacity) {
+            this.entries = new int[Math.max(1, capacity)];
+            this.scores = new float[Math.max(1, capacity)];
+        }
+
+        void offer(int entry, float score) {
+            if (size < entries.length) {
+                entries[size] = entry;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                entries[0] = entry;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int[] entries() {
+            return Arrays.copyOf(entries, size);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= scores[i]) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                int smallest = left;
+                int right = left + 1;
+                if (right < size && scores[right] < scores[left]) {
+                    smallest = right;
+                }
+                if (scores[i] <= scores[smallest]) {
+                    break;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int e = entries[a];
+            entries[a] = entries[b];
+            entries[b] = e;
+            float s = scores[a];
+            scores[a] = scores[b];
+            scores[b] = s;
+        }
+    }
+
+    /**
+     * Normalize a vector to unit length.
+     */
+    private float[] normalize(float[] vector) {
+        float norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = (float) Math.sqrt(norm);
+
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] / norm;
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,108 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Restored vectors of a {@link StoredVectorIndex} keep their chunk without its text, so a
+ * restart does not pull every chunk text onto the heap. The text is loaded in one batch
+ * for the chunks a search actually returns.
+ */
+final class RestoredChunks {
+
+    /** Chunks looked up per call while restoring. */
+    static final int RESTORE_BATCH = 500;
+
+    private RestoredChunks() {
+    }
+
+    /**
+     * Look up the chunks of a batch of stored vectors with one call.
+     *
+     * @return the chunks that still exist, by chunk ID
+     */
+    static Map<String, Chunk> lookup(List<VectorStorage.StoredVector> batch,
+                                     Function<List<String>, List<Chunk>> chunkLoader) {
+        List<String> chunkIds = new ArrayList<>(batch.size());
+        for (VectorStorage.StoredVector sv : batch) {
+            chunkIds.add(sv.chunkId);
+        }
+        Map<String, Chunk> found = new HashMap<>();
+        for (Chunk chunk : chunkLoader.apply(chunkIds)) {
+            found.put(chunk.getChunkId(), chunk);
+        }
+        return found;
+    }
+
+    /**
+     * Copy of the chunk with everything but its text.
+     */
+    static Chunk withoutText(Chunk chunk) {
+        return Chunk.builder()
+                .chunkId(chunk.getChunkId())
+                .documentId(chunk.getDocumentId())
+                .sourceName(chunk.getSourceName())
+                .mimeType(chunk.getMimeType())
+                .position(chunk.getPosition())
+                .heading(chunk.getHeading())
+                .startOffset(chunk.getStartOffset())
+                .endOffset(chunk.getEndOffset())
+                .build();
+    }
+
+    /**
+     * Load the text of restored chunks in the results. Results whose chunk cannot be
+     * loaded any more are dropped.
+     *
+     * @param chunkLoader loads chunks by ID; null if nothing was restored
+     */
+    static List<ScoredChunk> withText(List<ScoredChunk> results,
+                                      Function<List<String>, List<Chunk>> chunkLoader) {
+        if (chunkLoader == null) {
+            return results;
+        }
+        List<String> missing = new ArrayList<>();
+        for (ScoredChunk sc : results) {
+            if (sc.getText() == null) {
+                missing.add(sc.getChunkId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return results;
+        }
+        Map<String, Chunk> loaded = new HashMap<>();
+        for (Chunk chunk : chunkLoader.apply(missing)) {
+            loaded.put(chunk.getChunkId(), chunk);
+        }
+        List<ScoredChunk> complete = new ArrayList<>(results.size());
+        for (ScoredChunk sc : results) {
+            if (sc.getText() != null) {
+                complete.add(sc);
+            } else {
+                Chunk chunk = loaded.get(sc.getChunkId());
+                if (chunk != null) {
+                    complete.add(new ScoredChunk(chunk, sc.getScore(), sc.getSource()));
+                }
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * The chunk with its text, loading it if it was restored without.
+     */
+    static Chunk withText(Chunk chunk, Function<List<String>, List<Chunk>> chunkLoader) {
+        if (chunk == null || chunk.getText() != null || chunkLoader == null) {
+            return chunk;
+        }
+        List<Chunk> loaded = chunkLoader.apply(Collections.singletonList(chunk.getChunkId()));
+        return loaded.isEmpty() ? null : loaded.get(0);
+    }
+}
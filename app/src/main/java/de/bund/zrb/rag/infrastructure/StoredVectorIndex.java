@@ -0,0 +1,34 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.port.SemanticIndex;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A {@link SemanticIndex} whose full-precision vectors live in a {@link VectorStorage},
+ * so they can be re-attached after a restart instead of being re-embedded.
+ */
+public interface StoredVectorIndex extends SemanticIndex {
+
+    /**
+     * Rebuild the in-memory search structures from vectors persisted in the storage.
+     * Restored chunks are kept without their text; it is loaded with {@code chunkLoader}
+     * when a search or {@link #getChunk(String)} returns them.
+     *
+     * @param chunkLoader loads chunks by ID, skipping unknown ones; vectors without a chunk are dropped
+     * @return number of restored vectors
+     */
+    int restore(Function<List<String>, List<Chunk>> chunkLoader);
+
+    /**
+     * Make stored vectors durable.
+     */
+    void flush();
+
+    /**
+     * Flush and release the vector storage.
+     */
+    void close();
+}
@@ -0,0 +1,453 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.model.Chunk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Streaming counterpart of {@link MarkdownChunker#chunkMarkdown}: reads the Markdown from a
+ * {@link Reader} and hands each chunk to a consumer as soon as it is complete.
+ *
+ * Only a sliding window of the text is kept in memory: from the start of the current chunk up
+ * to the furthest character the heading scan or the break-point search had to look at. Chunk
+ * texts are copied once from that window instead of via substring + trim.
+ *
+ * The output (texts, headings, positions, chunk IDs and offsets) is the same as
+ * {@code chunkMarkdown} on the whole string, including its offset conventions:
+ * - headings are found line by line with the same rules as {@code ^(#{1,6})\s+(.+)$} (MULTILINE)
+ * - a section that fits into one chunk spans from the end of its heading to the next heading
+ * - chunks of a longer section are offset relative to the section text after trimming
+ * - without any heading the text is cut as by {@link MarkdownChunker#chunk}
+ *
+ * Input starting with whitespace is the one case where the heading-less and the heading
+ * variant differ from the first chunk on; it is read completely and passed to
+ * {@link MarkdownChunker}. Rendered Markdown never starts with whitespace.
+ */
+public class StreamingMarkdownChunker {
+
+    private static final int READ_SIZE = 16 * 1024;
+
+    private final int chunkSizeChars;
+    private final int overlapChars;
+    private final MarkdownChunker fallback;
+
+    public StreamingMarkdownChunker() {
+        this(RagConfig.defaults());
+    }
+
+    public StreamingMarkdownChunker(RagConfig config) {
+        this.chunkSizeChars = config.getChunkSizeChars();
+        this.overlapChars = config.getOverlapChars();
+        this.fallback = new MarkdownChunker(config);
+    }
+
+    /**
+     * Split Markdown into chunks, respecting heading boundaries.
+     *
+     * @param markdown the Markdown text; not closed by this method
+     * @param sink     receives the chunks in order
+     */
+    public void chunkMarkdown(Reader markdown, String documentId, String sourceName, String mimeType,
+                              Consumer<Chunk> sink) throws IOException {
+        new Run(markdown, documentId, sourceName, mimeType, sink).chunk();
+    }
+
+    /**
+     * State of one chunking run. All positions are absolute offsets into the text.
+     */
+    private class Run {
+        private final Reader in;
+        private final String documentId;
+        private final String sourceName;
+        private final String mimeType;
+        private final Consumer<Chunk> sink;
+
+        // Sliding window: buf[0..bufLen) holds the text from bufStart on
+        private char[] buf = new char[READ_SIZE * 2];
+        private int bufStart;
+        private int bufLen;
+        private int keepFrom;
+        private boolean eof;
+
+        // Heading scan of the current section; all characters before scanPos belong to it
+        private int scanPos;
+        private boolean lineStart = true;
+        private int firstContent;
+        private int lastContent;
+        private int sectionEnd;
+        private HeadingMatch nextHeading;
+
+        private int position;
+
+        Run(Reader in, String documentId, String sourceName, String mimeType, Consumer<Chunk> sink) {
+            this.in = in;
+            this.documentId = documentId;
+            this.sourceName = sourceName;
+            this.mimeType = mimeType;
+            this.sink = sink;
+        }
+
+        void chunk() throws IOException {
+            if (!ensure(0)) {
+                return;
+            }
+            if (at(0) <= ' ') {
+                chunkWhole();
+                return;
+            }
+
+            startSection(0);
+            chunkSection(0, null, true);
+            while (true) {
+                while (sectionEnd < 0) {
+                    scanStep();
+                }
+                if (nextHeading == null) {
+                    return;
+                }
+                HeadingMatch heading = nextHeading;
+                startSection(heading.end);
+                chunkSection(heading.end, heading.text, false);
+            }
+        }
+
+        private void chunkWhole() throws IOException {
+            StringBuilder all = new StringBuilder();
+            all.append(buf, 0, bufLen);
+            char[] tmp = new char[READ_SIZE];
+            int n;
+            while ((n = in.read(tmp)) != -1) {
+                all.append(tmp, 0, n);
+            }
+            for (Chunk chunk : fallback.chunkMarkdown(all.toString(), documentId, sourceName, mimeType)) {
+                sink.accept(chunk);
+            }
+        }
+
+        /**
+         * Chunk one section. {@code preamble} is the text before the first heading, which is cut
+         * like a long section, or like {@link MarkdownChunker#chunk} if no heading follows at all.
+         */
+        private void chunkSection(int sectionStart, String heading, boolean preamble) throws IOException {
+            while (sectionEnd < 0 && firstContent < 0) {
+                scanStep();
+            }
+            if (firstContent < 0) {
+                return; // whitespace only
+            }
+            int base = firstContent;
+            int shift = base - sectionStart; // offsets are relative to the trimmed section text
+            keepFrom = base;
+
+            if (!preamble && !hasContentFrom(base + chunkSizeChars)) {
+                int trimmedEnd = lastContent + 1;
+                if (trimmedEnd - base <= chunkSizeChars) {
+                    emit(base, trimmedEnd, sectionStart, sectionEnd, heading);
+                    return;
+                }
+            }
+
+            int offset = base;
+            int lastChunkStart = -1;
+            while (true) {
+                if (!hasContentFrom(offset) && offset >= limit(preamble)) {
+                    return;
+                }
+
+                int end;
+                int limit;
+                if (hasContentFrom(offset + chunkSizeChars + 1)) {
+                    // The text certainly continues past end + 1, whatever the rest looks like
+                    end = offset + chunkSizeChars;
+                    limit = Integer.MAX_VALUE;
+                } else {
+                    limit = limit(preamble);
+                    end = Math.min(offset + chunkSizeChars, limit);
+                }
+                if (end < limit) {
+                    int breakPoint = findBreakPoint(offset, end, limit);
+                    if (breakPoint > offset) {
+                        end = breakPoint;
+                    }
+                }
+
+                if (emit(offset, end, offset - shift, end - shift, heading)) {
+                    lastChunkStart = offset;
+                }
+
+                // Move forward with overlap. chunk() and chunkSection() only differ after an empty
+                // window; the preamble has to know which one applies before it can go on.
+                int next = end - overlapChars;
+                int lastStart = lastChunkStart >= 0 ? lastChunkStart : offset;
+                boolean headingless;
+                if (!preamble) {
+                    headingless = false;
+                } else if (sectionEnd >= 0) {
+                    headingless = nextHeading == null;
+                } else if ((next <= lastStart) != (next <= offset)) {
+                    while (sectionEnd < 0) {
+                        scanStep();
+                    }
+                    headingless = nextHeading == null;
+                } else {
+                    headingless = false;
+                }
+                if (headingless ? next <= lastStart : next <= offset) {
+                    next = end;
+                }
+                offset = next;
+                keepFrom = offset;
+            }
+        }
+
+        /**
+         * Length of the text the current section is cut from, once the section end is known:
+         * the trimmed section, or the whole untrimmed text for a document without headings.
+         */
+        private int limit(boolean preamble) {
+            if (preamble && nextHeading == null) {
+                return bufStart + bufLen; // all read
+            }
+            return lastContent + 1;
+        }
+
+        /**
+         * Same result as {@code MarkdownChunker.findBreakPoint} on a text of length {@code limit}.
+         */
+        private int findBreakPoint(int start, int end, int limit) throws IOException {
+            int threshold = start + (chunkSizeChars / 2);
+            ensure(Math.min(end + 1, limit - 1));
+
+            // Look for paragraph break
+            for (int i = Math.min(end, limit - 2); i > threshold; i--) {
+                if (at(i) == '\n' && at(i + 1) == '\n') {
+                    return i + 2;
+                }
+            }
+
+            // Look for sentence end
+            for (int i = end - 1; i > threshold; i--) {
+                char c = at(i);
+                if ((c == '.' || c == '!' || c == '?') && i + 1 < limit && Character.isWhitespace(at(i + 1))) {
+                    return i + 1;
+                }
+            }
+
+            // Look for any newline
+            for (int i = Math.min(end, limit - 1); i > threshold; i--) {
+                if (at(i) == '\n') {
+                    return i + 1;
+                }
+            }
+
+            // Look for space
+            for (int i = Math.min(end, limit - 1); i > threshold; i--) {
+                if (at(i) == ' ') {
+                    return i + 1;
+                }
+            }
+
+            return end;
+        }
+
+        /**
+         * Emit the trimmed text of [from, to) with the given offsets.
+         *
+         * @return false if the text is blank
+         */
+        private boolean emit(int from, int to, int startOffset, int endOffset, String heading) {
+            while (from < to && at(from) <= ' ') from++;
+            while (to > from && at(to - 1) <= ' ') to--;
+            if (from == to) {
+                return false;
+            }
+            sink.accept(Chunk.builder()
+                    .chunkId(documentId + "_" + position)
+                    .documentId(documentId)
+                    .sourceName(sourceName)
+                    .mimeType(mimeType)
+                    .position(position)
+                    .text(new String(buf, from - bufStart, to - from))
+                    .heading(heading)
+                    .startOffset(startOffset)
+                    .endOffset(endOffset)
+                    .build());
+            position++;
+            return true;
+        }
+
+        // ==================== Heading scan ====================
+
+        private void startSection(int start) {
+            scanPos = start;
+            lineStart = start == 0 || isLineStartAfter(start);
+            firstContent = -1;
+            lastContent = -1;
+            sectionEnd = -1;
+            nextHeading = null;
+            keepFrom = start;
+        }
+
+        /**
+         * Scan until the section is known to contain a non-blank character at or after
+         * {@code pos}, or until its end is found.
+         */
+        private boolean hasContentFrom(int pos) throws IOException {
+            while (lastContent < pos && sectionEnd < 0) {
+                scanStep();
+            }
+            return lastContent >= pos;
+        }
+
+        /**
+         * Classify the character at scanPos: either it starts the next heading (which ends the
+         * section), or it belongs to the section.
+         */
+        private void scanStep() throws IOException {
+            if (!ensure(scanPos)) {
+                sectionEnd = scanPos;
+                return;
+            }
+            char c = at(scanPos);
+            if (lineStart && c == '#') {
+                HeadingMatch heading = matchHeading(scanPos);
+                if (heading != null) {
+                    sectionEnd = scanPos;
+                    nextHeading = heading;
+                    return;
+                }
+            }
+            if (c > ' ') {
+                if (firstContent < 0) firstContent = scanPos;
+                lastContent = scanPos;
+            }
+            scanPos++;
+            if (c == '\r') {
+                // "\r\n" is one line break; ^ does not match between the two
+                lineStart = !ensure(scanPos) || at(scanPos) != '\n';
+            } else {
+                lineStart = isLineTerminator(c);
+            }
+        }
+
+        private boolean isLineStartAfter(int pos) {
+            char prev = at(pos - 1);
+            if (prev == '\r') {
+                return pos >= bufStart + bufLen || at(pos) != '\n';
+            }
+            return isLineTerminator(prev);
+        }
+
+        /**
+         * Match {@code ^(#{1,6})\s+(.+)$} at a line start the way java.util.regex does,
+         * including the whitespace run crossing line breaks.
+         */
+        private HeadingMatch matchHeading(int start) throws IOException {
+            int p = start;
+            while (ensure(p) && at(p) == '#') {
+                p++;
+                if (p - start > 6) {
+                    return null;
+                }
+            }
+            if (!ensure(p) || !isRegexSpace(at(p))) {
+                return null;
+            }
+            int spaceEnd = p;
+            while (ensure(spaceEnd) && isRegexSpace(at(spaceEnd))) {
+                spaceEnd++;
+            }
+
+            if (ensure(spaceEnd) && !isLineTerminator(at(spaceEnd))) {
+                int textEnd = spaceEnd;
+                while (ensure(textEnd) && !isLineTerminator(at(textEnd))) {
+                    textEnd++;
+                }
+                return new HeadingMatch(textEnd, trimmed(spaceEnd, textEnd));
+            }
+
+            // Nothing but whitespace up to the end: \s+ backtracks and (.+) takes the last
+            // blank that is not a line break
+            for (int j = spaceEnd - 1; j > p; j--) {
+                char c = at(j);
+                if (c != '\n' && c != '\r') {
+                    return new HeadingMatch(j + 1, "");
+                }
+            }
+            return null;
+        }
+
+        private String trimmed(int from, int to) {
+            while (from < to && at(from) <= ' ') from++;
+            while (to > from && at(to - 1) <= ' ') to--;
+            return new String(buf, from - bufStart, to - from);
+        }
+
+        // ==================== Buffer ====================
+
+        private char at(int pos) {
+            return buf[pos - bufStart];
+        }
+
+        /**
+         * Read until {@code pos} is in the buffer.
+         *
+         * @return false if the text ends before {@code pos}
+         */
+        private boolean ensure(int pos) throws IOException {
+            while (pos >= bufStart + bufLen) {
+                if (eof || !fill()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean fill() throws IOException {
+            if (bufLen + READ_SIZE > buf.length) {
+                // Drop what is no longer needed before growing
+                int drop = Math.min(keepFrom - bufStart, bufLen);
+                if (drop > 0) {
+                    System.arraycopy(buf, drop, buf, 0, bufLen - drop);
+                    bufStart += drop;
+                    bufLen -= drop;
+                }
+                if (bufLen + READ_SIZE > buf.length) {
+                    char[] grown = new char[Math.max(buf.length * 2, bufLen + READ_SIZE)];
+                    System.arraycopy(buf, 0, grown, 0, bufLen);
+                    buf = grown;
+                }
+            }
+            int n = in.read(buf, bufLen, buf.length - bufLen);
+            if (n < 0) {
+                eof = true;
+                return false;
+            }
+            bufLen += n;
+            return true;
+        }
+    }
+
+    /** {@code \s} of java.util.regex */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** Characters {@code .} does not match and {@code $} stops before */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static class HeadingMatch {
+        final int end;
+        final String text;
+
+        HeadingMatch(int end, String text) {
+            this.end = end;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package de.bund.zrb.rag.infrastructure;
+
+import java.util.List;
+
+/**
+ * Slot-addressed storage for normalized embedding vectors used by {@link HnswSemanticIndex}.
+ * Graph nodes only keep a slot number; similarity is computed directly against the storage,
+ * so a memory-mapped implementation keeps the vectors off the Java heap.
+ */
+public interface VectorStorage {
+
+    /**
+     * Store a normalized vector and return its slot.
+     */
+    int add(String chunkId, String documentId, float[] vector);
+
+    /**
+     * Record that a chunk was removed. Its slot stays readable until {@link #free(int)},
+     * because tombstoned graph nodes are still traversed.
+     */
+    void release(String chunkId);
+
+    /**
+     * The slot is no longer referenced by any graph node.
+     */
+    void free(int slot);
+
+    /**
+     * Copy a stored vector into a new array.
+     */
+    float[] read(int slot);
+
+    /**
+     * Dot product of a stored vector with the given query vector.
+     */
+    float dot(int slot, float[] query);
+
+    /**
+     * Dot product of two stored vectors.
+     */
+    float dot(int slotA, int slotB);
+
+    /**
+     * Vectors that survived a restart, in insertion order. Empty for non-persistent storage.
+     */
+    List<StoredVector> entries();
+
+    /**
+     * Make pending writes durable.
+     */
+    void flush();
+
+    /**
+     * Drop all stored vectors.
+     */
+    void clear();
+
+    /**
+     * Release resources.
+     */
+    void close();
+
+    /**
+     * A stored vector with the chunk it belongs to.
+     */
+    final class StoredVector {
+        public final String chunkId;
+        public final String documentId;
+        public final int slot;
+
+        public StoredVector(String chunkId, String documentId, int slot) {
+            this.chunkId = chunkId;
+            this.documentId = documentId;
+            this.slot = slot;
+        }
+    }
+}
@@ -44,6 +44,14 @@ public interface LexicalIndex {
      */
     int size();
 
+    /**
+     * Check if the index holds no chunks. Called on every query, so implementations
+     * should answer without a full {@link #size()} lookup where they can.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
     /**
      * Check if the index is available.
      */
@@ -87,6 +87,14 @@ public interface RerankerClient {
      */
     float getScoreThreshold();
 
+    /**
+     * How long the retriever may wait for {@link #rerank} before it falls back to the
+     * Stage 1+2 ranking. 0 (the default) waits for the reranker to finish or fail.
+     */
+    default long getLatencyBudgetMs() {
+        return 0;
+    }
+
     /**
      * Exception thrown when a reranking request fails.
      */
@@ -0,0 +1,64 @@
+package de.bund.zrb.rag.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Bulk ingestion into the RAG indexes: documents are written without a commit each and made
+ * durable by group commits (size/time thresholds from RagConfig, shared by all open sessions).
+ * A document counts as indexed only when its callback reports the commit.
+ *
+ * Obtained from {@link RagService#openBulkSession()}; must be closed, which commits the rest.
+ */
+public class BulkIngestSession implements Closeable {
+
+    /**
+     * Outcome of the commit that covers a written document. Called on the committing thread.
+     */
+    public interface CommitCallback {
+        /**
+         * @param commitMillis duration of the group commit itself
+         */
+        void committed(int chunkCount, long commitMillis);
+
+        void failed(Exception e);
+    }
+
+    private final RagService ragService;
+    private final GroupCommitter committer;
+    private volatile boolean closed;
+
+    BulkIngestSession(RagService ragService, GroupCommitter committer) {
+        this.ragService = ragService;
+        this.committer = committer;
+    }
+
+    /**
+     * Write a prepared document to the indexes. The callback follows with the next group commit.
+     *
+     * @throws IOException if the write itself fails; the callback is not called then
+     */
+    public void add(RagService.PreparedDocument prepared, CommitCallback callback) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Bulk session closed");
+        }
+        ragService.writeUncommitted(prepared);
+        committer.written(prepared.chunks.size(), callback);
+    }
+
+    /**
+     * Commit everything written so far, without waiting for a threshold.
+     */
+    public void flush() {
+        committer.commitNow();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ragService.releaseBulkSession();
+    }
+}
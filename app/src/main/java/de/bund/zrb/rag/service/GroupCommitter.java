@@ -0,0 +1,161 @@
+package de.bund.zrb.rag.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared commit schedule of all open {@link BulkIngestSession}s: writes are collected and made
+ * durable together once enough chunks are pending or the oldest pending write reaches the
+ * commit interval. Each write's callback runs after the commit that covers it.
+ *
+ * While sessions are open, a timer checks the interval, so a pause in the writes does not
+ * leave them uncommitted.
+ */
+class GroupCommitter {
+
+    private static final Logger LOG = Logger.getLogger(GroupCommitter.class.getName());
+
+    interface Commit {
+        void run() throws IOException;
+    }
+
+    private final Commit commit;
+    private final int commitEveryChunks;
+    private final long commitIntervalMs;
+
+    // Guarded by this
+    private List<Pending> pending = new ArrayList<>();
+    private int pendingChunks;
+    private long firstPendingAt;
+    private int openSessions;
+    private ScheduledExecutorService timer;
+
+    // Serializes commits; never held together with this
+    private final Object commitLock = new Object();
+
+    GroupCommitter(Commit commit, int commitEveryChunks, long commitIntervalMs) {
+        this.commit = commit;
+        this.commitEveryChunks = Math.max(1, commitEveryChunks);
+        this.commitIntervalMs = Math.max(1, commitIntervalMs);
+    }
+
+    synchronized void open() {
+        if (openSessions++ == 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "RagGroupCommit");
+                t.setDaemon(true);
+                return t;
+            });
+            long tick = Math.max(50, commitIntervalMs / 4);
+            timer.scheduleWithFixedDelay(this::commitIfDue, tick, tick, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Commit what is pending and stop the timer when the last session is released.
+     */
+    void release() {
+        commitNow();
+        synchronized (this) {
+            if (openSessions > 0 && --openSessions == 0) {
+                timer.shutdownNow();
+                timer = null;
+            }
+        }
+    }
+
+    /**
+     * Register a completed write; commits right away if a threshold is reached.
+     */
+    void written(int chunkCount, BulkIngestSession.CommitCallback callback) {
+        boolean due;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (pending.isEmpty()) {
+                firstPendingAt = now;
+            }
+            pending.add(new Pending(chunkCount, callback));
+            pendingChunks += chunkCount;
+            due = pendingChunks >= commitEveryChunks || now - firstPendingAt >= commitIntervalMs;
+        }
+        if (due) {
+            commitNow();
+        }
+    }
+
+    synchronized int pendingWrites() {
+        return pending.size();
+    }
+
+    private void commitIfDue() {
+        boolean due;
+        synchronized (this) {
+            due = !pending.isEmpty() && System.currentTimeMillis() - firstPendingAt >= commitIntervalMs;
+        }
+        if (due) {
+            commitNow();
+        }
+    }
+
+    /**
+     * Commit everything written so far and run the callbacks of the covered writes.
+     */
+    void commitNow() {
+        List<Pending> batch;
+        int chunks;
+        long commitMillis;
+        Exception failure = null;
+        synchronized (commitLock) {
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // Everything registered here was written before, so this commit covers it
+                batch = pending;
+                chunks = pendingChunks;
+                pending = new ArrayList<>();
+                pendingChunks = 0;
+                firstPendingAt = 0;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                commit.run();
+            } catch (Exception e) {
+                LOG.log(Level.SEVERE, "[RagService] Group commit of " + batch.size() + " documents failed", e);
+                failure = e;
+            }
+            commitMillis = System.currentTimeMillis() - start;
+            if (failure == null) {
+                LOG.fine("[RagService] Group commit: " + batch.size() + " documents, " + chunks
+                        + " chunks in " + commitMillis + "ms");
+            }
+        }
+        for (Pending p : batch) {
+            try {
+                if (failure == null) {
+                    p.callback.committed(p.chunkCount, commitMillis);
+                } else {
+                    p.callback.failed(failure);
+                }
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "[RagService] Commit callback failed", e);
+            }
+        }
+    }
+
+    private static class Pending {
+        final int chunkCount;
+        final BulkIngestSession.CommitCallback callback;
+
+        Pending(int chunkCount, BulkIngestSession.CommitCallback callback) {
+            this.chunkCount = chunkCount;
+            this.callback = callback;
+        }
+    }
+}
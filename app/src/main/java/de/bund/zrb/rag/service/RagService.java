@@ -7,14 +7,20 @@ import de.bund.zrb.helper.SettingsHelper;
 import de.bund.zrb.rag.config.EmbeddingSettings;
 import de.bund.zrb.rag.config.RagConfig;
 import de.bund.zrb.rag.config.RerankerSettings;
+import de.bund.zrb.rag.infrastructure.EmbeddingCache;
+import de.bund.zrb.rag.infrastructure.HeapVectorStorage;
+import de.bund.zrb.rag.infrastructure.HnswSemanticIndex;
 import de.bund.zrb.rag.infrastructure.InMemorySemanticIndex;
+import de.bund.zrb.rag.infrastructure.MappedVectorStore;
+import de.bund.zrb.rag.infrastructure.QuantizedSemanticIndex;
+import de.bund.zrb.rag.infrastructure.StoredVectorIndex;
+import de.bund.zrb.rag.infrastructure.VectorStorage;
 import de.bund.zrb.rag.infrastructure.LuceneLexicalIndex;
-import de.bund.zrb.rag.infrastructure.MarkdownChunker;
 import de.bund.zrb.rag.infrastructure.MultiProviderEmbeddingClient;
+import de.bund.zrb.rag.infrastructure.StreamingMarkdownChunker;
 import de.bund.zrb.rag.infrastructure.HttpRerankerClient;
 import de.bund.zrb.rag.model.Chunk;
 import de.bund.zrb.rag.model.ScoredChunk;
-import de.bund.zrb.rag.port.Chunker;
 import de.bund.zrb.rag.port.EmbeddingClient;
 import de.bund.zrb.rag.port.LexicalIndex;
 import de.bund.zrb.rag.port.SemanticIndex;
@@ -22,11 +28,17 @@ import de.bund.zrb.rag.usecase.HybridRetriever;
 import de.bund.zrb.rag.usecase.RagContextBuilder;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -56,21 +68,24 @@ public class RagService {
     }
 
     private final RagConfig config;
-    private final EmbeddingSettings embeddingSettings;
+    private volatile EmbeddingSettings embeddingSettings;
 
-    private final Chunker chunker;
+    private final StreamingMarkdownChunker streamingChunker;
     private final LexicalIndex lexicalIndex;
     private final SemanticIndex semanticIndex;
     private EmbeddingClient embeddingClient;
+    private final EmbeddingCache embeddingCache;
     private final HybridRetriever retriever;
     private final RagContextBuilder contextBuilder;
     private final RenderDocumentUseCase renderUseCase;
 
+    // Documents indexed in this session or looked up from the Lucene index since startup
     private final Map<String, IndexedDocument> indexedDocuments = new ConcurrentHashMap<>();
-    // Chunk store for tool-calling (read_chunks, read_document_window)
-    private final Map<String, Chunk> chunkStore = new ConcurrentHashMap<>();
-    private final Map<String, List<String>> documentChunkIds = new ConcurrentHashMap<>();
     private final ExecutorService executor;
+    // Bounded pool for embedding batches; its size is the configured embedding concurrency
+    private volatile ExecutorService embeddingExecutor;
+    // Commit schedule of the open bulk sessions
+    private final GroupCommitter groupCommitter;
 
     public RagService() {
         this(RagConfig.defaults(), EmbeddingSettings.fromStoredConfig(), RerankerSettings.fromStoredConfig());
@@ -84,13 +99,16 @@ public class RagService {
         this.config = config;
         this.embeddingSettings = embeddingSettings;
 
-        this.chunker = new MarkdownChunker(config);
-        this.lexicalIndex = createPersistentLexicalIndex();
-        this.semanticIndex = new InMemorySemanticIndex();
-        this.embeddingClient = new MultiProviderEmbeddingClient(embeddingSettings);
+        this.streamingChunker = new StreamingMarkdownChunker(config);
+        this.lexicalIndex = createPersistentLexicalIndex(config);
+        this.semanticIndex = createSemanticIndex(config);
+        this.embeddingCache = createEmbeddingCache();
+        this.embeddingClient = new MultiProviderEmbeddingClient(embeddingSettings, embeddingCache);
         this.retriever = new HybridRetriever(lexicalIndex, semanticIndex, embeddingClient, config);
         this.contextBuilder = new RagContextBuilder(config);
         this.renderUseCase = new RenderDocumentUseCase(RendererRegistry.createDefault());
+        this.groupCommitter = new GroupCommitter(this::commitIndexes,
+                config.getBulkCommitEveryChunks(), config.getBulkCommitIntervalMs());
 
         // Wire up optional cross-encoder reranker
         if (rerankerSettings != null && rerankerSettings.isEnabled()) {
@@ -104,66 +122,89 @@ public class RagService {
             t.setDaemon(true);
             return t;
         });
+        this.embeddingExecutor = createEmbeddingExecutor(embeddingSettings.getConcurrency());
 
-        // Restore in-memory maps from persistent Lucene index (survives restarts)
-        rebuildInMemoryMapsFromIndex();
+        // Re-attach persisted embeddings instead of re-embedding (index rebuild runs in background)
+        if (semanticIndex instanceof StoredVectorIndex) {
+            final StoredVectorIndex stored = (StoredVectorIndex) semanticIndex;
+            executor.submit(() -> {
+                try {
+                    stored.restore(this::getChunks);
+                } catch (Exception e) {
+                    LOG.log(Level.WARNING, "Failed to restore persisted embeddings", e);
+                }
+            });
+        }
 
         LOG.info("RAG service initialized");
     }
 
     /**
-     * Rebuild the in-memory chunkStore, documentChunkIds and indexedDocuments
-     * maps from the persisted Lucene index.  The LuceneLexicalIndex already
-     * rebuilds its own chunk cache from disk on startup – we piggy-back on
-     * that to restore the RagService maps so that getDocumentChunks(), getChunk()
-     * and friends work correctly after an application restart.
+     * Create a persistent Lucene lexical index under ~/.mainframemate/db/rag/lexical/.
+     * Falls back to in-memory index on error.
      */
-    private void rebuildInMemoryMapsFromIndex() {
-        if (!(lexicalIndex instanceof LuceneLexicalIndex)) return;
+    private static LuceneLexicalIndex createPersistentLexicalIndex(RagConfig config) {
+        try {
+            File settingsFolder = SettingsHelper.getSettingsFolder();
+            Path indexPath = new File(settingsFolder, "db/rag/lexical").toPath();
+            return new LuceneLexicalIndex(indexPath, config);
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Failed to create persistent lexical index, falling back to in-memory", e);
+            return new LuceneLexicalIndex();
+        }
+    }
 
-        Collection<Chunk> cachedChunks = ((LuceneLexicalIndex) lexicalIndex).getAllCachedChunks();
-        if (cachedChunks == null || cachedChunks.isEmpty()) return;
+    /**
+     * Create the semantic index selected in the configuration.
+     */
+    private static SemanticIndex createSemanticIndex(RagConfig config) {
+        switch (config.getSemanticIndexType()) {
+            case BRUTE_FORCE:
+                return new InMemorySemanticIndex();
+            case QUANTIZED:
+                LOG.info("Using quantized semantic index (" + config.getQuantization()
+                        + ", rescore x" + config.getQuantizationRescoreMultiplier() + ")");
+                return new QuantizedSemanticIndex(config, createVectorStorage(config));
+            case HNSW:
+            default:
+                LOG.info("Using HNSW semantic index (M=" + config.getHnswM()
+                        + ", efConstruction=" + config.getHnswEfConstruction()
+                        + ", efSearch=" + config.getHnswEfSearch() + ")");
+                return new HnswSemanticIndex(config, createVectorStorage(config));
+        }
+    }
 
-        int count = 0;
-        for (Chunk chunk : cachedChunks) {
-            chunkStore.put(chunk.getChunkId(), chunk);
-            List<String> ids = documentChunkIds.get(chunk.getDocumentId());
-            if (ids == null) {
-                ids = new ArrayList<>();
-                documentChunkIds.put(chunk.getDocumentId(), ids);
-            }
-            ids.add(chunk.getChunkId());
-            count++;
-        }
-
-        // Rebuild indexedDocuments metadata (document name + chunk count)
-        for (Map.Entry<String, List<String>> entry : documentChunkIds.entrySet()) {
-            String docId = entry.getKey();
-            List<String> chunkIds = entry.getValue();
-            if (!indexedDocuments.containsKey(docId) && !chunkIds.isEmpty()) {
-                Chunk firstChunk = chunkStore.get(chunkIds.get(0));
-                String docName = (firstChunk != null && firstChunk.getSourceName() != null)
-                        ? firstChunk.getSourceName() : docId;
-                indexedDocuments.put(docId, new IndexedDocument(docId, docName, chunkIds.size()));
+    /**
+     * Open the memory-mapped vector store under ~/.mainframemate/db/rag/vectors/.
+     * Falls back to heap storage (lost on restart) if persistence is disabled or fails.
+     */
+    private static VectorStorage createVectorStorage(RagConfig config) {
+        if (config.isPersistVectors()) {
+            try {
+                File settingsFolder = SettingsHelper.getSettingsFolder();
+                Path vectorPath = new File(settingsFolder, "db/rag/vectors").toPath();
+                MappedVectorStore.Encoding encoding = config.isHalfFloatVectors()
+                        ? MappedVectorStore.Encoding.FLOAT16 : MappedVectorStore.Encoding.FLOAT32;
+                return new MappedVectorStore(vectorPath, encoding);
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Failed to open persistent vector store, embeddings stay in memory", e);
             }
         }
-
-        LOG.info("Restored " + count + " chunks for " + documentChunkIds.size()
-                + " documents from persistent Lucene index");
+        return new HeapVectorStorage();
     }
 
     /**
-     * Create a persistent Lucene lexical index under ~/.mainframemate/db/rag/lexical/.
-     * Falls back to in-memory index on error.
+     * Open the persistent embedding cache under ~/.mainframemate/db/rag/embeddings.mv.db.
+     * Falls back to a memory-only cache if the file cannot be opened.
      */
-    private static LuceneLexicalIndex createPersistentLexicalIndex() {
+    private static EmbeddingCache createEmbeddingCache() {
         try {
             File settingsFolder = SettingsHelper.getSettingsFolder();
-            Path indexPath = new File(settingsFolder, "db/rag/lexical").toPath();
-            return new LuceneLexicalIndex(indexPath);
+            Path cachePath = new File(settingsFolder, "db/rag/embeddings.mv.db").toPath();
+            return new EmbeddingCache(cachePath, EmbeddingCache.DEFAULT_MEMORY_ENTRIES);
         } catch (Exception e) {
-            LOG.log(Level.WARNING, "Failed to create persistent lexical index, falling back to in-memory", e);
-            return new LuceneLexicalIndex();
+            LOG.log(Level.WARNING, "Failed to open persistent embedding cache, using memory only", e);
+            return new EmbeddingCache(EmbeddingCache.DEFAULT_MEMORY_ENTRIES);
         }
     }
 
@@ -194,57 +235,233 @@ public class RagService {
      *                           This respects the "embedding enabled" flag in indexing rules.
      */
     public void indexDocument(String documentId, String documentName, Document document, boolean generateEmbeddings) {
-        if (document == null || document.isEmpty()) {
-            LOG.warning("Cannot index empty document: " + documentId);
+        long startTime = System.currentTimeMillis();
+        PreparedDocument prepared = prepareDocument(documentId, documentName, document, generateEmbeddings);
+        if (prepared == null) {
             return;
         }
+        writePreparedDocument(prepared);
 
-        long startTime = System.currentTimeMillis();
+        long duration = System.currentTimeMillis() - startTime;
+        LOG.info(String.format("Indexed document %s: %d chunks, %d embeddings in %dms",
+                documentName, prepared.chunks.size(), prepared.embeddedChunkCount, duration));
+    }
+
+    /**
+     * First half of {@link #indexDocument(String, String, Document, boolean)}: render, chunk and
+     * embed, without touching the indexes. Safe to call from several threads; the indexing pipeline
+     * runs it in its own stage so that embedding overlaps with index writes of other items.
+     *
+     * @return the prepared document, or {@code null} if the document yields no chunks
+     */
+    public PreparedDocument prepareDocument(String documentId, String documentName, Document document,
+                                            boolean generateEmbeddings) {
+        if (document == null || document.isEmpty()) {
+            LOG.warning("Cannot index empty document: " + documentId);
+            return null;
+        }
 
-        // Render to Markdown
-        String markdown = renderUseCase.renderToMarkdown(document);
         String mimeType = document.getMetadata() != null ? document.getMetadata().getMimeType() : null;
 
-        // Chunk the document
-        List<Chunk> chunks = chunker.chunkMarkdown(markdown, documentId, documentName, mimeType);
+        // Render to Markdown block by block and chunk it while it streams
+        long chunkStart = System.currentTimeMillis();
+        List<Chunk> chunks = new ArrayList<>();
+        try (Reader markdown = renderUseCase.openMarkdownReader(document)) {
+            streamingChunker.chunkMarkdown(markdown, documentId, documentName, mimeType, chunks::add);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to chunk document: " + documentId, e);
+            return null;
+        }
+
+        long chunkMillis = System.currentTimeMillis() - chunkStart;
 
         if (chunks.isEmpty()) {
             LOG.warning("No chunks generated for document: " + documentId);
-            return;
+            return null;
         }
 
-        // Index in Lucene
-        lexicalIndex.indexChunks(chunks);
+        // Generate embeddings (only if enabled by indexing rule)
+        List<float[]> vectors = null;
+        long embeddingMillis = 0;
+        if (generateEmbeddings && embeddingClient.isAvailable()) {
+            long embeddingStart = System.currentTimeMillis();
+            vectors = embedChunks(embeddingClient, chunks, embeddingSettings.getBatchSize(), embeddingExecutor);
+            embeddingMillis = System.currentTimeMillis() - embeddingStart;
+        } else {
+            LOG.warning("Embedding client not available, using lexical-only indexing");
+        }
+        return new PreparedDocument(documentId, documentName, chunks, vectors, chunkMillis, embeddingMillis);
+    }
 
-        // Store chunks for tool-calling access
-        List<String> chunkIds = new ArrayList<>();
-        for (Chunk chunk : chunks) {
-            chunkStore.put(chunk.getChunkId(), chunk);
-            chunkIds.add(chunk.getChunkId());
+    /**
+     * Second half of {@link #indexDocument(String, String, Document, boolean)}: write the chunks to
+     * Lucene and the vectors to the semantic index.
+     */
+    public void writePreparedDocument(PreparedDocument prepared) {
+        // Index in Lucene (chunks stay available for tool-calling through the stored fields)
+        lexicalIndex.indexChunks(prepared.chunks);
+        writeVectorsAndTrack(prepared);
+        // indexChunks committed the chunks; commit the vectors too, or a restart drops them
+        flushVectors();
+    }
+
+    /**
+     * Start a bulk ingestion: documents added through the session are committed in groups
+     * instead of one commit each. Sessions may be open concurrently and share the commits.
+     */
+    public BulkIngestSession openBulkSession() {
+        groupCommitter.open();
+        if (lexicalIndex instanceof LuceneLexicalIndex) {
+            ((LuceneLexicalIndex) lexicalIndex).beginBulk();
         }
-        documentChunkIds.put(documentId, chunkIds);
+        return new BulkIngestSession(this, groupCommitter);
+    }
 
-        // Generate embeddings and index in semantic index (only if enabled by indexing rule)
-        if (generateEmbeddings && embeddingClient.isAvailable()) {
-            for (Chunk chunk : chunks) {
-                try {
-                    float[] embedding = embeddingClient.embed(chunk.getText());
-                    if (embedding.length > 0) {
-                        semanticIndex.indexChunk(chunk, embedding);
-                    }
-                } catch (Exception e) {
-                    LOG.warning("Failed to generate embedding for chunk: " + chunk.getChunkId());
+    void releaseBulkSession() {
+        groupCommitter.release();
+        if (lexicalIndex instanceof LuceneLexicalIndex) {
+            ((LuceneLexicalIndex) lexicalIndex).endBulk();
+        }
+    }
+
+    /**
+     * Write a prepared document without committing; durability comes with {@link #commitIndexes()}.
+     */
+    void writeUncommitted(PreparedDocument prepared) throws IOException {
+        if (lexicalIndex instanceof LuceneLexicalIndex) {
+            ((LuceneLexicalIndex) lexicalIndex).addChunks(prepared.chunks);
+        } else {
+            lexicalIndex.indexChunks(prepared.chunks);
+        }
+        writeVectorsAndTrack(prepared);
+    }
+
+    /**
+     * Make all writes so far durable: Lucene commit and vector store sync.
+     */
+    void commitIndexes() throws IOException {
+        if (lexicalIndex instanceof LuceneLexicalIndex) {
+            ((LuceneLexicalIndex) lexicalIndex).commit();
+        }
+        flushVectors();
+    }
+
+    private void writeVectorsAndTrack(PreparedDocument prepared) {
+        if (prepared.vectors != null) {
+            for (int i = 0; i < prepared.chunks.size(); i++) {
+                float[] vector = prepared.vectors.get(i);
+                if (vector != null && vector.length > 0) {
+                    semanticIndex.indexChunk(prepared.chunks.get(i), vector);
                 }
             }
-        } else {
-            LOG.warning("Embedding client not available, using lexical-only indexing");
         }
 
         // Track indexed document
-        indexedDocuments.put(documentId, new IndexedDocument(documentId, documentName, chunks.size()));
+        indexedDocuments.put(prepared.documentId, new IndexedDocument(prepared.documentId, prepared.documentName,
+                prepared.chunks.size(), prepared.embeddedChunkCount, prepared.embeddingMillis));
+    }
 
-        long duration = System.currentTimeMillis() - startTime;
-        LOG.info(String.format("Indexed document %s: %d chunks in %dms", documentName, chunks.size(), duration));
+    /**
+     * Embed the chunks in batches of {@code batchSize} ({@link EmbeddingSettings#getBatchSize()}),
+     * with as many batches in flight as {@code executor} has threads
+     * ({@link EmbeddingSettings#getConcurrency()}). A failed batch is retried chunk by chunk;
+     * chunks that still fail are left lexical-only.
+     *
+     * @return one vector per chunk; {@code null} where embedding failed
+     */
+    static List<float[]> embedChunks(final EmbeddingClient client, List<Chunk> chunks, int batchSize,
+                                     ExecutorService executor) {
+        int size = Math.max(1, batchSize);
+
+        List<List<Chunk>> batches = new ArrayList<>();
+        List<Future<List<float[]>>> futures = new ArrayList<>();
+        for (int from = 0; from < chunks.size(); from += size) {
+            final List<Chunk> batch = chunks.subList(from, Math.min(from + size, chunks.size()));
+            batches.add(batch);
+            futures.add(executor.submit(() -> embedBatch(client, batch)));
+        }
+
+        List<float[]> result = new ArrayList<>(Collections.<float[]>nCopies(chunks.size(), null));
+        int failed = 0;
+        for (int b = 0; b < batches.size(); b++) {
+            List<Chunk> batch = batches.get(b);
+            int offset = b * size;
+            List<float[]> vectors;
+            try {
+                vectors = futures.get(b).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (int rest = b; rest < futures.size(); rest++) {
+                    futures.get(rest).cancel(true);
+                }
+                LOG.warning("Embedding interrupted, remaining chunks stay lexical-only");
+                break;
+            } catch (ExecutionException e) {
+                LOG.log(Level.WARNING, "Embedding batch failed", e.getCause());
+                failed += batch.size();
+                continue;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                float[] vector = vectors.get(i);
+                if (vector != null && vector.length > 0) {
+                    result.set(offset + i, vector);
+                } else {
+                    failed++;
+                }
+            }
+        }
+        if (failed > 0) {
+            LOG.warning("Failed to generate embeddings for " + failed + " of " + chunks.size() + " chunks");
+        }
+        return result;
+    }
+
+    /**
+     * Embed one batch. If the batch call fails or returns a result that does not line up with
+     * the input, every chunk is embedded on its own so one bad text does not cost the whole batch.
+     *
+     * @return one vector per chunk; {@code null} or empty where embedding failed
+     */
+    static List<float[]> embedBatch(EmbeddingClient client, List<Chunk> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Chunk chunk : batch) {
+            texts.add(chunk.getText());
+        }
+        try {
+            List<float[]> vectors = client.embedBatch(texts);
+            if (vectors != null && vectors.size() == texts.size()) {
+                return vectors;
+            }
+            LOG.warning("Embedding batch returned " + (vectors == null ? 0 : vectors.size())
+                    + " vectors for " + texts.size() + " texts, retrying individually");
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Embedding batch failed, retrying individually", e);
+        }
+
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                vectors.add(null);
+                continue;
+            }
+            try {
+                vectors.add(client.embed(texts.get(i)));
+            } catch (Exception e) {
+                LOG.warning("Failed to generate embedding for chunk: " + batch.get(i).getChunkId());
+                vectors.add(null);
+            }
+        }
+        return vectors;
+    }
+
+    private static ExecutorService createEmbeddingExecutor(int concurrency) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "RagEmbedder-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return Executors.newFixedThreadPool(Math.max(1, concurrency), factory);
     }
 
     /**
@@ -253,18 +470,17 @@ public class RagService {
     public void removeDocument(String documentId) {
         lexicalIndex.removeDocument(documentId);
         semanticIndex.removeDocument(documentId);
-
-        // Remove chunks from store
-        List<String> chunkIds = documentChunkIds.remove(documentId);
-        if (chunkIds != null) {
-            for (String chunkId : chunkIds) {
-                chunkStore.remove(chunkId);
-            }
-        }
+        flushVectors();
         indexedDocuments.remove(documentId);
         LOG.info("Removed document from RAG: " + documentId);
     }
 
+    private void flushVectors() {
+        if (semanticIndex instanceof StoredVectorIndex) {
+            ((StoredVectorIndex) semanticIndex).flush();
+        }
+    }
+
     /**
      * Search ONLY the Lucene lexical index (BM25).
      * Does NOT use semantic/embedding search.
@@ -303,6 +519,16 @@ public class RagService {
                 ? (LuceneLexicalIndex) lexicalIndex : null;
     }
 
+    /**
+     * Generation of the indexes as searches see them; changes with every visible write or
+     * removal. The semantic index is always written together with the lexical one, so the
+     * Lucene reader version covers both. -1 if unknown.
+     */
+    public long getIndexGeneration() {
+        LuceneLexicalIndex lucene = getLexicalIndex();
+        return lucene != null ? lucene.getSearchGeneration() : -1;
+    }
+
     /**
      * Retrieve relevant chunks for a query.
      */
@@ -330,6 +556,14 @@ public class RagService {
         return retriever.retrieve(query, topK, allowedDocumentIds);
     }
 
+    /**
+     * Retrieve relevant chunks together with per-stage timings (BM25, query embedding,
+     * vector search, merge, rerank).
+     */
+    public HybridRetriever.RetrievalResult retrieveWithTimings(String query, int topK, Set<String> allowedDocumentIds) {
+        return retriever.retrieveWithTimings(query, topK, allowedDocumentIds);
+    }
+
     /**
      * Build hidden context from a query, filtered by allowed document IDs.
      * Used for attachment-based RAG.
@@ -360,8 +594,9 @@ public class RagService {
      */
     public RagStats getStats() {
         HybridRetriever.RetrievalStats retrievalStats = retriever.getStats();
+        LuceneLexicalIndex lucene = getLexicalIndex();
         return new RagStats(
-                indexedDocuments.size(),
+                lucene != null ? lucene.documentCount() : indexedDocuments.size(),
                 retrievalStats.lexicalSize,
                 retrievalStats.semanticSize,
                 retrievalStats.lexicalAvailable,
@@ -374,14 +609,22 @@ public class RagService {
      * Check if a document is indexed.
      */
     public boolean isIndexed(String documentId) {
-        return indexedDocuments.containsKey(documentId);
+        if (documentId == null) return false;
+        if (indexedDocuments.containsKey(documentId)) return true;
+        LuceneLexicalIndex lucene = getLexicalIndex();
+        return lucene != null && lucene.countChunks(documentId) > 0;
     }
 
     /**
      * Get all indexed document IDs.
      */
     public Set<String> getIndexedDocumentIds() {
-        return new HashSet<>(indexedDocuments.keySet());
+        Set<String> ids = new HashSet<>(indexedDocuments.keySet());
+        LuceneLexicalIndex lucene = getLexicalIndex();
+        if (lucene != null) {
+            ids.addAll(lucene.listAllDocuments().keySet());
+        }
+        return ids;
     }
 
     /**
@@ -393,6 +636,10 @@ public class RagService {
         if (lexicalIndex instanceof LuceneLexicalIndex) {
             ((LuceneLexicalIndex) lexicalIndex).flush();
         }
+        if (semanticIndex instanceof StoredVectorIndex) {
+            ((StoredVectorIndex) semanticIndex).flush();
+        }
+        embeddingCache.flush();
     }
 
     /**
@@ -417,15 +664,9 @@ public class RagService {
     public void importChunks(List<Chunk> chunks) {
         if (chunks == null || chunks.isEmpty()) return;
         lexicalIndex.indexChunks(chunks);
-        // Also update in-memory tracking
+        // Document info is resolved lazily from the index on the next lookup
         for (Chunk c : chunks) {
-            chunkStore.put(c.getChunkId(), c);
-            List<String> ids = documentChunkIds.computeIfAbsent(
-                    c.getDocumentId(), k -> new java.util.ArrayList<>());
-            ids.add(c.getChunkId());
-            indexedDocuments.putIfAbsent(c.getDocumentId(),
-                    new IndexedDocument(c.getDocumentId(),
-                            c.getSourceName() != null ? c.getSourceName() : c.getDocumentId(), 1));
+            indexedDocuments.remove(c.getDocumentId());
         }
         LOG.info("[RagService] Imported " + chunks.size() + " chunks");
     }
@@ -443,6 +684,11 @@ public class RagService {
                 LOG.log(Level.WARNING, "Failed to close index for refresh", e);
             }
         }
+        if (semanticIndex instanceof StoredVectorIndex) {
+            ((StoredVectorIndex) semanticIndex).close();
+        }
+        embeddingExecutor.shutdown();
+        embeddingCache.close();
         // Re-create the singleton so a fresh index is opened on next access
         synchronized (RagService.class) {
             INSTANCE = new RagService();
@@ -472,11 +718,25 @@ public class RagService {
      * Get indexed document info.
      */
     public IndexedDocument getIndexedDocument(String documentId) {
-        return indexedDocuments.get(documentId);
+        if (documentId == null) return null;
+        IndexedDocument indexed = indexedDocuments.get(documentId);
+        if (indexed == null) {
+            // Indexed in an earlier session: derive name and chunk count from the Lucene index
+            List<Chunk> chunks = getDocumentChunks(documentId);
+            if (!chunks.isEmpty()) {
+                String name = chunks.get(0).getSourceName() != null ? chunks.get(0).getSourceName() : documentId;
+                indexed = new IndexedDocument(documentId, name, chunks.size());
+                IndexedDocument previous = indexedDocuments.putIfAbsent(documentId, indexed);
+                if (previous != null) {
+                    indexed = previous;
+                }
+            }
+        }
+        return indexed;
     }
 
     /**
-     * Get all indexed documents.
+     * Get all documents indexed or looked up since startup.
      */
     public Collection<IndexedDocument> getIndexedDocuments() {
         return new ArrayList<>(indexedDocuments.values());
@@ -488,21 +748,16 @@ public class RagService {
      * Get a single chunk by ID.
      */
     public Chunk getChunk(String chunkId) {
-        return chunkStore.get(chunkId);
+        LuceneLexicalIndex lucene = getLexicalIndex();
+        return lucene != null ? lucene.getChunk(chunkId) : null;
     }
 
     /**
      * Get multiple chunks by IDs.
      */
     public List<Chunk> getChunks(List<String> chunkIds) {
-        List<Chunk> result = new ArrayList<>();
-        for (String chunkId : chunkIds) {
-            Chunk chunk = chunkStore.get(chunkId);
-            if (chunk != null) {
-                result.add(chunk);
-            }
-        }
-        return result;
+        LuceneLexicalIndex lucene = getLexicalIndex();
+        return lucene != null ? lucene.getChunks(chunkIds) : Collections.<Chunk>emptyList();
     }
 
     /**
@@ -514,20 +769,16 @@ public class RagService {
      * @return list of chunks in order
      */
     public List<Chunk> getChunkWindow(String anchorChunkId, int before, int after) {
-        Chunk anchor = chunkStore.get(anchorChunkId);
+        Chunk anchor = getChunk(anchorChunkId);
         if (anchor == null) {
             return Collections.emptyList();
         }
 
-        String documentId = anchor.getDocumentId();
-        List<String> docChunkIds = documentChunkIds.get(documentId);
-        if (docChunkIds == null) {
-            return Collections.singletonList(anchor);
-        }
+        List<Chunk> docChunks = getDocumentChunks(anchor.getDocumentId());
 
         int anchorIndex = -1;
-        for (int i = 0; i < docChunkIds.size(); i++) {
-            if (docChunkIds.get(i).equals(anchorChunkId)) {
+        for (int i = 0; i < docChunks.size(); i++) {
+            if (docChunks.get(i).getChunkId().equals(anchorChunkId)) {
                 anchorIndex = i;
                 break;
             }
@@ -538,28 +789,16 @@ public class RagService {
         }
 
         int start = Math.max(0, anchorIndex - before);
-        int end = Math.min(docChunkIds.size(), anchorIndex + after + 1);
-
-        List<Chunk> window = new ArrayList<>();
-        for (int i = start; i < end; i++) {
-            Chunk chunk = chunkStore.get(docChunkIds.get(i));
-            if (chunk != null) {
-                window.add(chunk);
-            }
-        }
-
-        return window;
+        int end = Math.min(docChunks.size(), anchorIndex + after + 1);
+        return new ArrayList<>(docChunks.subList(start, end));
     }
 
     /**
      * Get all chunks for a document.
      */
     public List<Chunk> getDocumentChunks(String documentId) {
-        List<String> chunkIds = documentChunkIds.get(documentId);
-        if (chunkIds == null) {
-            return Collections.emptyList();
-        }
-        return getChunks(chunkIds);
+        LuceneLexicalIndex lucene = getLexicalIndex();
+        return lucene != null ? lucene.getChunksByDocumentId(documentId) : Collections.<Chunk>emptyList();
     }
 
     /**
@@ -569,8 +808,6 @@ public class RagService {
         lexicalIndex.clear();
         semanticIndex.clear();
         indexedDocuments.clear();
-        chunkStore.clear();
-        documentChunkIds.clear();
         LOG.info("RAG indices cleared");
     }
 
@@ -578,7 +815,13 @@ public class RagService {
      * Update embedding settings and recreate the client.
      */
     public void updateEmbeddingSettings(EmbeddingSettings newSettings) {
-        this.embeddingClient = new MultiProviderEmbeddingClient(newSettings);
+        this.embeddingClient = new MultiProviderEmbeddingClient(newSettings, embeddingCache);
+        if (newSettings.getConcurrency() != embeddingSettings.getConcurrency()) {
+            ExecutorService previous = embeddingExecutor;
+            embeddingExecutor = createEmbeddingExecutor(newSettings.getConcurrency());
+            previous.shutdown();
+        }
+        this.embeddingSettings = newSettings;
         LOG.info("Embedding client updated: " + newSettings.getProvider() + " " + newSettings.getModel());
     }
 
@@ -608,11 +851,27 @@ public class RagService {
     /**
      * Shutdown the service.
      */
+    /**
+     * Shut down the service if it was started; used by the JVM shutdown hook, which must not
+     * open the indexes just to close them again.
+     */
+    public static void shutdownIfStarted() {
+        RagService instance = INSTANCE;
+        if (instance != null) {
+            instance.shutdown();
+        }
+    }
+
     public void shutdown() {
         executor.shutdownNow();
+        embeddingExecutor.shutdownNow();
         if (lexicalIndex instanceof LuceneLexicalIndex) {
             ((LuceneLexicalIndex) lexicalIndex).close();
         }
+        if (semanticIndex instanceof StoredVectorIndex) {
+            ((StoredVectorIndex) semanticIndex).close();
+        }
+        embeddingCache.close();
     }
 
     /**
@@ -630,12 +889,55 @@ public class RagService {
         public final String documentName;
         public final int chunkCount;
         public final long indexedAt;
+        /** Chunks that received an embedding in the last indexing call. */
+        public final int embeddedChunkCount;
+        /** Wall-clock time spent generating those embeddings. */
+        public final long embeddingMillis;
 
         public IndexedDocument(String documentId, String documentName, int chunkCount) {
+            this(documentId, documentName, chunkCount, 0, 0);
+        }
+
+        public IndexedDocument(String documentId, String documentName, int chunkCount,
+                               int embeddedChunkCount, long embeddingMillis) {
             this.documentId = documentId;
             this.documentName = documentName;
             this.chunkCount = chunkCount;
             this.indexedAt = System.currentTimeMillis();
+            this.embeddedChunkCount = embeddedChunkCount;
+            this.embeddingMillis = embeddingMillis;
+        }
+    }
+
+    /**
+     * Chunks and embeddings of a document that have not been written to the indexes yet.
+     */
+    public static class PreparedDocument {
+        public final String documentId;
+        public final String documentName;
+        public final List<Chunk> chunks;
+        /** One vector per chunk, {@code null} entries where embedding failed; {@code null} if not embedded. */
+        public final List<float[]> vectors;
+        public final int embeddedChunkCount;
+        /** Time spent rendering and chunking the document. */
+        public final long chunkMillis;
+        public final long embeddingMillis;
+
+        public PreparedDocument(String documentId, String documentName, List<Chunk> chunks,
+                                List<float[]> vectors, long chunkMillis, long embeddingMillis) {
+            this.documentId = documentId;
+            this.documentName = documentName;
+            this.chunks = chunks;
+            this.vectors = vectors;
+            this.chunkMillis = chunkMillis;
+            this.embeddingMillis = embeddingMillis;
+            int embedded = 0;
+            if (vectors != null) {
+                for (float[] vector : vectors) {
+                    if (vector != null && vector.length > 0) embedded++;
+                }
+            }
+            this.embeddedChunkCount = embedded;
         }
     }
 
@@ -9,6 +9,13 @@ import de.bund.zrb.rag.port.RerankerClient;
 import de.bund.zrb.rag.port.SemanticIndex;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -62,11 +69,25 @@ import java.util.logging.Logger;
  *
  * <p>Stages 1–3 run on <b>CPU only</b>. Only Stage 4 (LLM generation) needs
  * a GPU or cloud provider.
+ *
+ * <p>Stage 1 and Stage 2 (query embedding + vector search) run concurrently, each with
+ * its own deadline; a stage that misses it is dropped and the other stage's results are
+ * used alone. The results are fused by weighted score normalization or by reciprocal rank
+ * fusion ({@link RagConfig.MergeMode}). {@link #retrieveWithTimings} reports per-stage timings.
  */
 public class HybridRetriever {
 
     private static final Logger LOG = Logger.getLogger(HybridRetriever.class.getName());
 
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    // Shared by all retrievers; stage tasks are short-lived and bounded by their deadlines
+    private static final ExecutorService STAGE_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "RagRetrieval-" + THREAD_COUNT.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
     private final LexicalIndex lexicalIndex;
     private final SemanticIndex semanticIndex;
     private final EmbeddingClient embeddingClient;
@@ -125,16 +146,21 @@ public class HybridRetriever {
      * @return scored chunks
      */
     public List<ScoredChunk> retrieve(String query, int topK, Set<String> allowedDocumentIds) {
+        return retrieveWithTimings(query, topK, allowedDocumentIds).getChunks();
+    }
+
+    /**
+     * Same as {@link #retrieve(String, int, Set)}, but also reports how long each stage took.
+     */
+    public RetrievalResult retrieveWithTimings(String query, int topK, final Set<String> allowedDocumentIds) {
         if (query == null || query.trim().isEmpty()) {
-            return Collections.emptyList();
+            return new RetrievalResult(Collections.<ScoredChunk>emptyList(), RetrievalTimings.NONE);
         }
 
         long startTime = System.currentTimeMillis();
+        RetrievalTimings.Builder timings = new RetrievalTimings.Builder();
 
-        List<ScoredChunk> lexicalResults = new ArrayList<>();
-        List<ScoredChunk> semanticResults = new ArrayList<>();
-
-        boolean useLexical = lexicalIndex != null && lexicalIndex.isAvailable() && lexicalIndex.size() > 0;
+        boolean useLexical = lexicalIndex != null && lexicalIndex.isAvailable() && !lexicalIndex.isEmpty();
         boolean useSemantic = semanticIndex != null && semanticIndex.isAvailable() && semanticIndex.size() > 0
                 && embeddingClient != null && embeddingClient.isAvailable();
 
@@ -147,47 +173,72 @@ public class HybridRetriever {
         }
 
         // When filtering, fetch more results to compensate for filtering loss
-        int fetchMultiplier = (allowedDocumentIds != null && !allowedDocumentIds.isEmpty()) ? 3 : 1;
+        final boolean filter = allowedDocumentIds != null && !allowedDocumentIds.isEmpty();
+        final int fetchMultiplier = filter ? 3 : 1;
+        final String q = query;
 
-        // Lexical search
+        // Stage 1 and Stage 2 run concurrently
+        Future<List<ScoredChunk>> lexicalFuture = null;
         if (useLexical) {
-            try {
-                lexicalResults = lexicalIndex.search(query, config.getLuceneTopN() * fetchMultiplier);
+            lexicalFuture = STAGE_EXECUTOR.submit(() -> {
+                long t0 = System.currentTimeMillis();
+                List<ScoredChunk> results = lexicalIndex.search(q, config.getLuceneTopN() * fetchMultiplier);
                 // Apply document filter
-                if (allowedDocumentIds != null && !allowedDocumentIds.isEmpty()) {
-                    lexicalResults = filterByDocumentIds(lexicalResults, allowedDocumentIds);
+                if (filter) {
+                    results = filterByDocumentIds(results, allowedDocumentIds);
                 }
-                LOG.fine("Lexical search returned " + lexicalResults.size() + " results (after filter)");
-            } catch (Exception e) {
-                LOG.warning("Lexical search failed: " + e.getMessage());
-            }
+                timings.lexicalMs = System.currentTimeMillis() - t0;
+                LOG.fine("Lexical search returned " + results.size() + " results (after filter)");
+                return results;
+            });
         }
 
-        // Semantic search
+        Future<List<ScoredChunk>> semanticFuture = null;
         if (useSemantic) {
-            try {
-                float[] queryEmbedding = embeddingClient.embed(query);
-                if (queryEmbedding != null && queryEmbedding.length > 0) {
-                    semanticResults = semanticIndex.search(queryEmbedding, config.getHnswTopM() * fetchMultiplier);
-                    // Apply document filter
-                    if (allowedDocumentIds != null && !allowedDocumentIds.isEmpty()) {
-                        semanticResults = filterByDocumentIds(semanticResults, allowedDocumentIds);
-                    }
-                    LOG.fine("Semantic search returned " + semanticResults.size() + " results (after filter)");
+            semanticFuture = STAGE_EXECUTOR.submit(() -> {
+                long t0 = System.currentTimeMillis();
+                float[] queryEmbedding = embeddingClient.embed(q);
+                long t1 = System.currentTimeMillis();
+                timings.embeddingMs = t1 - t0;
+                if (queryEmbedding == null || queryEmbedding.length == 0) {
+                    return Collections.<ScoredChunk>emptyList();
                 }
-            } catch (Exception e) {
-                LOG.warning("Semantic search failed: " + e.getMessage());
-            }
+                List<ScoredChunk> results = semanticIndex.search(queryEmbedding, config.getHnswTopM() * fetchMultiplier);
+                // Apply document filter
+                if (filter) {
+                    results = filterByDocumentIds(results, allowedDocumentIds);
+                }
+                timings.semanticMs = System.currentTimeMillis() - t1;
+                LOG.fine("Semantic search returned " + results.size() + " results (after filter)");
+                return results;
+            });
         }
 
+        List<ScoredChunk> lexicalResults = awaitStage(lexicalFuture, "Lexical search",
+                startTime + config.getLexicalStageTimeoutMs());
+        if (lexicalFuture != null && lexicalResults == null) {
+            timings.lexicalTimedOut = true;
+        }
+        List<ScoredChunk> semanticResults = awaitStage(semanticFuture, "Semantic search",
+                startTime + config.getSemanticStageTimeoutMs());
+        if (semanticFuture != null && semanticResults == null) {
+            timings.semanticTimedOut = true;
+        }
+        if (lexicalResults == null) lexicalResults = Collections.emptyList();
+        if (semanticResults == null) semanticResults = Collections.emptyList();
+
         // Merge and score
+        long mergeStart = System.currentTimeMillis();
         List<ScoredChunk> merged;
         if (lexicalResults.isEmpty() && semanticResults.isEmpty()) {
-            return Collections.emptyList();
+            timings.totalMs = System.currentTimeMillis() - startTime;
+            return new RetrievalResult(Collections.<ScoredChunk>emptyList(), timings.build());
         } else if (lexicalResults.isEmpty()) {
-            merged = semanticResults;
+            merged = new ArrayList<>(semanticResults);
         } else if (semanticResults.isEmpty()) {
-            merged = lexicalResults;
+            merged = new ArrayList<>(lexicalResults);
+        } else if (config.getMergeMode() == RagConfig.MergeMode.RECIPROCAL_RANK) {
+            merged = mergeByReciprocalRank(lexicalResults, semanticResults);
         } else {
             merged = mergeAndScore(lexicalResults, semanticResults);
         }
@@ -202,6 +253,7 @@ public class HybridRetriever {
         // Without reranker:  use the caller's topK directly.
         // ══════════════════════════════════════════════════════════════════
         Collections.sort(merged);
+        timings.mergeMs = System.currentTimeMillis() - mergeStart;
         RerankerClient reranker = this.rerankerClient;
         boolean willRerank = reranker != null && reranker.isAvailable();
 
@@ -239,8 +291,8 @@ public class HybridRetriever {
         //   4. Filter by score threshold, sort, take final top-N
         // ══════════════════════════════════════════════════════════════════
         if (willRerank && !topResults.isEmpty()) {
+            long rerankStart = System.currentTimeMillis();
             try {
-                long rerankStart = System.currentTimeMillis();
 
                 // Collect the raw text of each candidate — this is what the
                 // reranker "reads", not the vectors.
@@ -249,8 +301,8 @@ public class HybridRetriever {
                     passages.add(sc.getText());
                 }
 
-                // Call the cross-encoder reranker API
-                float[] rerankScores = reranker.rerank(query, passages);
+                // Call the cross-encoder reranker API within its latency budget
+                float[] rerankScores = rerankWithinBudget(reranker, query, passages, timings);
 
                 // Rebuild scored chunks with the reranker's relevance scores
                 List<ScoredChunk> reranked = new ArrayList<>(topResults.size());
@@ -285,6 +337,7 @@ public class HybridRetriever {
                 topResults = reranked;
 
                 long rerankDuration = System.currentTimeMillis() - rerankStart;
+                timings.rerankMs = rerankDuration;
                 LOG.info(String.format(
                         "Stage 3 Reranking: %d candidates (raw text) → %d results in %dms "
                       + "(model=%s, threshold=%.2f)",
@@ -294,6 +347,7 @@ public class HybridRetriever {
                 // Reranking is best-effort — if it fails, fall through with
                 // the Stage 1+2 hybrid scores (still useful, just less precise).
                 LOG.warning("Stage 3 reranking failed, falling back to hybrid scores: " + e.getMessage());
+                timings.rerankMs = System.currentTimeMillis() - rerankStart;
                 // Trim to topK since we kept a larger pool for reranking
                 if (topResults.size() > topK) {
                     topResults = new ArrayList<>(topResults.subList(0, topK));
@@ -301,15 +355,63 @@ public class HybridRetriever {
             }
         }
 
-        long duration = System.currentTimeMillis() - startTime;
+        timings.totalMs = System.currentTimeMillis() - startTime;
+        RetrievalTimings stageTimings = timings.build();
         LOG.info(String.format(
                 "RAG retrieval complete: %d final results in %dms "
-              + "(Stage1-BM25=%d, Stage2-Vector=%d, merged=%d%s)",
-                topResults.size(), duration,
+              + "(Stage1-BM25=%d, Stage2-Vector=%d, merged=%d%s) %s",
+                topResults.size(), stageTimings.totalMs,
                 lexicalResults.size(), semanticResults.size(), merged.size(),
-                willRerank ? ", Stage3-Reranked" : ""));
+                willRerank ? ", Stage3-Reranked" : "", stageTimings));
+
+        return new RetrievalResult(new ArrayList<>(topResults), stageTimings);
+    }
+
+    /**
+     * Run the reranker, waiting at most {@link RerankerClient#getLatencyBudgetMs()}. A late call is
+     * not interrupted, so its scores still reach the reranker's cache for follow-up queries.
+     */
+    private static float[] rerankWithinBudget(final RerankerClient reranker, final String query,
+                                              final List<String> passages, RetrievalTimings.Builder timings)
+            throws Exception {
+        long budget = reranker.getLatencyBudgetMs();
+        if (budget <= 0) {
+            return reranker.rerank(query, passages);
+        }
+        Future<float[]> future = STAGE_EXECUTOR.submit(() -> reranker.rerank(query, passages));
+        try {
+            return future.get(budget, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timings.rerankTimedOut = true;
+            throw new TimeoutException("latency budget of " + budget + "ms exceeded");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
 
-        return new ArrayList<>(topResults);
+    /**
+     * Wait for a stage until its deadline. A late stage is cancelled and yields {@code null};
+     * a failed stage yields an empty list.
+     */
+    private static List<ScoredChunk> awaitStage(Future<List<ScoredChunk>> future, String stage, long deadline) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            long remaining = Math.max(0, deadline - System.currentTimeMillis());
+            return future.get(remaining, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOG.warning(stage + " missed its deadline, continuing without it");
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            LOG.warning(stage + " failed: " + e.getCause());
+            return Collections.emptyList();
+        }
     }
 
     /**
@@ -370,6 +472,42 @@ public class HybridRetriever {
         return result;
     }
 
+    /**
+     * Reciprocal rank fusion: each list contributes {@code weight / (k + rank)} per chunk, so only
+     * the rank positions matter and differently scaled BM25 and cosine scores need no normalization.
+     * Both inputs must be ordered best-first.
+     */
+    private List<ScoredChunk> mergeByReciprocalRank(List<ScoredChunk> lexical, List<ScoredChunk> semantic) {
+        int k = config.getRrfK();
+        Map<String, MergedScore> scoreMap = new LinkedHashMap<>();
+
+        for (int rank = 0; rank < lexical.size(); rank++) {
+            ScoredChunk sc = lexical.get(rank);
+            MergedScore ms = scoreMap.get(sc.getChunkId());
+            if (ms == null) {
+                scoreMap.put(sc.getChunkId(), new MergedScore(sc.getChunk(), 1f / (k + rank + 1), 0));
+            }
+        }
+        for (int rank = 0; rank < semantic.size(); rank++) {
+            ScoredChunk sc = semantic.get(rank);
+            MergedScore ms = scoreMap.get(sc.getChunkId());
+            if (ms == null) {
+                scoreMap.put(sc.getChunkId(), new MergedScore(sc.getChunk(), 0, 1f / (k + rank + 1)));
+            } else if (ms.semanticScore == 0) {
+                ms.semanticScore = 1f / (k + rank + 1);
+            }
+        }
+
+        List<ScoredChunk> result = new ArrayList<>(scoreMap.size());
+        float wLex = config.getWeightLexical();
+        float wSem = config.getWeightSemantic();
+        for (MergedScore ms : scoreMap.values()) {
+            float finalScore = wLex * ms.lexicalScore + wSem * ms.semanticScore;
+            result.add(new ScoredChunk(ms.chunk, finalScore, ScoredChunk.ScoreSource.HYBRID));
+        }
+        return result;
+    }
+
     /**
      * Get retrieval statistics.
      */
@@ -394,6 +532,84 @@ public class HybridRetriever {
         }
     }
 
+    /**
+     * Ranked chunks plus the timings of the retrieval that produced them.
+     */
+    public static class RetrievalResult {
+        private final List<ScoredChunk> chunks;
+        private final RetrievalTimings timings;
+
+        public RetrievalResult(List<ScoredChunk> chunks, RetrievalTimings timings) {
+            this.chunks = chunks;
+            this.timings = timings;
+        }
+
+        public List<ScoredChunk> getChunks() {
+            return chunks;
+        }
+
+        public RetrievalTimings getTimings() {
+            return timings;
+        }
+    }
+
+    /**
+     * Wall-clock milliseconds per retrieval stage. Stage 1 and Stage 2 overlap, so
+     * {@code totalMs} is less than the sum. A stage that did not run reports 0.
+     */
+    public static class RetrievalTimings {
+        static final RetrievalTimings NONE = new Builder().build();
+
+        public final long lexicalMs;
+        public final long embeddingMs;
+        public final long semanticMs;
+        public final long mergeMs;
+        public final long rerankMs;
+        public final long totalMs;
+        public final boolean lexicalTimedOut;
+        public final boolean semanticTimedOut;
+        public final boolean rerankTimedOut;
+
+        private RetrievalTimings(Builder b) {
+            this.lexicalMs = b.lexicalMs;
+            this.embeddingMs = b.embeddingMs;
+            this.semanticMs = b.semanticMs;
+            this.mergeMs = b.mergeMs;
+            this.rerankMs = b.rerankMs;
+            this.totalMs = b.totalMs;
+            this.lexicalTimedOut = b.lexicalTimedOut;
+            this.semanticTimedOut = b.semanticTimedOut;
+            this.rerankTimedOut = b.rerankTimedOut;
+        }
+
+        @Override
+        public String toString() {
+            return "timings{lexical=" + lexicalMs + "ms" + (lexicalTimedOut ? " (timeout)" : "")
+                    + ", embed=" + embeddingMs + "ms"
+                    + ", semantic=" + semanticMs + "ms" + (semanticTimedOut ? " (timeout)" : "")
+                    + ", merge=" + mergeMs + "ms"
+                    + ", rerank=" + rerankMs + "ms" + (rerankTimedOut ? " (timeout)" : "")
+                    + ", total=" + totalMs + "ms}";
+        }
+
+        /** Collects timings while the stages run; stage threads write, the caller reads after awaiting. */
+        static class Builder {
+            volatile long lexicalMs;
+            volatile long embeddingMs;
+            volatile long semanticMs;
+            long mergeMs;
+            long rerankMs;
+            long totalMs;
+            boolean lexicalTimedOut;
+            boolean semanticTimedOut;
+            boolean rerankTimedOut;
+
+            RetrievalTimings build() {
+                return new RetrievalTimings(this);
+            }
+        }
+    }
+
     public static class RetrievalStats {
         public final int lexicalSize;
         public final int semanticSize;
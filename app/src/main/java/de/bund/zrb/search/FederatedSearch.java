@@ -0,0 +1,303 @@
+package de.bund.zrb.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One federated search in flight: the Lucene, semantic and live backend searches run
+ * concurrently, and each source's new results are merged and handed to {@code onResult}
+ * as soon as that source completes, regardless of the order the sources were started in.
+ *
+ * <p>Merging keeps the rules of the sequential search, independent of arrival order:
+ * a chunk found by both the lexical and the semantic search is boosted; live results are
+ * dropped if their document is already in the results, and a live result is replaced
+ * when the index delivers the same document later. Batches passed to {@code onResult}
+ * are therefore provisional; the future's value is the final, sorted list.
+ *
+ * <p>{@link #cancel} interrupts all source searches still running and suppresses
+ * further callbacks, so a superseded search stops using the worker threads.
+ */
+class FederatedSearch implements Future<List<SearchResult>> {
+
+    private static final Logger LOG = Logger.getLogger(FederatedSearch.class.getName());
+
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "SearchTimeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    enum Kind { LEXICAL, SEMANTIC, LIVE }
+
+    /**
+     * Turns the merged results into the final list (sorting, trimming, reranking).
+     */
+    interface Finisher {
+        /**
+         * @param complete false if a source failed or timed out, so the results lack its part
+         */
+        List<SearchResult> finish(List<SearchResult> merged, List<String> warnings, boolean complete);
+    }
+
+    private final Consumer<List<SearchResult>> onResult;
+    private volatile Finisher finisher;
+    private volatile ExecutorService executor;
+    private volatile boolean sourceFailed;
+    private final CompletableFuture<List<SearchResult>> result = new CompletableFuture<>();
+    private final List<Source> sources = new ArrayList<>();
+    private final List<String> warnings = Collections.synchronizedList(new ArrayList<String>());
+    private volatile boolean cancelled;
+
+    // Guarded by this
+    private final Map<String, SearchResult> merged = new LinkedHashMap<>();
+    private final Map<String, Kind> chunkOrigin = new HashMap<>();
+    private final Set<String> documentIds = new HashSet<>();
+    private int pending;
+
+    /**
+     * @param onResult called with the new results of each source as it completes; may be null
+     */
+    FederatedSearch(Consumer<List<SearchResult>> onResult) {
+        this.onResult = onResult;
+    }
+
+    void addSource(String label, Kind kind, Callable<List<SearchResult>> search) {
+        sources.add(new Source(label, kind, search));
+    }
+
+    void addWarning(String warning) {
+        warnings.add(warning);
+    }
+
+    /** Warnings collected so far (failed or timed out live backends). */
+    List<String> getWarnings() {
+        synchronized (warnings) {
+            return new ArrayList<>(warnings);
+        }
+    }
+
+    /**
+     * Submit all sources. Live sources that take longer than {@code liveTimeoutMs} are
+     * cancelled and reported as a warning.
+     */
+    void start(ExecutorService executor, long liveTimeoutMs, Finisher finisher) {
+        this.finisher = finisher;
+        this.executor = executor;
+        synchronized (this) {
+            pending = sources.size();
+        }
+        if (sources.isEmpty()) {
+            finish();
+            return;
+        }
+        for (final Source source : sources) {
+            if (cancelled) return;
+            source.future = executor.submit(() -> run(source));
+            if (source.kind == Kind.LIVE && liveTimeoutMs > 0) {
+                TIMEOUTS.schedule(() -> timeOut(source), liveTimeoutMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void run(Source source) {
+        List<SearchResult> found;
+        try {
+            found = source.search.call();
+        } catch (Exception e) {
+            if (!source.done.compareAndSet(false, true)) return;
+            sourceFailed = true;
+            if (!cancelled) {
+                LOG.log(Level.WARNING, "[Search] " + source.label + " search failed", e);
+                if (source.kind == Kind.LIVE) {
+                    warnings.add(source.label + ": " + e.getMessage());
+                }
+            }
+            completed(source, Collections.<SearchResult>emptyList());
+            return;
+        }
+        if (source.done.compareAndSet(false, true)) {
+            completed(source, found != null ? found : Collections.<SearchResult>emptyList());
+        }
+    }
+
+    private void timeOut(Source source) {
+        if (!source.done.compareAndSet(false, true)) return;
+        sourceFailed = true;
+        source.future.cancel(true);
+        warnings.add(source.label + ": Zeitüberschreitung bei Live-Suche");
+        LOG.warning("[Search] Live " + source.label + " timed out");
+        // If this was the last source, finish() reranks and prefetches; keep that off the shared timeout thread
+        try {
+            executor.execute(() -> completed(source, Collections.<SearchResult>emptyList()));
+        } catch (RejectedExecutionException e) {
+            completed(source, Collections.<SearchResult>emptyList());
+        }
+    }
+
+    private void completed(Source source, List<SearchResult> found) {
+        boolean last;
+        synchronized (this) {
+            if (cancelled) return;
+            List<SearchResult> added = source.kind == Kind.LIVE ? mergeLive(found) : mergeIndexed(found, source.kind);
+            LOG.fine("[Search] " + source.label + ": " + found.size() + " total, " + added.size() + " new");
+            if (onResult != null && !added.isEmpty()) {
+                try {
+                    onResult.accept(added);
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "[Search] Result callback failed", e);
+                }
+            }
+            last = --pending == 0;
+        }
+        if (last) {
+            finish();
+        }
+    }
+
+    /**
+     * Lexical or semantic results: merged by chunk, boosted if the other kind found the chunk too.
+     */
+    private List<SearchResult> mergeIndexed(List<SearchResult> found, Kind kind) {
+        List<SearchResult> added = new ArrayList<>();
+        for (SearchResult r : found) {
+            String key = "chunk:" + (r.getChunkId() != null ? r.getChunkId() : r.getDocumentId());
+            SearchResult existing = merged.get(key);
+            if (existing != null) {
+                if (chunkOrigin.get(key) != kind) {
+                    // Found by lexical and semantic search: boost, keep the lexical snippet
+                    SearchResult lex = kind == Kind.LEXICAL ? r : existing;
+                    float boosted = Math.max(existing.getScore(), r.getScore()) * 1.2f;
+                    merged.put(key, new SearchResult(
+                            lex.getSource(), lex.getDocumentId(), lex.getDocumentName(),
+                            lex.getPath(), lex.getSnippet(), boosted,
+                            lex.getChunkId(), lex.getHeading()));
+                    chunkOrigin.put(key, kind);
+                }
+                continue;
+            }
+            // The index wins over a live result for the same document
+            merged.remove("live:" + r.getDocumentId());
+            merged.put(key, r);
+            chunkOrigin.put(key, kind);
+            documentIds.add(r.getDocumentId());
+            added.add(r);
+        }
+        return added;
+    }
+
+    /**
+     * Live results: only documents not found by any source so far.
+     */
+    private List<SearchResult> mergeLive(List<SearchResult> found) {
+        List<SearchResult> added = new ArrayList<>();
+        for (SearchResult r : found) {
+            if (documentIds.add(r.getDocumentId())) {
+                merged.put("live:" + r.getDocumentId(), r);
+                added.add(r);
+            }
+        }
+        return added;
+    }
+
+    private void finish() {
+        List<SearchResult> all;
+        synchronized (this) {
+            if (cancelled) return;
+            all = new ArrayList<>(merged.values());
+        }
+        try {
+            result.complete(finisher.finish(all, getWarnings(), !sourceFailed));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Complete with results known in advance (e.g. from a cache) instead of running sources;
+     * they are passed to {@code onResult} as a single batch.
+     */
+    void completeWith(List<SearchResult> results) {
+        synchronized (this) {
+            if (cancelled) return;
+            if (onResult != null && !results.isEmpty()) {
+                try {
+                    onResult.accept(new ArrayList<>(results));
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "[Search] Result callback failed", e);
+                }
+            }
+        }
+        result.complete(results);
+    }
+
+    // ─── Future ───
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            cancelled = true;
+        }
+        for (Source source : sources) {
+            Future<?> f = source.future;
+            if (f != null) {
+                f.cancel(mayInterruptIfRunning);
+            }
+        }
+        return result.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return result.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    @Override
+    public List<SearchResult> get() throws InterruptedException, ExecutionException {
+        return result.get();
+    }
+
+    @Override
+    public List<SearchResult> get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return result.get(timeout, unit);
+    }
+
+    private static class Source {
+        final String label;
+        final Kind kind;
+        final Callable<List<SearchResult>> search;
+        final AtomicBoolean done = new AtomicBoolean();
+        volatile Future<?> future;
+
+        Source(String label, Kind kind, Callable<List<SearchResult>> search) {
+            this.label = label;
+            this.kind = kind;
+            this.search = search;
+        }
+    }
+}
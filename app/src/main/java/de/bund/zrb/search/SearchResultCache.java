@@ -0,0 +1,112 @@
+package de.bund.zrb.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Results of recent federated searches, so repeating a query (going back to it, changing only
+ * the sort order) does not run BM25, embeddings, live backends and the reranker again.
+ *
+ * <p>Keyed by normalized query, source set, network zone, result limit and whether semantic
+ * search and the reranker took part. An entry holds the
+ * index generation it was computed at and is dropped once the index has changed; entries that
+ * include live backend results also expire after a TTL, since those backends change unseen.
+ * The cache keeps the most recently used entries up to a fixed count.
+ */
+class SearchResultCache {
+
+    private final int maxEntries;
+    private final long liveTtlMs;
+
+    // Access order: the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Entry> entries;
+
+    SearchResultCache(final int maxEntries, long liveTtlMs) {
+        this.maxEntries = maxEntries;
+        this.liveTtlMs = liveTtlMs;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > SearchResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Cache key for a search; queries differing only in case or whitespace share a key.
+     *
+     * @param semantic whether semantic search contributes results
+     * @param reranked whether the results are reranked
+     */
+    static String key(String query, Set<SearchResult.SourceType> sources, String networkZone, int maxResults,
+                      boolean semantic, boolean reranked) {
+        String normalized = query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        Set<String> sourceNames = new TreeSet<>();
+        if (sources != null) {
+            for (SearchResult.SourceType source : sources) {
+                sourceNames.add(source.name());
+            }
+        }
+        return normalized + '\u0000' + sourceNames + '\u0000' + networkZone + '\u0000' + maxResults
+                + '\u0000' + (semantic ? 'S' : '-') + (reranked ? 'R' : '-');
+    }
+
+    /**
+     * The cached entry if it is still valid at the given index generation, otherwise null.
+     */
+    synchronized Entry get(String key, long indexGeneration) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        boolean stale = entry.indexGeneration != indexGeneration
+                || (entry.includesLive && System.currentTimeMillis() - entry.createdAt >= liveTtlMs);
+        if (stale) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * @param indexGeneration index generation read before the search started; -1 disables caching
+     * @param includesLive whether live backends contributed, which limits the entry to the TTL
+     */
+    synchronized void put(String key, List<SearchResult> results, List<String> warnings,
+                          long indexGeneration, boolean includesLive) {
+        if (indexGeneration < 0 || maxEntries <= 0) return;
+        entries.put(key, new Entry(results, warnings, indexGeneration, includesLive));
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    static final class Entry {
+        private final List<SearchResult> results;
+        final List<String> warnings;
+        final long indexGeneration;
+        final boolean includesLive;
+        final long createdAt = System.currentTimeMillis();
+
+        Entry(List<SearchResult> results, List<String> warnings, long indexGeneration, boolean includesLive) {
+            this.results = Collections.unmodifiableList(new ArrayList<>(results));
+            this.warnings = Collections.unmodifiableList(new ArrayList<>(warnings));
+            this.indexGeneration = indexGeneration;
+            this.includesLive = includesLive;
+        }
+
+        /** A copy the caller may modify. */
+        List<SearchResult> results() {
+            return new ArrayList<>(results);
+        }
+    }
+}
@@ -24,9 +24,12 @@ import java.util.logging.Logger;
  * <ol>
  *   <li>Lucene BM25 full-text search (covers all indexed/cached content)</li>
  *   <li>Optional RAG hybrid search (BM25 + embeddings)</li>
- *   <li>Parallel live backend searches via registered {@link BackendSearchProvider}s</li>
+ *   <li>Live backend searches via registered {@link BackendSearchProvider}s</li>
  *   <li>Merge, deduplicate, sort by score</li>
  * </ol>
+ * Steps 1–3 run concurrently and are merged in completion order (see {@link FederatedSearch}).
+ * Final results are cached per query until the index changes (live parts: for a few minutes),
+ * see {@link SearchResultCache}.
  */
 public class SearchService {
 
@@ -34,17 +37,27 @@ public class SearchService {
 
     private static volatile SearchService instance;
 
+    /** Live backends that take longer are dropped from the results with a warning. */
+    private static final long LIVE_TIMEOUT_MS = 20_000;
+    /** Cached results that include live backend hits are reused for this long. */
+    private static final long LIVE_CACHE_TTL_MS = 5 * 60_000;
+    private static final int CACHED_SEARCHES = 64;
+
     private final ExecutorService executor;
 
+    /** Recent results by query; invalidated by the index generation, live parts by TTL. */
+    private final SearchResultCache resultCache = new SearchResultCache(CACHED_SEARCHES, LIVE_CACHE_TTL_MS);
+
     /** Registered live-search backend providers (one per SourceType). */
     private final ConcurrentHashMap<SearchResult.SourceType, BackendSearchProvider> backendProviders =
             new ConcurrentHashMap<SearchResult.SourceType, BackendSearchProvider>();
 
-    /** Warnings from the last search (e.g. "Mail: not yet implemented"). Thread-confined to caller. */
+    /** Warnings from the last completed search (e.g. "Mail: not yet implemented"). */
     private volatile List<String> lastSearchWarnings = Collections.emptyList();
 
     private SearchService() {
-        this.executor = Executors.newFixedThreadPool(4, r -> {
+        // Lucene, semantic and each live backend search on their own worker
+        this.executor = Executors.newFixedThreadPool(8, r -> {
             Thread t = new Thread(r, "SearchWorker");
             t.setDaemon(true);
             return t;
@@ -74,6 +87,7 @@ public class SearchService {
     public void registerBackendSearchProvider(BackendSearchProvider provider) {
         if (provider != null && provider.getSourceType() != null) {
             backendProviders.put(provider.getSourceType(), provider);
+            resultCache.clear();
             LOG.info("[Search] Registered backend search provider: " + provider.getSourceType());
         }
     }
@@ -84,6 +98,7 @@ public class SearchService {
     public void unregisterBackendSearchProvider(SearchResult.SourceType type) {
         if (type != null) {
             backendProviders.remove(type);
+            resultCache.clear();
         }
     }
 
@@ -100,151 +115,150 @@ public class SearchService {
 
     /**
      * Search across all enabled sources.
+     * <p>
+     * Lucene, semantic and live backend searches run concurrently; {@code onResult} receives
+     * the new results of each source the moment it completes (on a worker thread). Cancelling
+     * the returned future interrupts the searches still running, e.g. when a new query supersedes
+     * this one.
      *
      * @param query       the search query
      * @param sources     which source types to search
      * @param maxResults  max results per source
      * @param useRag      whether to use RAG hybrid search (BM25 + embeddings)
      * @param networkZone network zone filter: "INTERN", "EXTERN", or null for all
-     * @param onResult    callback invoked for each batch of results (on calling thread context)
-     * @return future that completes when all sources are searched
+     * @param onResult    callback invoked for each batch of new results, in completion order
+     * @return future with the final merged, sorted and reranked results
      */
-    public Future<List<SearchResult>> searchAsync(String query, Set<SearchResult.SourceType> sources,
-                                                    int maxResults, boolean useRag, String networkZone,
+    public Future<List<SearchResult>> searchAsync(final String query, final Set<SearchResult.SourceType> sources,
+                                                    final int maxResults, boolean useRag, final String networkZone,
                                                     Consumer<List<SearchResult>> onResult) {
-        return executor.submit(() -> {
-            List<String> warnings = new ArrayList<String>();
-            List<SearchResult> allResults = new ArrayList<>();
-
-            // ── 1. Lucene BM25 (finds ALL indexed/cached documents) ──
-            try {
-                List<SearchResult> lexResults = searchLucene(query, maxResults);
-                if (!lexResults.isEmpty()) {
-                    List<SearchResult> tagged = tagBySource(lexResults, sources);
-                    allResults.addAll(tagged);
-                    if (onResult != null) onResult.accept(tagged);
-                }
-            } catch (Exception e) {
-                LOG.log(Level.WARNING, "[Search] Lucene search failed", e);
-            }
-
-            // ── 2. Hybrid Search (BM25 + Embeddings) ──
-            // Embeddings widen the search net: "Auto" also finds "KFZ", "Wagen".
-            // This is OPTIONAL — the reranker works on BM25-only candidates too.
-            // When active, semantic results are merged into the candidate pool.
-            if (isSemanticAvailable()) {
+        final FederatedSearch search = new FederatedSearch(onResult);
+        // Planning touches the RAG service and the mail freshness check, so it stays off the caller's thread
+        executor.execute(() -> {
+            if (search.isCancelled()) return;
+            if (sources.contains(SearchResult.SourceType.MAIL)) {
+                // Mail is indexed via Lucene (MailService → MailIndexUpdater → RagService)
+                // so MAIL results come from the Lucene BM25 path.
+                // Trigger freshness check to ensure index is up-to-date before search.
                 try {
-                    List<SearchResult> semResults = searchRag(query, maxResults);
-                    if (!semResults.isEmpty()) {
-                        List<SearchResult> tagged = tagBySource(semResults, sources);
-                        mergeSemanticInto(allResults, tagged);
-                    }
-                } catch (Exception e) {
-                    LOG.log(Level.WARNING, "[Search] Semantic search failed", e);
-                }
+                    de.bund.zrb.mail.service.MailService.getInstance().freshnessCheckBeforeSearch();
+                } catch (Exception ignored) {}
             }
-
-            // ── 3. Parallel live backend searches ──
-            List<Future<List<SearchResult>>> liveFutures = new ArrayList<Future<List<SearchResult>>>();
-            final List<SearchResult.SourceType> liveTypes = new ArrayList<SearchResult.SourceType>();
-            final String zone = networkZone; // effectively final for lambda
-
-            for (final SearchResult.SourceType src : sources) {
-                // Skip types that don't have live backends or are not yet implemented
-                if (src == SearchResult.SourceType.RAG) continue;
-                // ARCHIVE is no longer a separate search path — it's transparent
-                if (src == SearchResult.SourceType.ARCHIVE) continue;
-
-                // Check for "not yet implemented" backends
-                if (src == SearchResult.SourceType.MAIL) {
-                    // Mail is indexed via Lucene (MailService → MailIndexUpdater → RagService)
-                    // so MAIL results come from the Lucene BM25 path above.
-                    // Trigger freshness check to ensure index is up-to-date before search.
-                    try {
-                        de.bund.zrb.mail.service.MailService.getInstance().freshnessCheckBeforeSearch();
-                    } catch (Exception ignored) {}
-                    continue;
+            // Semantic search and the reranker change the results, so they are part of the key
+            final boolean semantic = isSemanticAvailable();
+            final boolean rerank = isRerankerAvailable();
+            final String cacheKey = SearchResultCache.key(query, sources, networkZone, maxResults, semantic, rerank);
+            // Read before the searches run: a reopen during the search only makes the entry expire early
+            final long generation = RagService.getInstance().getIndexGeneration();
+            SearchResultCache.Entry cached = resultCache.get(cacheKey, generation);
+            if (cached != null) {
+                LOG.fine("[Search] Cache hit for: " + query);
+                lastSearchWarnings = cached.warnings;
+                search.completeWith(cached.results());
+                return;
+            }
+            final boolean live = planSources(search, query, sources, maxResults, networkZone, semantic);
+            search.start(executor, LIVE_TIMEOUT_MS, (merged, warnings, complete) -> {
+                lastSearchWarnings = warnings;
+                List<SearchResult> results = sortAndTrim(merged, maxResults);
+                // ── Reranking: Re-score ALL merged results (replaces BM25 scoring) ──
+                // The reranker works on RAW TEXT, not on vectors! It re-scores each
+                // (query, passage) pair through a cross-encoder — REPLACING the BM25
+                // scoring with much more accurate relevance scores.
+                //
+                // Embeddings are NOT required. The reranker can rescore BM25-only
+                // candidates just fine. Embeddings only widen the candidate pool.
+                //
+                // Pipeline: 1 (BM25) [+2 (optional Embeddings)] → 3 (Reranking) → 4 (optional LLM)
+                boolean rerankFailed = false;
+                if (rerank) {
+                    List<SearchResult> reranked = rerankFinalResults(results, query, maxResults);
+                    rerankFailed = reranked == null;
+                    if (!rerankFailed) {
+                        results = reranked;
+                    }
                 }
-                if (src == SearchResult.SourceType.SHAREPOINT) {
-                    warnings.add("\uD83D\uDCCA SharePoint-Suche: noch nicht implementiert");
-                    continue;
+                triggerPrefetch(results);
+                // Results in the unreranked fallback order are shown but not cached
+                if (complete && !rerankFailed) {
+                    resultCache.put(cacheKey, results, warnings, generation, live);
                 }
+                return results;
+            });
+        });
+        return search;
+    }
 
-                BackendSearchProvider provider = backendProviders.get(src);
-                if (provider == null || !provider.isAvailable()) continue;
-
-                liveTypes.add(src);
-                final BackendSearchProvider p = provider;
-                final int max = maxResults;
-                liveFutures.add(executor.submit(new Callable<List<SearchResult>>() {
-                    @Override
-                    public List<SearchResult> call() throws Exception {
-                        return p.search(query, max, zone);
-                    }
-                }));
-            }
+    /**
+     * Forget all cached search results, e.g. after backend settings changed.
+     */
+    public void clearResultCache() {
+        resultCache.clear();
+    }
 
-            // Collect live results (with timeout per provider)
-            for (int i = 0; i < liveFutures.size(); i++) {
-                SearchResult.SourceType src = liveTypes.get(i);
-                try {
-                    List<SearchResult> liveResults = liveFutures.get(i).get(20, TimeUnit.SECONDS);
-                    if (liveResults != null && !liveResults.isEmpty()) {
-                        // Merge: skip duplicates (same documentId)
-                        Set<String> existingIds = new HashSet<String>();
-                        for (SearchResult r : allResults) {
-                            existingIds.add(r.getDocumentId());
-                        }
-                        List<SearchResult> newResults = new ArrayList<SearchResult>();
-                        for (SearchResult lr : liveResults) {
-                            if (!existingIds.contains(lr.getDocumentId())) {
-                                newResults.add(lr);
-                            }
-                        }
-                        allResults.addAll(newResults);
-                        if (onResult != null && !newResults.isEmpty()) {
-                            onResult.accept(newResults);
-                        }
-                        LOG.fine("[Search] Live " + src + ": " + liveResults.size()
-                                + " total, " + newResults.size() + " new");
-                    }
-                } catch (TimeoutException te) {
-                    warnings.add(src.getLabel() + ": Zeitüberschreitung bei Live-Suche");
-                    LOG.warning("[Search] Live " + src + " timed out");
-                } catch (Exception e) {
-                    warnings.add(src.getLabel() + ": " + e.getMessage());
-                    LOG.log(Level.WARNING, "[Search] Live " + src + " failed", e);
-                }
-            }
+    /**
+     * Register the searches of one federated search:
+     * <ol>
+     *   <li>Lucene BM25 (finds ALL indexed/cached documents)</li>
+     *   <li>Semantic search, if the index has embeddings</li>
+     *   <li>One live search per available backend provider</li>
+     * </ol>
+     *
+     * @param semantic whether the semantic index has embeddings
+     * @return whether a live backend takes part
+     */
+    private boolean planSources(FederatedSearch search, final String query, final Set<SearchResult.SourceType> sources,
+                                final int maxResults, final String zone, boolean semantic) {
+        boolean live = false;
+        search.addSource("Lucene", FederatedSearch.Kind.LEXICAL,
+                () -> tagBySource(searchLucene(query, maxResults), sources));
+
+        // Embeddings widen the search net: "Auto" also finds "KFZ", "Wagen".
+        // This is OPTIONAL — the reranker works on BM25-only candidates too.
+        // When active, semantic results are merged into the candidate pool.
+        if (semantic) {
+            search.addSource("Semantik", FederatedSearch.Kind.SEMANTIC,
+                    () -> tagBySource(searchRag(query, maxResults), sources));
+        }
 
-            lastSearchWarnings = warnings;
+        for (final SearchResult.SourceType src : sources) {
+            // Skip types that don't have live backends or are not yet implemented
+            if (src == SearchResult.SourceType.RAG) continue;
+            // ARCHIVE is no longer a separate search path — it's transparent
+            if (src == SearchResult.SourceType.ARCHIVE) continue;
 
-            // Sort all results by score
-            Collections.sort(allResults);
+            // Mail has no live backend, see the freshness check in searchAsync
+            if (src == SearchResult.SourceType.MAIL) continue;
 
-            // Trim to maxResults
-            if (allResults.size() > maxResults) {
-                allResults = new ArrayList<>(allResults.subList(0, maxResults));
+            // Check for "not yet implemented" backends
+            if (src == SearchResult.SourceType.SHAREPOINT) {
+                search.addWarning("\uD83D\uDCCA SharePoint-Suche: noch nicht implementiert");
+                continue;
             }
 
-            // ── 4. Reranking: Re-score ALL merged results (replaces BM25 scoring) ──
-            // The reranker works on RAW TEXT, not on vectors! It re-scores each
-            // (query, passage) pair through a cross-encoder — REPLACING the BM25
-            // scoring with much more accurate relevance scores.
-            //
-            // Embeddings are NOT required. The reranker can rescore BM25-only
-            // candidates just fine. Embeddings only widen the candidate pool.
-            //
-            // Pipeline: 1 (BM25) [+2 (optional Embeddings)] → 3 (Reranking) → 4 (optional LLM)
-            if (isRerankerAvailable()) {
-                allResults = rerankFinalResults(allResults, query, maxResults);
-            }
+            final BackendSearchProvider provider = backendProviders.get(src);
+            if (provider == null || !provider.isAvailable()) continue;
 
-            // ── 5. Trigger prefetch of content for live results ──
-            triggerPrefetch(allResults);
+            search.addSource(src.getLabel(), FederatedSearch.Kind.LIVE,
+                    () -> provider.search(query, maxResults, zone));
+            live = true;
+        }
+        return live;
+    }
 
-            return allResults;
-        });
+    /**
+     * First step once all sources are in: sort by score and trim to the limit.
+     */
+    private static List<SearchResult> sortAndTrim(List<SearchResult> allResults, int maxResults) {
+        // Sort all results by score
+        Collections.sort(allResults);
+
+        // Trim to maxResults
+        if (allResults.size() > maxResults) {
+            allResults = new ArrayList<>(allResults.subList(0, maxResults));
+        }
+
+        return allResults;
     }
 
     /**
@@ -252,10 +266,11 @@ public class SearchService {
      */
     public List<SearchResult> search(String query, Set<SearchResult.SourceType> sources,
                                       int maxResults, boolean useRag, String networkZone) {
+        Future<List<SearchResult>> search = searchAsync(query, sources, maxResults, useRag, networkZone, null);
         try {
-            return searchAsync(query, sources, maxResults, useRag, networkZone, null)
-                    .get(30, TimeUnit.SECONDS);
+            return search.get(30, TimeUnit.SECONDS);
         } catch (Exception e) {
+            search.cancel(true);
             LOG.log(Level.WARNING, "[Search] Search failed", e);
             return Collections.emptyList();
         }
@@ -390,7 +405,9 @@ public class SearchService {
      * backend results (Wiki, Confluence) are also reranked, not just the
      * Lucene-indexed content.
      * <p>
-     * Best-effort: if reranking fails, the original results are returned unchanged.
+     * Best-effort: if reranking fails, the caller keeps the original results.
+     *
+     * @return the reranked results, or null if reranking failed
      */
     private List<SearchResult> rerankFinalResults(List<SearchResult> results, String query, int maxResults) {
         if (results == null || results.size() <= 1) return results;
@@ -456,39 +473,7 @@ public class SearchService {
             return reranked;
         } catch (Exception e) {
             LOG.log(Level.WARNING, "[Search] Final reranking failed, using original order", e);
-            return results;
-        }
-    }
-
-    /**
-     * Merge semantic results into the existing result list.
-     * If a document appears in both, boost its score.
-     * If it only appears in semantic, add it.
-     */
-    private void mergeSemanticInto(List<SearchResult> existing, List<SearchResult> semantic) {
-        // Build lookup by chunkId for existing results
-        Map<String, SearchResult> existingByChunk = new LinkedHashMap<>();
-        for (SearchResult r : existing) {
-            existingByChunk.put(r.getChunkId(), r);
-        }
-
-        for (SearchResult sem : semantic) {
-            SearchResult lex = existingByChunk.get(sem.getChunkId());
-            if (lex != null) {
-                // Found in both – boost: replace with higher score
-                float boosted = Math.max(lex.getScore(), sem.getScore()) * 1.2f;
-                int idx = existing.indexOf(lex);
-                if (idx >= 0) {
-                    existing.set(idx, new SearchResult(
-                            lex.getSource(), lex.getDocumentId(), lex.getDocumentName(),
-                            lex.getPath(), lex.getSnippet(), boosted,
-                            lex.getChunkId(), lex.getHeading()
-                    ));
-                }
-            } else {
-                // Only in semantic – add it
-                existing.add(sem);
-            }
+            return null;
         }
     }
 
@@ -3,6 +3,7 @@ package de.bund.zrb.service;
 import de.bund.zrb.archive.model.ArchiveEntry;
 import de.bund.zrb.archive.model.ArchiveEntryStatus;
 import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 import de.bund.zrb.files.api.FileService;
 import de.bund.zrb.files.model.FileNode;
 import de.bund.zrb.files.model.FilePayload;
@@ -32,6 +33,9 @@ public class FtpSourceCacheService {
 
     private static final Logger LOG = Logger.getLogger(FtpSourceCacheService.class.getName());
 
+    private static final int H2_BATCH_SIZE = 50;
+    private static final long H2_BATCH_DELAY_MS = 500;
+
     /** Prefix for FTP document IDs in Lucene / CacheRepository. */
     private static final String FTP_PREFIX = "FTP:";
 
@@ -41,6 +45,10 @@ public class FtpSourceCacheService {
     /** Dedicated single-thread executor for Lucene indexing (avoids contention). */
     private final ExecutorService indexExecutor;
 
+    /** Collects the H2 entries written by the indexer so a prefetch saves them in batches. */
+    private final CacheWriteBuffer h2Buffer =
+            new CacheWriteBuffer(CacheRepository.getInstance(), H2_BATCH_SIZE, H2_BATCH_DELAY_MS);
+
     /** In-memory content cache: "host/absolutePath" → content text. O(1) lookup. */
     private final ConcurrentHashMap<String, String> memoryCache =
             new ConcurrentHashMap<String, String>();
@@ -191,6 +199,7 @@ public class FtpSourceCacheService {
             @Override
             public void run() {
                 try {
+                    h2Buffer.flush();
                     CacheRepository repo = CacheRepository.getInstance();
                     List<ArchiveEntry> all = repo.findAll();
                     int removed = 0;
@@ -449,6 +458,7 @@ public class FtpSourceCacheService {
 
     /** Shut down background threads. */
     public void shutdown() {
+        h2Buffer.flush();
         for (Future<?> f : activePrefetches.values()) {
             f.cancel(true);
         }
@@ -467,7 +477,10 @@ public class FtpSourceCacheService {
         try {
             CacheRepository repo = CacheRepository.getInstance();
 
-            ArchiveEntry existing = repo.findByUrl(url);
+            ArchiveEntry existing = h2Buffer.getPending(url);
+            if (existing == null) {
+                existing = repo.findByUrl(url);
+            }
             ArchiveEntry entry;
             if (existing != null) {
                 entry = existing;
@@ -494,7 +507,7 @@ public class FtpSourceCacheService {
             meta.put("ftp_file_size", String.valueOf(fileSize));
             meta.put("ftp_last_modified", String.valueOf(lastModified));
 
-            repo.save(entry);
+            h2Buffer.add(entry);
         } catch (Exception e) {
             LOG.log(Level.WARNING, "[FtpCache] H2 persist failed for: " + url, e);
         }
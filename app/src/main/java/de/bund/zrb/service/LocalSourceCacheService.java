@@ -3,6 +3,7 @@ package de.bund.zrb.service;
 import de.bund.zrb.archive.model.ArchiveEntry;
 import de.bund.zrb.archive.model.ArchiveEntryStatus;
 import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 import de.bund.zrb.files.model.FileNode;
 import de.bund.zrb.rag.service.RagService;
 
@@ -31,6 +32,9 @@ public class LocalSourceCacheService {
 
     private static final Logger LOG = Logger.getLogger(LocalSourceCacheService.class.getName());
 
+    private static final int H2_BATCH_SIZE = 50;
+    private static final long H2_BATCH_DELAY_MS = 500;
+
     /** Prefix for LOCAL document IDs in Lucene / CacheRepository. */
     private static final String LOCAL_PREFIX = "LOCAL:";
 
@@ -40,6 +44,10 @@ public class LocalSourceCacheService {
     /** Dedicated single-thread executor for Lucene indexing (avoids contention). */
     private final ExecutorService indexExecutor;
 
+    /** Collects the H2 entries written by the indexer so a prefetch saves them in batches. */
+    private final CacheWriteBuffer h2Buffer =
+            new CacheWriteBuffer(CacheRepository.getInstance(), H2_BATCH_SIZE, H2_BATCH_DELAY_MS);
+
     /** In-memory content cache: normalized path → content text. O(1) lookup. */
     private final ConcurrentHashMap<String, String> memoryCache =
             new ConcurrentHashMap<String, String>();
@@ -182,6 +190,7 @@ public class LocalSourceCacheService {
             @Override
             public void run() {
                 try {
+                    h2Buffer.flush();
                     CacheRepository repo = CacheRepository.getInstance();
                     List<ArchiveEntry> all = repo.findAll();
                     int removed = 0;
@@ -441,6 +450,7 @@ public class LocalSourceCacheService {
 
     /** Shut down background threads. */
     public void shutdown() {
+        h2Buffer.flush();
         for (Future<?> f : activePrefetches.values()) {
             f.cancel(true);
         }
@@ -459,7 +469,10 @@ public class LocalSourceCacheService {
         try {
             CacheRepository repo = CacheRepository.getInstance();
 
-            ArchiveEntry existing = repo.findByUrl(url);
+            ArchiveEntry existing = h2Buffer.getPending(url);
+            if (existing == null) {
+                existing = repo.findByUrl(url);
+            }
             ArchiveEntry entry;
             if (existing != null) {
                 entry = existing;
@@ -486,7 +499,7 @@ public class LocalSourceCacheService {
             meta.put("local_file_size", String.valueOf(fileSize));
             meta.put("local_last_modified", String.valueOf(lastModified));
 
-            repo.save(entry);
+            h2Buffer.add(entry);
         } catch (Exception e) {
             LOG.log(Level.WARNING, "[LocalCache] H2 persist failed for: " + url, e);
         }
@@ -3,6 +3,7 @@ package de.bund.zrb.service;
 import de.bund.zrb.archive.model.ArchiveEntry;
 import de.bund.zrb.archive.model.ArchiveEntryStatus;
 import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 import de.bund.zrb.ndv.NdvObjectInfo;
 import de.bund.zrb.ndv.NdvService;
 import de.bund.zrb.rag.service.RagService;
@@ -38,6 +39,9 @@ public class NdvSourceCacheService {
 
     private static final Logger LOG = Logger.getLogger(NdvSourceCacheService.class.getName());
 
+    private static final int H2_BATCH_SIZE = 50;
+    private static final long H2_BATCH_DELAY_MS = 500;
+
     /** Prefix for NDV document IDs in Lucene / CacheRepository. */
     private static final String NDV_PREFIX = "NDV:";
 
@@ -47,6 +51,10 @@ public class NdvSourceCacheService {
     /** Dedicated single-thread executor for Lucene indexing (avoids contention). */
     private final ExecutorService indexExecutor;
 
+    /** Collects the H2 entries written by the indexer so a prefetch saves them in batches. */
+    private final CacheWriteBuffer h2Buffer =
+            new CacheWriteBuffer(CacheRepository.getInstance(), H2_BATCH_SIZE, H2_BATCH_DELAY_MS);
+
     /** In-memory source cache: "LIBRARY/OBJNAME" → source text. O(1) lookup. */
     private final ConcurrentHashMap<String, String> memoryCache =
             new ConcurrentHashMap<String, String>();
@@ -202,6 +210,7 @@ public class NdvSourceCacheService {
             public void run() {
                 try {
                     // Remove from H2
+                    h2Buffer.flush();
                     CacheRepository repo = CacheRepository.getInstance();
                     ArchiveEntry existing = repo.findByUrl(url);
                     if (existing != null) {
@@ -249,6 +258,7 @@ public class NdvSourceCacheService {
             public void run() {
                 try {
                     // Remove from H2: find all entries with ndv://LIBRARY/ URL prefix
+                    h2Buffer.flush();
                     CacheRepository repo = CacheRepository.getInstance();
                     String urlPrefix = "ndv://" + libUpper + "/";
                     List<ArchiveEntry> all = repo.findAll();
@@ -590,6 +600,7 @@ public class NdvSourceCacheService {
      * Shut down background threads. Called when the connection tab closes.
      */
     public void shutdown() {
+        h2Buffer.flush();
         // Cancel all running prefetches
         for (Future<?> f : activePrefetches.values()) {
             f.cancel(true);
@@ -610,7 +621,10 @@ public class NdvSourceCacheService {
             CacheRepository repo = CacheRepository.getInstance();
 
             // Check if already exists → update
-            ArchiveEntry existing = repo.findByUrl(url);
+            ArchiveEntry existing = h2Buffer.getPending(url);
+            if (existing == null) {
+                existing = repo.findByUrl(url);
+            }
             ArchiveEntry entry;
             if (existing != null) {
                 entry = existing;
@@ -641,7 +655,7 @@ public class NdvSourceCacheService {
             meta.put("ndv_source_size", String.valueOf(ndvSourceSize));
             meta.put("ndv_source_date", ndvSourceDate != null ? ndvSourceDate : "");
 
-            repo.save(entry);
+            h2Buffer.add(entry);
         } catch (Exception e) {
             LOG.log(Level.WARNING, "[NdvCache] H2 persist failed for: " + url, e);
         }
@@ -3,6 +3,7 @@ package de.bund.zrb.sharepoint;
 import de.bund.zrb.archive.model.ArchiveEntry;
 import de.bund.zrb.archive.model.ArchiveEntryStatus;
 import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 import de.bund.zrb.rag.service.RagService;
 
 import java.util.*;
@@ -25,6 +26,9 @@ public class SharePointCacheService {
 
     private static final Logger LOG = Logger.getLogger(SharePointCacheService.class.getName());
 
+    private static final int H2_BATCH_SIZE = 50;
+    private static final long H2_BATCH_DELAY_MS = 500;
+
     /** Prefix for SharePoint document IDs in Lucene / CacheRepository. */
     public static final String SP_PREFIX = "SP:";
 
@@ -34,6 +38,10 @@ public class SharePointCacheService {
     /** Dedicated single-thread executor for Lucene indexing (avoids contention). */
     private final ExecutorService indexExecutor;
 
+    /** Collects the H2 entries written by the indexer so a prefetch saves them in batches. */
+    private final CacheWriteBuffer h2Buffer =
+            new CacheWriteBuffer(CacheRepository.getInstance(), H2_BATCH_SIZE, H2_BATCH_DELAY_MS);
+
     /** In-memory content cache: "siteUrl/pagePath" → content text. O(1) lookup. */
     private final ConcurrentHashMap<String, String> memoryCache =
             new ConcurrentHashMap<String, String>();
@@ -151,7 +159,6 @@ public class SharePointCacheService {
 
     private void persistToH2(String url, String title, String content) {
         try {
-            CacheRepository repo = CacheRepository.getInstance();
             ArchiveEntry entry = new ArchiveEntry();
             entry.setUrl(url);
             entry.setTitle(title);
@@ -160,7 +167,7 @@ public class SharePointCacheService {
             entry.setFileSizeBytes(content.getBytes(java.nio.charset.StandardCharsets.UTF_8).length);
             entry.setCrawlTimestamp(System.currentTimeMillis());
             entry.setStatus(ArchiveEntryStatus.INDEXED);
-            repo.save(entry);
+            h2Buffer.add(entry);
         } catch (Exception e) {
             LOG.log(Level.WARNING, "[SPCache] H2 persist failed for: " + url, e);
         }
@@ -205,6 +212,7 @@ public class SharePointCacheService {
      * Shut down thread pools.
      */
     public void shutdown() {
+        h2Buffer.flush();
         fetchPool.shutdownNow();
         indexExecutor.shutdownNow();
     }
@@ -17,6 +17,8 @@ import java.awt.event.*;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -61,10 +63,13 @@ public class SearchTab extends JPanel implements AppTab {
 
     // State
     private final List<SearchResult> currentResults = new ArrayList<>();
-    private Future<?> currentSearch = null;
+    private Future<List<SearchResult>> currentSearch = null;
+    private int searchGeneration;   // bumped per query; late callbacks of older queries are dropped
     private String lastQuery = "";
     private SwingWorker<PreviewContent, Void> previewLoader;
     private static final int MAX_PREVIEW_CHARS = 50000;
+    /** Archive documents opened in a tab are loaded up to this size unless the user asks for all. */
+    private static final int MAX_VIEWER_CHARS = 2000000;
 
     /** Lazy-initialized Tika extractor for binary/complex file formats. */
     private volatile de.bund.zrb.ingestion.infrastructure.extractor.TikaFallbackExtractor tikaExtractor;
@@ -487,14 +492,30 @@ public class SearchTab extends JPanel implements AppTab {
 
         long startTime = System.currentTimeMillis();
 
+        // Rows appear as each source completes; the final (sorted, reranked) list replaces them
+        final int generation = ++searchGeneration;
+        final Future<List<SearchResult>> search = searchService.searchAsync(searchQuery, sources, maxResults,
+                false, networkZone, batch -> SwingUtilities.invokeLater(() -> {
+                    if (generation == searchGeneration) appendResults(batch);
+                }));
+        currentSearch = search;
+
         new SwingWorker<List<SearchResult>, Void>() {
             @Override
-            protected List<SearchResult> doInBackground() {
-                return searchService.search(searchQuery, sources, maxResults, false, networkZone);
+            protected List<SearchResult> doInBackground() throws Exception {
+                try {
+                    return search.get(30, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    search.cancel(true);
+                    throw e;
+                }
             }
 
             @Override
             protected void done() {
+                if (generation != searchGeneration || search.isCancelled()) {
+                    return; // superseded by a newer query
+                }
                 try {
                     List<SearchResult> results = get();
                     currentResults.clear();
@@ -553,6 +574,19 @@ public class SearchTab extends JPanel implements AppTab {
 
     private void populateTable(List<SearchResult> results) {
         tableModel.setRowCount(0);
+        addRows(results);
+    }
+
+    /**
+     * Show a batch of results from a source that just completed, below the ones already shown.
+     */
+    private void appendResults(List<SearchResult> batch) {
+        currentResults.addAll(batch);
+        addRows(batch);
+        statusLabel.setText("\uD83D\uDD0D " + currentResults.size() + " Ergebnis(se) bisher\u2026");
+    }
+
+    private void addRows(List<SearchResult> results) {
         for (SearchResult r : results) {
             tableModel.addRow(new Object[]{
                     r.getSource().getIcon(),
@@ -1160,12 +1194,10 @@ public class SearchTab extends JPanel implements AppTab {
                 return;
             }
 
-            // Load text content from Data Lake storage
+            // Stream text content from Data Lake storage
             String content = null;
             if (entry.getTextContentPath() != null && !entry.getTextContentPath().isEmpty()) {
-                de.bund.zrb.archive.service.ArchiveService archiveService =
-                        de.bund.zrb.archive.service.ArchiveService.getInstance();
-                content = archiveService.getStorageService().readContent(entry.getTextContentPath());
+                content = readArchiveText(entry.getTextContentPath());
             }
 
             if (content == null || content.isEmpty()) {
@@ -1199,6 +1231,53 @@ public class SearchTab extends JPanel implements AppTab {
         }
     }
 
+    /**
+     * Read an archive text blob for the viewer. Only the first {@link #MAX_VIEWER_CHARS} characters
+     * are decoded; the rest is read from the same stream only if the user asks for it.
+     */
+    private String readArchiveText(String textContentPath) throws java.io.IOException {
+        java.io.BufferedReader reader = ArchiveService.getInstance().getStorageService().openReader(textContentPath);
+        if (reader == null) return null;
+        try {
+            StringBuilder sb = new StringBuilder();
+            boolean more = readUpTo(reader, sb, MAX_VIEWER_CHARS);
+            if (more) {
+                int choice = JOptionPane.showConfirmDialog(this,
+                        "Das Archiv-Dokument ist länger als " + MAX_VIEWER_CHARS + " Zeichen.\n"
+                                + "Vollständig laden? (Nein = nur den Anfang anzeigen)",
+                        "Großes Dokument", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+                if (choice == JOptionPane.YES_OPTION) {
+                    more = readUpTo(reader, sb, Integer.MAX_VALUE);
+                }
+            }
+            if (more) {
+                sb.append("\n[... gek\u00fcrzt nach ").append(MAX_VIEWER_CHARS).append(" Zeichen]");
+            }
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Append characters until {@code sb} holds {@code limit} of them.
+     *
+     * @return true if the reader has more content
+     */
+    private static boolean readUpTo(java.io.BufferedReader reader, StringBuilder sb, int limit)
+            throws java.io.IOException {
+        char[] buf = new char[8192];
+        int read;
+        while (sb.length() < limit
+                && (read = reader.read(buf, 0, Math.min(buf.length, limit - sb.length()))) != -1) {
+            sb.append(buf, 0, read);
+        }
+        reader.mark(1);
+        boolean more = reader.read() != -1;
+        reader.reset();
+        return more;
+    }
+
     // ═══════════════════════════════════════════════════════════════
     //  Bookmarking (Star)
     // ═══════════════════════════════════════════════════════════════
@@ -24,6 +24,7 @@ public class RagSettingsPanel extends JPanel {
     private final JCheckBox enabledCheckbox;
     private final JSpinner timeoutSpinner;
     private final JSpinner batchSizeSpinner;
+    private final JSpinner concurrencySpinner;
     private final JLabel proxyInfoLabel;
     private final HelpButton helpButton;
 
@@ -83,6 +84,12 @@ public class RagSettingsPanel extends JPanel {
         batchSizeSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 100, 1));
         perfPanel.add(batchSizeSpinner, gbc);
 
+        gbc.gridx = 0; gbc.gridy = 2;
+        perfPanel.add(new JLabel("Parallele Batches:"), gbc);
+        gbc.gridx = 1;
+        concurrencySpinner = new JSpinner(new SpinnerNumberModel(2, 1, 16, 1));
+        perfPanel.add(concurrencySpinner, gbc);
+
         mainPanel.add(perfPanel);
 
         // Proxy-Hinweis
@@ -155,6 +162,9 @@ public class RagSettingsPanel extends JPanel {
         try {
             batchSizeSpinner.setValue(Integer.parseInt(embConfig.getOrDefault("batchSize", "10")));
         } catch (NumberFormatException e) { /* ignore */ }
+        try {
+            concurrencySpinner.setValue(Integer.parseInt(embConfig.getOrDefault("concurrency", "2")));
+        } catch (NumberFormatException e) { /* ignore */ }
     }
 
     /**
@@ -173,6 +183,7 @@ public class RagSettingsPanel extends JPanel {
         settings.embeddingConfig.put("enabled", String.valueOf(enabledCheckbox.isSelected()));
         settings.embeddingConfig.put("timeout", String.valueOf(timeoutSpinner.getValue()));
         settings.embeddingConfig.put("batchSize", String.valueOf(batchSizeSpinner.getValue()));
+        settings.embeddingConfig.put("concurrency", String.valueOf(concurrencySpinner.getValue()));
     }
 
     /**
@@ -188,6 +199,7 @@ public class RagSettingsPanel extends JPanel {
                 .setBaseUrl(providerPanel.getBaseUrl())
                 .setTimeoutSeconds((Integer) timeoutSpinner.getValue())
                 .setBatchSize((Integer) batchSizeSpinner.getValue())
+                .setConcurrency((Integer) concurrencySpinner.getValue())
                 .setEnabled(enabledCheckbox.isSelected());
     }
 
@@ -32,6 +32,10 @@ public class RerankerSettingsPanel extends AbstractSettingsPanel {
     private final JSpinner topNSpinner;
     private final JSpinner candidatePoolSpinner;
     private final JSpinner timeoutSpinner;
+    private final JSpinner batchSizeSpinner;
+    private final JSpinner concurrentBatchesSpinner;
+    private final JSpinner latencyBudgetSpinner;
+    private final JSpinner cacheSizeSpinner;
     private final JTextField scoreThresholdField;
     private final JCheckBox useProxyBox;
     private final JLabel statusLabel;
@@ -122,6 +126,29 @@ public class RerankerSettingsPanel extends AbstractSettingsPanel {
         timeoutSpinner = new JSpinner(new SpinnerNumberModel(30, 5, 120, 5));
         fb.addRow("Timeout (Sekunden):", timeoutSpinner);
 
+        fb.addSection("Latenz");
+
+        // ── Sub-batches ─────────────────────────────────────────────
+        batchSizeSpinner = new JSpinner(new SpinnerNumberModel(16, 1, 200, 1));
+        fb.addRow("Passagen pro Anfrage:", batchSizeSpinner);
+
+        concurrentBatchesSpinner = new JSpinner(new SpinnerNumberModel(4, 1, 16, 1));
+        fb.addRow("Parallele Anfragen:", concurrentBatchesSpinner);
+
+        // ── Latency budget ──────────────────────────────────────────
+        latencyBudgetSpinner = new JSpinner(new SpinnerNumberModel(3000, 0, 60000, 250));
+        fb.addRow("Latenzbudget (ms):", latencyBudgetSpinner);
+
+        // ── Score cache ─────────────────────────────────────────────
+        cacheSizeSpinner = new JSpinner(new SpinnerNumberModel(5000, 0, 100000, 500));
+        fb.addRow("Score-Cache (Einträge):", cacheSizeSpinner);
+
+        fb.addInfo("<html><small>Große Kandidaten-Pools werden in parallele Teilanfragen aufgeteilt.<br>"
+                + "Überschreitet das Reranking das Latenzbudget, wird die Rangfolge aus Stufe 1+2<br>"
+                + "verwendet, statt den Chat zu blockieren. 0 = auf den Reranker warten.<br>"
+                + "Bereits bewertete (Frage, Passage)-Paare werden zwischengespeichert<br>"
+                + "(Score-Cache). 0 = keine Zwischenspeicherung.</small></html>");
+
         fb.addSection("Test");
 
         // ── Connection test ─────────────────────────────────────────
@@ -139,7 +166,8 @@ public class RerankerSettingsPanel extends AbstractSettingsPanel {
         java.util.List<Component> configFields = Arrays.<Component>asList(
                 apiUrlField, modelCombo, apiKeyField, useProxyBox,
                 topNSpinner, candidatePoolSpinner, scoreThresholdField,
-                timeoutSpinner, testButton
+                timeoutSpinner, batchSizeSpinner, concurrentBatchesSpinner,
+                latencyBudgetSpinner, cacheSizeSpinner, testButton
         );
         enabledBox.addActionListener(e -> {
             boolean on = enabledBox.isSelected();
@@ -163,6 +191,10 @@ public class RerankerSettingsPanel extends AbstractSettingsPanel {
         topNSpinner.setValue(rs.getTopN());
         candidatePoolSpinner.setValue(rs.getCandidatePoolSize());
         timeoutSpinner.setValue(rs.getTimeoutSeconds());
+        batchSizeSpinner.setValue(rs.getBatchSize());
+        concurrentBatchesSpinner.setValue(rs.getMaxConcurrentBatches());
+        latencyBudgetSpinner.setValue((int) Math.min(60000, rs.getLatencyBudgetMs()));
+        cacheSizeSpinner.setValue(Math.min(100000, rs.getCacheSize()));
         scoreThresholdField.setText(String.valueOf(rs.getScoreThreshold()));
         useProxyBox.setSelected(rs.isUseProxy());
     }
@@ -180,6 +212,10 @@ public class RerankerSettingsPanel extends AbstractSettingsPanel {
         s.rerankerConfig.put("topN", topNSpinner.getValue().toString());
         s.rerankerConfig.put("candidatePoolSize", candidatePoolSpinner.getValue().toString());
         s.rerankerConfig.put("timeout", timeoutSpinner.getValue().toString());
+        s.rerankerConfig.put("batchSize", batchSizeSpinner.getValue().toString());
+        s.rerankerConfig.put("maxConcurrentBatches", concurrentBatchesSpinner.getValue().toString());
+        s.rerankerConfig.put("latencyBudgetMs", latencyBudgetSpinner.getValue().toString());
+        s.rerankerConfig.put("cacheSize", cacheSizeSpinner.getValue().toString());
         s.rerankerConfig.put("scoreThreshold", scoreThresholdField.getText().trim());
         s.rerankerConfig.put("useProxy", String.valueOf(useProxyBox.isSelected()));
     }
@@ -3,6 +3,7 @@ package de.bund.zrb.wiki.service;
 import de.bund.zrb.archive.model.ArchiveEntry;
 import de.bund.zrb.archive.model.ArchiveEntryStatus;
 import de.bund.zrb.archive.store.CacheRepository;
+import de.bund.zrb.archive.store.CacheWriteBuffer;
 import de.bund.zrb.wiki.domain.WikiCredentials;
 import de.bund.zrb.wiki.domain.WikiPageView;
 import de.bund.zrb.wiki.domain.WikiSiteId;
@@ -30,9 +31,13 @@ public class WikiPrefetchService implements WikiPrefetchCallback {
 
     private static final Logger LOG = Logger.getLogger(WikiPrefetchService.class.getName());
 
+    private static final int DB_BATCH_SIZE = 20;
+    private static final long DB_BATCH_DELAY_MS = 500;
+
     private final WikiContentService wikiService;
     private final CacheRepository cacheRepository;
-    private final long maxVolatileBytes;
+    /** Collects the prefetched pages so they are saved as volatile entries in batches. */
+    private final CacheWriteBuffer dbBuffer;
     private final int maxItems;
 
     /** Bounded pool for background prefetching. */
@@ -71,7 +76,8 @@ public class WikiPrefetchService implements WikiPrefetchCallback {
                                int concurrency) {
         this.wikiService = wikiService;
         this.cacheRepository = cacheRepository;
-        this.maxVolatileBytes = (long) maxVolatileMb * 1024L * 1024L;
+        this.dbBuffer = new CacheWriteBuffer(cacheRepository, DB_BATCH_SIZE, DB_BATCH_DELAY_MS)
+                .setVolatileLimit((long) maxVolatileMb * 1024L * 1024L);
         this.maxItems = Math.max(1, maxItems);
         int poolSize = Math.max(1, Math.min(concurrency, 8));
         this.prefetchPool = Executors.newFixedThreadPool(poolSize);
@@ -223,15 +229,10 @@ public class WikiPrefetchService implements WikiPrefetchCallback {
             if (html == null || html.isEmpty()) return;
 
             String cacheUrl = "wiki://" + siteId.value() + "/" + pageTitle;
-            if (cacheRepository.existsByUrl(cacheUrl)) return;
+            if (dbBuffer.getPending(cacheUrl) != null || cacheRepository.existsByUrl(cacheUrl)) return;
 
             long sizeBytes = html.getBytes("UTF-8").length;
 
-            long currentSize = cacheRepository.getVolatileCacheSize();
-            if (currentSize + sizeBytes > maxVolatileBytes) {
-                cacheRepository.evictOldestVolatile(maxVolatileBytes - sizeBytes);
-            }
-
             ArchiveEntry entry = new ArchiveEntry();
             entry.setEntryId(UUID.randomUUID().toString());
             entry.setUrl(cacheUrl);
@@ -242,7 +243,7 @@ public class WikiPrefetchService implements WikiPrefetchCallback {
             entry.setCrawlTimestamp(System.currentTimeMillis());
             entry.setStatus(ArchiveEntryStatus.CRAWLED);
             entry.setSourceId("wiki-prefetch");
-            cacheRepository.saveVolatile(entry);
+            dbBuffer.add(entry);
         } catch (Exception e) {
             LOG.log(Level.FINE, "[WikiPrefetch] DB persist failed: " + pageTitle, e);
         }
@@ -257,6 +258,7 @@ public class WikiPrefetchService implements WikiPrefetchCallback {
 
     @Override
     public void shutdown() {
+        dbBuffer.flush();
         cancelRunningPrefetches();
         prefetchPool.shutdownNow();
         priorityThread.shutdownNow();
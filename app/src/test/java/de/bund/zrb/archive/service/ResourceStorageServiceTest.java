@@ -0,0 +1,85 @@
+package de.bund.zrb.archive.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceStorageServiceTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void identicalContentIsStoredOnceAndCompressed() {
+        ResourceStorageService storage = new ResourceStorageService(dir);
+        String page = repeat("<p>Batch-Verarbeitung mit JCL und COBOL</p>\n", 500);
+
+        String first = storage.store(page);
+        String second = storage.store(page);
+
+        assertEquals(first, second);
+        assertTrue(first.startsWith("blobs/"), first);
+        assertTrue(storage.getFile(first).length() < page.length() / 10, "blob is compressed");
+        assertEquals(page, storage.readContent(first));
+        assertNotEquals(first, storage.store(page + "!"));
+    }
+
+    @Test
+    void readsAreStreamedAndBounded() throws Exception {
+        ResourceStorageService storage = new ResourceStorageService(dir);
+        String path = storage.store("Ä" + repeat("x", 20000));
+
+        assertEquals("Äxxx\n[... truncated at 4 chars]", storage.readContent(path, 4));
+        Reader reader = storage.openReader(path);
+        try {
+            assertEquals('Ä', reader.read());
+        } finally {
+            reader.close();
+        }
+        assertNull(storage.openStream("blobs/00/00/missing.gz"));
+    }
+
+    @Test
+    void legacyRunPathsRemainReadable() throws Exception {
+        ResourceStorageService storage = new ResourceStorageService(dir);
+        String legacy = "runs/r1/resources/example.org/page_text/abc.txt";
+        File file = storage.getFile(legacy);
+        file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("alter Inhalt".getBytes(StandardCharsets.UTF_8));
+        out.close();
+
+        assertEquals("alter Inhalt", storage.readContent(legacy));
+    }
+
+    @Test
+    void garbageCollectionKeepsReferencedAndRecentBlobs() {
+        ResourceStorageService storage = new ResourceStorageService(dir);
+        String kept = storage.store("noch referenziert");
+        String orphan = storage.store("gelöschter Run");
+
+        assertEquals(0, storage.collectGarbage(Collections.singleton(kept), 60000), "recent blobs are kept");
+
+        Set<String> referenced = new HashSet<>();
+        referenced.add(kept);
+        assertEquals(1, storage.collectGarbage(referenced, 0));
+        assertTrue(storage.getFile(kept).exists());
+        assertFalse(storage.getFile(orphan).exists());
+        assertFalse(storage.getFile(orphan).getParentFile().exists(), "empty shard directories are removed");
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder(s.length() * times);
+        for (int i = 0; i < times; i++) sb.append(s);
+        return sb.toString();
+    }
+}
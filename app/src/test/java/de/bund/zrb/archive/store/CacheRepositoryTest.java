@@ -0,0 +1,346 @@
+package de.bund.zrb.archive.store;
+
+import de.bund.zrb.archive.model.ArchiveEntry;
+import de.bund.zrb.archive.model.ArchiveEntryStatus;
+import de.bund.zrb.archive.model.ArchiveResource;
+import de.bund.zrb.archive.model.WebCacheEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRepositoryTest {
+
+    @TempDir
+    File dir;
+
+    private CacheRepository repo;
+
+    @AfterEach
+    void tearDown() {
+        if (repo != null) repo.close();
+    }
+
+    @Test
+    void saveAllWritesEntriesWithMetadataInOneCall() {
+        repo = new CacheRepository(jdbcUrl());
+        List<ArchiveEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ArchiveEntry e = entry("e" + i, "https://example.org/" + i);
+            e.getMetadata().put("n", String.valueOf(i));
+            entries.add(e);
+        }
+        ArchiveEntry replaced = entry("e7", "https://example.org/seven");
+        replaced.getMetadata().put("n", "seven");
+        entries.add(replaced);
+
+        assertEquals(50, repo.saveAll(entries));
+
+        assertEquals(50, repo.countByUrlPrefix("https://example.org/"));
+        ArchiveEntry found = repo.findById("e3");
+        assertEquals("https://example.org/3", found.getUrl());
+        assertEquals("3", found.getMetadata().get("n"));
+        assertEquals("seven", repo.findById("e7").getMetadata().get("n"));
+    }
+
+    @Test
+    void updateStatusesChangesAllGivenEntries() {
+        repo = new CacheRepository(jdbcUrl());
+        repo.saveAll(Arrays.asList(entry("a", "u:a"), entry("b", "u:b"), entry("c", "u:c")));
+
+        assertEquals(2, repo.updateStatuses(Arrays.asList("a", "c"), ArchiveEntryStatus.FAILED, "timeout"));
+
+        assertEquals(ArchiveEntryStatus.FAILED, repo.findById("a").getStatus());
+        assertEquals("timeout", repo.findById("c").getErrorMessage());
+        assertEquals(ArchiveEntryStatus.CRAWLED, repo.findById("b").getStatus());
+        assertEquals(2, repo.findByStatus(ArchiveEntryStatus.FAILED).size());
+    }
+
+    @Test
+    void addWebCacheEntriesAndEvictVolatileEntries() {
+        repo = new CacheRepository(jdbcUrl());
+        List<WebCacheEntry> links = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            WebCacheEntry link = new WebCacheEntry();
+            link.setUrl("https://example.org/link" + i);
+            link.setSourceId("src");
+            link.setStatus(ArchiveEntryStatus.PENDING);
+            link.setDepth(1);
+            links.add(link);
+        }
+        assertEquals(20, repo.addWebCacheEntries(links));
+        assertEquals(20, repo.countByStatus("src", ArchiveEntryStatus.PENDING));
+        assertEquals(5, repo.getPendingUrls("src", 5).size());
+
+        for (int i = 0; i < 4; i++) {
+            ArchiveEntry e = entry("v" + i, "wiki://x/" + i);
+            e.setFileSizeBytes(100);
+            e.setCrawlTimestamp(i);
+            repo.saveVolatile(e);
+        }
+        assertEquals(400, repo.getVolatileCacheSize());
+        assertEquals(2, repo.evictOldestVolatile(200));
+        assertNull(repo.findById("v0"));
+        assertNotNull(repo.findById("v3"));
+    }
+
+    @Test
+    void writeBufferSavesEntriesInBatches() throws Exception {
+        repo = new CacheRepository(jdbcUrl());
+        CacheWriteBuffer buffer = new CacheWriteBuffer(repo, 3, 60000);
+        buffer.add(entry("a", "ftp://h/a"));
+        buffer.add(entry("b", "ftp://h/b"));
+
+        assertNull(repo.findById("a"), "not saved before the batch is full");
+        assertEquals("b", buffer.getPending("ftp://h/b").getEntryId());
+
+        buffer.add(entry("c", "ftp://h/c"));
+        assertEquals(3, repo.countByUrlPrefix("ftp://h/"));
+        assertNull(buffer.getPending("ftp://h/b"));
+
+        CacheWriteBuffer volatileBuffer = new CacheWriteBuffer(repo, 10, 20).setVolatileLimit(350);
+        for (int i = 0; i < 3; i++) {
+            ArchiveEntry e = entry("v" + i, "wiki://x/" + i);
+            e.setFileSizeBytes(100);
+            e.setCrawlTimestamp(i);
+            volatileBuffer.add(e);
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (repo.getVolatileCacheSize() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(300, repo.getVolatileCacheSize(), "saved after the delay, as one volatile batch");
+
+        ArchiveEntry next = entry("v3", "wiki://x/3");
+        next.setFileSizeBytes(100);
+        next.setCrawlTimestamp(3);
+        volatileBuffer.add(next);
+        volatileBuffer.flush();
+        assertEquals(300, repo.getVolatileCacheSize());
+        assertNull(repo.findById("v0"), "oldest volatile entry evicted to make room");
+        assertNotNull(repo.findById("v1"));
+    }
+
+    @Test
+    void writeBufferSavesTheGoodEntriesOfAFailedBatch() {
+        repo = new CacheRepository(jdbcUrl());
+        CacheWriteBuffer buffer = new CacheWriteBuffer(repo, 10, 60000);
+        ArchiveEntry bad = entry("b", "ftp://h/b");
+        StringBuilder mimeType = new StringBuilder("text/");
+        for (int i = 0; i < 200; i++) mimeType.append('x');
+        bad.setMimeType(mimeType.toString());   // longer than the column
+        buffer.add(entry("a", "ftp://h/a"));
+        buffer.add(bad);
+        buffer.add(entry("c", "ftp://h/c"));
+
+        buffer.flush();
+
+        assertNotNull(repo.findById("a"));
+        assertNull(repo.findById("b"));
+        assertNotNull(repo.findById("c"));
+    }
+
+    @Test
+    void readersDoNotWaitForAnOpenWriteTransaction() throws Exception {
+        repo = new CacheRepository(jdbcUrl());
+        repo.save(entry("committed", "u:1"));
+        ConnectionPool pool = new ConnectionPool(jdbcUrl(), "sa", "", 2, 8);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> writer = executor.submit(() -> pool.transaction(conn -> {
+                PreparedStatement ps = conn.prepare("UPDATE archive_entries SET title='changed'");
+                ps.executeUpdate();
+                written.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            String title = pool.read(conn -> {
+                ResultSet rs = conn.prepare("SELECT title FROM archive_entries").executeQuery();
+                rs.next();
+                String t = rs.getString(1);
+                rs.close();
+                return t;
+            });
+            assertEquals("t", title, "readers see the last committed state");
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+            release.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+            assertEquals("changed", repo.findById("committed").getTitle());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            pool.close();
+        }
+    }
+
+    @Test
+    void statementsAreReusedPerConnection() throws Exception {
+        repo = new CacheRepository(jdbcUrl());
+        ConnectionPool pool = new ConnectionPool(jdbcUrl(), "sa", "", 1, 2);
+        try {
+            PreparedStatement first = pool.read(conn -> conn.prepare("SELECT 1"));
+            PreparedStatement again = pool.read(conn -> conn.prepare("SELECT 1"));
+            assertSame(first, again);
+
+            int cached = pool.read(conn -> {
+                conn.prepare("SELECT 2");
+                conn.prepare("SELECT 3");
+                return conn.cachedStatements();
+            });
+            assertEquals(2, cached);
+            assertTrue(first.isClosed(), "least recently used statement is closed");
+
+            pool.invalidateStatements();
+            assertNotSame(again, pool.read(conn -> conn.prepare("SELECT 1")));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void fullTextSearchRanksTitleMatchesAndFollowsSavesAndDeletes() {
+        repo = new CacheRepository(jdbcUrl(), new File(dir, "search"));
+        ArchiveEntry handbook = entry("h", "https://docs.example.org/cobol/batch");
+        handbook.setTitle("COBOL Batch Handbuch");
+        handbook.setHost("docs.example.org");
+        ArchiveEntry mention = entry("m", "https://wiki.example.org/jcl");
+        mention.setTitle("JCL Referenz");
+        mention.setExcerpt("Startet einen Batch-Job für COBOL Programme");
+        mention.setHost("wiki.example.org");
+        ArchiveEntry other = entry("o", "ftp://host/readme");
+        other.setTitle("Readme");
+        repo.saveAll(Arrays.asList(handbook, mention, other));
+
+        assertEquals(Arrays.asList("h", "m"), ids(repo.searchEntries("batch cobol", null, 10)));
+        assertEquals(Arrays.asList("h"), ids(repo.searchEntries("hand", null, 10)), "word prefix");
+        assertEquals(Arrays.asList("m"), ids(repo.searchEntriesWithHost("cobol", "wiki.example.org", 10)));
+        assertEquals(Arrays.asList("m"), ids(repo.searchEntries("jcl", "https://wiki.", 10)));
+        assertTrue(repo.searchEntries("batch", "ftp://", 10).isEmpty());
+
+        other.setTitle("COBOL Notizen");
+        repo.save(other);
+        assertEquals(3, repo.searchEntries("cobol", null, 10).size());
+
+        repo.delete("h");
+        assertEquals(Arrays.asList("m"), ids(repo.searchEntries("batch", null, 10)));
+        repo.deleteAll();
+        assertTrue(repo.searchEntries("cobol", null, 10).isEmpty());
+    }
+
+    @Test
+    void searchIndexIsRebuiltWhenItDoesNotMatchTheTable() throws Exception {
+        repo = new CacheRepository(jdbcUrl());
+        ArchiveEntry e = entry("x", "https://example.org/x");
+        e.setTitle("Handbuch für COBOL");
+        repo.save(e);
+        repo.close();
+
+        repo = new CacheRepository(jdbcUrl(), new File(dir, "search"));
+        // Word order differs from the title, so LIKE cannot find it; only the rebuilt index can
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<ArchiveEntry> found = repo.searchEntries("cobol handbuch", null, 10);
+        while (found.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            found = repo.searchEntries("cobol handbuch", null, 10);
+        }
+        assertEquals(Arrays.asList("x"), ids(found));
+    }
+
+    @Test
+    void searchIndexIsRebuiltAfterAnUncleanShutdownEvenIfTheCountMatches() throws Exception {
+        repo = new CacheRepository(jdbcUrl());
+        ArchiveEntry e = entry("x", "https://example.org/x");
+        e.setTitle("Handbuch für COBOL");
+        repo.save(e);
+        repo.close();
+
+        // Crash after indexing an older version of the entry: same count, stale content
+        ArchiveSearchIndex stale = new ArchiveSearchIndex(new File(dir, "search").toPath());
+        ArchiveEntry old = entry("x", "https://example.org/x");
+        old.setTitle("Readme");
+        stale.update(Collections.singletonList(old));
+        stale.close(false);
+
+        repo = new CacheRepository(jdbcUrl(), new File(dir, "search"));
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<ArchiveEntry> found = repo.searchEntries("cobol handbuch", null, 10);
+        while (found.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            found = repo.searchEntries("cobol handbuch", null, 10);
+        }
+        assertEquals(Arrays.asList("x"), ids(found));
+        repo.close();
+        repo = null;
+
+        ArchiveSearchIndex reopened = new ArchiveSearchIndex(new File(dir, "search").toPath());
+        try {
+            assertTrue(reopened.wasClosedCleanly());
+        } finally {
+            reopened.close(false);
+        }
+    }
+
+    @Test
+    void referencedStoragePathsCoverResourcesAndEntriesUntilTheRunIsDeleted() {
+        repo = new CacheRepository(jdbcUrl());
+        ArchiveResource resource = new ArchiveResource();
+        resource.setRunId("r1");
+        resource.setUrl("https://example.org/");
+        resource.setStoragePath("blobs/aa/bb/page.gz");
+        repo.saveResource(resource);
+        ArchiveEntry text = entry("t1", "https://example.org/");
+        text.setRunId("r1");
+        text.setTextContentPath("blobs/cc/dd/text.gz");
+        repo.save(text);
+
+        assertEquals(new HashSet<>(Arrays.asList("blobs/aa/bb/page.gz", "blobs/cc/dd/text.gz")),
+                repo.findReferencedStoragePaths());
+
+        repo.deleteRun("r1");
+        assertTrue(repo.findReferencedStoragePaths().isEmpty());
+    }
+
+    private String jdbcUrl() {
+        return "jdbc:h2:" + new File(dir, "archive").getAbsolutePath();
+    }
+
+    private static List<String> ids(List<ArchiveEntry> entries) {
+        List<String> ids = new ArrayList<>();
+        for (ArchiveEntry e : entries) ids.add(e.getEntryId());
+        return ids;
+    }
+
+    private static ArchiveEntry entry(String id, String url) {
+        ArchiveEntry e = new ArchiveEntry();
+        e.setEntryId(id);
+        e.setUrl(url);
+        e.setTitle("t");
+        e.setStatus(ArchiveEntryStatus.CRAWLED);
+        return e;
+    }
+}
@@ -0,0 +1,119 @@
+package de.bund.zrb.indexing.connector;
+
+import de.bund.zrb.indexing.model.IndexSource;
+import de.bund.zrb.indexing.model.ScannedItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalSourceWatcherTest {
+
+    @TempDir
+    Path root;
+
+    private LocalSourceWatcher watcher;
+    private final LinkedBlockingQueue<Batch> batches = new LinkedBlockingQueue<>();
+    private final AtomicInteger rejectNext = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) watcher.close();
+    }
+
+    @Test
+    void reportsCreatedModifiedAndDeletedFiles() throws Exception {
+        Path existing = write(root.resolve("a.txt"), "one");
+        startWatcher();
+
+        write(existing, "two");
+        write(root.resolve("b.txt"), "new");
+        Batch batch = nextBatch();
+        assertEquals(new HashSet<>(Arrays.asList(existing.toString(), root.resolve("b.txt").toString())),
+                batch.changedPaths());
+
+        Files.delete(existing);
+        assertEquals(Collections.singletonList(existing.toString()), nextBatch().deleted);
+    }
+
+    @Test
+    void newDirectoriesAreWatchedAndTheirFilesReported() throws Exception {
+        startWatcher();
+        Path dir = Files.createDirectories(root.resolve("sub"));
+        Path file = write(dir.resolve("c.txt"), "x");
+
+        Batch batch = nextBatch();
+        assertTrue(batch.changedPaths().contains(file.toString()), "file written right after mkdir");
+
+        Path later = write(dir.resolve("d.txt"), "y");
+        assertTrue(nextBatch().changedPaths().contains(later.toString()), "events from the new directory");
+    }
+
+    @Test
+    void rejectedBatchIsOfferedAgainAndExcludedFilesAreIgnored() throws Exception {
+        startWatcher();
+        rejectNext.set(1);
+        write(root.resolve("skip.log"), "ignored by include pattern");
+        Path file = write(root.resolve("e.txt"), "z");
+
+        Batch first = nextBatch();
+        Batch second = nextBatch();
+        assertEquals(Collections.singleton(file.toString()), first.changedPaths());
+        assertEquals(first.changedPaths(), second.changedPaths());
+    }
+
+    private void startWatcher() throws Exception {
+        IndexSource source = new IndexSource();
+        source.setName("watch-test");
+        source.setScopePaths(Collections.singletonList(root.toString()));
+        source.setIncludePatterns(Collections.singletonList("*.txt"));
+        watcher = new LocalSourceWatcher(source, new LocalSourceScanner(), new LocalSourceWatcher.ChangeListener() {
+            @Override
+            public boolean onChanges(List<ScannedItem> changed, List<String> deletedPaths) {
+                batches.add(new Batch(changed, deletedPaths));
+                return rejectNext.getAndDecrement() <= 0;
+            }
+
+            @Override
+            public void onOverflow() {
+            }
+        }, 150);
+        watcher.start();
+    }
+
+    private Batch nextBatch() throws InterruptedException {
+        Batch batch = batches.poll(10, TimeUnit.SECONDS);
+        assertNotNull(batch, "no batch from watcher");
+        return batch;
+    }
+
+    private static Path write(Path file, String text) throws Exception {
+        return Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class Batch {
+        final List<ScannedItem> changed;
+        final List<String> deleted;
+
+        Batch(List<ScannedItem> changed, List<String> deleted) {
+            this.changed = changed;
+            this.deleted = deleted;
+        }
+
+        Set<String> changedPaths() {
+            Set<String> paths = new HashSet<>();
+            for (ScannedItem item : changed) paths.add(item.getPath());
+            return paths;
+        }
+    }
+}
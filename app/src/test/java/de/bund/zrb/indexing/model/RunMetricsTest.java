@@ -0,0 +1,81 @@
+package de.bund.zrb.indexing.model;
+
+import de.bund.zrb.indexing.store.RunMetricsExport;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the per-stage measurements of {@link RunMetrics}, their CSV export and the
+ * embedding rate of {@link IndexRunStatus}.
+ */
+class RunMetricsTest {
+
+    @Test
+    void percentilesRatesAndQueueDepths() {
+        RunMetrics metrics = new RunMetrics();
+        // 1..100 ms, one item each, 1 KiB per item
+        for (int ms = 1; ms <= 100; ms++) {
+            metrics.record("Fetch", ms * 1_000_000L, 1024, ms != 50);
+        }
+        metrics.sampleQueue("Fetch", 2);
+        metrics.sampleQueue("Fetch", 6);
+
+        List<StageMetrics> snapshot = metrics.snapshot(10_000);
+        assertEquals(1, snapshot.size());
+        StageMetrics fetch = snapshot.get(0);
+        assertEquals(100, fetch.getItems());
+        assertEquals(1, fetch.getErrors());
+        assertEquals(10.0, fetch.getItemsPerSecond(), 1e-9);
+        assertEquals(100 * 1024 / 10.0, fetch.getBytesPerSecond(), 1e-9);
+        assertWithinBucket(50, fetch.getP50Ms());
+        assertWithinBucket(95, fetch.getP95Ms());
+        assertWithinBucket(99, fetch.getP99Ms());
+        assertEquals(100, fetch.getMaxMs(), 1e-9);
+        assertEquals(6, fetch.getMaxQueueDepth());
+        assertEquals(4.0, fetch.getAvgQueueDepth(), 1e-9);
+        assertEquals(0.01, fetch.getErrorRate(), 1e-9);
+    }
+
+    @Test
+    void csvHasOneRowPerRunAndStage() throws IOException {
+        IndexRunStatus run = new IndexRunStatus();
+        run.setSourceId("quelle, mit Komma");
+        run.setStartedAt(1_000);
+        run.setCompletedAt(3_000);
+        run.getMetrics().record("Fetch", 5_000_000L, 100, true);
+        run.getMetrics().record("Write", 1_000_000L, 0, false);
+        run.updateStageMetrics();
+
+        StringWriter out = new StringWriter();
+        RunMetricsExport.writeCsv(Collections.singletonList(run), out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("run_id,source_id,"));
+        assertTrue(lines[1].startsWith(run.getRunId() + ",\"quelle, mit Komma\",1970-01-01T00:00:01Z,2000,RUNNING,Fetch,1,0,"));
+        assertTrue(lines[2].contains(",Write,1,1,1.0000,"));
+    }
+
+    private static void assertWithinBucket(double expectedMs, double actualMs) {
+        // Histogram buckets are about 9% wide
+        assertTrue(actualMs >= expectedMs && actualMs <= expectedMs * 1.1,
+                "expected ~" + expectedMs + " but was " + actualMs);
+    }
+
+    @Test
+    void embeddingRateUsesWallTimeOfOverlappingItems() {
+        IndexRunStatus run = new IndexRunStatus();
+        // Two items embedded side by side for one second each
+        run.addEmbeddings(50, 1000, 11_000);
+        run.addEmbeddings(50, 1000, 11_000);
+
+        assertEquals(100.0, run.getEmbeddingsPerSecond(), 1e-9);
+        assertEquals(2000, run.getEmbeddingMillis());
+    }
+}
@@ -0,0 +1,372 @@
+package de.bund.zrb.indexing.service;
+
+import de.bund.zrb.indexing.model.*;
+import de.bund.zrb.indexing.port.SourceScanner;
+import de.bund.zrb.indexing.store.IndexStatusStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the staged execution of {@link IndexingPipeline}: overlap between stages,
+ * delta detection and deletions across runs, and plain (non-staged) processors.
+ */
+class IndexingPipelineTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void stagesOverlapAndEveryItemIsIndexed() {
+        IndexStatusStore store = new IndexStatusStore(dir);
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        FakeScanner scanner = new FakeScanner(items(40));
+        pipeline.registerScanner(SourceType.LOCAL, scanner);
+        RecordingProcessor processor = new RecordingProcessor();
+        pipeline.setContentProcessor(processor);
+
+        IndexSource source = source();
+        source.setEmbedThreads(4);
+        source.setStageQueueCapacity(2);
+        IndexRunStatus run = pipeline.runForSource(source);
+
+        assertEquals(IndexRunStatus.RunState.COMPLETED, run.getRunState());
+        assertEquals(40, run.getItemsNew());
+        assertEquals(40, processor.written.size());
+        assertTrue(processor.maxConcurrentPrepare.get() > 1, "chunk+embed stage should run items in parallel");
+        Map<IndexItemState, Integer> counts = store.countByState(source.getSourceId());
+        assertEquals(Integer.valueOf(40), counts.get(IndexItemState.INDEXED));
+    }
+
+    @Test
+    void stageMetricsArePersistedWithTheRun() {
+        IndexStatusStore store = new IndexStatusStore(dir);
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        pipeline.registerScanner(SourceType.LOCAL, new FakeScanner(items(10)));
+        pipeline.setContentProcessor(new RecordingProcessor());
+        IndexSource source = source();
+
+        pipeline.runForSource(source);
+
+        IndexRunStatus saved = store.loadRuns(source.getSourceId()).get(0);
+        Map<String, StageMetrics> byStage = new HashMap<>();
+        for (StageMetrics m : saved.getStageMetrics()) {
+            byStage.put(m.getStage(), m);
+        }
+        assertEquals(new HashSet<>(Arrays.asList("Scan", "Fetch", "Extract", "Embed", "Write")), byStage.keySet());
+        for (StageMetrics m : byStage.values()) {
+            assertEquals(10, m.getItems(), m.getStage());
+            assertEquals(0, m.getErrors(), m.getStage());
+        }
+        assertTrue(byStage.get("Fetch").getBytes() > 0);
+        assertTrue(byStage.get("Embed").getP50Ms() >= 20, "simulated embedding takes 20 ms");
+    }
+
+    @Test
+    void unchangedItemsAreSkippedAndMissingItemsDeleted() {
+        IndexStatusStore store = new IndexStatusStore(dir);
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        FakeScanner scanner = new FakeScanner(items(5));
+        pipeline.registerScanner(SourceType.LOCAL, scanner);
+        RecordingProcessor processor = new RecordingProcessor();
+        pipeline.setContentProcessor(processor);
+        IndexSource source = source();
+        pipeline.runForSource(source);
+
+        scanner.items = items(3);
+        IndexRunStatus second = pipeline.runForSource(source);
+
+        assertEquals(3, second.getItemsUnchanged());
+        assertEquals(2, second.getItemsDeleted());
+        assertEquals(new HashSet<>(Arrays.asList("/item3", "/item4")), processor.removed);
+    }
+
+    @Test
+    void plainProcessorRunsAsSingleStep() {
+        IndexStatusStore store = new IndexStatusStore(dir);
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        pipeline.registerScanner(SourceType.LOCAL, new FakeScanner(items(4)));
+        final List<String> mimeTypes = Collections.synchronizedList(new ArrayList<String>());
+        pipeline.setContentProcessor(new IndexingPipeline.ContentProcessor() {
+            @Override
+            public int process(IndexSource source, String itemPath, byte[] content, String mimeType) {
+                mimeTypes.add(mimeType);
+                return itemPath.endsWith("0") ? 0 : 1;
+            }
+
+            @Override
+            public void removeFromIndex(String documentId) {
+            }
+        });
+
+        IndexSource source = source();
+        IndexRunStatus run = pipeline.runForSource(source);
+
+        assertEquals(4, mimeTypes.size());
+        assertEquals("text/plain", mimeTypes.get(0));
+        assertEquals(1, run.getItemsSkipped());
+        assertEquals(IndexItemState.SKIPPED,
+                store.loadItemStatuses(source.getSourceId()).get("/item0").getState());
+    }
+
+    @Test
+    void progressIsCheckpointedDuringTheRun() {
+        final IndexStatusStore store = new IndexStatusStore(dir);
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        pipeline.registerScanner(SourceType.LOCAL, new FakeScanner(items(30)));
+        final IndexSource source = source();
+        source.setCheckpointEveryItems(5);
+        final int[] indexedBeforeLastWrite = {-1};
+        pipeline.setContentProcessor(new RecordingProcessor() {
+            @Override
+            public int write(IndexSource s, ScannedItem item, String prepared, IndexRunStatus run) {
+                if (written.size() == 29) {
+                    indexedBeforeLastWrite[0] = store.countByState(s.getSourceId()).get(IndexItemState.INDEXED);
+                    assertTrue(store.hasCheckpoint(s.getSourceId()));
+                }
+                return super.write(s, item, prepared, run);
+            }
+        });
+
+        pipeline.runForSource(source);
+
+        assertTrue(indexedBeforeLastWrite[0] >= 25, "checkpointed " + indexedBeforeLastWrite[0]);
+        assertFalse(store.hasCheckpoint(source.getSourceId()), "checkpoint removed after the run");
+    }
+
+    @Test
+    void interruptedRunIsResumedFromCheckpoint() {
+        IndexStatusStore store = new IndexStatusStore(dir);
+        IndexSource source = source();
+        // State left by a run that crashed after checkpointing two of four items
+        IndexRunStatus crashed = new IndexRunStatus();
+        crashed.setSourceId(source.getSourceId());
+        crashed.setStartedAt(1000L);
+        List<IndexItemStatus> done = new ArrayList<>();
+        for (ScannedItem item : items(2)) {
+            IndexItemStatus status = new IndexItemStatus();
+            status.setItemPath(item.getPath());
+            status.setState(IndexItemState.INDEXED);
+            status.setChunkCount(1);
+            status.setLastModifiedAt(item.getLastModified());
+            status.setFileSize(item.getSize());
+            done.add(status);
+        }
+        store.checkpoint(crashed, done);
+
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        pipeline.registerScanner(SourceType.LOCAL, new FakeScanner(items(4)));
+        RecordingProcessor processor = new RecordingProcessor();
+        pipeline.setContentProcessor(processor);
+        IndexRunStatus run = pipeline.runForSource(source);
+
+        assertTrue(run.isResumedFromCheckpoint());
+        assertEquals(crashed.getRunId(), run.getResumedRunId());
+        assertEquals(new HashSet<>(Arrays.asList("/item2", "/item3")), processor.written);
+        assertEquals(2, run.getItemsUnchanged());
+        List<IndexRunStatus> history = store.loadRuns(source.getSourceId());
+        assertEquals(2, history.size());
+        assertEquals(IndexRunStatus.RunState.CANCELLED, history.get(1).getRunState());
+    }
+
+    @Test
+    void contentHashSkipsExtractionOfIdenticalContent() {
+        IndexStatusStore store = new IndexStatusStore(dir);
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        FakeScanner scanner = new FakeScanner(items(3));
+        pipeline.registerScanner(SourceType.LOCAL, scanner);
+        IndexSource source = source();
+        source.setChangeDetection(ChangeDetectionMode.CONTENT_HASH);
+        pipeline.setContentProcessor(new RecordingProcessor());
+        pipeline.runForSource(source);
+        assertNotNull(store.getItemStatus(source.getSourceId(), "/item0").getContentHash());
+
+        // Same bytes with new timestamps, except one item whose content really changed
+        List<ScannedItem> touched = new ArrayList<>();
+        for (ScannedItem item : items(3)) {
+            touched.add(new ScannedItem(item.getPath(), item.getLastModified() + 5000, item.getSize(), false, "text/plain"));
+        }
+        scanner.items = touched;
+        scanner.changed.add("/item1");
+        RecordingProcessor processor = new RecordingProcessor();
+        pipeline.setContentProcessor(processor);
+        IndexRunStatus run = pipeline.runForSource(source);
+
+        assertEquals(Collections.singleton("/item1"), processor.written);
+        assertEquals(2, run.getItemsSkippedByHash());
+        assertEquals(2, run.getItemsUnchanged());
+        assertEquals(1, run.getItemsChanged());
+        assertEquals(6000L, store.getItemStatus(source.getSourceId(), "/item0").getLastModifiedAt());
+    }
+
+    @Test
+    void hashCheckFollowsChangeDetectionMode() {
+        IndexItemStatus indexed = new IndexItemStatus();
+        indexed.setState(IndexItemState.INDEXED);
+        indexed.setChunkCount(2);
+        indexed.setLastModifiedAt(1000L);
+        indexed.setFileSize(10);
+        ScannedItem same = new ScannedItem("/a", 1000L, 10, false, null);
+        ScannedItem touched = new ScannedItem("/a", 2000L, 10, false, null);
+
+        assertFalse(IndexingPipeline.needsHashCheck(ChangeDetectionMode.MTIME_SIZE, indexed, touched));
+        assertTrue(IndexingPipeline.needsHashCheck(ChangeDetectionMode.CONTENT_HASH, indexed, same));
+        assertFalse(IndexingPipeline.needsHashCheck(ChangeDetectionMode.MTIME_THEN_HASH, indexed, same));
+        // Without a stored hash there is nothing to compare against
+        assertFalse(IndexingPipeline.needsHashCheck(ChangeDetectionMode.MTIME_THEN_HASH, indexed, touched));
+        indexed.setContentHash("abc");
+        assertTrue(IndexingPipeline.needsHashCheck(ChangeDetectionMode.MTIME_THEN_HASH, indexed, touched));
+    }
+
+    @Test
+    void incrementalRunTouchesOnlyReportedItems() {
+        IndexStatusStore store = new IndexStatusStore(dir);
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        List<ScannedItem> tree = Arrays.asList(
+                new ScannedItem("/root/a.txt", 1L, 1, false, "text/plain"),
+                new ScannedItem("/root/sub/b.txt", 1L, 1, false, "text/plain"),
+                new ScannedItem("/root/sub/c.txt", 1L, 1, false, "text/plain"));
+        pipeline.registerScanner(SourceType.LOCAL, new FakeScanner(tree));
+        RecordingProcessor processor = new RecordingProcessor();
+        pipeline.setContentProcessor(processor);
+        IndexSource source = source();
+        pipeline.runForSource(source);
+        int historySize = store.loadRuns(source.getSourceId()).size();
+
+        RecordingProcessor incremental = new RecordingProcessor();
+        pipeline.setContentProcessor(incremental);
+        IndexRunStatus run = pipeline.runForChanges(source,
+                Collections.singletonList(new ScannedItem("/root/new.txt", 2L, 1, false, "text/plain")),
+                Collections.singletonList("/root/sub"));
+
+        assertTrue(run.isIncremental());
+        assertEquals(Collections.singleton("/root/new.txt"), incremental.written);
+        assertEquals(new HashSet<>(Arrays.asList("/root/sub/b.txt", "/root/sub/c.txt")), incremental.removed);
+        assertEquals(IndexItemState.INDEXED, store.getItemStatus(source.getSourceId(), "/root/a.txt").getState());
+        assertEquals(IndexItemState.DELETED, store.getItemStatus(source.getSourceId(), "/root/sub/b.txt").getState());
+        assertEquals(historySize, store.loadRuns(source.getSourceId()).size(), "not added to the run history");
+        assertFalse(store.hasCheckpoint(source.getSourceId()));
+    }
+
+    private static IndexSource source() {
+        IndexSource source = new IndexSource();
+        source.setName("test");
+        source.setSourceType(SourceType.LOCAL);
+        return source;
+    }
+
+    @Test
+    void itemsAreIndexedOnlyOnceTheirWriteIsDurable() {
+        final IndexStatusStore store = new IndexStatusStore(dir);
+        IndexingPipeline pipeline = new IndexingPipeline(store);
+        pipeline.registerScanner(SourceType.LOCAL, new FakeScanner(items(12)));
+        final IndexSource source = source();
+        source.setCheckpointEveryItems(1);
+        final List<Integer> indexedAtCommit = new ArrayList<>();
+        pipeline.setContentProcessor(new RecordingProcessor() {
+            @Override
+            public IndexingPipeline.WriteSession<String> openWriteSession(IndexSource s, IndexRunStatus run) {
+                return new IndexingPipeline.WriteSession<String>() {
+                    final List<IndexingPipeline.WriteCallback> uncommitted = new ArrayList<>();
+
+                    @Override
+                    public void write(ScannedItem item, String prepared, IndexingPipeline.WriteCallback callback) {
+                        written.add(item.getPath());
+                        uncommitted.add(callback);
+                        if (uncommitted.size() == 5) {
+                            flush();
+                        }
+                    }
+
+                    @Override
+                    public void flush() {
+                        Integer indexed = store.countByState(s.getSourceId()).get(IndexItemState.INDEXED);
+                        indexedAtCommit.add(indexed == null ? 0 : indexed);
+                        for (IndexingPipeline.WriteCallback callback : uncommitted) {
+                            callback.durable(1);
+                        }
+                        uncommitted.clear();
+                    }
+                };
+            }
+        });
+
+        IndexRunStatus run = pipeline.runForSource(source);
+
+        assertEquals(IndexRunStatus.RunState.COMPLETED, run.getRunState());
+        assertEquals(Arrays.asList(0, 5, 10), indexedAtCommit);
+        assertEquals(Integer.valueOf(12), store.countByState(source.getSourceId()).get(IndexItemState.INDEXED));
+    }
+
+    private static List<ScannedItem> items(int count) {
+        List<ScannedItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new ScannedItem("/item" + i, 1000L + i, 10, false, "text/plain"));
+        }
+        return items;
+    }
+
+    private static class FakeScanner implements SourceScanner {
+        volatile List<ScannedItem> items;
+        final Set<String> changed = new HashSet<>();
+
+        FakeScanner(List<ScannedItem> items) {
+            this.items = items;
+        }
+
+        @Override
+        public List<ScannedItem> scan(IndexSource source) {
+            return items;
+        }
+
+        @Override
+        public byte[] fetchContent(IndexSource source, String itemPath) {
+            return ((changed.contains(itemPath) ? "new " : "") + "content of " + itemPath)
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class RecordingProcessor implements IndexingPipeline.StagedContentProcessor<String, String> {
+        final Set<String> written = Collections.synchronizedSet(new HashSet<String>());
+        final Set<String> removed = Collections.synchronizedSet(new HashSet<String>());
+        final AtomicInteger concurrentPrepare = new AtomicInteger();
+        final AtomicInteger maxConcurrentPrepare = new AtomicInteger();
+
+        @Override
+        public String extract(IndexSource source, ScannedItem item, byte[] content) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String prepare(IndexSource source, ScannedItem item, String text, IndexRunStatus run)
+                throws InterruptedException {
+            int now = concurrentPrepare.incrementAndGet();
+            maxConcurrentPrepare.accumulateAndGet(now, Math::max);
+            Thread.sleep(20); // simulated embedding call
+            concurrentPrepare.decrementAndGet();
+            return text.toUpperCase();
+        }
+
+        @Override
+        public int write(IndexSource source, ScannedItem item, String prepared, IndexRunStatus run) {
+            written.add(item.getPath());
+            return 1;
+        }
+
+        @Override
+        public int process(IndexSource source, String itemPath, byte[] content, String mimeType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeFromIndex(String documentId) {
+            removed.add(documentId);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package de.bund.zrb.indexing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for stopping a {@link PipelineStage} without interrupting its workers.
+ */
+class PipelineStageTest {
+
+    @Test
+    void stopLetsTheCurrentItemFinishAndSkipsTheQueue() throws Exception {
+        final CountDownLatch handling = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> handled = Collections.synchronizedList(new ArrayList<String>());
+        final List<Boolean> interrupted = Collections.synchronizedList(new ArrayList<Boolean>());
+        PipelineStage<String> stage = new PipelineStage<>("Write", 1, 10, item -> {
+            handling.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            interrupted.add(Thread.currentThread().isInterrupted());
+            handled.add(item);
+        });
+        stage.start();
+        stage.put("first");
+        assertTrue(handling.await(10, TimeUnit.SECONDS));
+        stage.put("second");
+        stage.put("third");
+
+        Thread stopper = new Thread(stage::stop);
+        stopper.start();
+        Thread.sleep(50);
+        assertTrue(stopper.isAlive(), "waits for the item being handled");
+        release.countDown();
+        stopper.join(10_000);
+
+        assertFalse(stopper.isAlive());
+        assertEquals(Collections.singletonList("first"), handled);
+        assertEquals(Collections.singletonList(false), interrupted);
+    }
+}
@@ -0,0 +1,70 @@
+package de.bund.zrb.indexing.service;
+
+import de.bund.zrb.indexing.model.SourceType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceRunSchedulerTest {
+
+    private final SourceRunScheduler scheduler = new SourceRunScheduler(4, 2)
+            .setTypeLimit(SourceType.MAIL, 1);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void slowSourceDoesNotBlockOtherTypes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch localDone = new CountDownLatch(1);
+
+        scheduler.submit("mail", SourceType.MAIL, SourceRunScheduler.Priority.SCHEDULED, () -> await(release));
+        scheduler.submit("local", SourceType.LOCAL, SourceRunScheduler.Priority.SCHEDULED, localDone::countDown);
+
+        assertTrue(localDone.await(5, TimeUnit.SECONDS), "local source ran while mail was busy");
+        assertTrue(scheduler.isRunning("mail"));
+        release.countDown();
+    }
+
+    @Test
+    void typeLimitQueuesAndInteractiveJumpsAhead() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch allDone = new CountDownLatch(3);
+
+        scheduler.submit("mail-1", SourceType.MAIL, SourceRunScheduler.Priority.SCHEDULED, () -> await(release));
+        for (String id : Arrays.asList("mail-2", "mail-3")) {
+            scheduler.submit(id, SourceType.MAIL, SourceRunScheduler.Priority.SCHEDULED, () -> {
+                order.add(id);
+                allDone.countDown();
+            });
+        }
+        scheduler.submit("mail-4", SourceType.MAIL, SourceRunScheduler.Priority.INTERACTIVE, () -> {
+            order.add("mail-4");
+            allDone.countDown();
+        });
+
+        assertTrue(scheduler.isQueued("mail-2"), "second mail source waits for the PST reader");
+        assertFalse(scheduler.submit("mail-2", SourceType.MAIL, SourceRunScheduler.Priority.SCHEDULED, () -> { }),
+                "a queued source is not queued twice");
+        release.countDown();
+
+        assertTrue(allDone.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("mail-4", "mail-2", "mail-3"), order);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.bund.zrb.indexing.store;
+
+import de.bund.zrb.indexing.model.IndexItemState;
+import de.bund.zrb.indexing.model.IndexItemStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexStatusStoreTest {
+
+    @TempDir
+    File dir;
+
+    private IndexStatusStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) store.close();
+    }
+
+    @Test
+    void pointUpdatesAndCountsByState() {
+        store = new IndexStatusStore(dir);
+        List<IndexItemStatus> items = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            items.add(status("src", "/f" + i, i % 3 == 0 ? IndexItemState.ERROR : IndexItemState.INDEXED));
+        }
+        store.updateItemStatuses("src", items);
+        store.updateItemStatus("other", status("other", "/f0", IndexItemState.PENDING));
+
+        IndexItemStatus changed = store.getItemStatus("src", "/f3");
+        assertEquals(IndexItemState.ERROR, changed.getState());
+        changed.setState(IndexItemState.INDEXED);
+        changed.setChunkCount(7);
+        store.updateItemStatus("src", changed);
+
+        assertEquals(7, store.getItemStatus("src", "/f3").getChunkCount());
+        assertNull(store.getItemStatus("src", "/missing"));
+        Map<IndexItemState, Integer> counts = store.countByState("src");
+        assertEquals(Integer.valueOf(801), counts.get(IndexItemState.INDEXED));
+        assertEquals(Integer.valueOf(399), counts.get(IndexItemState.ERROR));
+        assertEquals(Integer.valueOf(0), counts.get(IndexItemState.DELETED));
+        assertEquals(1, store.countItems("other"));
+
+        final int[] streamed = {0};
+        store.forEachItemStatus("src", s -> streamed[0]++);
+        assertEquals(1200, streamed[0]);
+
+        store.clearItemStatuses("src");
+        assertEquals(0, store.countItems("src"));
+        assertEquals(1, store.countItems("other"));
+    }
+
+    @Test
+    void liveItemsBelowADirectoryAreFoundByPrefix() {
+        store = new IndexStatusStore(dir);
+        List<IndexItemStatus> items = new ArrayList<>();
+        items.add(status("src", "/dir/a", IndexItemState.INDEXED));
+        items.add(status("src", "/dir/sub/b", IndexItemState.ERROR));
+        items.add(status("src", "/dir/gone", IndexItemState.DELETED));
+        items.add(status("src", "/dir0/c", IndexItemState.INDEXED));
+        items.add(status("src", "/dirx", IndexItemState.INDEXED));
+        store.updateItemStatuses("src", items);
+        store.updateItemStatus("other", status("other", "/dir/d", IndexItemState.INDEXED));
+
+        List<String> paths = new ArrayList<>();
+        for (IndexItemStatus status : store.getLiveItemStatusesBelow("src", "/dir/")) {
+            paths.add(status.getItemPath());
+        }
+        Collections.sort(paths);
+
+        assertEquals(Arrays.asList("/dir/a", "/dir/sub/b"), paths);
+        assertTrue(store.getLiveItemStatusesBelow("src", "/none/").isEmpty());
+    }
+
+    @Test
+    void legacyItemsJsonIsImported() throws Exception {
+        File sourceDir = new File(dir, "legacy");
+        assertTrue(sourceDir.mkdirs());
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(new File(sourceDir, "items.json")),
+                StandardCharsets.UTF_8)) {
+            w.write("{\"/a.txt\":{\"sourceId\":\"legacy\",\"itemPath\":\"/a.txt\",\"state\":\"INDEXED\","
+                    + "\"lastModifiedAt\":42,\"fileSize\":10,\"chunkCount\":3}}");
+        }
+
+        store = new IndexStatusStore(dir);
+        IndexItemStatus status = store.getItemStatus("legacy", "/a.txt");
+
+        assertNotNull(status);
+        assertEquals(42, status.getLastModifiedAt());
+        assertEquals(3, status.getChunkCount());
+        assertFalse(new File(sourceDir, "items.json").exists());
+        assertTrue(new File(sourceDir, "items.json.migrated").exists());
+    }
+
+    private static IndexItemStatus status(String sourceId, String path, IndexItemState state) {
+        IndexItemStatus status = new IndexItemStatus();
+        status.setSourceId(sourceId);
+        status.setItemPath(path);
+        status.setState(state);
+        status.setLastModifiedAt(1000L);
+        status.setFileSize(10);
+        return status;
+    }
+}
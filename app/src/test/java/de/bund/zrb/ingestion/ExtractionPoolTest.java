@@ -0,0 +1,142 @@
+package de.bund.zrb.ingestion;
+
+import de.bund.zrb.ingestion.config.IngestionConfig;
+import de.bund.zrb.ingestion.model.DetectionResult;
+import de.bund.zrb.ingestion.model.DocumentSource;
+import de.bund.zrb.ingestion.model.ExtractionResult;
+import de.bund.zrb.ingestion.port.TextExtractor;
+import de.bund.zrb.ingestion.usecase.ExtractTextFromDocumentUseCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the parallel extraction pool of {@link ExtractTextFromDocumentUseCase}.
+ */
+class ExtractionPoolTest {
+
+    private ExtractTextFromDocumentUseCase useCase;
+
+    @AfterEach
+    void tearDown() {
+        if (useCase != null) useCase.shutdown();
+    }
+
+    @Test
+    void executeAll_extractsInParallel_andKeepsOrder() {
+        useCase = new ExtractTextFromDocumentUseCase(new IngestionConfig().setExtractionThreads(4));
+        SlowExtractor extractor = new SlowExtractor(200);
+        useCase.getExtractorRegistry().register(extractor);
+
+        List<DocumentSource> sources = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            sources.add(text("Dokument " + i));
+        }
+        long start = System.currentTimeMillis();
+        List<ExtractionResult> results = useCase.executeAll(sources);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(8, results.size());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals("Dokument " + i, results.get(i).getPlainText().trim());
+        }
+        assertEquals(4, extractor.maxConcurrent.get());
+        assertTrue(elapsed < 8 * 200, "took " + elapsed + " ms");
+    }
+
+    @Test
+    void execute_slowExtractor_timesOut() {
+        useCase = new ExtractTextFromDocumentUseCase(new IngestionConfig()
+                .setTimeoutPerExtractionMs(100)
+                .setEnableFallbackOnExtractorFailure(false));
+        useCase.getExtractorRegistry().register(new SlowExtractor(5000));
+
+        long start = System.currentTimeMillis();
+        ExtractionResult result = useCase.execute(text("langsam"));
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorMessage().contains("Zeitüberschreitung"));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    void bytesInFlight_limitConcurrency() {
+        // Each document takes 2 KiB of a 3 KiB budget, so only one extraction runs at a time
+        useCase = new ExtractTextFromDocumentUseCase(new IngestionConfig()
+                .setExtractionThreads(4)
+                .setMaxBytesInFlight(3 * 1024));
+        SlowExtractor extractor = new SlowExtractor(50);
+        useCase.getExtractorRegistry().register(extractor);
+
+        List<DocumentSource> sources = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sources.add(text(repeat('x', 2048)));
+        }
+        List<ExtractionResult> results = useCase.executeAll(sources);
+
+        for (ExtractionResult result : results) {
+            assertTrue(result.isSuccess());
+        }
+        assertEquals(1, extractor.maxConcurrent.get());
+    }
+
+    private static DocumentSource text(String content) {
+        return DocumentSource.fromBytes(content.getBytes(StandardCharsets.UTF_8), "test.txt");
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) sb.append(c);
+        return sb.toString();
+    }
+
+    /**
+     * Returns the document as text after a delay and records how many calls overlapped.
+     */
+    private static class SlowExtractor implements TextExtractor {
+        private final long delayMs;
+        private final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        SlowExtractor(long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public boolean supports(String mimeType) {
+            return "text/plain".equals(mimeType);
+        }
+
+        @Override
+        public int getPriority() {
+            return 1000;
+        }
+
+        @Override
+        public String getName() {
+            return "SlowExtractor";
+        }
+
+        @Override
+        public ExtractionResult extract(DocumentSource source, DetectionResult detection) {
+            int now = running.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(delayMs);
+                return ExtractionResult.success(new String(source.getBytes(), StandardCharsets.UTF_8), getName());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ExtractionResult.failure("unterbrochen", getName());
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
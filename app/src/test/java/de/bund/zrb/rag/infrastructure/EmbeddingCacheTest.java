@@ -0,0 +1,55 @@
+package de.bund.zrb.rag.infrastructure;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link EmbeddingCache}: key derivation, persistence across reopen and the LRU bound.
+ */
+class EmbeddingCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keySeparatesModelsAndDimensionsButIgnoresWhitespace() {
+        String key = EmbeddingCache.key("OLLAMA/nomic", 768, "Hello  world\n");
+        assertEquals(key, EmbeddingCache.key("OLLAMA/nomic", 768, " Hello world"));
+        assertNotEquals(key, EmbeddingCache.key("OLLAMA/other", 768, "Hello world"));
+        assertNotEquals(key, EmbeddingCache.key("OLLAMA/nomic", 384, "Hello world"));
+        assertNotEquals(key, EmbeddingCache.key("OLLAMA/nomic", 768, "Hello World"));
+    }
+
+    @Test
+    void vectorsSurviveReopen() {
+        Path file = dir.resolve("embeddings.mv.db");
+        String key = EmbeddingCache.key("m", 3, "text");
+
+        EmbeddingCache cache = new EmbeddingCache(file, 10);
+        cache.put(key, new float[]{0.25f, -1f, 3.5f});
+        cache.close();
+
+        EmbeddingCache reopened = new EmbeddingCache(file, 10);
+        assertEquals(0, reopened.memorySize());
+        assertArrayEquals(new float[]{0.25f, -1f, 3.5f}, reopened.get(key), 0f);
+        assertNull(reopened.get(EmbeddingCache.key("m", 3, "other")));
+        reopened.close();
+    }
+
+    @Test
+    void memoryFrontIsBounded() {
+        EmbeddingCache cache = new EmbeddingCache(dir.resolve("lru.mv.db"), 2);
+        for (int i = 0; i < 5; i++) {
+            cache.put("k" + i, new float[]{i});
+        }
+        assertEquals(2, cache.memorySize());
+        assertEquals(5, cache.size());
+        // Evicted entries are reloaded from disk
+        assertArrayEquals(new float[]{0f}, cache.get("k0"), 0f);
+        cache.close();
+    }
+}
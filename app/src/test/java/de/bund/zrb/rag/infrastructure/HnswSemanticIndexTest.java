@@ -0,0 +1,130 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link HnswSemanticIndex}: recall against brute force,
+ * concurrent inserts and tombstone-based removal.
+ */
+class HnswSemanticIndexTest {
+
+    private static final int DIM = 32;
+
+    @Test
+    void recallAgainstBruteForceIsHigh() {
+        Random random = new Random(42);
+        HnswSemanticIndex hnsw = new HnswSemanticIndex(16, 200, 64);
+        InMemorySemanticIndex exact = new InMemorySemanticIndex();
+
+        for (int i = 0; i < 3000; i++) {
+            Chunk chunk = chunk("c" + i, "doc" + (i / 10));
+            float[] vector = randomVector(random);
+            hnsw.indexChunk(chunk, vector);
+            exact.indexChunk(chunk, vector);
+        }
+
+        int k = 10;
+        int hits = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<String> expected = ids(exact.search(query, k));
+            for (ScoredChunk sc : hnsw.search(query, k)) {
+                if (expected.contains(sc.getChunkId())) {
+                    hits++;
+                }
+            }
+        }
+
+        double recall = hits / (double) (queries * k);
+        assertTrue(recall >= 0.9, "recall@10 too low: " + recall);
+    }
+
+    @Test
+    void concurrentInsertsAreAllSearchable() throws Exception {
+        HnswSemanticIndex hnsw = new HnswSemanticIndex(8, 64, 64);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        Map<String, float[]> vectors = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 800; i++) {
+            vectors.put("c" + i, randomVector(random));
+        }
+
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            futures.add(pool.submit(() -> {
+                for (int i = offset; i < 800; i += 4) {
+                    hnsw.indexChunk(chunk("c" + i, "doc" + i), vectors.get("c" + i));
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+
+        assertEquals(800, hnsw.size());
+        int found = 0;
+        for (Map.Entry<String, float[]> e : vectors.entrySet()) {
+            List<ScoredChunk> results = hnsw.search(e.getValue(), 1);
+            if (!results.isEmpty() && results.get(0).getChunkId().equals(e.getKey())) {
+                found++;
+            }
+        }
+        assertTrue(found >= 780, "self-lookup hits: " + found);
+    }
+
+    @Test
+    void removedDocumentsAreNeverReturned() {
+        Random random = new Random(3);
+        HnswSemanticIndex hnsw = new HnswSemanticIndex(8, 64, 64);
+        float[] target = randomVector(random);
+        hnsw.indexChunk(chunk("keep", "docA"), randomVector(random));
+        hnsw.indexChunk(chunk("gone", "docB"), target);
+        for (int i = 0; i < 50; i++) {
+            hnsw.indexChunk(chunk("c" + i, "docC"), randomVector(random));
+        }
+
+        hnsw.removeDocument("docB");
+
+        assertEquals(51, hnsw.size());
+        assertEquals(1, hnsw.getTombstoneCount());
+        assertNull(hnsw.getChunk("gone"));
+        assertFalse(ids(hnsw.search(target, 52)).contains("gone"));
+        assertEquals(51, hnsw.search(target, 100).size());
+
+        hnsw.compact();
+        assertEquals(0, hnsw.getTombstoneCount());
+        assertEquals(51, hnsw.search(target, 100).size());
+    }
+
+    private static Chunk chunk(String id, String documentId) {
+        return Chunk.builder().chunkId(id).documentId(documentId).text(id).build();
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] v = new float[DIM];
+        for (int i = 0; i < DIM; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return v;
+    }
+
+    private static Set<String> ids(List<ScoredChunk> results) {
+        Set<String> ids = new HashSet<>();
+        for (ScoredChunk sc : results) {
+            ids.add(sc.getChunkId());
+        }
+        return ids;
+    }
+}
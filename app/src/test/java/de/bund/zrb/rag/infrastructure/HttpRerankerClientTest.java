@@ -0,0 +1,90 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.config.RerankerSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the score cache and sub-batching of {@link HttpRerankerClient}
+ * (the HTTP call itself is replaced by a scoring stub).
+ */
+class HttpRerankerClientTest {
+
+    @Test
+    void largePoolsAreSplitIntoSubBatchesInPassageOrder() throws Exception {
+        StubClient client = new StubClient(new RerankerSettings().setBatchSize(3).setMaxConcurrentBatches(2));
+        List<String> passages = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            passages.add("passage " + i);
+        }
+
+        float[] scores = client.rerank("query", passages);
+
+        assertEquals(Arrays.asList(3, 3, 2), client.batchSizes());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i, scores[i], 0f);
+        }
+    }
+
+    @Test
+    void repeatedPairsAreServedFromCache() throws Exception {
+        StubClient client = new StubClient(new RerankerSettings().setBatchSize(10));
+        client.rerank("what is a dataset", Arrays.asList("passage 1", "passage 2"));
+
+        // Same query modulo whitespace, one new passage
+        float[] scores = client.rerank(" what is a  dataset", Arrays.asList("passage 2", "passage 5"));
+
+        assertEquals(Arrays.asList(2, 1), client.batchSizes());
+        assertArrayEquals(new float[]{2f, 5f}, scores, 0f);
+        assertEquals(3, client.cachedScoreCount());
+
+        client.rerank("another question", Collections.singletonList("passage 1"));
+        assertEquals(3, client.batchSizes().size(), "scores are specific to the query");
+    }
+
+    @Test
+    void passagesMissingFromTheResponseAreNotCached() throws Exception {
+        StubClient client = new StubClient(new RerankerSettings().setBatchSize(10));
+
+        float[] scores = client.rerank("query", Arrays.asList("passage 1", "passage NaN"));
+
+        assertArrayEquals(new float[]{1f, 0f}, scores, 0f);
+        assertEquals(1, client.cachedScoreCount());
+    }
+
+    /**
+     * Scores each passage with the number at its end ("NaN" for a passage the response lacks).
+     */
+    private static class StubClient extends HttpRerankerClient {
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+        StubClient(RerankerSettings settings) {
+            super(settings);
+        }
+
+        @Override
+        float[] requestScores(String query, List<String> passages) {
+            batchSizes.add(passages.size());
+            float[] scores = new float[passages.size()];
+            for (int i = 0; i < scores.length; i++) {
+                String passage = passages.get(i);
+                scores[i] = Float.parseFloat(passage.substring(passage.lastIndexOf(' ') + 1));
+            }
+            return scores;
+        }
+
+        List<Integer> batchSizes() {
+            synchronized (batchSizes) {
+                List<Integer> sorted = new ArrayList<>(batchSizes);
+                Collections.sort(sorted, Collections.reverseOrder());
+                return sorted;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.model.Chunk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the near-real-time reader handling and the lazy chunk cache of {@link LuceneLexicalIndex}.
+ */
+class LuceneLexicalIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesBecomeVisibleWithinMaxStaleness() throws Exception {
+        LuceneLexicalIndex index = new LuceneLexicalIndex(dir, 200);
+        try {
+            assertTrue(index.isEmpty());
+            index.indexChunk(chunk("c1", "the quick brown fox"));
+            assertFalse(index.isEmpty(), "emptiness is known before the reopen");
+
+            long deadline = System.currentTimeMillis() + 2000;
+            while (index.search("quick", 10).isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, index.search("quick", 10).size());
+            // With staleness allowed, size() does not wait for the reopen either
+            index.indexChunk(chunk("c2", "lazy dog"));
+            deadline = System.currentTimeMillis() + 2000;
+            while (index.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(2, index.size());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    void uncommittedChunksAreTrackedLikeIndexedOnes() throws Exception {
+        LuceneLexicalIndex index = new LuceneLexicalIndex(dir, 60_000);
+        try {
+            index.addChunks(Arrays.asList(positioned("a-0", "docA", 0), positioned("b-0", "docB", 0)));
+            assertFalse(index.isEmpty());
+            // Waits for the writes instead of the next scheduled reopen
+            assertEquals(2, index.documentCount());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    void searchDoesNotWaitForRunningWriter() throws Exception {
+        LuceneLexicalIndex index = new LuceneLexicalIndex(dir, 100);
+        index.indexChunk(chunk("c1", "mainframe dataset"));
+        index.refresh();
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch writerHoldsLock = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            // Same monitor the write methods synchronize on
+            synchronized (index) {
+                writerHoldsLock.countDown();
+                try {
+                    releaseWriter.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        try {
+            writer.start();
+            writerHoldsLock.await();
+            Future<Integer> hits = pool.submit(() -> index.search("dataset", 10).size());
+            assertEquals(1, hits.get(5, TimeUnit.SECONDS).intValue());
+        } finally {
+            releaseWriter.countDown();
+            writer.join();
+            pool.shutdownNow();
+            index.close();
+        }
+    }
+
+    @Test
+    void lazyModeLoadsChunksFromStoredFieldsAfterReopen() throws Exception {
+        RagConfig config = RagConfig.defaults()
+                .setChunkCacheMode(RagConfig.ChunkCacheMode.LAZY)
+                .setChunkCacheSize(2);
+        LuceneLexicalIndex index = new LuceneLexicalIndex(dir, config);
+        // Indexed out of order: the per-document list must follow the chunk position
+        index.indexChunks(Arrays.asList(
+                positioned("d1-2", "doc1", 2), positioned("d1-0", "doc1", 0),
+                positioned("d1-1", "doc1", 1), positioned("d2-0", "doc2", 0)));
+        index.close();
+
+        LuceneLexicalIndex reopened = new LuceneLexicalIndex(dir, config);
+        try {
+            assertEquals(2, reopened.documentCount());
+            assertEquals(3, reopened.countChunks("doc1"));
+
+            List<Chunk> docChunks = reopened.getChunksByDocumentId("doc1");
+            assertEquals(Arrays.asList("d1-0", "d1-1", "d1-2"), ids(docChunks));
+
+            List<Chunk> chunks = reopened.getChunks(Arrays.asList("d2-0", "missing", "d1-1", "d1-2"));
+            assertEquals(Arrays.asList("d2-0", "d1-1", "d1-2"), ids(chunks));
+            assertEquals("text d1-1", reopened.getChunk("d1-1").getText());
+            assertEquals(1, reopened.getChunk("d1-1").getPosition());
+            assertNull(reopened.getChunk("missing"));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static Chunk positioned(String id, String documentId, int position) {
+        return Chunk.builder().chunkId(id).documentId(documentId).position(position).text("text " + id).build();
+    }
+
+    private static List<String> ids(List<Chunk> chunks) {
+        String[] ids = new String[chunks.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = chunks.get(i).getChunkId();
+        }
+        return Arrays.asList(ids);
+    }
+
+    private static Chunk chunk(String id, String text) {
+        return Chunk.builder().chunkId(id).documentId("doc-" + id).text(text).build();
+    }
+}
@@ -0,0 +1,126 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MappedVectorStore}: survival across reopen, removals, crash recovery and half-float encoding.
+ */
+class MappedVectorStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void vectorsSurviveReopen() throws Exception {
+        MappedVectorStore store = new MappedVectorStore(dir, MappedVectorStore.Encoding.FLOAT32);
+        store.add("c1", "doc1", new float[]{1f, 0f, 0f});
+        store.add("c2", "doc1", new float[]{0f, 1f, 0f});
+        store.add("c3", "doc2", new float[]{0f, 0f, 1f});
+        store.release("c2");
+        store.close();
+
+        MappedVectorStore reopened = new MappedVectorStore(dir, MappedVectorStore.Encoding.FLOAT32);
+        List<VectorStorage.StoredVector> entries = reopened.entries();
+        assertEquals(2, entries.size());
+        assertEquals("c1", entries.get(0).chunkId);
+        assertEquals("c3", entries.get(1).chunkId);
+        assertEquals("doc2", entries.get(1).documentId);
+        assertArrayEquals(new float[]{0f, 0f, 1f}, reopened.read(entries.get(1).slot), 0f);
+        assertEquals(1f, reopened.dot(entries.get(0).slot, new float[]{1f, 0f, 0f}), 1e-6f);
+        reopened.close();
+    }
+
+    @Test
+    void vectorsAfterTheLastFlushAreDropped() throws Exception {
+        MappedVectorStore store = new MappedVectorStore(dir, MappedVectorStore.Encoding.FLOAT32);
+        store.add("c1", "doc1", new float[]{1f, 0f, 0f});
+        store.flush();
+        store.add("c2", "doc1", new float[]{0f, 1f, 0f});
+        // Crash: the log record of c2 reached the disk, its vector may not have
+        try (DataOutputStream log = new DataOutputStream(
+                new FileOutputStream(dir.resolve(MappedVectorStore.INDEX_FILE).toFile(), true))) {
+            log.writeByte(1);
+            log.writeUTF("c2");
+            log.writeUTF("doc1");
+            log.writeInt(1);
+        }
+
+        MappedVectorStore reopened = new MappedVectorStore(dir, MappedVectorStore.Encoding.FLOAT32);
+        assertEquals(1, reopened.entries().size());
+        assertEquals("c1", reopened.entries().get(0).chunkId);
+        assertEquals(1, reopened.add("c3", "doc2", new float[]{0f, 0f, 1f}), "uncommitted slot is reused");
+        reopened.close();
+
+        MappedVectorStore again = new MappedVectorStore(dir, MappedVectorStore.Encoding.FLOAT32);
+        List<VectorStorage.StoredVector> entries = again.entries();
+        assertEquals(2, entries.size());
+        assertEquals("c3", entries.get(1).chunkId);
+        assertArrayEquals(new float[]{0f, 0f, 1f}, again.read(entries.get(1).slot), 0f);
+        again.close();
+    }
+
+    @Test
+    void halfFloatKeepsThreeDigits() throws Exception {
+        MappedVectorStore store = new MappedVectorStore(dir, MappedVectorStore.Encoding.FLOAT16);
+        float[] vector = {0.123456f, -0.5f, 0.0009765625f, 0.75f};
+        int slot = store.add("c1", "doc1", vector);
+        float[] read = store.read(slot);
+        for (int i = 0; i < vector.length; i++) {
+            assertEquals(vector[i], read[i], Math.abs(vector[i]) * 1e-3f);
+        }
+        store.close();
+    }
+
+    @Test
+    void hnswRestoresGraphWithoutReembedding() throws Exception {
+        RagConfig config = RagConfig.defaults();
+        Map<String, Chunk> chunks = new HashMap<>();
+        HnswSemanticIndex index = new HnswSemanticIndex(config,
+                new MappedVectorStore(dir, MappedVectorStore.Encoding.FLOAT32));
+        for (int i = 0; i < 20; i++) {
+            Chunk chunk = Chunk.builder().chunkId("c" + i).documentId("doc" + (i % 2)).text("t" + i).build();
+            chunks.put(chunk.getChunkId(), chunk);
+            float[] v = new float[8];
+            v[i % 8] = 1f;
+            v[(i + 1) % 8] = i / 20f;
+            index.indexChunk(chunk, v);
+        }
+        index.removeDocument("doc1");
+        index.close();
+
+        HnswSemanticIndex restored = new HnswSemanticIndex(config,
+                new MappedVectorStore(dir, MappedVectorStore.Encoding.FLOAT32));
+        List<Integer> lookups = new ArrayList<>();
+        assertEquals(10, restored.restore(ids -> {
+            lookups.add(ids.size());
+            List<Chunk> found = new ArrayList<>();
+            for (String id : ids) {
+                if (chunks.containsKey(id)) found.add(chunks.get(id));
+            }
+            return found;
+        }));
+        assertEquals(10, restored.size());
+        assertEquals(1, lookups.size(), "chunks are looked up in one batch");
+
+        float[] query = new float[8];
+        query[0] = 1f;
+        List<ScoredChunk> results = restored.search(query, 1);
+        assertEquals("c0", results.get(0).getChunkId());
+        assertEquals("t0", results.get(0).getText(), "text is loaded for the results");
+        restored.close();
+    }
+}
@@ -0,0 +1,89 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.model.AiProvider;
+import de.bund.zrb.rag.config.EmbeddingSettings;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cache and batch handling of {@link MultiProviderEmbeddingClient#embedBatch}
+ * (the HTTP calls are replaced by a stub).
+ */
+class MultiProviderEmbeddingClientTest {
+
+    @Test
+    void cachedTextsAreNotSentAgain() {
+        StubClient client = new StubClient(2);
+
+        List<float[]> first = client.embedBatch(Arrays.asList("1", "2", "3"));
+        List<float[]> second = client.embedBatch(Arrays.asList("2", "4", "1"));
+
+        assertEquals(Arrays.asList(Arrays.asList("1", "2"), Collections.singletonList("3"),
+                Collections.singletonList("4")), client.batches);
+        assertEquals(3f, first.get(2)[0], 0f);
+        assertEquals(2f, second.get(0)[0], 0f);
+        assertEquals(4f, second.get(1)[0], 0f);
+        assertEquals(1f, second.get(2)[0], 0f);
+    }
+
+    @Test
+    void failedBatchFallsBackToSingleTexts() {
+        StubClient client = new StubClient(3);
+
+        List<float[]> vectors = client.embedBatch(Arrays.asList("1", "bad", "3"));
+
+        assertEquals(1f, vectors.get(0)[0], 0f);
+        assertEquals(0, vectors.get(1).length, "failed text gets an empty vector");
+        assertEquals(3f, vectors.get(2)[0], 0f);
+        assertEquals(Arrays.asList("1", "bad", "3"), client.singles);
+
+        client.embedBatch(Arrays.asList("1", "3"));
+        assertEquals(1, client.batches.size(), "texts embedded one by one are cached too");
+    }
+
+    /**
+     * Embeds a number as a one-dimensional vector of that number; fails for "bad".
+     */
+    private static class StubClient extends MultiProviderEmbeddingClient {
+        final List<List<String>> batches = new ArrayList<>();
+        final List<String> singles = new ArrayList<>();
+
+        StubClient(int batchSize) {
+            super(new EmbeddingSettings().setProvider(AiProvider.LOCAL_AI).setEnabled(true).setBatchSize(batchSize),
+                    new EmbeddingCache(100));
+        }
+
+        @Override
+        float[] embedInternal(String text) throws IOException {
+            // Also called from the constructor to probe availability, before the fields are set
+            if (singles != null && !"test".equals(text)) {
+                singles.add(text);
+            }
+            return vector(text);
+        }
+
+        @Override
+        List<float[]> embedBatchInternal(List<String> texts) throws IOException {
+            batches.add(new ArrayList<>(texts));
+            List<float[]> vectors = new ArrayList<>();
+            for (String text : texts) {
+                vectors.add(vector(text));
+            }
+            return vectors;
+        }
+
+        private static float[] vector(String text) throws IOException {
+            if ("bad".equals(text)) {
+                throw new IOException("cannot embed " + text);
+            }
+            return new float[]{"test".equals(text) ? 0f : Float.parseFloat(text)};
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link QuantizedSemanticIndex}: recall of the int8 and binary first pass
+ * after full-precision re-scoring, and removal.
+ */
+class QuantizedSemanticIndexTest {
+
+    private static final int DIM = 64;
+
+    @Test
+    void int8RecallAgainstBruteForce() {
+        double recall = recall(RagConfig.VectorQuantization.INT8, 4, 64);
+        assertTrue(recall >= 0.95, "recall@10: " + recall);
+    }
+
+    @Test
+    void binaryRecallAgainstBruteForce() {
+        // Sign bits only separate well on clustered data with many dimensions – like real embeddings
+        double recall = recall(RagConfig.VectorQuantization.BINARY, 20, 256);
+        assertTrue(recall >= 0.85, "recall@10: " + recall);
+    }
+
+    @Test
+    void scoresAreFullPrecisionCosine() {
+        QuantizedSemanticIndex index = new QuantizedSemanticIndex(
+                RagConfig.VectorQuantization.BINARY, 4, new HeapVectorStorage());
+        index.indexChunk(chunk("c1", "doc1"), new float[]{3f, 4f});
+        List<ScoredChunk> results = index.search(new float[]{1f, 0f}, 1);
+        assertEquals(0.6f, results.get(0).getScore(), 1e-6f);
+    }
+
+    @Test
+    void removedDocumentsAreNotReturned() {
+        Random random = new Random(5);
+        QuantizedSemanticIndex index = new QuantizedSemanticIndex(
+                RagConfig.VectorQuantization.INT8, 4, new HeapVectorStorage());
+        float[] target = randomVector(random);
+        index.indexChunk(chunk("gone", "docA"), target);
+        for (int i = 0; i < 10; i++) {
+            index.indexChunk(chunk("c" + i, "docB"), randomVector(random));
+        }
+
+        index.removeDocument("docA");
+
+        assertEquals(10, index.size());
+        assertNull(index.getChunk("gone"));
+        for (ScoredChunk sc : index.search(target, 20)) {
+            assertNotEquals("gone", sc.getChunkId());
+        }
+    }
+
+    private double recall(RagConfig.VectorQuantization quantization, int multiplier, int dim) {
+        Random random = new Random(11);
+        float[][] centers = new float[40][];
+        for (int c = 0; c < centers.length; c++) {
+            centers[c] = randomVector(random, dim);
+        }
+        QuantizedSemanticIndex quantized = new QuantizedSemanticIndex(quantization, multiplier, new HeapVectorStorage());
+        InMemorySemanticIndex exact = new InMemorySemanticIndex();
+        for (int i = 0; i < 2000; i++) {
+            Chunk chunk = chunk("c" + i, "doc" + (i / 20));
+            float[] vector = near(centers[i % centers.length], random);
+            quantized.indexChunk(chunk, vector);
+            exact.indexChunk(chunk, vector);
+        }
+
+        int k = 10;
+        int hits = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = near(centers[random.nextInt(centers.length)], random);
+            Set<String> expected = new HashSet<>();
+            for (ScoredChunk sc : exact.search(query, k)) {
+                expected.add(sc.getChunkId());
+            }
+            for (ScoredChunk sc : quantized.search(query, k)) {
+                if (expected.contains(sc.getChunkId())) {
+                    hits++;
+                }
+            }
+        }
+        return hits / (double) (queries * k);
+    }
+
+    private static float[] near(float[] center, Random random) {
+        float[] v = new float[center.length];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = center[i] + (float) random.nextGaussian();
+        }
+        return v;
+    }
+
+    private static Chunk chunk(String id, String documentId) {
+        return Chunk.builder().chunkId(id).documentId(documentId).text(id).build();
+    }
+
+    private static float[] randomVector(Random random) {
+        return randomVector(random, DIM);
+    }
+
+    private static float[] randomVector(Random random, int dim) {
+        float[] v = new float[dim];
+        for (int i = 0; i < dim; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return v;
+    }
+}
@@ -0,0 +1,148 @@
+package de.bund.zrb.rag.infrastructure;
+
+import de.bund.zrb.ingestion.model.document.Document;
+import de.bund.zrb.ingestion.usecase.RenderDocumentUseCase;
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.model.Chunk;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link StreamingMarkdownChunker}: the chunks must equal those of
+ * {@link MarkdownChunker#chunkMarkdown} on the whole string, however the reader splits the input.
+ */
+class StreamingMarkdownChunkerTest {
+
+    private static final String[] PIECES = {
+            "# Title\n\n", "## Section\n", "###### Deep\n", "####### not a heading\n", "#no space\n",
+            "Plain sentence. ", "Another one! ", "Question? ", "word ", "longwordwithoutbreaks",
+            "\n", "\n\n", "   ", "\t", "\r\n", "\r", "#  \n\n", "# \t\n\nswallowed line\n",
+            "- item\n", "| a | b |\n", "```\ncode\n```\n", " ", "\u0085", "x.\n",
+    };
+
+    @Test
+    void matchesMarkdownChunkerOnRandomDocuments() throws IOException {
+        Random random = new Random(42);
+        for (int[] sizes : new int[][]{{80, 15}, {120, 70}, {40, 0}, {1200, 150}}) {
+            RagConfig config = new RagConfig().setChunkSizeChars(sizes[0]).setOverlapChars(sizes[1]);
+            for (int doc = 0; doc < 300; doc++) {
+                StringBuilder sb = new StringBuilder();
+                int pieces = random.nextInt(200);
+                for (int i = 0; i < pieces; i++) {
+                    sb.append(PIECES[random.nextInt(PIECES.length)]);
+                }
+                assertSameChunks(config, sb.toString(), random);
+            }
+        }
+    }
+
+    @Test
+    void matchesMarkdownChunkerOnEdgeCases() throws IOException {
+        RagConfig config = new RagConfig().setChunkSizeChars(50).setOverlapChars(10);
+        List<String> docs = Arrays.asList(
+                "",
+                "x",
+                "# Only heading",
+                "#",
+                "# \n",
+                "#\n\n\nHeading from the next line\nbody",
+                "Text before\n# A\nshort\n# B\n" + repeat("Long section text. ", 20),
+                "Text" + repeat(" ", 200) + "end",
+                "No headings at all. " + repeat("Some more text here. ", 30) + "   \n\n  ",
+                "Trailing\n# H   ",
+                "  leading whitespace\n# A\nbody"
+        );
+        for (String doc : docs) {
+            assertSameChunks(config, doc, new Random(doc.hashCode()));
+        }
+    }
+
+    @Test
+    void renderedDocumentStreamMatchesRenderedString() throws IOException {
+        List<String> items = Arrays.asList("eins", "zwei");
+        Document document = Document.builder()
+                .paragraph("   ")
+                .heading(1, "Kapitel")
+                .paragraph(repeat("Ein Satz im Absatz. ", 200))
+                .list(false, items)
+                .heading(2, "Unterkapitel")
+                .code("java", "int x = 1;")
+                .paragraph("  \n ")
+                .build();
+        RenderDocumentUseCase render = new RenderDocumentUseCase();
+
+        String expected = render.renderToMarkdown(document);
+        assertEquals(expected, readAll(render.openMarkdownReader(document)));
+
+        StreamingMarkdownChunker chunker = new StreamingMarkdownChunker(RagConfig.defaults());
+        List<Chunk> streamed = new ArrayList<>();
+        chunker.chunkMarkdown(render.openMarkdownReader(document), "doc", "doc.md", null, streamed::add);
+        assertChunksEqual(new MarkdownChunker(RagConfig.defaults()).chunkMarkdown(expected, "doc", "doc.md", null),
+                streamed, expected);
+    }
+
+    private static void assertSameChunks(RagConfig config, String markdown, Random random) throws IOException {
+        List<Chunk> expected = new MarkdownChunker(config).chunkMarkdown(markdown, "doc", "src", "text/markdown");
+        List<Chunk> actual = new ArrayList<>();
+        new StreamingMarkdownChunker(config).chunkMarkdown(new SplittingReader(markdown, random),
+                "doc", "src", "text/markdown", actual::add);
+        assertChunksEqual(expected, actual, markdown);
+    }
+
+    private static void assertChunksEqual(List<Chunk> expected, List<Chunk> actual, String markdown) {
+        assertEquals(expected.size(), actual.size(), "chunk count for: " + markdown);
+        for (int i = 0; i < expected.size(); i++) {
+            Chunk e = expected.get(i);
+            Chunk a = actual.get(i);
+            String where = "chunk " + i + " of: " + markdown;
+            assertEquals(e.getChunkId(), a.getChunkId(), where);
+            assertEquals(e.getPosition(), a.getPosition(), where);
+            assertEquals(e.getText(), a.getText(), where);
+            assertEquals(e.getHeading(), a.getHeading(), where);
+            assertEquals(e.getStartOffset(), a.getStartOffset(), where);
+            assertEquals(e.getEndOffset(), a.getEndOffset(), where);
+        }
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[7];
+        int n;
+        while ((n = reader.read(buf)) != -1) {
+            sb.append(buf, 0, n);
+        }
+        return sb.toString();
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) sb.append(s);
+        return sb.toString();
+    }
+
+    /**
+     * Returns at most a few characters per read, so every buffer boundary gets exercised.
+     */
+    private static class SplittingReader extends StringReader {
+        private final Random random;
+
+        SplittingReader(String s, Random random) {
+            super(s);
+            this.random = random;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, 1 + random.nextInt(9)));
+        }
+    }
+}
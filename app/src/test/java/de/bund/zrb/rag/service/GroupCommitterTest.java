@@ -0,0 +1,86 @@
+package de.bund.zrb.rag.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link GroupCommitter}: commits on the chunk and time thresholds, and callbacks
+ * only after the covering commit.
+ */
+class GroupCommitterTest {
+
+    @Test
+    void commitsWhenEnoughChunksArePending() {
+        AtomicInteger commits = new AtomicInteger();
+        GroupCommitter committer = new GroupCommitter(commits::incrementAndGet, 10, 60000);
+        Recorder recorder = new Recorder();
+
+        committer.written(4, recorder);
+        committer.written(4, recorder);
+        assertEquals(0, commits.get());
+        assertTrue(recorder.committed.isEmpty(), "no callback before the commit");
+
+        committer.written(4, recorder);
+        assertEquals(1, commits.get());
+        assertEquals(3, recorder.committed.size());
+        assertEquals(0, committer.pendingWrites());
+    }
+
+    @Test
+    void timerCommitsAfterTheInterval() throws InterruptedException {
+        AtomicInteger commits = new AtomicInteger();
+        GroupCommitter committer = new GroupCommitter(commits::incrementAndGet, 1000, 100);
+        Recorder recorder = new Recorder();
+        committer.open();
+        try {
+            committer.written(1, recorder);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (recorder.committed.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, recorder.committed.size());
+            assertEquals(1, commits.get());
+        } finally {
+            committer.release();
+        }
+    }
+
+    @Test
+    void releaseCommitsTheRestAndFailuresReachTheCallbacks() {
+        GroupCommitter failing = new GroupCommitter(() -> {
+            throw new IOException("disk full");
+        }, 1000, 60000);
+        Recorder recorder = new Recorder();
+        failing.open();
+        failing.written(3, recorder);
+        failing.written(2, recorder);
+
+        failing.release();
+
+        assertTrue(recorder.committed.isEmpty());
+        assertEquals(2, recorder.failures.size());
+        assertEquals("disk full", recorder.failures.get(0).getMessage());
+    }
+
+    private static class Recorder implements BulkIngestSession.CommitCallback {
+        final List<Integer> committed = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+
+        @Override
+        public void committed(int chunkCount, long commitMillis) {
+            committed.add(chunkCount);
+        }
+
+        @Override
+        public void failed(Exception e) {
+            failures.add(e);
+        }
+    }
+}
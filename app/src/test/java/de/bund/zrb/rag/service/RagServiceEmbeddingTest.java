@@ -0,0 +1,140 @@
+package de.bund.zrb.rag.service;
+
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.port.EmbeddingClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the batched embedding of {@link RagService}: batch splitting and the per-chunk
+ * fallback when a batch fails (the embedding provider is replaced by a stub).
+ */
+class RagServiceEmbeddingTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void chunksAreSplitIntoBatchesAndKeepTheirOrder() {
+        StubClient client = new StubClient();
+
+        List<float[]> vectors = RagService.embedChunks(client, chunks("1", "2", "3", "4", "5", "6", "7"), 3, executor);
+
+        assertEquals(Arrays.asList(1, 3, 3), client.batchSizes());
+        assertEquals(7, vectors.size());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i + 1, vectors.get(i)[0], 0f);
+        }
+    }
+
+    @Test
+    void failedBatchFallsBackToSingleChunks() {
+        StubClient client = new StubClient();
+
+        List<float[]> vectors = RagService.embedChunks(client, chunks("1", "bad", "3", "4"), 2, executor);
+
+        assertEquals(1f, vectors.get(0)[0], 0f);
+        assertNull(vectors.get(1), "the failing chunk stays lexical-only");
+        assertEquals(3f, vectors.get(2)[0], 0f);
+        assertEquals(4f, vectors.get(3)[0], 0f);
+        assertEquals(Arrays.asList("1", "bad"), client.singles(), "only the failed batch is retried");
+    }
+
+    @Test
+    void shortBatchResultIsRetriedChunkByChunk() {
+        StubClient client = new StubClient();
+        client.dropLast = true;
+
+        List<float[]> vectors = RagService.embedBatch(client, chunks("1", "2"));
+
+        assertEquals(2f, vectors.get(1)[0], 0f);
+        assertEquals(Arrays.asList("1", "2"), client.singles());
+    }
+
+    private static List<Chunk> chunks(String... texts) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (String text : texts) {
+            chunks.add(Chunk.builder().chunkId("c" + text).documentId("doc").text(text).build());
+        }
+        return chunks;
+    }
+
+    /**
+     * Embeds a number as a one-dimensional vector of that number; fails for "bad".
+     */
+    private static class StubClient implements EmbeddingClient {
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        private final List<String> singles = Collections.synchronizedList(new ArrayList<String>());
+        volatile boolean dropLast;
+
+        @Override
+        public float[] embed(String text) {
+            singles.add(text);
+            return vector(text);
+        }
+
+        @Override
+        public List<float[]> embedBatch(List<String> texts) {
+            batchSizes.add(texts.size());
+            List<float[]> vectors = new ArrayList<>();
+            for (String text : texts) {
+                vectors.add(vector(text));
+            }
+            if (dropLast) {
+                vectors.remove(vectors.size() - 1);
+            }
+            return vectors;
+        }
+
+        private static float[] vector(String text) {
+            if ("bad".equals(text)) {
+                throw new IllegalStateException("cannot embed " + text);
+            }
+            return new float[]{Float.parseFloat(text)};
+        }
+
+        List<Integer> batchSizes() {
+            synchronized (batchSizes) {
+                List<Integer> sorted = new ArrayList<>(batchSizes);
+                Collections.sort(sorted);
+                return sorted;
+            }
+        }
+
+        List<String> singles() {
+            synchronized (singles) {
+                List<String> sorted = new ArrayList<>(singles);
+                Collections.sort(sorted);
+                return sorted;
+            }
+        }
+
+        @Override
+        public int getDimension() {
+            return 1;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public String getModelName() {
+            return "stub";
+        }
+    }
+}
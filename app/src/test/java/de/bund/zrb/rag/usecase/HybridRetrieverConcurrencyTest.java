@@ -0,0 +1,175 @@
+package de.bund.zrb.rag.usecase;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+import de.bund.zrb.rag.port.EmbeddingClient;
+import de.bund.zrb.rag.port.LexicalIndex;
+import de.bund.zrb.rag.port.RerankerClient;
+import de.bund.zrb.rag.port.SemanticIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the concurrent Stage 1/Stage 2 execution of {@link HybridRetriever}:
+ * stage deadlines, the reranker latency budget, reciprocal rank fusion and the reported timings.
+ */
+class HybridRetrieverConcurrencyTest {
+
+    @Test
+    void slowEmbeddingMissesDeadlineAndLexicalResultsAreUsed() {
+        RagConfig config = new RagConfig().setFinalTopK(3).setSemanticStageTimeoutMs(100);
+        HybridRetriever retriever = new HybridRetriever(
+                new FixedLexicalIndex(ranked("lex", 3)), new FixedSemanticIndex(ranked("sem", 3)),
+                new SlowEmbeddingClient(5000), config);
+
+        long start = System.currentTimeMillis();
+        HybridRetriever.RetrievalResult result = retriever.retrieveWithTimings("query", 3, null);
+
+        assertTrue(System.currentTimeMillis() - start < 2000, "retrieval must not wait for the slow stage");
+        assertTrue(result.getTimings().semanticTimedOut);
+        assertFalse(result.getTimings().lexicalTimedOut);
+        assertEquals(3, result.getChunks().size());
+        assertTrue(result.getChunks().get(0).getChunkId().startsWith("lex"));
+    }
+
+    @Test
+    void slowRerankerFallsBackToFusedRanking() {
+        RagConfig config = new RagConfig().setFinalTopK(2).setFallbackMode(RagConfig.FallbackMode.LEXICAL_ONLY);
+        HybridRetriever retriever = new HybridRetriever(
+                new FixedLexicalIndex(ranked("lex", 5)), new FixedSemanticIndex(ranked("sem", 1)),
+                new SlowEmbeddingClient(0), config);
+        retriever.setRerankerClient(new SlowReranker(5000, 100));
+
+        long start = System.currentTimeMillis();
+        HybridRetriever.RetrievalResult result = retriever.retrieveWithTimings("query", 2, null);
+
+        assertTrue(System.currentTimeMillis() - start < 2000, "retrieval must not wait for the reranker");
+        assertTrue(result.getTimings().rerankTimedOut);
+        assertEquals(2, result.getChunks().size());
+        assertEquals("lex0", result.getChunks().get(0).getChunkId());
+        assertEquals(ScoredChunk.ScoreSource.LEXICAL, result.getChunks().get(0).getSource());
+    }
+
+    @Test
+    void reciprocalRankFusionFavoursChunksRankedByBothStages() {
+        List<ScoredChunk> lexical = ranked("a", 3);
+        // Raw semantic scores are on a different scale; only the ranks matter
+        List<ScoredChunk> semantic = new ArrayList<>();
+        semantic.add(new ScoredChunk(chunk("a2"), 0.9f, ScoredChunk.ScoreSource.SEMANTIC));
+        semantic.add(new ScoredChunk(chunk("b0"), 0.8f, ScoredChunk.ScoreSource.SEMANTIC));
+        RagConfig config = new RagConfig().setFinalTopK(4)
+                .setWeightLexical(0.5f).setWeightSemantic(0.5f)
+                .setMergeMode(RagConfig.MergeMode.RECIPROCAL_RANK);
+        HybridRetriever retriever = new HybridRetriever(
+                new FixedLexicalIndex(lexical), new FixedSemanticIndex(semantic),
+                new SlowEmbeddingClient(0), config);
+
+        List<ScoredChunk> results = retriever.retrieve("query", 4);
+
+        assertEquals("a2", results.get(0).getChunkId());
+        float expected = 0.5f / (60 + 3) + 0.5f / (60 + 1);
+        assertEquals(expected, results.get(0).getScore(), 1e-6f);
+        assertEquals(ScoredChunk.ScoreSource.HYBRID, results.get(0).getSource());
+    }
+
+    private static List<ScoredChunk> ranked(String prefix, int count) {
+        List<ScoredChunk> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(new ScoredChunk(chunk(prefix + i), 10f - i, ScoredChunk.ScoreSource.LEXICAL));
+        }
+        return results;
+    }
+
+    private static Chunk chunk(String id) {
+        return Chunk.builder().chunkId(id).documentId("doc").text("text " + id).build();
+    }
+
+    private static class FixedLexicalIndex implements LexicalIndex {
+        private final List<ScoredChunk> results;
+
+        FixedLexicalIndex(List<ScoredChunk> results) {
+            this.results = results;
+        }
+
+        @Override public List<ScoredChunk> search(String query, int topN) { return new ArrayList<>(results); }
+        @Override public void indexChunk(Chunk chunk) {}
+        @Override public void indexChunks(List<Chunk> chunks) {}
+        @Override public void removeDocument(String documentId) {}
+        @Override public void clear() {}
+        @Override public int size() { return results.size(); }
+        @Override public boolean isAvailable() { return true; }
+    }
+
+    private static class FixedSemanticIndex implements SemanticIndex {
+        private final List<ScoredChunk> results;
+
+        FixedSemanticIndex(List<ScoredChunk> results) {
+            this.results = results;
+        }
+
+        @Override public List<ScoredChunk> search(float[] queryEmbedding, int topN) { return new ArrayList<>(results); }
+        @Override public void indexChunk(Chunk chunk, float[] embedding) {}
+        @Override public Chunk getChunk(String chunkId) { return null; }
+        @Override public void removeDocument(String documentId) {}
+        @Override public void clear() {}
+        @Override public int size() { return results.size(); }
+        @Override public boolean isAvailable() { return true; }
+        @Override public int getDimension() { return 1; }
+    }
+
+    private static class SlowReranker implements RerankerClient {
+        private final long delayMs;
+        private final long budgetMs;
+
+        SlowReranker(long delayMs, long budgetMs) {
+            this.delayMs = delayMs;
+            this.budgetMs = budgetMs;
+        }
+
+        @Override
+        public float[] rerank(String query, List<String> passages) throws RerankerException {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new float[passages.size()];
+        }
+
+        @Override public boolean isAvailable() { return true; }
+        @Override public String getDescription() { return "slow"; }
+        @Override public int getCandidatePoolSize() { return 10; }
+        @Override public int getTopN() { return 5; }
+        @Override public float getScoreThreshold() { return 0f; }
+        @Override public long getLatencyBudgetMs() { return budgetMs; }
+    }
+
+    private static class SlowEmbeddingClient implements EmbeddingClient {
+        private final long delayMs;
+
+        SlowEmbeddingClient(long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public float[] embed(String text) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new float[]{1f};
+        }
+
+        @Override public List<float[]> embedBatch(List<String> texts) { return Collections.emptyList(); }
+        @Override public int getDimension() { return 1; }
+        @Override public boolean isAvailable() { return true; }
+        @Override public String getModelName() { return "slow"; }
+    }
+}
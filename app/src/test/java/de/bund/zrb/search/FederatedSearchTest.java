@@ -0,0 +1,145 @@
+package de.bund.zrb.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link FederatedSearch}: completion-order delivery, merging and cancellation.
+ */
+class FederatedSearchTest {
+
+    private static final FederatedSearch.Finisher PASS_THROUGH = (results, warnings, complete) -> results;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fastSourcesAreDeliveredWithoutWaitingForSlowOnes() throws Exception {
+        final List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch wikiDelivered = new CountDownLatch(1);
+        final CountDownLatch releaseConfluence = new CountDownLatch(1);
+        FederatedSearch search = new FederatedSearch(batch -> {
+            for (SearchResult r : batch) {
+                delivered.add(r.getDocumentId());
+                if (r.getDocumentId().startsWith("wiki")) wikiDelivered.countDown();
+            }
+        });
+        search.addSource("Confluence", FederatedSearch.Kind.LIVE, () -> {
+            releaseConfluence.await();
+            return Collections.singletonList(live("confluence://1"));
+        });
+        search.addSource("Wiki", FederatedSearch.Kind.LIVE,
+                () -> Collections.singletonList(live("wiki://1")));
+
+        search.start(executor, 0, PASS_THROUGH);
+
+        assertTrue(wikiDelivered.await(5, TimeUnit.SECONDS), "wiki result delivered while confluence is still running");
+        assertFalse(search.isDone());
+        releaseConfluence.countDown();
+        assertEquals(2, search.get(5, TimeUnit.SECONDS).size());
+        assertEquals(Arrays.asList("wiki://1", "confluence://1"), delivered);
+    }
+
+    @Test
+    void mergeRulesDoNotDependOnArrivalOrder() throws Exception {
+        final CountDownLatch lexicalMayFinish = new CountDownLatch(1);
+        FederatedSearch search = new FederatedSearch(null);
+        search.addSource("Lucene", FederatedSearch.Kind.LEXICAL, () -> {
+            lexicalMayFinish.await();
+            return Arrays.asList(indexed("doc1", "c1", 1.0f), indexed("doc2", "c2", 0.5f));
+        });
+        search.addSource("Semantik", FederatedSearch.Kind.SEMANTIC, () -> {
+            List<SearchResult> sem = Arrays.asList(indexed("doc1", "c1", 2.0f), indexed("doc3", "c3", 0.3f));
+            lexicalMayFinish.countDown(); // semantic and live first, lexical last
+            return sem;
+        });
+        search.addSource("Wiki", FederatedSearch.Kind.LIVE,
+                () -> Arrays.asList(live("doc3"), live("doc2"), live("wiki://new")));
+
+        search.start(executor, 0, PASS_THROUGH);
+        List<SearchResult> results = search.get(5, TimeUnit.SECONDS);
+
+        List<String> ids = new ArrayList<>();
+        for (SearchResult r : results) ids.add(r.getChunkId() != null ? r.getChunkId() : r.getDocumentId());
+        assertEquals(4, results.size(), ids.toString());
+        assertTrue(ids.containsAll(Arrays.asList("c1", "c2", "c3", "wiki://new")), ids.toString());
+        for (SearchResult r : results) {
+            if ("c1".equals(r.getChunkId())) {
+                assertEquals(2.4f, r.getScore(), 1e-5, "boosted: found lexically and semantically");
+            }
+        }
+    }
+
+    @Test
+    void cancelInterruptsRunningSourcesAndSuppressesCallbacks() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final List<SearchResult> delivered = Collections.synchronizedList(new ArrayList<SearchResult>());
+        FederatedSearch search = new FederatedSearch(delivered::addAll);
+        search.addSource("Confluence", FederatedSearch.Kind.LIVE, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return Collections.singletonList(live("confluence://1"));
+        });
+
+        search.start(executor, 0, PASS_THROUGH);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(search.cancel(true));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(search.isCancelled());
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    void slowLiveSourceTimesOutWithWarning() throws Exception {
+        FederatedSearch search = new FederatedSearch(null);
+        search.addSource("Confluence", FederatedSearch.Kind.LIVE, () -> {
+            Thread.sleep(10_000);
+            return Collections.singletonList(live("confluence://1"));
+        });
+        search.addSource("Lucene", FederatedSearch.Kind.LEXICAL,
+                () -> Collections.singletonList(indexed("doc1", "c1", 1f)));
+
+        final boolean[] complete = {true};
+        final String[] finishedOn = {null};
+        search.start(executor, 100, (results, warnings, allSucceeded) -> {
+            assertEquals(Collections.singletonList("Confluence: Zeitüberschreitung bei Live-Suche"), warnings);
+            complete[0] = allSucceeded;
+            finishedOn[0] = Thread.currentThread().getName();
+            return results;
+        });
+
+        assertEquals(1, search.get(5, TimeUnit.SECONDS).size());
+        assertFalse(complete[0], "a timed out source makes the results incomplete");
+        assertNotEquals("SearchTimeout", finishedOn[0], "finished on the search pool");
+    }
+
+    private static SearchResult indexed(String docId, String chunkId, float score) {
+        return new SearchResult(SearchResult.SourceType.LOCAL, docId, docId, docId, "snippet", score, chunkId, null);
+    }
+
+    private static SearchResult live(String docId) {
+        return new SearchResult(SearchResult.SourceType.WIKI, docId, docId, docId, "live", 0.1f, null, null);
+    }
+}
@@ -0,0 +1,85 @@
+package de.bund.zrb.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SearchResultCache}: key normalization, invalidation by index generation,
+ * TTL of live results and the size bound.
+ */
+class SearchResultCacheTest {
+
+    private static final List<SearchResult> RESULTS = Collections.singletonList(
+            new SearchResult(SearchResult.SourceType.LOCAL, "doc", "doc", "doc", "text", 1f, "c1", null));
+
+    @Test
+    void keyIgnoresCaseWhitespaceAndSourceOrderButNotTheRanking() {
+        String a = SearchResultCache.key("  Batch  Job ", EnumSet.of(SearchResult.SourceType.WIKI,
+                SearchResult.SourceType.LOCAL), null, 50, false, true);
+        String b = SearchResultCache.key("batch job", EnumSet.of(SearchResult.SourceType.LOCAL,
+                SearchResult.SourceType.WIKI), null, 50, false, true);
+        assertEquals(a, b);
+        assertNotEquals(a, SearchResultCache.key("batch job", EnumSet.of(SearchResult.SourceType.LOCAL),
+                null, 50, false, true));
+        assertNotEquals(a, SearchResultCache.key("batch job", EnumSet.of(SearchResult.SourceType.LOCAL,
+                SearchResult.SourceType.WIKI), "INTERN", 50, false, true));
+        assertNotEquals(a, SearchResultCache.key("batch job", EnumSet.of(SearchResult.SourceType.LOCAL,
+                SearchResult.SourceType.WIKI), null, 100, false, true));
+        assertNotEquals(a, SearchResultCache.key("batch job", EnumSet.of(SearchResult.SourceType.LOCAL,
+                SearchResult.SourceType.WIKI), null, 50, true, true), "semantic results change the key");
+        assertNotEquals(a, SearchResultCache.key("batch job", EnumSet.of(SearchResult.SourceType.LOCAL,
+                SearchResult.SourceType.WIKI), null, 50, false, false), "reranking changes the key");
+    }
+
+    @Test
+    void entryIsDroppedWhenTheIndexGenerationChanges() {
+        SearchResultCache cache = new SearchResultCache(10, 60_000);
+        cache.put("q", RESULTS, Collections.<String>emptyList(), 7, false);
+
+        SearchResultCache.Entry hit = cache.get("q", 7);
+        assertNotNull(hit);
+        assertEquals(RESULTS, hit.results());
+        assertNull(cache.get("q", 8));
+        assertNull(cache.get("q", 7), "a stale entry is removed");
+    }
+
+    @Test
+    void liveResultsExpireAfterTheTtl() throws InterruptedException {
+        SearchResultCache cache = new SearchResultCache(10, 50);
+        cache.put("live", RESULTS, Arrays.asList("Wiki: langsam"), 1, true);
+        cache.put("local", RESULTS, Collections.<String>emptyList(), 1, false);
+        assertEquals(Arrays.asList("Wiki: langsam"), cache.get("live", 1).warnings);
+
+        Thread.sleep(80);
+
+        assertNull(cache.get("live", 1));
+        assertNotNull(cache.get("local", 1), "index-only results have no TTL");
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() {
+        SearchResultCache cache = new SearchResultCache(2, 60_000);
+        cache.put("a", RESULTS, Collections.<String>emptyList(), 1, false);
+        cache.put("b", RESULTS, Collections.<String>emptyList(), 1, false);
+        cache.get("a", 1);
+        cache.put("c", RESULTS, Collections.<String>emptyList(), 1, false);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a", 1));
+        assertNull(cache.get("b", 1));
+        assertNull(new SearchResultCache(2, 60_000).get("a", 1));
+    }
+
+    @Test
+    void unknownGenerationIsNotCached() {
+        SearchResultCache cache = new SearchResultCache(10, 60_000);
+        cache.put("q", RESULTS, Collections.<String>emptyList(), -1, false);
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,35 @@
+package de.bund.zrb.rag.bench;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.infrastructure.MarkdownChunker;
+import de.bund.zrb.rag.model.Chunk;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunking throughput of {@link MarkdownChunker} for small, medium and large documents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ChunkingBenchmark {
+
+    @Param({"4096", "65536", "1048576"})
+    public int documentChars;
+
+    private MarkdownChunker chunker;
+    private String document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        chunker = new MarkdownChunker(RagConfig.defaults());
+        document = new SyntheticCorpus(42).document(documentChars);
+    }
+
+    @Benchmark
+    public List<Chunk> chunkMarkdown() {
+        return chunker.chunkMarkdown(document, "doc", "PROD.JCL.LIB", "text/markdown");
+    }
+}
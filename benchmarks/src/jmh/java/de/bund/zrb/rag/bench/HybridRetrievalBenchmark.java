@@ -0,0 +1,111 @@
+package de.bund.zrb.rag.bench;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.infrastructure.InMemorySemanticIndex;
+import de.bund.zrb.rag.infrastructure.LuceneLexicalIndex;
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+import de.bund.zrb.rag.port.EmbeddingClient;
+import de.bund.zrb.rag.usecase.HybridRetriever;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link HybridRetriever} latency (BM25 + query embedding + vector search + merge)
+ * with a stub embedding client, so the numbers exclude any network round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class HybridRetrievalBenchmark {
+
+    private static final int DIMENSION = 256;
+    private static final int QUERY_COUNT = 64;
+
+    @Param({"20000"})
+    public int chunkCount;
+
+    @Param({"WEIGHTED_SCORE", "RECIPROCAL_RANK"})
+    public RagConfig.MergeMode mergeMode;
+
+    private LuceneLexicalIndex lexicalIndex;
+    private HybridRetriever retriever;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(11);
+        List<Chunk> chunks = corpus.chunks(chunkCount, 1200, 20);
+        StubEmbeddingClient embeddingClient = new StubEmbeddingClient();
+
+        lexicalIndex = new LuceneLexicalIndex();
+        lexicalIndex.indexChunks(chunks);
+        InMemorySemanticIndex semanticIndex = new InMemorySemanticIndex();
+        for (Chunk chunk : chunks) {
+            semanticIndex.indexChunk(chunk, embeddingClient.embed(chunk.getText()));
+        }
+
+        RagConfig config = RagConfig.defaults().setMergeMode(mergeMode);
+        retriever = new HybridRetriever(lexicalIndex, semanticIndex, embeddingClient, config);
+
+        queries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = i % 2 == 0 ? corpus.longQuery() : corpus.shortQuery();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        lexicalIndex.close();
+    }
+
+    @Benchmark
+    public List<ScoredChunk> retrieve() {
+        return retriever.retrieve(queries[next++ % QUERY_COUNT], 12);
+    }
+
+    /**
+     * Deterministic pseudo-embedding derived from the text hash; costs microseconds instead of a model call.
+     */
+    static class StubEmbeddingClient implements EmbeddingClient {
+
+        @Override
+        public float[] embed(String text) {
+            Random random = new Random(text.hashCode());
+            float[] v = new float[DIMENSION];
+            for (int i = 0; i < DIMENSION; i++) {
+                v[i] = (float) random.nextGaussian();
+            }
+            return v;
+        }
+
+        @Override
+        public List<float[]> embedBatch(List<String> texts) {
+            List<float[]> vectors = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                vectors.add(embed(text));
+            }
+            return vectors;
+        }
+
+        @Override
+        public int getDimension() {
+            return DIMENSION;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public String getModelName() {
+            return "stub";
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.bund.zrb.rag.bench;
+
+import de.bund.zrb.rag.infrastructure.LuceneLexicalIndex;
+import de.bund.zrb.rag.model.Chunk;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk indexing into a fresh in-memory {@link LuceneLexicalIndex}; one invocation indexes the whole batch.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class LexicalIndexingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int chunkCount;
+
+    private List<Chunk> chunks;
+    private LuceneLexicalIndex index;
+
+    @Setup(Level.Trial)
+    public void createCorpus() {
+        chunks = new SyntheticCorpus(7).chunks(chunkCount, 1200, 20);
+    }
+
+    @Setup(Level.Invocation)
+    public void openIndex() {
+        index = new LuceneLexicalIndex();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeIndex() {
+        index.close();
+    }
+
+    @Benchmark
+    public int indexChunks() {
+        index.indexChunks(chunks);
+        return index.size();
+    }
+}
@@ -0,0 +1,64 @@
+package de.bund.zrb.rag.bench;
+
+import de.bund.zrb.rag.infrastructure.LuceneLexicalIndex;
+import de.bund.zrb.rag.model.ScoredChunk;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BM25 query latency of {@link LuceneLexicalIndex} (including {@code buildSmartQuery}) for
+ * short, long and wildcard-heavy queries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LexicalSearchBenchmark {
+
+    private static final int QUERY_COUNT = 64;
+
+    public enum QueryKind { SHORT, LONG, WILDCARD }
+
+    @Param({"50000"})
+    public int chunkCount;
+
+    @Param({"SHORT", "LONG", "WILDCARD"})
+    public QueryKind queryKind;
+
+    private LuceneLexicalIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(7);
+        index = new LuceneLexicalIndex();
+        index.indexChunks(corpus.chunks(chunkCount, 1200, 20));
+
+        queries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            switch (queryKind) {
+                case SHORT:
+                    queries[i] = corpus.shortQuery();
+                    break;
+                case LONG:
+                    queries[i] = corpus.longQuery();
+                    break;
+                default:
+                    queries[i] = corpus.wildcardHeavyQuery();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        index.close();
+    }
+
+    @Benchmark
+    public List<ScoredChunk> search() {
+        String query = queries[next++ % QUERY_COUNT];
+        return index.search(query, 50);
+    }
+}
@@ -0,0 +1,199 @@
+package de.bund.zrb.rag.bench;
+
+import de.bund.zrb.rag.model.Chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generator for mainframe-like test content: Markdown documents mixing German
+ * prose with JCL, COBOL and Natural snippets, dataset names, job names and system messages.
+ *
+ * <p>The same seed always yields the same corpus, so benchmark runs are comparable.
+ */
+public final class SyntheticCorpus {
+
+    private static final String[] PROSE = {
+            "Der Batchlauf verarbeitet die Tagesbestände", "und schreibt das Ergebnis in die Ausgabedatei",
+            "Bei einem Abbruch muss der Job ab dem letzten Checkpoint neu gestartet werden",
+            "Die Schnittstelle liefert die Buchungssätze im festen Satzformat",
+            "Vor dem Lauf wird die Sortierung nach Kontonummer geprüft",
+            "Fehlerhafte Sätze werden in eine separate Fehlerdatei ausgesteuert",
+            "Das Programm wird über die Steuerkarte parametrisiert",
+            "Die Verarbeitung erfolgt im Rahmen des Monatsabschlusses",
+            "Änderungen am Copybook erfordern eine Neuumwandlung aller Module",
+            "Die Datenbankzugriffe laufen über das Adabas-Interface",
+    };
+    private static final String[] HLQ = {"PROD", "TEST", "INT", "SYS1", "ZRB"};
+    private static final String[] QUALIFIERS = {"LOAD", "JCL", "COBOL", "NATURAL", "DATA", "BACKUP", "SORT", "KTO", "BUCH"};
+    private static final String[] PROGRAMS = {"KTOBUCH", "ZRBSORT", "ABRECH01", "MONABS", "BESTUPD", "FEHLAUS", "SUBPROG", "CALLNAT"};
+    private static final String[] MESSAGES = {
+            "IEF450I ABEND=S0C7", "IEC141I 013-18", "IGD17272I", "IEF142I COND CODE 0004",
+            "S806 MODULE NOT FOUND", "SQLCODE -805", "NAT0954 ABNORMAL TERMINATION", "IKJ56228I",
+    };
+    private static final String[] HEADINGS = {
+            "Übersicht", "Aufruf", "Parameter", "Fehlerbehandlung", "Restart", "Abhängigkeiten", "Datenfluss", "Beispiel",
+    };
+
+    private final Random random;
+
+    public SyntheticCorpus(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Markdown document of roughly {@code approxChars} characters.
+     */
+    public String document(int approxChars) {
+        StringBuilder sb = new StringBuilder(approxChars + 256);
+        sb.append("# ").append(pick(PROGRAMS)).append(" – Betriebshandbuch\n\n");
+        while (sb.length() < approxChars) {
+            sb.append("## ").append(pick(HEADINGS)).append('\n').append('\n');
+            int paragraphs = 1 + random.nextInt(3);
+            for (int p = 0; p < paragraphs; p++) {
+                sb.append(paragraph()).append("\n\n");
+            }
+            switch (random.nextInt(3)) {
+                case 0:
+                    sb.append("```jcl\n").append(jcl()).append("```\n\n");
+                    break;
+                case 1:
+                    sb.append("```cobol\n").append(cobol()).append("```\n\n");
+                    break;
+                default:
+                    sb.append("| Datei | Inhalt |\n|---|---|\n");
+                    for (int r = 0; r < 3; r++) {
+                        sb.append("| ").append(dataset()).append(" | ").append(pick(PROSE)).append(" |\n");
+                    }
+                    sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Chunks of about {@code chunkChars} characters spread over documents of {@code chunksPerDocument} chunks.
+     */
+    public List<Chunk> chunks(int count, int chunkChars, int chunksPerDocument) {
+        List<Chunk> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int doc = i / chunksPerDocument;
+            StringBuilder text = new StringBuilder(chunkChars + 64);
+            while (text.length() < chunkChars) {
+                text.append(paragraph()).append('\n');
+            }
+            chunks.add(Chunk.builder()
+                    .chunkId("doc" + doc + "-c" + (i % chunksPerDocument))
+                    .documentId("doc" + doc)
+                    .sourceName(dataset())
+                    .mimeType("text/markdown")
+                    .heading(pick(HEADINGS))
+                    .position(i % chunksPerDocument)
+                    .text(text.toString())
+                    .build());
+        }
+        return chunks;
+    }
+
+    /**
+     * One- or two-word queries (program names, message ids).
+     */
+    public String shortQuery() {
+        return random.nextBoolean() ? pick(PROGRAMS) : pick(MESSAGES).split(" ")[0];
+    }
+
+    /**
+     * Natural-language question of eight to twelve words.
+     */
+    public String longQuery() {
+        return "Warum bricht " + pick(PROGRAMS) + " mit " + pick(MESSAGES).split(" ")[0]
+                + " ab und wie wird der Job " + pick(PROGRAMS) + " neu gestartet";
+    }
+
+    /**
+     * Query made of dataset-like tokens that expand to many wildcard and fuzzy terms.
+     */
+    public String wildcardHeavyQuery() {
+        return pick(HLQ) + " " + pick(QUALIFIERS) + " " + pick(QUALIFIERS) + " " + pick(PROGRAMS).substring(0, 4);
+    }
+
+    /**
+     * Random vectors around a fixed set of cluster centres – closer to real embeddings than uniform noise.
+     */
+    public float[][] clusteredVectors(int count, int dimension, int clusters) {
+        float[][] centres = new float[clusters][];
+        for (int c = 0; c < clusters; c++) {
+            centres[c] = gaussian(dimension);
+        }
+        float[][] vectors = new float[count][];
+        for (int i = 0; i < count; i++) {
+            float[] centre = centres[random.nextInt(clusters)];
+            float[] v = new float[dimension];
+            for (int d = 0; d < dimension; d++) {
+                v[d] = centre[d] + 0.5f * (float) random.nextGaussian();
+            }
+            vectors[i] = v;
+        }
+        return vectors;
+    }
+
+    private float[] gaussian(int dimension) {
+        float[] v = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            v[d] = (float) random.nextGaussian();
+        }
+        return v;
+    }
+
+    private String paragraph() {
+        StringBuilder sb = new StringBuilder();
+        int sentences = 2 + random.nextInt(3);
+        for (int s = 0; s < sentences; s++) {
+            sb.append(pick(PROSE));
+            switch (random.nextInt(4)) {
+                case 0:
+                    sb.append(" (Datei ").append(dataset()).append(')');
+                    break;
+                case 1:
+                    sb.append(", Meldung ").append(pick(MESSAGES));
+                    break;
+                case 2:
+                    sb.append(" durch ").append(pick(PROGRAMS));
+                    break;
+                default:
+                    break;
+            }
+            sb.append(". ");
+        }
+        return sb.toString().trim();
+    }
+
+    private String jcl() {
+        String job = pick(PROGRAMS);
+        return "//" + job + "J JOB (ACCT),'" + job + "',CLASS=A,MSGCLASS=X\n"
+                + "//STEP01   EXEC PGM=" + job + "\n"
+                + "//STEPLIB  DD DSN=" + dataset() + ",DISP=SHR\n"
+                + "//EINGABE  DD DSN=" + dataset() + ",DISP=SHR\n"
+                + "//AUSGABE  DD DSN=" + dataset() + ",DISP=(NEW,CATLG,DELETE),\n"
+                + "//            SPACE=(CYL,(10,5),RLSE)\n"
+                + "//SYSOUT   DD SYSOUT=*\n";
+    }
+
+    private String cobol() {
+        return "       IDENTIFICATION DIVISION.\n"
+                + "       PROGRAM-ID. " + pick(PROGRAMS) + ".\n"
+                + "       PROCEDURE DIVISION.\n"
+                + "           PERFORM VERARBEITUNG UNTIL WS-EOF = 'J'\n"
+                + "           CALL '" + pick(PROGRAMS) + "' USING WS-SATZ\n"
+                + "           STOP RUN.\n";
+    }
+
+    private String dataset() {
+        return pick(HLQ) + "." + pick(QUALIFIERS) + "." + pick(QUALIFIERS) + random.nextInt(100);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,79 @@
+package de.bund.zrb.rag.bench;
+
+import de.bund.zrb.rag.config.RagConfig;
+import de.bund.zrb.rag.infrastructure.HeapVectorStorage;
+import de.bund.zrb.rag.infrastructure.HnswSemanticIndex;
+import de.bund.zrb.rag.infrastructure.InMemorySemanticIndex;
+import de.bund.zrb.rag.infrastructure.QuantizedSemanticIndex;
+import de.bund.zrb.rag.model.Chunk;
+import de.bund.zrb.rag.model.ScoredChunk;
+import de.bund.zrb.rag.port.SemanticIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-50 vector search over 10k, 100k and 1M chunks with the exact brute-force index, the
+ * int8-quantized index (full-precision re-scoring) and the HNSW graph with its default
+ * parameters. Building the 1M-chunk HNSW graph in the trial setup takes several minutes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class VectorSearchBenchmark {
+
+    private static final int QUERY_COUNT = 32;
+
+    public enum IndexKind { BRUTE_FORCE, INT8, HNSW }
+
+    @Param({"10000", "100000", "1000000"})
+    public int chunkCount;
+
+    @Param({"256"})
+    public int dimension;
+
+    @Param({"BRUTE_FORCE", "INT8", "HNSW"})
+    public IndexKind indexKind;
+
+    private SemanticIndex index;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(3);
+        index = createIndex(indexKind);
+
+        // Vectors are generated in slices so the 1M run does not hold them twice
+        int slice = 10000;
+        for (int from = 0; from < chunkCount; from += slice) {
+            int n = Math.min(slice, chunkCount - from);
+            float[][] vectors = corpus.clusteredVectors(n, dimension, 64);
+            for (int i = 0; i < n; i++) {
+                int id = from + i;
+                // Vector search never reads the text; keep the chunks small
+                Chunk chunk = Chunk.builder().chunkId("c" + id).documentId("d" + (id / 20)).text("").build();
+                index.indexChunk(chunk, vectors[i]);
+            }
+        }
+        queries = corpus.clusteredVectors(QUERY_COUNT, dimension, 64);
+    }
+
+    private static SemanticIndex createIndex(IndexKind kind) {
+        switch (kind) {
+            case INT8:
+                return new QuantizedSemanticIndex(RagConfig.VectorQuantization.INT8, 4, new HeapVectorStorage());
+            case HNSW:
+                return new HnswSemanticIndex(RagConfig.defaults(), new HeapVectorStorage());
+            case BRUTE_FORCE:
+            default:
+                return new InMemorySemanticIndex();
+        }
+    }
+
+    @Benchmark
+    public List<ScoredChunk> search() {
+        return index.search(queries[next++ % QUERY_COUNT], 50);
+    }
+}